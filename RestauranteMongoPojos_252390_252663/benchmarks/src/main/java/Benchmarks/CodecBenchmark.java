@@ -0,0 +1,132 @@
+package Benchmarks;
+
+import Conexion.RestauranteCodec;
+import Dominio.Restaurante;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara el rendimiento de codificar y decodificar un {@link Restaurante} con el
+ * {@link RestauranteCodec} escrito a mano y con el codec del PojoCodecProvider automático.
+ * Para medir la memoria asignada por documento, ejecutar con el perfilador de GC:
+ * {@code java -jar target/benchmarks.jar CodecBenchmark -prof gc} (columna gc.alloc.rate.norm).
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CodecBenchmark {
+    // Codec escrito a mano.
+    private Codec<Restaurante> codecManual;
+    // Codec automático basado en reflexión.
+    private Codec<Restaurante> codecPojo;
+    // Restaurante de ejemplo.
+    private Restaurante restaurante;
+    // Documento de ejemplo ya codificado.
+    private byte[] documento;
+    // Buffer reutilizado en cada codificación, para medir solo el costo del codec.
+    private final BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+    // Contextos de codificación y decodificación reutilizados.
+    private static final EncoderContext CONTEXTO_CODIFICACION = EncoderContext.builder().build();
+    private static final DecoderContext CONTEXTO_DECODIFICACION = DecoderContext.builder().build();
+    /**
+     * Prepara los codecs y el restaurante de ejemplo.
+     */
+    @Setup
+    public void preparar() {
+        codecManual = new RestauranteCodec();
+        CodecRegistry registroPojo = CodecRegistries.fromRegistries(
+                com.mongodb.MongoClientSettings.getDefaultCodecRegistry(),
+                CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+        codecPojo = registroPojo.get(Restaurante.class);
+        restaurante = new Restaurante(new ObjectId(), "Mariscos El Berna", LocalDate.of(2021, 8, 25), 4.5,
+                Arrays.asList("Mariscos", "Cerveza", "Familiar", "Al aire libre"));
+        documento = codificar(codecManual, restaurante, new BasicOutputBuffer());
+    }
+    /**
+     * Codifica con el codec escrito a mano.
+     * @return Tamaño del documento codificado.
+     */
+    @Benchmark
+    public int codificarManual() {return codificarEnBuffer(codecManual);}
+    /**
+     * Codifica con el codec automático.
+     * @return Tamaño del documento codificado.
+     */
+    @Benchmark
+    public int codificarPojo() {return codificarEnBuffer(codecPojo);}
+    /**
+     * Decodifica con el codec escrito a mano.
+     * @return Restaurante decodificado.
+     */
+    @Benchmark
+    public Restaurante decodificarManual() {return decodificar(codecManual, documento);}
+    /**
+     * Decodifica con el codec automático.
+     * @return Restaurante decodificado.
+     */
+    @Benchmark
+    public Restaurante decodificarPojo() {return decodificar(codecPojo, documento);}
+    /**
+     * Codifica el restaurante de ejemplo en el buffer reutilizado.
+     * @param codec Codec a usar.
+     * @return Tamaño del documento codificado.
+     */
+    private int codificarEnBuffer(Codec<Restaurante> codec) {
+        buffer.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, restaurante, CONTEXTO_CODIFICACION);
+        }
+        return buffer.getPosition();
+    }
+    /**
+     * Codifica un restaurante a bytes BSON.
+     * @param codec Codec a usar.
+     * @param restaurante Restaurante a codificar.
+     * @param buffer Buffer donde se codifica.
+     * @return Documento codificado.
+     */
+    static byte[] codificar(Codec<Restaurante> codec, Restaurante restaurante, BasicOutputBuffer buffer) {
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, restaurante, CONTEXTO_CODIFICACION);
+        }
+        return buffer.toByteArray();
+    }
+    /**
+     * Decodifica un restaurante de bytes BSON.
+     * @param codec Codec a usar.
+     * @param documento Documento codificado.
+     * @return Restaurante decodificado.
+     */
+    static Restaurante decodificar(Codec<Restaurante> codec, byte[] documento) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(documento))) {
+            return codec.decode(reader, CONTEXTO_DECODIFICACION);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package Benchmarks;
+
+import Dominio.Restaurante;
+import Negocio.RestauranteDTO;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.bson.types.ObjectId;
+
+/**
+ * Genera restaurantes sintéticos para los benchmarks. Con la misma semilla se generan
+ * siempre los mismos datos, para que las mediciones de distintas ejecuciones sean comparables.
+ * Los nombres tienen la forma {@code <prefijo>-000123}, las categorías se eligen entre
+ * {@link #CATEGORIAS}, el rating va de 0.0 a 5.0 con un decimal y la fecha de inauguración
+ * cae entre {@link #ANIO_MINIMO} y {@link #ANIO_MAXIMO}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class DatosSinteticos {
+    // Categorías disponibles; las primeras son las más frecuentes.
+    public static final List<String> CATEGORIAS = List.of(
+            "Mexicana", "Mariscos", "Tacos", "Familiar", "Cafetería", "Italiana", "Pizza", "Cerveza",
+            "Vegetariana", "Postres", "Comida rápida", "Japonesa", "Sushi", "Al aire libre", "Buffet",
+            "Hamburguesas", "Cortes", "China", "Desayunos", "Bar");
+    // Años mínimo y máximo de inauguración.
+    public static final int ANIO_MINIMO = 1990;
+    public static final int ANIO_MAXIMO = 2024;
+    // Cantidad máxima de categorías por restaurante.
+    private static final int MAXIMO_CATEGORIAS = 4;
+    /**
+     * Contructor por defecto.
+     */
+    private DatosSinteticos(){}
+    /**
+     * Genera restaurantes como entidades, cada uno con su ID.
+     * @param cantidad Cantidad de restaurantes.
+     * @param prefijo Prefijo de los nombres.
+     * @param semilla Semilla del generador.
+     * @return Restaurantes generados.
+     */
+    public static List<Restaurante> restaurantes(int cantidad, String prefijo, long semilla) {
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        List<Restaurante> restaurantes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++)
+            restaurantes.add(new Restaurante(new ObjectId(), nombre(prefijo, i), fecha(aleatorio), rating(aleatorio), categorias(aleatorio)));
+        return restaurantes;
+    }
+    /**
+     * Genera restaurantes como DTOs, sin ID, listos para insertarse.
+     * @param cantidad Cantidad de restaurantes.
+     * @param prefijo Prefijo de los nombres.
+     * @param semilla Semilla del generador.
+     * @return Restaurantes generados.
+     */
+    public static List<RestauranteDTO> dtos(int cantidad, String prefijo, long semilla) {
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        List<RestauranteDTO> restaurantes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++)
+            restaurantes.add(new RestauranteDTO(null, nombre(prefijo, i), fecha(aleatorio), rating(aleatorio), categorias(aleatorio)));
+        return restaurantes;
+    }
+    /**
+     * Construye el nombre del restaurante con el número indicado.
+     * @param prefijo Prefijo del nombre.
+     * @param numero Número del restaurante.
+     * @return Nombre del restaurante.
+     */
+    public static String nombre(String prefijo, int numero) {
+        return prefijo + "-" + String.format("%06d", numero);
+    }
+    /**
+     * Genera una fecha de inauguración.
+     * @param aleatorio Generador a usar.
+     * @return Fecha entre el 1 de enero de {@link #ANIO_MINIMO} y el 31 de diciembre de {@link #ANIO_MAXIMO}.
+     */
+    private static LocalDate fecha(SplittableRandom aleatorio) {
+        long inicio = LocalDate.of(ANIO_MINIMO, 1, 1).toEpochDay();
+        long fin = LocalDate.of(ANIO_MAXIMO, 12, 31).toEpochDay();
+        return LocalDate.ofEpochDay(aleatorio.nextLong(inicio, fin + 1));
+    }
+    /**
+     * Genera un rating.
+     * @param aleatorio Generador a usar.
+     * @return Rating de 0.0 a 5.0, con un decimal.
+     */
+    private static double rating(SplittableRandom aleatorio) {
+        return aleatorio.nextInt(51) / 10.0;
+    }
+    /**
+     * Genera las categorías de un restaurante, sin repetir. Se eligen con sesgo hacia el
+     * inicio de {@link #CATEGORIAS}, como en un catálogo real donde pocas categorías dominan.
+     * @param aleatorio Generador a usar.
+     * @return De una a {@value #MAXIMO_CATEGORIAS} categorías.
+     */
+    private static List<String> categorias(SplittableRandom aleatorio) {
+        int cantidad = aleatorio.nextInt(1, MAXIMO_CATEGORIAS + 1);
+        List<String> categorias = new ArrayList<>(cantidad);
+        while (categorias.size() < cantidad) {
+            // El mínimo de dos valores uniformes favorece los índices bajos.
+            int indice = Math.min(aleatorio.nextInt(CATEGORIAS.size()), aleatorio.nextInt(CATEGORIAS.size()));
+            String categoria = CATEGORIAS.get(indice);
+            if (!categorias.contains(categoria))
+                categorias.add(categoria);
+        }
+        return categorias;
+    }
+}
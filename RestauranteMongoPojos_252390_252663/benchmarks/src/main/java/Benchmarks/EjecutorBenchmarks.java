@@ -0,0 +1,37 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks con el perfilador de GC siempre activo, para que cada resultado
+ * incluya, además del throughput y los percentiles de latencia, la memoria asignada por
+ * operación (gc.alloc.rate.norm). Acepta las mismas opciones que el jar de JMH, por ejemplo:
+ * {@code java -cp target/benchmarks.jar Benchmarks.EjecutorBenchmarks MapperBenchmark -rf json}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EjecutorBenchmarks {
+    /**
+     * Contructor por defecto.
+     */
+    private EjecutorBenchmarks(){}
+    /**
+     * Método principal.
+     * @param args Opciones de JMH, incluidos los patrones de los benchmarks a ejecutar.
+     * @throws CommandLineOptionException Si las opciones no son válidas.
+     * @throws RunnerException Si algún benchmark falla.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options opciones = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,66 @@
+package Benchmarks;
+
+import Dominio.Restaurante;
+import Negocio.Mapper;
+import Negocio.RestauranteDTO;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide la conversión de entidades a DTOs con {@link Mapper}: de un solo restaurante y de una
+ * lista completa con {@link Mapper#toDTOs(List)}, como las consultas de RestauranteBO. Las listas
+ * grandes y las vistas se comparan en {@link MapperListasBenchmark}. No requiere MongoDB. Para la memoria asignada, ejecutar con {@code -prof gc}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+    // Cantidad de restaurantes de la lista convertida.
+    @Param({"100", "10000"})
+    private int cantidad;
+    // Restaurantes a convertir.
+    private List<Restaurante> restaurantes;
+    // Posición del siguiente restaurante convertido individualmente.
+    private int siguiente;
+    /**
+     * Genera los restaurantes a convertir.
+     */
+    @Setup
+    public void preparar() {
+        restaurantes = DatosSinteticos.restaurantes(cantidad, "Mapper", 42);
+    }
+    /**
+     * Convierte un restaurante, recorriendo la lista para no medir siempre el mismo objeto.
+     * @return DTO convertido.
+     */
+    @Benchmark
+    public RestauranteDTO convertirUno() {
+        Restaurante restaurante = restaurantes.get(siguiente);
+        siguiente = siguiente + 1 == restaurantes.size() ? 0 : siguiente + 1;
+        return Mapper.toDTO(restaurante);
+    }
+    /**
+     * Convierte la lista completa como lo hacen las consultas de RestauranteBO.
+     * @return DTOs convertidos.
+     */
+    @Benchmark
+    public List<RestauranteDTO> convertirLista() {
+        return Mapper.toDTOs(restaurantes);
+    }
+}
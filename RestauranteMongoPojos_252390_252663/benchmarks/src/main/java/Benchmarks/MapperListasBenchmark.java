@@ -0,0 +1,104 @@
+package Benchmarks;
+
+import Dominio.Restaurante;
+import Negocio.Mapper;
+import Negocio.RestauranteDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compara las formas de convertir listas grandes de entidades con {@link Mapper}: el ciclo sin
+ * prealocar que usaban las consultas de RestauranteBO, {@link Mapper#toDTOs(List, int)} forzado a
+ * secuencial y a paralelo, {@link Mapper#toDTOs(List)} con el umbral por defecto y las vistas de
+ * {@link Mapper#toVistas(List)}. Como los DTOs convierten el ID hasta que se lee, también se mide
+ * la conversión leyendo el ID de cada DTO. Con los resultados se elige {@link Mapper#UMBRAL_PARALELO}.
+ * No requiere MongoDB. Para la memoria asignada, ejecutar con {@link EjecutorBenchmarks}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperListasBenchmark {
+    // Cantidad de restaurantes de la lista convertida.
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int cantidad;
+    // Restaurantes a convertir.
+    private List<Restaurante> restaurantes;
+    /**
+     * Genera los restaurantes a convertir.
+     */
+    @Setup
+    public void preparar() {
+        restaurantes = DatosSinteticos.restaurantes(cantidad, "Mapper", 42);
+    }
+    /**
+     * Convierte la lista con el ciclo sin prealocar que usaban las consultas de RestauranteBO.
+     * @return DTOs convertidos.
+     */
+    @Benchmark
+    public List<RestauranteDTO> cicloSinPrealocar() {
+        List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
+        for (Restaurante restaurante : restaurantes)
+            restaurantesEncontrados.add(Mapper.toDTO(restaurante));
+        return restaurantesEncontrados;
+    }
+    /**
+     * Convierte la lista en el hilo que llama, sobre una lista prealocada.
+     * @return DTOs convertidos.
+     */
+    @Benchmark
+    public List<RestauranteDTO> secuencial() {
+        return Mapper.toDTOs(restaurantes, Integer.MAX_VALUE);
+    }
+    /**
+     * Convierte la lista en paralelo, sin importar su tamaño.
+     * @return DTOs convertidos.
+     */
+    @Benchmark
+    public List<RestauranteDTO> paralelo() {
+        return Mapper.toDTOs(restaurantes, 0);
+    }
+    /**
+     * Convierte la lista con el umbral por defecto, como las consultas de RestauranteBO.
+     * @return DTOs convertidos.
+     */
+    @Benchmark
+    public List<RestauranteDTO> umbralPorDefecto() {
+        return Mapper.toDTOs(restaurantes);
+    }
+    /**
+     * Convierte la lista con el umbral por defecto y lee el ID de cada DTO, como la presentación
+     * que muestra todos los IDs.
+     * @param agujero Consumidor de los IDs, para que no se eliminen.
+     */
+    @Benchmark
+    public void umbralPorDefectoLeyendoIds(Blackhole agujero) {
+        for (RestauranteDTO dto : Mapper.toDTOs(restaurantes))
+            agujero.consume(dto.getId());
+    }
+    /**
+     * Envuelve cada restaurante en una vista, sin copiar sus atributos.
+     * @return Vistas de los restaurantes.
+     */
+    @Benchmark
+    public List<RestauranteDTO> vistas() {
+        return Mapper.toVistas(restaurantes);
+    }
+}
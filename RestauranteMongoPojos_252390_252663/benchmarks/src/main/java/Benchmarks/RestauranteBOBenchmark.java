@@ -0,0 +1,156 @@
+package Benchmarks;
+
+import Conexion.Conexion;
+import Conexion.ConfiguracionConexion;
+import Negocio.IRestauranteBO;
+import Negocio.NegocioException;
+import Negocio.RestauranteBO;
+import Negocio.RestauranteDTO;
+import com.mongodb.client.model.Filters;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide las operaciones más usadas de {@link RestauranteBO} contra un MongoDB local, sembrado
+ * con {@code cantidad} restaurantes sintéticos de {@link DatosSinteticos}: la inserción de un
+ * lote con insertarVarios y las consultas por categoría, por rango de rating y por fecha.
+ * <p>
+ * Cada medición reporta el throughput y la distribución de la latencia (modo SampleTime, con
+ * p99 y p99.9); la memoria asignada por operación se obtiene con {@code -prof gc}, o ejecutando
+ * {@link EjecutorBenchmarks}, que lo agrega. La colección se vacía al sembrar, por lo que solo
+ * se permite una base de datos cuyo nombre contenga {@value #MARCA_BASE_DATOS}; el fork ya usa
+ * {@code mongo.dbName=restaurantes_benchmark} y la URL se cambia con
+ * {@code -jvmArgsAppend -Dmongo.url=...}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Dmongo.dbName=restaurantes_benchmark", "-Dmongo.serverSelectionTimeoutMS=5000"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RestauranteBOBenchmark {
+    // Texto que debe contener el nombre de la base de datos para poder vaciarla.
+    public static final String MARCA_BASE_DATOS = "benchmark";
+    // Prefijo de los restaurantes sembrados y de los insertados durante la medición.
+    private static final String PREFIJO_SEMBRADOS = "Sembrado";
+    private static final String PREFIJO_INSERTADOS = "Insertado";
+    // Cantidad de restaurantes sembrados.
+    @Param({"10000"})
+    private int cantidad;
+    // Negocio medido.
+    private IRestauranteBO negocio;
+    /**
+     * Estado de los benchmarks de inserción: prepara antes de cada llamada un lote con nombres
+     * nuevos, para que el índice único de nombre no los rechace.
+     */
+    @State(Scope.Thread)
+    public static class LoteInsercion {
+        // Cantidad de restaurantes por lote.
+        @Param({"100"})
+        private int tamanoLote;
+        // Lote a insertar en la siguiente llamada.
+        private List<RestauranteDTO> lote;
+        // Número del siguiente lote.
+        private int numero;
+        /**
+         * Genera el siguiente lote, fuera de la medición.
+         */
+        @Setup(Level.Invocation)
+        public void preparar() {
+            lote = DatosSinteticos.dtos(tamanoLote, PREFIJO_INSERTADOS + "-" + Thread.currentThread().threadId() + "-" + numero, numero);
+            numero++;
+        }
+    }
+    /**
+     * Estado de la consulta por categoría. La categoría se parametriza aquí y no en el estado
+     * principal para que solo esa consulta se ejecute una vez por categoría; los demás benchmarks
+     * no dependen de ella y repetirlos solo volvería a sembrar la colección.
+     */
+    @State(Scope.Benchmark)
+    public static class ConsultaCategoria {
+        // Categoría consultada: la más frecuente o una poco frecuente.
+        @Param({"Mexicana", "Bar"})
+        private String categoria;
+    }
+    /**
+     * Verifica la base de datos y la siembra con los restaurantes sintéticos.
+     * @throws NegocioException Si no es posible sembrar la base de datos.
+     */
+    @Setup(Level.Trial)
+    public void sembrar() throws NegocioException {
+        String baseDatos = ConfiguracionConexion.cargar().getNombreBaseDatos();
+        if (!baseDatos.contains(MARCA_BASE_DATOS))
+            throw new IllegalStateException("El benchmark vacía la colección de restaurantes; la base de datos "
+                    + baseDatos + " no contiene \"" + MARCA_BASE_DATOS + "\" en su nombre.");
+        negocio = RestauranteBO.getInstance();
+        Conexion.getColeccionRestaurantes().deleteMany(new Document());
+        negocio.insertarMasivo(DatosSinteticos.dtos(cantidad, PREFIJO_SEMBRADOS, 42), 1_000);
+    }
+    /**
+     * Remueve los restaurantes insertados en la iteración, para que todas midan la misma colección.
+     */
+    @TearDown(Level.Iteration)
+    public void removerInsertados() {
+        Conexion.getColeccionRestaurantes().deleteMany(Filters.regex("nombre", "^" + PREFIJO_INSERTADOS + "-"));
+    }
+    /**
+     * Cierra la conexión con la base de datos.
+     */
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        Conexion.cerrarConexion();
+    }
+    /**
+     * Inserta un lote de restaurantes.
+     * @param lote Lote a insertar.
+     * @throws NegocioException Si la inserción falla.
+     */
+    @Benchmark
+    public void insertarVarios(LoteInsercion lote) throws NegocioException {
+        negocio.insertarVarios(lote.lote);
+    }
+    /**
+     * Consulta los restaurantes de una categoría.
+     * @param consulta Categoría a consultar.
+     * @return Restaurantes encontrados.
+     * @throws NegocioException Si la consulta falla.
+     */
+    @Benchmark
+    public List<RestauranteDTO> consultarPorCategoria(ConsultaCategoria consulta) throws NegocioException {
+        return negocio.consultarPorCategoria(consulta.categoria);
+    }
+    /**
+     * Consulta los restaurantes con rating entre 4.0 y 4.5 (alrededor del 10% de la colección).
+     * @return Restaurantes encontrados.
+     * @throws NegocioException Si la consulta falla.
+     */
+    @Benchmark
+    public List<RestauranteDTO> consultarPorRangoRating() throws NegocioException {
+        return negocio.consultarPorRangoRating(4.0, 4.5);
+    }
+    /**
+     * Consulta, ordenados por fecha, los restaurantes inaugurados desde 2020 (alrededor del 14% de la colección).
+     * @return Restaurantes encontrados.
+     * @throws NegocioException Si la consulta falla.
+     */
+    @Benchmark
+    public List<RestauranteDTO> consultarPorFechaDesdeOrdenado() throws NegocioException {
+        return negocio.consultarPorFechaDesdeOrdenado(2020, true);
+    }
+}
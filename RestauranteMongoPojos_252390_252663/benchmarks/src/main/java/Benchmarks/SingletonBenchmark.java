@@ -0,0 +1,133 @@
+package Benchmarks;
+
+import Conexion.Conexion;
+import Conexion.ConfiguracionConexion;
+import Dominio.Restaurante;
+import Negocio.IRestauranteBO;
+import Negocio.RestauranteBO;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el costo de obtener las instancias SingleTon de Conexion y RestauranteBO
+ * con 64 hilos concurrentes, comparando el patrón anterior (método static synchronized
+ * que además reconstruía el MongoDatabase en cada llamada) con la clase contenedora actual.
+ * Las instancias se crean en el Setup, fuera de la medición. Sin un servidor MongoDB
+ * disponible, la verificación de índices del DAO espera la selección de servidor; conviene
+ * ejecutar con -Dmongo.serverSelectionTimeoutMS=1000 en ese caso.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SingletonBenchmark {
+    /**
+     * Réplica del patrón anterior de Conexion.getDatabase().
+     */
+    private static final class ConexionSincronizada {
+        // Cliente de MongoDB.
+        private static MongoClient mongoClient = null;
+        // Configuración de la conexión.
+        private static final ConfiguracionConexion CONFIGURACION = ConfiguracionConexion.cargar();
+        /**
+         * Retorna la base de datos, sincronizando cada llamada en el monitor de la clase.
+         * @return Base de datos.
+         */
+        static synchronized MongoDatabase getDatabase() {
+            if (mongoClient == null)
+                mongoClient = MongoClients.create(CONFIGURACION.getUrl());
+            return mongoClient.getDatabase(CONFIGURACION.getNombreBaseDatos());
+        }
+        /**
+         * Cierra el cliente, si fue creado.
+         */
+        static synchronized void cerrar() {
+            if (mongoClient != null)
+                mongoClient.close();
+        }
+    }
+    /**
+     * Réplica del patrón anterior de RestauranteBO.getInstance().
+     */
+    private static final class NegocioSincronizado {
+        // Instancia de negocio.
+        private static IRestauranteBO instance;
+        /**
+         * Retorna la instancia, sincronizando cada llamada en el monitor de la clase.
+         * @return Instancia de negocio.
+         */
+        static synchronized IRestauranteBO getInstance() {
+            if (instance == null)
+                instance = RestauranteBO.getInstance();
+            return instance;
+        }
+    }
+    /**
+     * Crea todas las instancias antes de medir.
+     */
+    @Setup(Level.Trial)
+    public void crearInstancias() {
+        ConexionSincronizada.getDatabase();
+        Conexion.getDatabase();
+        NegocioSincronizado.getInstance();
+    }
+    /**
+     * Cierra los clientes creados.
+     */
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        ConexionSincronizada.cerrar();
+        Conexion.cerrarConexion();
+    }
+    /**
+     * Patrón anterior: static synchronized y nuevo MongoDatabase en cada llamada.
+     * @return Base de datos.
+     */
+    @Benchmark
+    public MongoDatabase conexionSincronizada() {return ConexionSincronizada.getDatabase();}
+    /**
+     * Patrón actual: clase contenedora con la base de datos ya configurada.
+     * @return Base de datos.
+     */
+    @Benchmark
+    public MongoDatabase conexionContenedora() {return Conexion.getDatabase();}
+    /**
+     * Patrón actual: colección de restaurantes cacheada.
+     * @return Colección de restaurantes.
+     */
+    @Benchmark
+    public MongoCollection<Restaurante> coleccionContenedora() {return Conexion.getColeccionRestaurantes();}
+    /**
+     * Patrón anterior de RestauranteBO.getInstance().
+     * @return Instancia de negocio.
+     */
+    @Benchmark
+    public IRestauranteBO negocioSincronizado() {return NegocioSincronizado.getInstance();}
+    /**
+     * Patrón actual de RestauranteBO.getInstance().
+     * @return Instancia de negocio.
+     */
+    @Benchmark
+    public IRestauranteBO negocioContenedor() {return RestauranteBO.getInstance();}
+}
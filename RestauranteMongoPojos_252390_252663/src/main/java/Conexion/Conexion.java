@@ -1,5 +1,8 @@
 package Conexion;
 
+import Dominio.Restaurante;
+import Metricas.MonitorDriver;
+import Metricas.RegistroMetricas;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.*;
 import org.bson.codecs.configuration.CodecRegistries;
@@ -12,44 +15,129 @@ import org.bson.codecs.pojo.PojoCodecProvider;
  * @author Jesús Ernesto López Ibarra (252663)
  */
 public class Conexion {
-    // Atributo estático de la clase.
-    private static MongoClient mongoClient = null;
-    // URL de MongoDB local.
-    private static final String URL = "mongodb://localhost:27017";
+    // Configuración externa de la conexión (archivo, variables de entorno y propiedades del sistema).
+    private static final ConfiguracionConexion CONFIGURACION = ConfiguracionConexion.cargar();
+    // URL de MongoDB.
+    private static final String URL = CONFIGURACION.getUrl();
     // Nombre de la base de datos.
-    private static final String DBName = "GestionRestaurantes"; 
+    private static final String DBName = CONFIGURACION.getNombreBaseDatos();
+    // Nombre de la colección de restaurantes.
+    private static final String COLECCION_RESTAURANTES = "restaurantes";
+    // Indica si cada cliente ya fue creado, para cerrarlo solo en ese caso.
+    private static volatile boolean iniciada = false;
+    private static volatile boolean iniciadaReactiva = false;
     /**
      * Contructor por defecto.
      */
     private Conexion(){}
     /**
-     * Retorna la instancia SingleTon de la clase.
-     * Si la instancia aún no existe, es creada, estableciendo
+     * Clase contenedora de la instancia SingleTon. La JVM la inicializa una sola vez,
+     * de forma segura entre hilos, la primera vez que se accede a ella; a partir de
+     * entonces la lectura de sus campos no requiere sincronización.
+     */
+    private static final class Instancia {
+        // Cliente de MongoDB.
+        private static final MongoClient CLIENTE;
+        // Base de datos, ya configurada con el registro de codecs.
+        private static final MongoDatabase DATABASE;
+        // Colección de restaurantes, mapeada a la entidad Restaurante.
+        private static final MongoCollection<Restaurante> RESTAURANTES;
+        static {
+            CLIENTE = MongoClients.create(configuracionCliente());
+            DATABASE = CLIENTE.getDatabase(DBName).withCodecRegistry(REGISTRO_CODECS);
+            RESTAURANTES = DATABASE.getCollection(COLECCION_RESTAURANTES, Restaurante.class);
+            iniciada = true;
+        }
+    }
+    /**
+     * Clase contenedora del cliente del driver reactivo. Se crea solo si se usa el DAO
+     * reactivo, con la misma configuración que el cliente síncrono.
+     */
+    private static final class InstanciaReactiva {
+        // Cliente reactivo de MongoDB.
+        private static final com.mongodb.reactivestreams.client.MongoClient CLIENTE;
+        // Base de datos, ya configurada con el registro de codecs.
+        private static final com.mongodb.reactivestreams.client.MongoDatabase DATABASE;
+        // Colección de restaurantes, mapeada a la entidad Restaurante.
+        private static final com.mongodb.reactivestreams.client.MongoCollection<Restaurante> RESTAURANTES;
+        static {
+            CLIENTE = com.mongodb.reactivestreams.client.MongoClients.create(configuracionCliente());
+            DATABASE = CLIENTE.getDatabase(DBName).withCodecRegistry(REGISTRO_CODECS);
+            RESTAURANTES = DATABASE.getCollection(COLECCION_RESTAURANTES, Restaurante.class);
+            iniciadaReactiva = true;
+        }
+    }
+    /**
+     * Clase contenedora del monitor del driver, compartido por los clientes síncrono y reactivo
+     * para que sus métricas se sumen; se crea la primera vez que se usa.
+     */
+    private static final class Monitor {
+        // Monitor sobre el registro global de métricas.
+        private static final MonitorDriver INSTANCIA = new MonitorDriver(RegistroMetricas.global());
+    }
+    // El codec escrito a mano para Restaurante se registra antes que el proveedor
+    // automático de POJOs, por lo que tiene precedencia sobre él.
+    private static final CodecRegistry REGISTRO_CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new RestauranteCodec()),
+            MongoClientSettings.getDefaultCodecRegistry(),
+            CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())
+    );
+    /**
+     * Construye la configuración de los clientes: cadena de conexión y opciones de pool, sockets,
+     * compresión, preferencia de lectura y confirmación de escritura configuradas, más el registro de codecs.
+     * Salvo que se desactive con {@value ConfiguracionConexion#METRICAS_DRIVER}, registra además el
+     * {@link MonitorDriver} que publica las métricas de comandos, pool y servidores.
+     * @return Configuración del cliente.
+     */
+    private static MongoClientSettings configuracionCliente() {
+        MongoClientSettings.Builder builder = CONFIGURACION.aplicar(MongoClientSettings.builder()).codecRegistry(REGISTRO_CODECS);
+        // Monitor del driver, activo por defecto.
+        String monitor = CONFIGURACION.obtener(ConfiguracionConexion.METRICAS_DRIVER);
+        if (monitor == null || Boolean.parseBoolean(monitor))
+            Monitor.INSTANCIA.aplicar(builder);
+        return builder.build();
+    }
+    /**
+     * Retorna la base de datos SingleTon de la clase.
+     * Si aún no existe, es creada, estableciendo
      * las configuraciones necesarias para crear una conexión
-     * con la base de datos.
+     * con la base de datos, leídas de {@link ConfiguracionConexion}.
+     * Las llamadas posteriores solo leen la instancia ya creada, sin bloqueos.
      * @return Base de datos
      */
-    public synchronized static MongoDatabase getDatabase(){
-        if (mongoClient == null){
-            CodecRegistry pojoCodecRegistry = CodecRegistries.fromRegistries(
-                MongoClientSettings.getDefaultCodecRegistry(),
-                CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())
-            );
-    
-            MongoClientSettings clientSettings = MongoClientSettings.builder()
-                    .applyConnectionString(new com.mongodb.ConnectionString(URL))
-                    .codecRegistry(pojoCodecRegistry).build();
-
-            mongoClient = MongoClients.create(clientSettings);
-            return mongoClient.getDatabase(DBName).withCodecRegistry(pojoCodecRegistry);
-        }
-      return mongoClient.getDatabase(DBName);
+    public static MongoDatabase getDatabase(){
+        return Instancia.DATABASE;
+    }
+    /**
+     * Retorna la colección de restaurantes, mapeada a la entidad {@link Restaurante}.
+     * La colección se crea una sola vez junto con la base de datos.
+     * @return Colección de restaurantes.
+     */
+    public static MongoCollection<Restaurante> getColeccionRestaurantes(){
+        return Instancia.RESTAURANTES;
+    }
+    /**
+     * Retorna la colección de restaurantes del driver reactivo, mapeada a la entidad {@link Restaurante}.
+     * El cliente reactivo se crea la primera vez que se llama a este método.
+     * @return Colección reactiva de restaurantes.
+     */
+    public static com.mongodb.reactivestreams.client.MongoCollection<Restaurante> getColeccionRestaurantesReactiva(){
+        return InstanciaReactiva.RESTAURANTES;
+    }
+    /**
+     * Retorna la base de datos del driver reactivo, configurada con el registro de codecs.
+     * @return Base de datos reactiva.
+     */
+    public static com.mongodb.reactivestreams.client.MongoDatabase getDatabaseReactiva(){
+        return InstanciaReactiva.DATABASE;
     }
     /**
-     * Cierra la conexión con la base de datos.
+     * Cierra las conexiones con la base de datos de los clientes que fueron creados.
      */
     public static void cerrarConexion(){
-        if(mongoClient != null)
-            mongoClient.close();
+        if(iniciada)
+            Instancia.CLIENTE.close();
+        if(iniciadaReactiva)
+            InstanciaReactiva.CLIENTE.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package Conexion;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase que reúne la configuración de la conexión con MongoDB a partir de fuentes externas.
+ * Los valores se leen por capas, donde cada capa sobrescribe a la anterior:
+ * <ol>
+ *     <li>El archivo {@value #ARCHIVO} del classpath, o el archivo indicado en {@value #ARCHIVO_EXTERNO}.</li>
+ *     <li>Variables de entorno: la clave en mayúsculas con puntos cambiados por guiones bajos
+ *     (por ejemplo, {@code mongo.pool.maxSize} se lee de {@code MONGO_POOL_MAXSIZE}).</li>
+ *     <li>Propiedades del sistema con la misma clave (por ejemplo, {@code -Dmongo.pool.maxSize=50}).</li>
+ * </ol>
+ * Las opciones que no se configuran conservan el valor de la cadena de conexión o del driver.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ConfiguracionConexion {
+    // Archivo de configuración buscado en el classpath.
+    public static final String ARCHIVO = "conexion.properties";
+    // Clave con la ruta de un archivo de configuración externo, que reemplaza al del classpath.
+    public static final String ARCHIVO_EXTERNO = "mongo.config";
+    // Claves de configuración.
+    public static final String URL = "mongo.url";
+    public static final String DB_NAME = "mongo.dbName";
+    public static final String POOL_MAX_SIZE = "mongo.pool.maxSize";
+    public static final String POOL_MIN_SIZE = "mongo.pool.minSize";
+    public static final String POOL_MAX_WAIT_TIME_MS = "mongo.pool.maxWaitTimeMS";
+    public static final String POOL_MAX_CONNECTING = "mongo.pool.maxConnecting";
+    public static final String POOL_MAX_IDLE_TIME_MS = "mongo.pool.maxConnectionIdleTimeMS";
+    public static final String POOL_MAX_LIFE_TIME_MS = "mongo.pool.maxConnectionLifeTimeMS";
+    public static final String SOCKET_CONNECT_TIMEOUT_MS = "mongo.socket.connectTimeoutMS";
+    public static final String SOCKET_READ_TIMEOUT_MS = "mongo.socket.readTimeoutMS";
+    public static final String SERVER_SELECTION_TIMEOUT_MS = "mongo.serverSelectionTimeoutMS";
+    public static final String COMPRESORES = "mongo.compressors";
+    public static final String ZLIB_NIVEL = "mongo.zlib.level";
+    public static final String READ_PREFERENCE = "mongo.readPreference";
+    public static final String WRITE_CONCERN = "mongo.writeConcern";
+    public static final String WRITE_CONCERN_JOURNAL = "mongo.writeConcern.journal";
+    public static final String WRITE_CONCERN_TIMEOUT_MS = "mongo.writeConcern.wTimeoutMS";
+    public static final String DAO_BACKEND = "mongo.dao.backend";
+    public static final String DAO_DECORADORES = "mongo.dao.decoradores";
+    public static final String DAO_REINTENTOS = "mongo.dao.reintentos.intentos";
+    public static final String DAO_REINTENTOS_ESPERA_MS = "mongo.dao.reintentos.esperaMS";
+    public static final String DAO_REINTENTOS_ESPERA_MAXIMA_MS = "mongo.dao.reintentos.esperaMaximaMS";
+    public static final String METRICAS_UMBRAL_LENTA_MS = "mongo.metricas.umbralLentaMS";
+    public static final String METRICAS_JMX = "mongo.metricas.jmx";
+    public static final String METRICAS_PERIODO_EXPORTACION_MS = "mongo.metricas.periodoExportacionMS";
+    public static final String METRICAS_DRIVER = "mongo.metricas.driver";
+    // Valores por defecto de la URL y la base de datos.
+    private static final String URL_POR_DEFECTO = "mongodb://localhost:27017";
+    private static final String DB_NAME_POR_DEFECTO = "GestionRestaurantes";
+    // Claves que pueden sobrescribirse por variables de entorno o propiedades del sistema.
+    private static final String[] CLAVES = {
+        URL, DB_NAME, POOL_MAX_SIZE, POOL_MIN_SIZE, POOL_MAX_WAIT_TIME_MS, POOL_MAX_CONNECTING,
+        POOL_MAX_IDLE_TIME_MS, POOL_MAX_LIFE_TIME_MS, SOCKET_CONNECT_TIMEOUT_MS, SOCKET_READ_TIMEOUT_MS,
+        SERVER_SELECTION_TIMEOUT_MS, COMPRESORES, ZLIB_NIVEL, READ_PREFERENCE, WRITE_CONCERN,
+        WRITE_CONCERN_JOURNAL, WRITE_CONCERN_TIMEOUT_MS, DAO_BACKEND, DAO_DECORADORES, DAO_REINTENTOS,
+        DAO_REINTENTOS_ESPERA_MS, DAO_REINTENTOS_ESPERA_MAXIMA_MS, METRICAS_UMBRAL_LENTA_MS, METRICAS_JMX,
+        METRICAS_PERIODO_EXPORTACION_MS, METRICAS_DRIVER
+    };
+    // Valores de configuración resueltos.
+    private final Properties propiedades;
+    /**
+     * Constructor que recibe los valores de configuración ya resueltos.
+     * @param propiedades Valores de configuración.
+     */
+    public ConfiguracionConexion(Properties propiedades) {this.propiedades = propiedades;}
+    /**
+     * Carga la configuración combinando el archivo de propiedades, las variables
+     * de entorno y las propiedades del sistema, en ese orden de precedencia.
+     * @return Configuración de la conexión.
+     */
+    public static ConfiguracionConexion cargar() {
+        Properties propiedades = new Properties();
+        // 1. Archivo de propiedades.
+        cargarArchivo(propiedades);
+        // 2. Variables de entorno.
+        for (String clave : CLAVES) {
+            String valor = System.getenv(nombreVariableEntorno(clave));
+            if (valor != null)
+                propiedades.setProperty(clave, valor);
+        }
+        // 3. Propiedades del sistema.
+        for (String clave : CLAVES) {
+            String valor = System.getProperty(clave);
+            if (valor != null)
+                propiedades.setProperty(clave, valor);
+        }
+        return new ConfiguracionConexion(propiedades);
+    }
+    /**
+     * Retorna la URL (cadena de conexión) de MongoDB.
+     * @return URL de MongoDB.
+     */
+    public String getUrl() {return propiedades.getProperty(URL, URL_POR_DEFECTO).trim();}
+    /**
+     * Retorna el nombre de la base de datos.
+     * @return Nombre de la base de datos.
+     */
+    public String getNombreBaseDatos() {return propiedades.getProperty(DB_NAME, DB_NAME_POR_DEFECTO).trim();}
+    /**
+     * Retorna el valor configurado para una clave.
+     * @param clave Clave de configuración.
+     * @return Valor configurado, o null si la clave no está configurada o está vacía.
+     */
+    public String obtener(String clave) {
+        String valor = propiedades.getProperty(clave);
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+    /**
+     * Aplica la configuración al constructor de opciones del cliente. La cadena de
+     * conexión se aplica primero, y las opciones configuradas explícitamente la sobrescriben.
+     * @param builder Constructor de opciones del cliente.
+     * @return El mismo constructor, para encadenar llamadas.
+     * @throws IllegalStateException Si algún valor configurado no es válido.
+     */
+    public MongoClientSettings.Builder aplicar(MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new com.mongodb.ConnectionString(getUrl()));
+        // Pool de conexiones.
+        builder.applyToConnectionPoolSettings(pool -> {
+            Integer maxSize = obtenerEntero(POOL_MAX_SIZE);
+            if (maxSize != null) pool.maxSize(maxSize);
+            Integer minSize = obtenerEntero(POOL_MIN_SIZE);
+            if (minSize != null) pool.minSize(minSize);
+            Long maxWait = obtenerLargo(POOL_MAX_WAIT_TIME_MS);
+            if (maxWait != null) pool.maxWaitTime(maxWait, TimeUnit.MILLISECONDS);
+            Integer maxConnecting = obtenerEntero(POOL_MAX_CONNECTING);
+            if (maxConnecting != null) pool.maxConnecting(maxConnecting);
+            Long maxIdle = obtenerLargo(POOL_MAX_IDLE_TIME_MS);
+            if (maxIdle != null) pool.maxConnectionIdleTime(maxIdle, TimeUnit.MILLISECONDS);
+            Long maxLife = obtenerLargo(POOL_MAX_LIFE_TIME_MS);
+            if (maxLife != null) pool.maxConnectionLifeTime(maxLife, TimeUnit.MILLISECONDS);
+        });
+        // Sockets.
+        builder.applyToSocketSettings(socket -> {
+            Integer connectTimeout = obtenerEntero(SOCKET_CONNECT_TIMEOUT_MS);
+            if (connectTimeout != null) socket.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
+            Integer readTimeout = obtenerEntero(SOCKET_READ_TIMEOUT_MS);
+            if (readTimeout != null) socket.readTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        });
+        // Selección de servidor.
+        Long seleccion = obtenerLargo(SERVER_SELECTION_TIMEOUT_MS);
+        if (seleccion != null)
+            builder.applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(seleccion, TimeUnit.MILLISECONDS));
+        // Compresión del protocolo.
+        List<MongoCompressor> compresores = obtenerCompresores();
+        if (compresores != null)
+            builder.compressorList(compresores);
+        // Preferencia de lectura.
+        String readPreference = obtener(READ_PREFERENCE);
+        if (readPreference != null) {
+            try {
+                builder.readPreference(ReadPreference.valueOf(readPreference));
+            } catch (IllegalArgumentException e) {
+                throw valorInvalido(READ_PREFERENCE, readPreference, e);
+            }
+        }
+        // Nivel de confirmación de escritura.
+        WriteConcern writeConcern = obtenerWriteConcern();
+        if (writeConcern != null)
+            builder.writeConcern(writeConcern);
+        return builder;
+    }
+    /**
+     * Construye la lista de compresores configurados, en orden de preferencia.
+     * Los valores aceptados son zstd, snappy y zlib.
+     * @return Lista de compresores, o null si no están configurados.
+     */
+    private List<MongoCompressor> obtenerCompresores() {
+        String valor = obtener(COMPRESORES);
+        if (valor == null)
+            return null;
+        List<MongoCompressor> compresores = new ArrayList<>();
+        for (String nombre : valor.split(",")) {
+            switch (nombre.trim().toLowerCase(Locale.ROOT)) {
+                case "zstd" -> compresores.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compresores.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> {
+                    MongoCompressor zlib = MongoCompressor.createZlibCompressor();
+                    Integer nivel = obtenerEntero(ZLIB_NIVEL);
+                    compresores.add(nivel == null ? zlib : zlib.withProperty(MongoCompressor.LEVEL, nivel));
+                }
+                case "" -> { }
+                default -> throw valorInvalido(COMPRESORES, valor, null);
+            }
+        }
+        return compresores;
+    }
+    /**
+     * Construye el nivel de confirmación de escritura configurado. El valor
+     * puede ser "majority" o el número de nodos que deben confirmar.
+     * @return Nivel de confirmación de escritura, o null si no está configurado.
+     */
+    private WriteConcern obtenerWriteConcern() {
+        String w = obtener(WRITE_CONCERN);
+        String journal = obtener(WRITE_CONCERN_JOURNAL);
+        Long timeout = obtenerLargo(WRITE_CONCERN_TIMEOUT_MS);
+        if (w == null && journal == null && timeout == null)
+            return null;
+        WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+        if (w != null) {
+            try {
+                writeConcern = w.equalsIgnoreCase("majority") ? WriteConcern.MAJORITY : new WriteConcern(Integer.parseInt(w));
+            } catch (IllegalArgumentException e) {
+                throw valorInvalido(WRITE_CONCERN, w, e);
+            }
+        }
+        if (journal != null)
+            writeConcern = writeConcern.withJournal(Boolean.parseBoolean(journal));
+        if (timeout != null)
+            writeConcern = writeConcern.withWTimeout(timeout, TimeUnit.MILLISECONDS);
+        return writeConcern;
+    }
+    /**
+     * Retorna el valor entero configurado para una clave.
+     * @param clave Clave de configuración.
+     * @return Valor entero, o null si no está configurado.
+     * @throws IllegalStateException Si el valor configurado no es un entero.
+     */
+    public Integer obtenerEntero(String clave) {
+        String valor = obtener(clave);
+        try {
+            return valor == null ? null : Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw valorInvalido(clave, valor, e);
+        }
+    }
+    /**
+     * Retorna el valor largo configurado para una clave.
+     * @param clave Clave de configuración.
+     * @return Valor largo, o null si no está configurado.
+     * @throws IllegalStateException Si el valor configurado no es un entero largo.
+     */
+    public Long obtenerLargo(String clave) {
+        String valor = obtener(clave);
+        try {
+            return valor == null ? null : Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw valorInvalido(clave, valor, e);
+        }
+    }
+    /**
+     * Crea la excepción para un valor de configuración inválido.
+     * @param clave Clave de configuración.
+     * @param valor Valor inválido.
+     * @param causa Causa del error, puede ser null.
+     * @return Excepción a lanzar.
+     */
+    private static IllegalStateException valorInvalido(String clave, String valor, Throwable causa) {
+        return new IllegalStateException("Valor inválido para " + clave + ": " + valor, causa);
+    }
+    /**
+     * Retorna el nombre de la variable de entorno asociada a una clave.
+     * @param clave Clave de configuración.
+     * @return Nombre de la variable de entorno.
+     */
+    private static String nombreVariableEntorno(String clave) {
+        return clave.replace('.', '_').toUpperCase(Locale.ROOT);
+    }
+    /**
+     * Carga el archivo de propiedades externo, si se indicó uno, o el del classpath.
+     * @param propiedades Propiedades donde se cargan los valores.
+     */
+    private static void cargarArchivo(Properties propiedades) {
+        String rutaExterna = System.getProperty(ARCHIVO_EXTERNO, System.getenv(nombreVariableEntorno(ARCHIVO_EXTERNO)));
+        try {
+            if (rutaExterna != null) {
+                try (Reader lector = Files.newBufferedReader(Path.of(rutaExterna), StandardCharsets.UTF_8)) {
+                    propiedades.load(lector);
+                }
+            } else {
+                InputStream entrada = ConfiguracionConexion.class.getClassLoader().getResourceAsStream(ARCHIVO);
+                if (entrada != null) {
+                    try (Reader lector = new InputStreamReader(entrada, StandardCharsets.UTF_8)) {
+                        propiedades.load(lector);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No fue posible leer la configuración de la conexión.", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package Conexion;
+
+import Dominio.Restaurante;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.types.ObjectId;
+
+/**
+ * Codec escrito a mano para la entidad {@link Restaurante}. Lee y escribe los campos BSON
+ * directamente, sin la reflexión ni la introspección de propiedades del PojoCodecProvider
+ * automático, y produce documentos con la misma forma que este: los atributos nulos se omiten
+ * y la fecha de inauguración se guarda como fecha BSON a medianoche UTC.
+ * Al agregar atributos a {@link Restaurante} deben agregarse también aquí.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteCodec implements CollectibleCodec<Restaurante> {
+    // Milisegundos en un día, para convertir entre fechas BSON y LocalDate.
+    private static final long MS_POR_DIA = 86_400_000L;
+    // Capacidad inicial de la lista de categorías (los arreglos BSON no indican su tamaño).
+    private static final int CAPACIDAD_CATEGORIAS = 4;
+    // Nombres de los campos.
+    private static final String ID = "_id";
+    private static final String NOMBRE = "nombre";
+    private static final String FECHA_INAUGURACION = "fechaInauguracion";
+    private static final String RATING = "rating";
+    private static final String CATEGORIAS = "categorias";
+    private static final String CATEGORIAS_NORM = "categoriasNorm";
+    private static final String CLAVE_IDEMPOTENCIA = "claveIdempotencia";
+    /**
+     * Escribe un restaurante como documento BSON.
+     * @param writer Escritor BSON.
+     * @param restaurante Restaurante a escribir.
+     * @param encoderContext Contexto de codificación.
+     */
+    @Override
+    public void encode(BsonWriter writer, Restaurante restaurante, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (restaurante.getId() != null)
+            writer.writeObjectId(ID, restaurante.getId());
+        if (restaurante.getNombre() != null)
+            writer.writeString(NOMBRE, restaurante.getNombre());
+        if (restaurante.getFechaInauguracion() != null)
+            writer.writeDateTime(FECHA_INAUGURACION, restaurante.getFechaInauguracion().toEpochDay() * MS_POR_DIA);
+        if (restaurante.getRating() != null)
+            writer.writeDouble(RATING, restaurante.getRating());
+        if (restaurante.getCategorias() != null)
+            escribirLista(writer, CATEGORIAS, restaurante.getCategorias());
+        if (restaurante.getCategoriasNorm() != null)
+            escribirLista(writer, CATEGORIAS_NORM, restaurante.getCategoriasNorm());
+        if (restaurante.getClaveIdempotencia() != null)
+            writer.writeString(CLAVE_IDEMPOTENCIA, restaurante.getClaveIdempotencia());
+        writer.writeEndDocument();
+    }
+    /**
+     * Lee un restaurante de un documento BSON. Los campos desconocidos se ignoran.
+     * @param reader Lector BSON.
+     * @param decoderContext Contexto de decodificación.
+     * @return Restaurante leído.
+     */
+    @Override
+    public Restaurante decode(BsonReader reader, DecoderContext decoderContext) {
+        Restaurante restaurante = new Restaurante();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String campo = reader.readName();
+            // Los valores nulos dejan el atributo en null.
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (campo) {
+                case ID -> restaurante.setId(reader.readObjectId());
+                case NOMBRE -> restaurante.setNombre(reader.readString());
+                case FECHA_INAUGURACION -> restaurante.setFechaInauguracion(
+                        LocalDate.ofEpochDay(Math.floorDiv(reader.readDateTime(), MS_POR_DIA)));
+                case RATING -> restaurante.setRating(leerNumero(reader));
+                case CATEGORIAS -> restaurante.setCategorias(leerLista(reader, CAPACIDAD_CATEGORIAS));
+                // Las categorías normalizadas tienen, a lo más, tantos elementos como las categorías.
+                case CATEGORIAS_NORM -> restaurante.setCategoriasNorm(leerLista(reader,
+                        restaurante.getCategorias() == null ? CAPACIDAD_CATEGORIAS : restaurante.getCategorias().size()));
+                case CLAVE_IDEMPOTENCIA -> restaurante.setClaveIdempotencia(reader.readString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return restaurante;
+    }
+    /**
+     * Retorna la clase que codifica este codec.
+     * @return Clase Restaurante.
+     */
+    @Override
+    public Class<Restaurante> getEncoderClass() {return Restaurante.class;}
+    /**
+     * Asigna un nuevo ObjectId al restaurante si aún no tiene ID.
+     * @param restaurante Restaurante a insertar.
+     * @return El mismo restaurante, con ID.
+     */
+    @Override
+    public Restaurante generateIdIfAbsentFromDocument(Restaurante restaurante) {
+        if (restaurante.getId() == null)
+            restaurante.setId(new ObjectId());
+        return restaurante;
+    }
+    /**
+     * Indica si el restaurante tiene ID.
+     * @param restaurante Restaurante a revisar.
+     * @return VERDADERO si tiene ID, FALSO en caso contrario.
+     */
+    @Override
+    public boolean documentHasId(Restaurante restaurante) {return restaurante.getId() != null;}
+    /**
+     * Retorna el ID del restaurante como valor BSON.
+     * @param restaurante Restaurante.
+     * @return ID del restaurante.
+     */
+    @Override
+    public BsonValue getDocumentId(Restaurante restaurante) {
+        if (restaurante.getId() == null)
+            throw new IllegalStateException("El restaurante no tiene ID.");
+        return new BsonObjectId(restaurante.getId());
+    }
+    /**
+     * Escribe una lista de textos como arreglo BSON.
+     * @param writer Escritor BSON.
+     * @param campo Nombre del campo.
+     * @param lista Lista a escribir.
+     */
+    private static void escribirLista(BsonWriter writer, String campo, List<String> lista) {
+        writer.writeStartArray(campo);
+        for (String elemento : lista) {
+            if (elemento == null)
+                writer.writeNull();
+            else
+                writer.writeString(elemento);
+        }
+        writer.writeEndArray();
+    }
+    /**
+     * Lee un arreglo BSON de textos.
+     * @param reader Lector BSON.
+     * @param capacidad Capacidad inicial de la lista.
+     * @return Lista leída.
+     */
+    private static List<String> leerLista(BsonReader reader, int capacidad) {
+        List<String> lista = new ArrayList<>(capacidad);
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                lista.add(null);
+            } else
+                lista.add(reader.readString());
+        }
+        reader.readEndArray();
+        return lista;
+    }
+    /**
+     * Lee un número BSON (double, int32 o int64) como Double.
+     * @param reader Lector BSON.
+     * @return Número leído.
+     */
+    private static Double leerNumero(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> reader.readDouble();
+            case INT32 -> (double) reader.readInt32();
+            case INT64 -> (double) reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> throw new CodecConfigurationException("El campo rating no es numérico: " + reader.getCurrentBsonType());
+        };
+    }
+}
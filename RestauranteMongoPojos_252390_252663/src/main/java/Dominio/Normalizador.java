@@ -0,0 +1,51 @@
+package Dominio;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Clase que normaliza textos para compararlos de forma exacta:
+ * sin espacios sobrantes, en minúsculas y sin acentos.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class Normalizador {
+    // Marcas diacríticas que quedan separadas tras la descomposición NFD.
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    /**
+     * Contructor por defecto.
+     */
+    private Normalizador(){}
+    /**
+     * Normaliza un texto: elimina espacios al inicio y al final,
+     * lo convierte a minúsculas y elimina sus acentos.
+     * @param texto Texto a normalizar.
+     * @return Texto normalizado, o null si el texto es null.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null)
+            return null;
+        String descompuesto = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    /**
+     * Normaliza una lista de textos, conservando el orden y omitiendo duplicados.
+     * @param textos Lista de textos a normalizar.
+     * @return Lista de textos normalizados, o null si la lista es null.
+     */
+    public static List<String> normalizar(List<String> textos) {
+        if (textos == null)
+            return null;
+        Set<String> normalizados = new LinkedHashSet<>();
+        for (String texto : textos) {
+            if (texto != null)
+                normalizados.add(normalizar(texto));
+        }
+        return new ArrayList<>(normalizados);
+    }
+}
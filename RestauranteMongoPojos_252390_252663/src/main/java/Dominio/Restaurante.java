@@ -10,12 +10,16 @@ import org.bson.types.ObjectId;
  * @author Jesús Ernesto López Ibarra (252663)
  */
 public class Restaurante {
-    // Atributos de un restaurante.
+    // Atributos de un restaurante (al agregar uno, actualizar también Conexion.RestauranteCodec).
     private ObjectId id;
     private String nombre;
     private LocalDate fechaInauguracion;
     private Double rating;
     private List<String> categorias;
+    // Categorías normalizadas (minúsculas y sin acentos), usadas para búsquedas exactas e indexables.
+    private List<String> categoriasNorm;
+    // Clave de idempotencia asignada por el cliente; identifica el restaurante en los reintentos y sincronizaciones.
+    private String claveIdempotencia;
     /**
      * Constructor por defecto.
      */
@@ -41,6 +45,7 @@ public class Restaurante {
         this.fechaInauguracion = fechaInauguracion;
         this.rating = rating;
         this.categorias = categorias;
+        this.categoriasNorm = Normalizador.normalizar(categorias);
     }
     /**
      * Constructor que recibe todos los atributos de
@@ -60,6 +65,7 @@ public class Restaurante {
         this.fechaInauguracion = fechaInauguracion;
         this.rating = rating;
         this.categorias = categorias;
+        this.categoriasNorm = Normalizador.normalizar(categorias);
     }
     /**
      * Retorna el ID del restaurante.
@@ -111,6 +117,26 @@ public class Restaurante {
      * @param categorias Nueva lista de categorías del restaurante.
      */
     public void setCategorias(List<String> categorias) {this.categorias = categorias;}
+    /**
+     * Retorna la lista de categorías normalizadas del restaurante.
+     * @return Lista de categorías normalizadas del restaurante.
+     */
+    public List<String> getCategoriasNorm() {return categoriasNorm;}
+    /**
+     * Establece la lista de categorías normalizadas del restaurante.
+     * @param categoriasNorm Nueva lista de categorías normalizadas del restaurante.
+     */
+    public void setCategoriasNorm(List<String> categoriasNorm) {this.categoriasNorm = categoriasNorm;}
+    /**
+     * Retorna la clave de idempotencia del restaurante.
+     * @return Clave de idempotencia, o null si no tiene.
+     */
+    public String getClaveIdempotencia() {return claveIdempotencia;}
+    /**
+     * Establece la clave de idempotencia del restaurante.
+     * @param claveIdempotencia Nueva clave de idempotencia del restaurante.
+     */
+    public void setClaveIdempotencia(String claveIdempotencia) {this.claveIdempotencia = claveIdempotencia;}
     /**
      * Retorna una cadena con la 
      * información relevante del restaurante.
@@ -118,6 +144,6 @@ public class Restaurante {
      */
     @Override
     public String toString() {
-        return "Restaurante{" + "id=" + id + ", nombre=" + nombre + ", fechaInauguracion=" + fechaInauguracion + ", rating=" + rating + ", categorias=" + categorias + '}';
+        return "Restaurante{" + "id=" + id + ", nombre=" + nombre + ", fechaInauguracion=" + fechaInauguracion + ", rating=" + rating + ", categorias=" + categorias + ", claveIdempotencia=" + claveIdempotencia + '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package Metricas;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exportador que escribe en la bitácora, en el nivel INFO, las métricas de cada operación con
+ * llamadas y una línea con todos los indicadores.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ExportadorBitacora implements ExportadorMetricas {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(ExportadorBitacora.class.getName());
+    /**
+     * Constructor por defecto.
+     */
+    public ExportadorBitacora() {}
+    /**
+     * Escribe una línea por operación con llamadas.
+     * @param operaciones Instantáneas de las operaciones.
+     */
+    @Override
+    public void exportar(List<InstantaneaOperacion> operaciones) {
+        if (!LOG.isLoggable(Level.INFO))
+            return;
+        for (InstantaneaOperacion operacion : operaciones)
+            if (operacion.getLlamadas() > 0)
+                LOG.info(operacion.toString());
+    }
+    /**
+     * Escribe una línea con el valor de todos los indicadores.
+     * @param indicadores Valor de cada indicador.
+     */
+    @Override
+    public void exportarIndicadores(Map<String, Long> indicadores) {
+        if (LOG.isLoggable(Level.INFO) && !indicadores.isEmpty())
+            LOG.info(indicadores.toString());
+    }
+}
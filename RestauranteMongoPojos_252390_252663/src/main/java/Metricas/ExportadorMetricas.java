@@ -0,0 +1,28 @@
+package Metricas;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportador de las métricas a un sistema externo (bitácora, Prometheus, StatsD, etc.). Se
+ * programa con {@link RegistroMetricas#programarExportacion}; las implementaciones registradas
+ * en {@code META-INF/services/Metricas.ExportadorMetricas} se programan automáticamente en
+ * el registro global.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@FunctionalInterface
+public interface ExportadorMetricas {
+    /**
+     * Exporta las métricas de todas las operaciones. Se llama desde el hilo de exportación del
+     * registro, por lo que no debe bloquearse por mucho tiempo.
+     * @param operaciones Instantáneas de las operaciones, ordenadas por nombre.
+     */
+    public void exportar(List<InstantaneaOperacion> operaciones);
+    /**
+     * Exporta el valor actual de los indicadores. Se llama después de {@link #exportar(List)};
+     * por defecto no hace nada, para los exportadores que solo publican operaciones.
+     * @param indicadores Valor de cada indicador, ordenados por nombre.
+     */
+    public default void exportarIndicadores(Map<String, Long> indicadores) {}
+}
@@ -0,0 +1,142 @@
+package Metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas log-lineales, como HdrHistogram: los
+ * valores menores a {@value #SUBCUBETAS} se cuentan exactos, y cada potencia de dos mayor se
+ * divide en {@value #SUBCUBETAS_MITAD} cubetas del mismo ancho, de modo que el error relativo de
+ * cualquier percentil es menor a 1/{@value #SUBCUBETAS_MITAD} (~1.6 %) en todo el rango de un long.
+ * <p>
+ * Registrar un valor no bloquea ni reserva memoria (un incremento atómico en un arreglo fijo de
+ * ~3,700 contadores), por lo que puede llamarse en cada operación desde cualquier hilo. Los
+ * percentiles se calculan sobre una lectura no atómica de los contadores, suficiente para monitoreo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class HistogramaLatencias {
+    // Subcubetas de la primera cubeta (valores exactos) y de cada potencia de dos posterior.
+    private static final int SUBCUBETAS = 128;
+    private static final int SUBCUBETAS_MITAD = SUBCUBETAS / 2;
+    // Exponente de la primera potencia de dos que se divide en subcubetas (2^7 = 128).
+    private static final int EXPONENTE_INICIAL = Integer.numberOfTrailingZeros(SUBCUBETAS);
+    // Cantidad de contadores: los valores exactos más una fila por cada potencia de dos hasta 2^62.
+    private static final int CONTADORES = SUBCUBETAS + (63 - EXPONENTE_INICIAL) * SUBCUBETAS_MITAD;
+    // Conteo de cada cubeta.
+    private final AtomicLongArray conteos = new AtomicLongArray(CONTADORES);
+    // Cantidad de valores, suma, mínimo y máximo.
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong minimo = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximo = new AtomicLong(0);
+    /**
+     * Constructor por defecto. Crea el histograma vacío.
+     */
+    public HistogramaLatencias() {}
+    /**
+     * Registra una latencia.
+     * @param nanos Latencia en nanosegundos; los valores negativos se registran como cero.
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        conteos.incrementAndGet(indice(valor));
+        total.increment();
+        suma.add(valor);
+        if (valor < minimo.get())
+            minimo.accumulateAndGet(valor, Math::min);
+        if (valor > maximo.get())
+            maximo.accumulateAndGet(valor, Math::max);
+    }
+    /**
+     * Retorna la cantidad de latencias registradas.
+     * @return Cantidad de latencias.
+     */
+    public long getTotal() {return total.sum();}
+    /**
+     * Retorna la latencia media.
+     * @return Media en nanosegundos, o cero si no hay latencias.
+     */
+    public double getMedia() {
+        long cantidad = total.sum();
+        return cantidad == 0 ? 0 : (double) suma.sum() / cantidad;
+    }
+    /**
+     * Retorna la latencia mínima registrada.
+     * @return Mínimo en nanosegundos, o cero si no hay latencias.
+     */
+    public long getMinimo() {
+        long valor = minimo.get();
+        return valor == Long.MAX_VALUE ? 0 : valor;
+    }
+    /**
+     * Retorna la latencia máxima registrada.
+     * @return Máximo en nanosegundos, o cero si no hay latencias.
+     */
+    public long getMaximo() {return maximo.get();}
+    /**
+     * Calcula un percentil: el mayor valor equivalente de la cubeta donde la cuenta acumulada
+     * alcanza el porcentaje pedido, acotado por el máximo registrado.
+     * @param porcentaje Percentil, entre 0 y 100 (por ejemplo, 99.9).
+     * @return Latencia del percentil en nanosegundos, o cero si no hay latencias.
+     * @throws IllegalArgumentException Si el porcentaje está fuera de rango.
+     */
+    public long percentil(double porcentaje) {
+        if (porcentaje < 0 || porcentaje > 100)
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + porcentaje);
+        long cantidad = 0;
+        long[] copia = new long[CONTADORES];
+        for (int i = 0; i < CONTADORES; i++) {
+            copia[i] = conteos.get(i);
+            cantidad += copia[i];
+        }
+        if (cantidad == 0)
+            return 0;
+        long objetivo = Math.max(1, (long) Math.ceil(porcentaje / 100 * cantidad));
+        long acumulado = 0;
+        for (int i = 0; i < CONTADORES; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo)
+                return Math.min(mayorEquivalente(i), getMaximo());
+        }
+        return getMaximo();
+    }
+    /**
+     * Vacía el histograma. Los valores registrados durante el reinicio pueden conservarse o perderse.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < CONTADORES; i++)
+            conteos.set(i, 0);
+        total.reset();
+        suma.reset();
+        minimo.set(Long.MAX_VALUE);
+        maximo.set(0);
+    }
+    /**
+     * Calcula la cubeta de un valor.
+     * @param valor Valor no negativo.
+     * @return Índice de la cubeta.
+     */
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS)
+            return (int) valor;
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - EXPONENTE_INICIAL + 1;
+        int subcubeta = (int) (valor >>> desplazamiento) - SUBCUBETAS_MITAD;
+        return SUBCUBETAS + (exponente - EXPONENTE_INICIAL) * SUBCUBETAS_MITAD + subcubeta;
+    }
+    /**
+     * Calcula el mayor valor que cae en una cubeta.
+     * @param indice Índice de la cubeta.
+     * @return Mayor valor equivalente.
+     */
+    private static long mayorEquivalente(int indice) {
+        if (indice < SUBCUBETAS)
+            return indice;
+        int fila = (indice - SUBCUBETAS) / SUBCUBETAS_MITAD;
+        int subcubeta = (indice - SUBCUBETAS) % SUBCUBETAS_MITAD + SUBCUBETAS_MITAD;
+        int desplazamiento = fila + 1;
+        return ((long) (subcubeta + 1) << desplazamiento) - 1;
+    }
+}
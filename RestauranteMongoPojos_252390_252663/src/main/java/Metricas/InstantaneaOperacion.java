@@ -0,0 +1,112 @@
+package Metricas;
+
+import java.util.Locale;
+
+/**
+ * Clase con los valores de las métricas de una operación en un momento dado, para los
+ * exportadores. Las latencias están en milisegundos.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class InstantaneaOperacion {
+    // Nombre de la operación.
+    private final String operacion;
+    // Cantidad de llamadas y de llamadas fallidas.
+    private final long llamadas;
+    private final long errores;
+    // Documentos leídos o escritos.
+    private final long documentos;
+    // Latencias media, percentiles 50, 90, 99 y 99.9, y máxima.
+    private final double latenciaMediaMs;
+    private final double latenciaP50Ms;
+    private final double latenciaP90Ms;
+    private final double latenciaP99Ms;
+    private final double latenciaP999Ms;
+    private final double latenciaMaximaMs;
+    /**
+     * Constructor que recibe todos los atributos de la instantánea.
+     * @param operacion Nombre de la operación.
+     * @param llamadas Cantidad de llamadas.
+     * @param errores Cantidad de llamadas fallidas.
+     * @param documentos Documentos leídos o escritos.
+     * @param latenciaMediaMs Latencia media.
+     * @param latenciaP50Ms Percentil 50 de la latencia.
+     * @param latenciaP90Ms Percentil 90 de la latencia.
+     * @param latenciaP99Ms Percentil 99 de la latencia.
+     * @param latenciaP999Ms Percentil 99.9 de la latencia.
+     * @param latenciaMaximaMs Latencia máxima.
+     */
+    public InstantaneaOperacion(String operacion, long llamadas, long errores, long documentos, double latenciaMediaMs,
+            double latenciaP50Ms, double latenciaP90Ms, double latenciaP99Ms, double latenciaP999Ms, double latenciaMaximaMs) {
+        this.operacion = operacion;
+        this.llamadas = llamadas;
+        this.errores = errores;
+        this.documentos = documentos;
+        this.latenciaMediaMs = latenciaMediaMs;
+        this.latenciaP50Ms = latenciaP50Ms;
+        this.latenciaP90Ms = latenciaP90Ms;
+        this.latenciaP99Ms = latenciaP99Ms;
+        this.latenciaP999Ms = latenciaP999Ms;
+        this.latenciaMaximaMs = latenciaMaximaMs;
+    }
+    /**
+     * Retorna el nombre de la operación.
+     * @return Nombre de la operación.
+     */
+    public String getOperacion() {return operacion;}
+    /**
+     * Retorna la cantidad de llamadas.
+     * @return Cantidad de llamadas.
+     */
+    public long getLlamadas() {return llamadas;}
+    /**
+     * Retorna la cantidad de llamadas fallidas.
+     * @return Cantidad de llamadas fallidas.
+     */
+    public long getErrores() {return errores;}
+    /**
+     * Retorna los documentos leídos o escritos.
+     * @return Cantidad de documentos.
+     */
+    public long getDocumentos() {return documentos;}
+    /**
+     * Retorna la latencia media.
+     * @return Latencia media en milisegundos.
+     */
+    public double getLatenciaMediaMs() {return latenciaMediaMs;}
+    /**
+     * Retorna el percentil 50 de la latencia.
+     * @return Percentil 50 en milisegundos.
+     */
+    public double getLatenciaP50Ms() {return latenciaP50Ms;}
+    /**
+     * Retorna el percentil 90 de la latencia.
+     * @return Percentil 90 en milisegundos.
+     */
+    public double getLatenciaP90Ms() {return latenciaP90Ms;}
+    /**
+     * Retorna el percentil 99 de la latencia.
+     * @return Percentil 99 en milisegundos.
+     */
+    public double getLatenciaP99Ms() {return latenciaP99Ms;}
+    /**
+     * Retorna el percentil 99.9 de la latencia.
+     * @return Percentil 99.9 en milisegundos.
+     */
+    public double getLatenciaP999Ms() {return latenciaP999Ms;}
+    /**
+     * Retorna la latencia máxima.
+     * @return Latencia máxima en milisegundos.
+     */
+    public double getLatenciaMaximaMs() {return latenciaMaximaMs;}
+    /**
+     * Retorna la instantánea como cadena.
+     * @return Cadena con los valores de la instantánea.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s{llamadas=%d, errores=%d, documentos=%d, mediaMs=%.3f, p50Ms=%.3f, p90Ms=%.3f, p99Ms=%.3f, p999Ms=%.3f, maximaMs=%.3f}",
+                operacion, llamadas, errores, documentos, latenciaMediaMs, latenciaP50Ms, latenciaP90Ms, latenciaP99Ms, latenciaP999Ms, latenciaMaximaMs);
+    }
+}
@@ -0,0 +1,41 @@
+package Metricas;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Indicador: un valor que se lee al consultarlo, como el tamaño de un pool (nivel) o la cantidad
+ * acumulada de conexiones creadas (contador). Se obtiene de {@link RegistroMetricas#indicador}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class MetricaIndicador implements MetricaIndicadorMBean {
+    // Nombre del indicador.
+    private final String nombre;
+    // Fuente del valor; se reemplaza si el indicador se vuelve a registrar.
+    private volatile LongSupplier valor;
+    /**
+     * Constructor que recibe el nombre y la fuente del valor.
+     * @param nombre Nombre del indicador.
+     * @param valor Fuente del valor.
+     */
+    MetricaIndicador(String nombre, LongSupplier valor) {
+        this.nombre = nombre;
+        this.valor = valor;
+    }
+    /**
+     * Reemplaza la fuente del valor.
+     * @param valor Nueva fuente del valor.
+     */
+    void setValor(LongSupplier valor) {this.valor = valor;}
+    /**
+     * Retorna el nombre del indicador.
+     * @return Nombre del indicador.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna el valor actual del indicador.
+     * @return Valor del indicador.
+     */
+    @Override
+    public long getValor() {return valor.getAsLong();}
+}
@@ -0,0 +1,14 @@
+package Metricas;
+
+/**
+ * Interfaz JMX de un indicador, registrada como {@code RestauranteMongoPojos:type=Indicador,name="<indicador>"}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface MetricaIndicadorMBean {
+    /**
+     * Retorna el valor actual del indicador.
+     * @return Valor del indicador.
+     */
+    public long getValor();
+}
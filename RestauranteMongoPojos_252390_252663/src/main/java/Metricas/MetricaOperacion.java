@@ -0,0 +1,133 @@
+package Metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación: llamadas, errores, documentos leídos o escritos e histograma de
+ * latencias. Se obtiene de {@link RegistroMetricas#operacion(String)} y se actualiza sin bloqueos
+ * desde cualquier hilo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class MetricaOperacion implements MetricaOperacionMBean {
+    // Nanosegundos por milisegundo.
+    private static final double NANOS_POR_MS = 1_000_000.0;
+    // Nombre de la operación.
+    private final String nombre;
+    // Cantidad de llamadas y de llamadas fallidas.
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    // Documentos leídos o escritos.
+    private final LongAdder documentos = new LongAdder();
+    // Latencias de las llamadas.
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    /**
+     * Constructor que recibe el nombre de la operación.
+     * @param nombre Nombre de la operación.
+     */
+    MetricaOperacion(String nombre) {this.nombre = nombre;}
+    /**
+     * Registra una llamada.
+     * @param nanos Duración de la llamada en nanosegundos.
+     * @param documentos Documentos leídos o escritos por la llamada.
+     * @param error VERDADERO si la llamada falló.
+     */
+    public void registrar(long nanos, long documentos, boolean error) {
+        llamadas.increment();
+        if (error)
+            errores.increment();
+        if (documentos > 0)
+            this.documentos.add(documentos);
+        latencias.registrar(nanos);
+    }
+    /**
+     * Suma documentos a la operación sin registrar una llamada, para los flujos, cuyos
+     * documentos se conocen hasta que se terminan de leer.
+     * @param documentos Documentos leídos.
+     */
+    public void sumarDocumentos(long documentos) {
+        this.documentos.add(documentos);
+    }
+    /**
+     * Retorna el nombre de la operación.
+     * @return Nombre de la operación.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna el histograma de latencias, en nanosegundos.
+     * @return Histograma de latencias.
+     */
+    public HistogramaLatencias getLatencias() {return latencias;}
+    /**
+     * Retorna la cantidad de llamadas.
+     * @return Cantidad de llamadas.
+     */
+    @Override
+    public long getLlamadas() {return llamadas.sum();}
+    /**
+     * Retorna la cantidad de llamadas fallidas.
+     * @return Cantidad de llamadas fallidas.
+     */
+    @Override
+    public long getErrores() {return errores.sum();}
+    /**
+     * Retorna los documentos leídos o escritos.
+     * @return Cantidad de documentos.
+     */
+    @Override
+    public long getDocumentos() {return documentos.sum();}
+    /**
+     * Retorna la latencia media.
+     * @return Latencia media en milisegundos.
+     */
+    @Override
+    public double getLatenciaMediaMs() {return latencias.getMedia() / NANOS_POR_MS;}
+    /**
+     * Retorna el percentil 50 de la latencia.
+     * @return Percentil 50 en milisegundos.
+     */
+    @Override
+    public double getLatenciaP50Ms() {return latencias.percentil(50) / NANOS_POR_MS;}
+    /**
+     * Retorna el percentil 90 de la latencia.
+     * @return Percentil 90 en milisegundos.
+     */
+    @Override
+    public double getLatenciaP90Ms() {return latencias.percentil(90) / NANOS_POR_MS;}
+    /**
+     * Retorna el percentil 99 de la latencia.
+     * @return Percentil 99 en milisegundos.
+     */
+    @Override
+    public double getLatenciaP99Ms() {return latencias.percentil(99) / NANOS_POR_MS;}
+    /**
+     * Retorna el percentil 99.9 de la latencia.
+     * @return Percentil 99.9 en milisegundos.
+     */
+    @Override
+    public double getLatenciaP999Ms() {return latencias.percentil(99.9) / NANOS_POR_MS;}
+    /**
+     * Retorna la latencia máxima.
+     * @return Latencia máxima en milisegundos.
+     */
+    @Override
+    public double getLatenciaMaximaMs() {return latencias.getMaximo() / NANOS_POR_MS;}
+    /**
+     * Reinicia los contadores y el histograma de la operación.
+     */
+    @Override
+    public void reiniciar() {
+        llamadas.reset();
+        errores.reset();
+        documentos.reset();
+        latencias.reiniciar();
+    }
+    /**
+     * Crea una instantánea de las métricas de la operación.
+     * @return Instantánea de la operación.
+     */
+    public InstantaneaOperacion instantanea() {
+        return new InstantaneaOperacion(nombre, getLlamadas(), getErrores(), getDocumentos(), getLatenciaMediaMs(),
+                getLatenciaP50Ms(), getLatenciaP90Ms(), getLatenciaP99Ms(), getLatenciaP999Ms(), getLatenciaMaximaMs());
+    }
+}
@@ -0,0 +1,59 @@
+package Metricas;
+
+/**
+ * Interfaz JMX de las métricas de una operación, registrada como
+ * {@code RestauranteMongoPojos:type=Operacion,name="<operación>"}. Las latencias están en milisegundos.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface MetricaOperacionMBean {
+    /**
+     * Retorna la cantidad de llamadas.
+     * @return Cantidad de llamadas.
+     */
+    public long getLlamadas();
+    /**
+     * Retorna la cantidad de llamadas fallidas.
+     * @return Cantidad de llamadas fallidas.
+     */
+    public long getErrores();
+    /**
+     * Retorna los documentos leídos o escritos.
+     * @return Cantidad de documentos.
+     */
+    public long getDocumentos();
+    /**
+     * Retorna la latencia media.
+     * @return Latencia media en milisegundos.
+     */
+    public double getLatenciaMediaMs();
+    /**
+     * Retorna el percentil 50 de la latencia.
+     * @return Percentil 50 en milisegundos.
+     */
+    public double getLatenciaP50Ms();
+    /**
+     * Retorna el percentil 90 de la latencia.
+     * @return Percentil 90 en milisegundos.
+     */
+    public double getLatenciaP90Ms();
+    /**
+     * Retorna el percentil 99 de la latencia.
+     * @return Percentil 99 en milisegundos.
+     */
+    public double getLatenciaP99Ms();
+    /**
+     * Retorna el percentil 99.9 de la latencia.
+     * @return Percentil 99.9 en milisegundos.
+     */
+    public double getLatenciaP999Ms();
+    /**
+     * Retorna la latencia máxima.
+     * @return Latencia máxima en milisegundos.
+     */
+    public double getLatenciaMaximaMs();
+    /**
+     * Reinicia los contadores y el histograma de la operación.
+     */
+    public void reiniciar();
+}
@@ -0,0 +1,315 @@
+package Metricas;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClearedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.mongodb.event.ConnectionReadyEvent;
+import com.mongodb.event.ServerHeartbeatFailedEvent;
+import com.mongodb.event.ServerHeartbeatSucceededEvent;
+import com.mongodb.event.ServerMonitorListener;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Monitor del driver de MongoDB: escucha los comandos, el pool de conexiones y los heartbeats
+ * de los servidores, y los publica en un {@link RegistroMetricas} junto a las métricas del DAO.
+ * Con ellas se distingue una consulta lenta en el servidor (latencia del comando) de la falta de
+ * conexiones (espera por una conexión del pool, saturación y esperas agotadas) y de la red
+ * (tiempo de ida y vuelta de los heartbeats).
+ * <p>
+ * Operaciones (con histograma de latencias):
+ * <ul>
+ *     <li>{@code mongo.comando.<nombre>}: latencia de cada comando en el servidor (find,
+ *     aggregate, insert...), contada como error si falla. Entra en la bitácora de operaciones lentas.</li>
+ *     <li>{@value #GETMORE_ESPERA}: los getMore de cursores tailable y de change streams, que el servidor
+ *     retiene hasta maxAwaitTime si no hay datos nuevos. Se separan de {@code mongo.comando.getMore}
+ *     para no sesgar su histograma y no entran en la bitácora de operaciones lentas, pues una escucha
+ *     inactiva produciría una advertencia por cada espera.</li>
+ *     <li>{@value #ESPERA_POOL}: espera por una conexión del pool; las esperas fallidas cuentan como
+ *     error. Entra en la bitácora de operaciones lentas.</li>
+ *     <li>{@value #ESTABLECIMIENTO}: tiempo para abrir una conexión, con handshake y autenticación.</li>
+ *     <li>{@value #RTT}: tiempo de ida y vuelta de los heartbeats no esperados. En el protocolo de
+ *     streaming, el servidor retiene los heartbeats esperados hasta que cambia su estado, por lo
+ *     que su duración no es un tiempo de ida y vuelta y no se registra.</li>
+ * </ul>
+ * Indicadores, sumados sobre los pools de todos los servidores: conexiones en uso, hilos esperando
+ * una conexión, conexiones abiertas, tamaño máximo, saturación (porcentaje del máximo en uso),
+ * conexiones creadas y cerradas, esperas agotadas, limpiezas del pool y heartbeats fallidos. El
+ * driver solo emite heartbeats sobre la conexión de monitoreo ya abierta: si el servidor rechaza
+ * la conexión no se cuenta un heartbeat fallido, y la falla se ve en la selección de servidor.
+ * <p>
+ * Los métodos de escucha se llaman desde los hilos del driver, por lo que solo actualizan
+ * contadores atómicos.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class MonitorDriver implements CommandListener, ConnectionPoolListener, ServerMonitorListener {
+    // Prefijo de las operaciones de los comandos.
+    public static final String PREFIJO_COMANDO = "mongo.comando.";
+    // Operaciones del pool y de los servidores.
+    public static final String ESPERA_POOL = "mongo.pool.espera";
+    public static final String ESTABLECIMIENTO = "mongo.pool.establecimiento";
+    public static final String RTT = "mongo.servidor.rtt";
+    public static final String GETMORE_ESPERA = "mongo.comando.getMoreEspera";
+    // Prefijo de los indicadores del pool.
+    private static final String PREFIJO_POOL = "mongo.pool.";
+    // Registro de las métricas.
+    private final RegistroMetricas registro;
+    // Solicitudes en curso de getMore con espera (cursores tailable y change streams).
+    private final Set<Integer> getMoreConEspera = ConcurrentHashMap.newKeySet();
+    // Estado del pool de cada servidor.
+    private final ConcurrentMap<ServerId, EstadoPool> pools = new ConcurrentHashMap<>();
+    // Contadores acumulados.
+    private final LongAdder conexionesCreadas = new LongAdder();
+    private final LongAdder conexionesCerradas = new LongAdder();
+    private final LongAdder esperasAgotadas = new LongAdder();
+    private final LongAdder limpiezas = new LongAdder();
+    private final LongAdder heartbeatsFallidos = new LongAdder();
+    /**
+     * Estado del pool de conexiones de un servidor.
+     */
+    private static final class EstadoPool {
+        // Tamaño máximo del pool.
+        private final int maximo;
+        // Conexiones en uso, hilos esperando una conexión y conexiones abiertas.
+        private final AtomicInteger enUso = new AtomicInteger();
+        private final AtomicInteger esperando = new AtomicInteger();
+        private final AtomicInteger abiertas = new AtomicInteger();
+        /**
+         * Constructor que recibe el tamaño máximo del pool.
+         * @param maximo Tamaño máximo del pool.
+         */
+        EstadoPool(int maximo) {this.maximo = maximo;}
+    }
+    /**
+     * Constructor que recibe el registro donde se publican las métricas y registra los indicadores.
+     * @param registro Registro de las métricas.
+     */
+    public MonitorDriver(RegistroMetricas registro) {
+        this.registro = registro;
+        registro.indicador(PREFIJO_POOL + "enUso", () -> sumar(pool -> pool.enUso.get()));
+        registro.indicador(PREFIJO_POOL + "esperando", () -> sumar(pool -> pool.esperando.get()));
+        registro.indicador(PREFIJO_POOL + "abiertas", () -> sumar(pool -> pool.abiertas.get()));
+        registro.indicador(PREFIJO_POOL + "maximo", () -> sumar(pool -> pool.maximo));
+        registro.indicador(PREFIJO_POOL + "saturacionPorcentaje", this::saturacion);
+        registro.indicador(PREFIJO_POOL + "conexionesCreadas", conexionesCreadas::sum);
+        registro.indicador(PREFIJO_POOL + "conexionesCerradas", conexionesCerradas::sum);
+        registro.indicador(PREFIJO_POOL + "esperasAgotadas", esperasAgotadas::sum);
+        registro.indicador(PREFIJO_POOL + "limpiezas", limpiezas::sum);
+        registro.indicador("mongo.servidor.heartbeatsFallidos", heartbeatsFallidos::sum);
+    }
+    /**
+     * Registra el monitor como escucha de comandos, del pool y de los servidores en las opciones del cliente.
+     * @param builder Constructor de opciones del cliente.
+     * @return El mismo constructor, para encadenar llamadas.
+     */
+    public MongoClientSettings.Builder aplicar(MongoClientSettings.Builder builder) {
+        return builder.addCommandListener(this)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(this))
+                .applyToServerSettings(servidor -> servidor.addServerMonitorListener(this));
+    }
+
+    // Comandos
+    /**
+     * Marca los getMore con espera: el driver solo envía maxTimeMS en un getMore cuando el cursor
+     * es tailable con espera, como el de un change stream.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void commandStarted(CommandStartedEvent evento) {
+        if (evento.getCommandName().equals("getMore") && evento.getCommand().containsKey("maxTimeMS"))
+            getMoreConEspera.add(evento.getRequestId());
+    }
+    /**
+     * Registra la latencia de un comando exitoso.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void commandSucceeded(CommandSucceededEvent evento) {
+        if (getMoreConEspera.remove(evento.getRequestId())) {
+            registro.operacion(GETMORE_ESPERA).registrar(evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, false);
+            return;
+        }
+        registro.registrar(PREFIJO_COMANDO + evento.getCommandName(), evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, false,
+                () -> "base=" + evento.getDatabaseName() + ", servidor=" + evento.getConnectionDescription().getServerAddress());
+    }
+    /**
+     * Registra la latencia de un comando fallido.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void commandFailed(CommandFailedEvent evento) {
+        if (getMoreConEspera.remove(evento.getRequestId())) {
+            registro.operacion(GETMORE_ESPERA).registrar(evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, true);
+            return;
+        }
+        registro.registrar(PREFIJO_COMANDO + evento.getCommandName(), evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, true,
+                () -> "base=" + evento.getDatabaseName() + ", servidor=" + evento.getConnectionDescription().getServerAddress()
+                        + ", error=" + evento.getThrowable().getMessage());
+    }
+
+    // Pool de conexiones
+    /**
+     * Registra el pool de un servidor con su tamaño máximo.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent evento) {
+        pools.put(evento.getServerId(), new EstadoPool(evento.getSettings().getMaxSize()));
+    }
+    /**
+     * Cuenta una limpieza del pool, que cierra sus conexiones tras un error de red o un cambio de primario.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionPoolCleared(ConnectionPoolClearedEvent evento) {
+        limpiezas.increment();
+    }
+    /**
+     * Quita el pool de un servidor.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent evento) {
+        pools.remove(evento.getServerId());
+    }
+    /**
+     * Cuenta un hilo esperando una conexión.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent evento) {
+        EstadoPool pool = pools.get(evento.getServerId());
+        if (pool != null)
+            pool.esperando.incrementAndGet();
+    }
+    /**
+     * Registra la espera de un hilo que obtuvo una conexión.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent evento) {
+        EstadoPool pool = pools.get(evento.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.esperando.decrementAndGet();
+            pool.enUso.incrementAndGet();
+        }
+        registro.registrar(ESPERA_POOL, evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, false,
+                () -> "servidor=" + evento.getConnectionId().getServerId().getAddress());
+    }
+    /**
+     * Registra la espera de un hilo que no obtuvo una conexión; si se agotó el tiempo, la cuenta
+     * como espera agotada (el pool estuvo lleno durante toda la espera).
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent evento) {
+        EstadoPool pool = pools.get(evento.getServerId());
+        if (pool != null)
+            pool.esperando.decrementAndGet();
+        if (evento.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT)
+            esperasAgotadas.increment();
+        registro.registrar(ESPERA_POOL, evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, true,
+                () -> "servidor=" + evento.getServerId().getAddress() + ", motivo=" + evento.getReason());
+    }
+    /**
+     * Descuenta una conexión en uso que regresó al pool.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent evento) {
+        EstadoPool pool = pools.get(evento.getConnectionId().getServerId());
+        if (pool != null)
+            pool.enUso.decrementAndGet();
+    }
+    /**
+     * Cuenta una conexión creada.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent evento) {
+        conexionesCreadas.increment();
+        EstadoPool pool = pools.get(evento.getConnectionId().getServerId());
+        if (pool != null)
+            pool.abiertas.incrementAndGet();
+    }
+    /**
+     * Registra el tiempo para establecer una conexión.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionReady(ConnectionReadyEvent evento) {
+        registro.operacion(ESTABLECIMIENTO).registrar(evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, false);
+    }
+    /**
+     * Cuenta una conexión cerrada.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void connectionClosed(ConnectionClosedEvent evento) {
+        conexionesCerradas.increment();
+        EstadoPool pool = pools.get(evento.getConnectionId().getServerId());
+        if (pool != null)
+            pool.abiertas.decrementAndGet();
+    }
+
+    // Servidores
+    /**
+     * Registra el tiempo de ida y vuelta de un heartbeat no esperado.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void serverHeartbeatSucceeded(ServerHeartbeatSucceededEvent evento) {
+        if (!evento.isAwaited())
+            registro.operacion(RTT).registrar(evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, false);
+    }
+    /**
+     * Cuenta un heartbeat fallido.
+     * @param evento Evento del driver.
+     */
+    @Override
+    public void serverHeartbeatFailed(ServerHeartbeatFailedEvent evento) {
+        heartbeatsFallidos.increment();
+        if (!evento.isAwaited())
+            registro.operacion(RTT).registrar(evento.getElapsedTime(TimeUnit.NANOSECONDS), 0, true);
+    }
+
+    // Indicadores
+    /**
+     * Suma un valor sobre los pools de todos los servidores.
+     * @param valor Valor de un pool.
+     * @return Suma del valor.
+     */
+    private long sumar(ToIntFunction<EstadoPool> valor) {
+        long suma = 0;
+        for (EstadoPool pool : pools.values())
+            suma += valor.applyAsInt(pool);
+        return suma;
+    }
+    /**
+     * Calcula la saturación de los pools: el porcentaje de su tamaño máximo que está en uso.
+     * @return Saturación entre 0 y 100, o 0 si no hay pools.
+     */
+    private long saturacion() {
+        long maximo = sumar(pool -> pool.maximo);
+        return maximo == 0 ? 0 : Math.min(100, sumar(pool -> pool.enUso.get()) * 100 / maximo);
+    }
+}
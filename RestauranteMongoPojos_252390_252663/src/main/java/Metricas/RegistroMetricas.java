@@ -0,0 +1,330 @@
+package Metricas;
+
+import Conexion.ConfiguracionConexion;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro de las métricas de las operaciones: latencias, llamadas, errores y documentos, más la
+ * bitácora de operaciones lentas. Las operaciones se identifican con un nombre jerárquico
+ * (por ejemplo, {@code dao.consultar}) y se crean la primera vez que se registran. Además de
+ * operaciones, el registro publica indicadores: valores que se leen al consultarlos, como el
+ * tamaño de un pool o un contador acumulado.
+ * <p>
+ * Las métricas se leen por JMX (un MBean por operación, uno por indicador y uno del registro, en el dominio
+ * {@value #DOMINIO_JMX}; los MBeans de un registro distinto al global llevan además la propiedad
+ * {@code registro=<número>}, para que no choquen con los del global) o se envían periódicamente a un {@link ExportadorMetricas}. Las
+ * operaciones que tardan al menos el umbral configurado se escriben en la bitácora
+ * {@value #BITACORA_LENTAS}, en el nivel WARNING, con el detalle que da quien las registra
+ * (por ejemplo, el filtro y el orden de una consulta), que solo se construye en ese caso.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class RegistroMetricas implements RegistroMetricasMBean {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(RegistroMetricas.class.getName());
+    // Nombre de la bitácora de operaciones lentas.
+    public static final String BITACORA_LENTAS = "Metricas.OperacionesLentas";
+    // Bitácora de operaciones lentas.
+    private static final Logger LOG_LENTAS = Logger.getLogger(BITACORA_LENTAS);
+    // Dominio de los MBeans.
+    public static final String DOMINIO_JMX = "RestauranteMongoPojos";
+    // Valores por defecto del umbral de operación lenta y del periodo de exportación.
+    public static final long UMBRAL_LENTA_POR_DEFECTO_MS = 100;
+    public static final long PERIODO_EXPORTACION_POR_DEFECTO_MS = 60_000;
+    // Cantidad de operaciones lentas recientes que se conservan para JMX.
+    private static final int ULTIMAS_LENTAS = 50;
+    // Nanosegundos por milisegundo.
+    private static final long NANOS_POR_MS = 1_000_000;
+    // Número del último registro creado, para distinguir sus MBeans de los del global.
+    private static final AtomicInteger REGISTROS = new AtomicInteger();
+    // Métricas por operación.
+    private final ConcurrentMap<String, MetricaOperacion> operaciones = new ConcurrentHashMap<>();
+    // Indicadores por nombre.
+    private final ConcurrentMap<String, MetricaIndicador> indicadores = new ConcurrentHashMap<>();
+    // Servidor JMX donde se registran los MBeans, o null si JMX está desactivado.
+    private final MBeanServer servidorJmx;
+    // Propiedad que identifica a este registro en el nombre de sus MBeans; vacía en el global.
+    private final String instanciaJmx;
+    // Umbral de operación lenta en nanosegundos; negativo si la bitácora está desactivada.
+    private volatile long umbralLentaNanos;
+    // Operaciones lentas recientes.
+    private final Deque<String> ultimasLentas = new ArrayDeque<>(ULTIMAS_LENTAS);
+    // Hilo de las exportaciones periódicas; se crea con la primera.
+    private ScheduledExecutorService exportaciones;
+    /**
+     * Contenedor del registro global, que se crea la primera vez que se usa.
+     */
+    private static final class Global {
+        // Registro global.
+        private static final RegistroMetricas INSTANCIA = crearGlobal();
+    }
+    /**
+     * Constructor que recibe el umbral de operación lenta y si se publica por JMX.
+     * @param umbralLentaMs Umbral en milisegundos; cero registra todas, negativo desactiva la bitácora.
+     * @param jmx VERDADERO para registrar los MBeans en el servidor JMX de la plataforma.
+     */
+    public RegistroMetricas(long umbralLentaMs, boolean jmx) {
+        this(umbralLentaMs, jmx, "registro=" + REGISTROS.incrementAndGet() + ",");
+    }
+    /**
+     * Constructor que recibe además la propiedad que identifica al registro en el nombre de sus MBeans.
+     * @param umbralLentaMs Umbral en milisegundos; cero registra todas, negativo desactiva la bitácora.
+     * @param jmx VERDADERO para registrar los MBeans en el servidor JMX de la plataforma.
+     * @param instanciaJmx Propiedad del nombre de los MBeans, terminada en coma, o vacía para el registro global.
+     */
+    private RegistroMetricas(long umbralLentaMs, boolean jmx, String instanciaJmx) {
+        setUmbralLentaMs(umbralLentaMs);
+        this.servidorJmx = jmx ? ManagementFactory.getPlatformMBeanServer() : null;
+        this.instanciaJmx = instanciaJmx;
+        registrarJmx(this, "type=Metricas");
+    }
+    /**
+     * Retorna el registro global, configurado con las claves {@value ConfiguracionConexion#METRICAS_UMBRAL_LENTA_MS},
+     * {@value ConfiguracionConexion#METRICAS_JMX} y {@value ConfiguracionConexion#METRICAS_PERIODO_EXPORTACION_MS}.
+     * Los exportadores registrados con {@link ServiceLoader} se programan al crearlo.
+     * @return Registro global.
+     */
+    public static RegistroMetricas global() {
+        return Global.INSTANCIA;
+    }
+    /**
+     * Obtiene las métricas de una operación, creándolas si no existen.
+     * @param nombre Nombre de la operación.
+     * @return Métricas de la operación.
+     */
+    public MetricaOperacion operacion(String nombre) {
+        MetricaOperacion operacion = operaciones.get(nombre);
+        if (operacion != null)
+            return operacion;
+        return operaciones.computeIfAbsent(nombre, llave -> {
+            MetricaOperacion nueva = new MetricaOperacion(llave);
+            registrarJmx(nueva, "type=Operacion,name=" + ObjectName.quote(llave));
+            return nueva;
+        });
+    }
+    /**
+     * Registra un indicador, o reemplaza la fuente del valor si ya existe uno con ese nombre.
+     * @param nombre Nombre del indicador.
+     * @param valor Fuente del valor; se llama cada vez que se lee el indicador, por lo que debe ser barata.
+     * @return Indicador registrado.
+     */
+    public MetricaIndicador indicador(String nombre, LongSupplier valor) {
+        MetricaIndicador indicador = indicadores.computeIfAbsent(nombre, llave -> {
+            MetricaIndicador nuevo = new MetricaIndicador(llave, valor);
+            registrarJmx(nuevo, "type=Indicador,name=" + ObjectName.quote(llave));
+            return nuevo;
+        });
+        indicador.setValor(valor);
+        return indicador;
+    }
+    /**
+     * Registra una llamada a una operación.
+     * @param nombre Nombre de la operación.
+     * @param nanos Duración de la llamada en nanosegundos.
+     * @param documentos Documentos leídos o escritos por la llamada.
+     * @param error VERDADERO si la llamada falló.
+     * @param detalle Detalle para la bitácora de operaciones lentas; solo se llama si la llamada es lenta. Puede ser null.
+     */
+    public void registrar(String nombre, long nanos, long documentos, boolean error, Supplier<String> detalle) {
+        operacion(nombre).registrar(nanos, documentos, error);
+        long umbral = umbralLentaNanos;
+        if (umbral >= 0 && nanos >= umbral)
+            registrarLenta(nombre, nanos, documentos, error, detalle);
+    }
+    /**
+     * Crea instantáneas de las métricas de todas las operaciones.
+     * @return Instantáneas, ordenadas por nombre de operación.
+     */
+    public List<InstantaneaOperacion> instantaneas() {
+        List<InstantaneaOperacion> instantaneas = new ArrayList<>(operaciones.size());
+        for (MetricaOperacion operacion : operaciones.values())
+            instantaneas.add(operacion.instantanea());
+        instantaneas.sort(Comparator.comparing(InstantaneaOperacion::getOperacion));
+        return instantaneas;
+    }
+    /**
+     * Lee el valor actual de todos los indicadores.
+     * @return Valor de cada indicador, ordenados por nombre.
+     */
+    public Map<String, Long> valoresIndicadores() {
+        Map<String, Long> valores = new TreeMap<>();
+        for (MetricaIndicador indicador : indicadores.values())
+            valores.put(indicador.getNombre(), indicador.getValor());
+        return valores;
+    }
+    /**
+     * Envía las métricas a un exportador cada cierto tiempo, desde un hilo demonio del registro.
+     * Un error del exportador se escribe en la bitácora y no cancela las siguientes exportaciones.
+     * @param exportador Exportador de las métricas.
+     * @param periodo Tiempo entre exportaciones.
+     * @throws IllegalArgumentException Si el periodo no es positivo.
+     */
+    public synchronized void programarExportacion(ExportadorMetricas exportador, Duration periodo) {
+        if (periodo.isZero() || periodo.isNegative())
+            throw new IllegalArgumentException("El periodo de exportación debe ser positivo.");
+        if (exportaciones == null) {
+            exportaciones = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "metricas-exportacion");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        exportaciones.scheduleAtFixedRate(() -> {
+            try {
+                exportador.exportar(instantaneas());
+                exportador.exportarIndicadores(valoresIndicadores());
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Error al exportar las métricas con " + exportador.getClass().getName() + ".", e);
+            }
+        }, periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    /**
+     * Cancela todas las exportaciones periódicas.
+     */
+    public synchronized void detenerExportaciones() {
+        if (exportaciones != null) {
+            exportaciones.shutdownNow();
+            exportaciones = null;
+        }
+    }
+    /**
+     * Retorna los nombres de las operaciones registradas.
+     * @return Nombres de las operaciones, ordenados.
+     */
+    @Override
+    public String[] getOperaciones() {
+        return operaciones.keySet().stream().sorted().toArray(String[]::new);
+    }
+    /**
+     * Retorna las métricas de todas las operaciones, una por línea.
+     * @return Métricas de las operaciones.
+     */
+    @Override
+    public String[] getResumen() {
+        return instantaneas().stream().map(InstantaneaOperacion::toString).toArray(String[]::new);
+    }
+    /**
+     * Retorna el valor actual de todos los indicadores, uno por línea.
+     * @return Indicadores con el formato {@code nombre=valor}.
+     */
+    @Override
+    public String[] getIndicadores() {
+        return valoresIndicadores().entrySet().stream().map(valor -> valor.getKey() + "=" + valor.getValue()).toArray(String[]::new);
+    }
+    /**
+     * Retorna las operaciones lentas más recientes, de la más antigua a la más nueva.
+     * @return Entradas de la bitácora de operaciones lentas.
+     */
+    @Override
+    public String[] getUltimasLentas() {
+        synchronized (ultimasLentas) {
+            return ultimasLentas.toArray(String[]::new);
+        }
+    }
+    /**
+     * Retorna la duración a partir de la cual una operación se registra como lenta.
+     * @return Umbral en milisegundos; negativo si la bitácora está desactivada.
+     */
+    @Override
+    public long getUmbralLentaMs() {
+        long umbral = umbralLentaNanos;
+        return umbral < 0 ? -1 : umbral / NANOS_POR_MS;
+    }
+    /**
+     * Cambia la duración a partir de la cual una operación se registra como lenta.
+     * @param umbralLentaMs Umbral en milisegundos; cero registra todas, negativo desactiva la bitácora.
+     */
+    @Override
+    public void setUmbralLentaMs(long umbralLentaMs) {
+        this.umbralLentaNanos = umbralLentaMs < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(umbralLentaMs);
+    }
+    /**
+     * Reinicia las métricas de todas las operaciones y vacía las operaciones lentas recientes.
+     */
+    @Override
+    public void reiniciar() {
+        for (MetricaOperacion operacion : operaciones.values())
+            operacion.reiniciar();
+        synchronized (ultimasLentas) {
+            ultimasLentas.clear();
+        }
+    }
+    /**
+     * Escribe una operación lenta en la bitácora y la agrega a las recientes.
+     * @param nombre Nombre de la operación.
+     * @param nanos Duración de la llamada en nanosegundos.
+     * @param documentos Documentos leídos o escritos por la llamada.
+     * @param error VERDADERO si la llamada falló.
+     * @param detalle Detalle de la llamada, o null.
+     */
+    private void registrarLenta(String nombre, long nanos, long documentos, boolean error, Supplier<String> detalle) {
+        String texto;
+        try {
+            texto = detalle == null ? null : detalle.get();
+        } catch (RuntimeException e) {
+            texto = "(detalle no disponible: " + e.getMessage() + ")";
+        }
+        String entrada = String.format(Locale.ROOT, "%s tardó %.3f ms, %d documentos%s%s", nombre, nanos / (double) NANOS_POR_MS,
+                documentos, error ? ", con error" : "", texto == null ? "" : "; " + texto);
+        LOG_LENTAS.warning(() -> "Operación lenta: " + entrada);
+        synchronized (ultimasLentas) {
+            if (ultimasLentas.size() == ULTIMAS_LENTAS)
+                ultimasLentas.removeFirst();
+            ultimasLentas.addLast(entrada);
+        }
+    }
+    /**
+     * Registra un MBean en el servidor JMX, si está activo, con la propiedad que identifica a este
+     * registro. Un error al registrarlo (por ejemplo, porque otra aplicación ya usa el nombre) se
+     * escribe en la bitácora y no impide usar las métricas.
+     * @param mbean MBean a registrar.
+     * @param propiedades Propiedades del nombre del MBean.
+     */
+    private void registrarJmx(Object mbean, String propiedades) {
+        if (servidorJmx == null)
+            return;
+        try {
+            servidorJmx.registerMBean(mbean, new ObjectName(DOMINIO_JMX + ":" + instanciaJmx + propiedades));
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "No fue posible registrar el MBean " + propiedades + ".", e);
+        }
+    }
+    /**
+     * Crea el registro global con la configuración cargada y programa los exportadores de {@link ServiceLoader}.
+     * @return Registro global.
+     */
+    private static RegistroMetricas crearGlobal() {
+        ConfiguracionConexion configuracion = ConfiguracionConexion.cargar();
+        Long umbral = configuracion.obtenerLargo(ConfiguracionConexion.METRICAS_UMBRAL_LENTA_MS);
+        String jmx = configuracion.obtener(ConfiguracionConexion.METRICAS_JMX);
+        Long periodo = configuracion.obtenerLargo(ConfiguracionConexion.METRICAS_PERIODO_EXPORTACION_MS);
+        RegistroMetricas registro = new RegistroMetricas(umbral != null ? umbral : UMBRAL_LENTA_POR_DEFECTO_MS,
+                jmx == null || Boolean.parseBoolean(jmx), "");
+        for (ExportadorMetricas exportador : ServiceLoader.load(ExportadorMetricas.class))
+            registro.programarExportacion(exportador, Duration.ofMillis(periodo != null ? periodo : PERIODO_EXPORTACION_POR_DEFECTO_MS));
+        return registro;
+    }
+}
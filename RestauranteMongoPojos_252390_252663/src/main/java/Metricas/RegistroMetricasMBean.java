@@ -0,0 +1,43 @@
+package Metricas;
+
+/**
+ * Interfaz JMX del registro de métricas, registrada como {@code RestauranteMongoPojos:type=Metricas}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface RegistroMetricasMBean {
+    /**
+     * Retorna los nombres de las operaciones registradas.
+     * @return Nombres de las operaciones, ordenados.
+     */
+    public String[] getOperaciones();
+    /**
+     * Retorna las métricas de todas las operaciones, una por línea.
+     * @return Métricas de las operaciones.
+     */
+    public String[] getResumen();
+    /**
+     * Retorna el valor actual de todos los indicadores, uno por línea.
+     * @return Indicadores con el formato {@code nombre=valor}.
+     */
+    public String[] getIndicadores();
+    /**
+     * Retorna las operaciones lentas más recientes, de la más antigua a la más nueva.
+     * @return Entradas de la bitácora de operaciones lentas.
+     */
+    public String[] getUltimasLentas();
+    /**
+     * Retorna la duración a partir de la cual una operación se registra como lenta.
+     * @return Umbral en milisegundos; negativo si la bitácora está desactivada.
+     */
+    public long getUmbralLentaMs();
+    /**
+     * Cambia la duración a partir de la cual una operación se registra como lenta.
+     * @param umbralLentaMs Umbral en milisegundos; cero registra todas, negativo desactiva la bitácora.
+     */
+    public void setUmbralLentaMs(long umbralLentaMs);
+    /**
+     * Reinicia las métricas de todas las operaciones.
+     */
+    public void reiniciar();
+}
@@ -0,0 +1,116 @@
+package Negocio;
+
+import java.util.List;
+
+/**
+ * Clase que representa una actualización de un restaurante, identificado por su nombre,
+ * dentro de una actualización por lotes. Se construye con los métodos de fábrica de cada operación.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ActualizacionRestauranteDTO {
+    // Nombre del restaurante a actualizar.
+    private final String nombre;
+    // Operación a aplicar.
+    private final OperacionActualizacion operacion;
+    // Valor numérico de la operación (rating o incremento), o null si no aplica.
+    private final Double numero;
+    // Valor de texto de la operación (nuevo nombre o categoría), o null si no aplica.
+    private final String texto;
+    // Categorías de la operación, o null si no aplica.
+    private final List<String> categorias;
+    /**
+     * Constructor que recibe todos los atributos de la actualización.
+     * @param nombre Nombre del restaurante a actualizar.
+     * @param operacion Operación a aplicar.
+     * @param numero Valor numérico de la operación.
+     * @param texto Valor de texto de la operación.
+     * @param categorias Categorías de la operación.
+     */
+    private ActualizacionRestauranteDTO(String nombre, OperacionActualizacion operacion, Double numero, String texto, List<String> categorias) {
+        this.nombre = nombre;
+        this.operacion = operacion;
+        this.numero = numero;
+        this.texto = texto;
+        this.categorias = categorias;
+    }
+    /**
+     * Crea una actualización que establece el rating de un restaurante.
+     * @param nombre Nombre del restaurante.
+     * @param rating Nuevo rating.
+     * @return Actualización.
+     */
+    public static ActualizacionRestauranteDTO establecerRating(String nombre, double rating) {
+        return new ActualizacionRestauranteDTO(nombre, OperacionActualizacion.ESTABLECER_RATING, rating, null, null);
+    }
+    /**
+     * Crea una actualización que incrementa el rating de un restaurante.
+     * @param nombre Nombre del restaurante.
+     * @param incremento Valor de incremento.
+     * @return Actualización.
+     */
+    public static ActualizacionRestauranteDTO aumentarRating(String nombre, double incremento) {
+        return new ActualizacionRestauranteDTO(nombre, OperacionActualizacion.AUMENTAR_RATING, incremento, null, null);
+    }
+    /**
+     * Crea una actualización que cambia el nombre de un restaurante.
+     * @param nombre Nombre actual del restaurante.
+     * @param nuevo Nuevo nombre.
+     * @return Actualización.
+     */
+    public static ActualizacionRestauranteDTO cambiarNombre(String nombre, String nuevo) {
+        return new ActualizacionRestauranteDTO(nombre, OperacionActualizacion.CAMBIAR_NOMBRE, null, nuevo, null);
+    }
+    /**
+     * Crea una actualización que reemplaza las categorías de un restaurante.
+     * @param nombre Nombre del restaurante.
+     * @param categorias Nuevas categorías.
+     * @return Actualización.
+     */
+    public static ActualizacionRestauranteDTO establecerCategorias(String nombre, List<String> categorias) {
+        return new ActualizacionRestauranteDTO(nombre, OperacionActualizacion.ESTABLECER_CATEGORIAS, null, null, categorias);
+    }
+    /**
+     * Crea una actualización que agrega una categoría a un restaurante, si aún no la tiene.
+     * @param nombre Nombre del restaurante.
+     * @param categoria Categoría a agregar.
+     * @return Actualización.
+     */
+    public static ActualizacionRestauranteDTO agregarCategoria(String nombre, String categoria) {
+        return new ActualizacionRestauranteDTO(nombre, OperacionActualizacion.AGREGAR_CATEGORIA, null, categoria, null);
+    }
+    /**
+     * Retorna el nombre del restaurante a actualizar.
+     * @return Nombre del restaurante.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna la operación a aplicar.
+     * @return Operación.
+     */
+    public OperacionActualizacion getOperacion() {return operacion;}
+    /**
+     * Retorna el valor numérico de la operación.
+     * @return Rating o incremento, o null si no aplica.
+     */
+    public Double getNumero() {return numero;}
+    /**
+     * Retorna el valor de texto de la operación.
+     * @return Nuevo nombre o categoría, o null si no aplica.
+     */
+    public String getTexto() {return texto;}
+    /**
+     * Retorna las categorías de la operación.
+     * @return Categorías, o null si no aplica.
+     */
+    public List<String> getCategorias() {return categorias;}
+    /**
+     * Retorna una cadena con la información de la actualización.
+     * @return cadena con la información de la actualización.
+     */
+    @Override
+    public String toString() {
+        return "ActualizacionRestauranteDTO{" + "nombre=" + nombre + ", operacion=" + operacion + ", numero=" + numero
+                + ", texto=" + texto + ", categorias=" + categorias + '}';
+    }
+}
@@ -0,0 +1,40 @@
+package Negocio;
+
+/**
+ * Clase que representa la cantidad de restaurantes inaugurados en un año.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class AperturasAnioDTO {
+    // Año de inauguración.
+    private final int anio;
+    // Cantidad de restaurantes inaugurados en el año.
+    private final long cantidad;
+    /**
+     * Constructor que recibe todos los atributos.
+     * @param anio Año de inauguración.
+     * @param cantidad Cantidad de restaurantes inaugurados en el año.
+     */
+    public AperturasAnioDTO(int anio, long cantidad) {
+        this.anio = anio;
+        this.cantidad = cantidad;
+    }
+    /**
+     * Retorna el año de inauguración.
+     * @return Año de inauguración.
+     */
+    public int getAnio() {return anio;}
+    /**
+     * Retorna la cantidad de restaurantes inaugurados en el año.
+     * @return Cantidad de restaurantes.
+     */
+    public long getCantidad() {return cantidad;}
+    /**
+     * Retorna una cadena con la información de las aperturas.
+     * @return cadena con la información de las aperturas.
+     */
+    @Override
+    public String toString() {
+        return "AperturasAnioDTO{" + "anio=" + anio + ", cantidad=" + cantidad + '}';
+    }
+}
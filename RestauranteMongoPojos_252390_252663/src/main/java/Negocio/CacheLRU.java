@@ -0,0 +1,153 @@
+package Negocio;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Caché acotada en memoria con desalojo del elemento usado menos recientemente (LRU)
+ * y con tiempo de vida (TTL) por entrada. Todas las operaciones son sincronizadas.
+ * <p>
+ * Para no guardar un valor leído antes de una escritura que ya invalidó la caché, la
+ * lectura a la base de datos debe hacerse entre {@link #version()} y
+ * {@link #guardar(Object, Object, long)}: si hubo una invalidación en medio, el valor se descarta.
+ * @param <K> Tipo de las llaves.
+ * @param <V> Tipo de los valores.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class CacheLRU<K, V> {
+    // Cantidad máxima de entradas.
+    private final int capacidad;
+    // Tiempo de vida de cada entrada, en nanosegundos.
+    private final long ttlNanos;
+    // Entradas, en orden de acceso (la primera es la usada menos recientemente).
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    // Contadores.
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long expiraciones;
+    private long invalidaciones;
+    // Versión de la caché, incrementada en cada invalidación.
+    private long version;
+    /**
+     * Entrada de la caché, con el instante en que fue guardada.
+     * @param valor Valor guardado.
+     * @param guardada Instante en que se guardó, según System.nanoTime().
+     */
+    private record Entrada<V>(V valor, long guardada) {}
+    /**
+     * Constructor que recibe la capacidad y el tiempo de vida de las entradas.
+     * @param capacidad Cantidad máxima de entradas.
+     * @param ttl Tiempo de vida de cada entrada.
+     */
+    public CacheLRU(int capacidad, Duration ttl) {
+        if (capacidad <= 0)
+            throw new IllegalArgumentException("La capacidad de la caché debe ser mayor a cero.");
+        if (ttl == null || ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("El tiempo de vida de la caché debe ser mayor a cero.");
+        this.capacidad = capacidad;
+        this.ttlNanos = ttl.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> masAntigua) {
+                // Desaloja la entrada usada menos recientemente al exceder la capacidad.
+                if (size() > CacheLRU.this.capacidad) {
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    /**
+     * Retorna el valor vigente asociado a la llave.
+     * @param llave Llave a buscar.
+     * @return Valor guardado, o null si no existe o ya expiró.
+     */
+    public synchronized V obtener(K llave) {
+        Entrada<V> entrada = entradas.get(llave);
+        if (entrada == null) {
+            fallos++;
+            return null;
+        }
+        // Descarta la entrada si ya excedió su tiempo de vida.
+        if (System.nanoTime() - entrada.guardada() > ttlNanos) {
+            entradas.remove(llave);
+            expiraciones++;
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return entrada.valor();
+    }
+    /**
+     * Retorna la versión actual de la caché. Debe leerse antes de consultar la base de datos.
+     * @return Versión actual.
+     */
+    public synchronized long version() {return version;}
+    /**
+     * Guarda un valor, siempre que la caché no haya sido invalidada desde la versión indicada.
+     * @param llave Llave del valor.
+     * @param valor Valor a guardar.
+     * @param versionLectura Versión leída antes de consultar la base de datos.
+     */
+    public synchronized void guardar(K llave, V valor, long versionLectura) {
+        if (versionLectura == version)
+            entradas.put(llave, new Entrada<>(valor, System.nanoTime()));
+    }
+    /**
+     * Remueve la entrada asociada a la llave.
+     * @param llave Llave a invalidar.
+     */
+    public synchronized void invalidar(K llave) {
+        version++;
+        if (entradas.remove(llave) != null)
+            invalidaciones++;
+    }
+    /**
+     * Remueve las entradas que cumplen la condición.
+     * @param condicion Condición sobre la llave y el valor de cada entrada.
+     */
+    public synchronized void invalidarSi(BiPredicate<K, V> condicion) {
+        version++;
+        Iterator<Map.Entry<K, Entrada<V>>> iterador = entradas.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<K, Entrada<V>> entrada = iterador.next();
+            if (condicion.test(entrada.getKey(), entrada.getValue().valor())) {
+                iterador.remove();
+                invalidaciones++;
+            }
+        }
+    }
+    /**
+     * Remueve todas las entradas.
+     */
+    public synchronized void limpiar() {
+        version++;
+        invalidaciones += entradas.size();
+        entradas.clear();
+    }
+    /**
+     * Retorna los valores guardados, sin afectar el orden de acceso ni los contadores.
+     * @return Copia de los valores guardados.
+     */
+    public synchronized List<V> valores() {
+        List<V> valores = new ArrayList<>(entradas.size());
+        for (Entrada<V> entrada : entradas.values())
+            valores.add(entrada.valor());
+        return valores;
+    }
+    /**
+     * Retorna una fotografía de los contadores de la caché.
+     * @return Estadísticas de la caché.
+     */
+    public synchronized EstadisticasCache estadisticas() {
+        return new EstadisticasCache(aciertos, fallos, desalojos, expiraciones, invalidaciones, entradas.size());
+    }
+}
@@ -0,0 +1,65 @@
+package Negocio;
+
+/**
+ * Clase que representa las estadísticas de rating de los restaurantes de una categoría.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EstadisticaCategoriaDTO {
+    // Categoría, normalizada.
+    private final String categoria;
+    // Cantidad de restaurantes de la categoría.
+    private final long cantidad;
+    // Rating promedio, mínimo y máximo; null si ningún restaurante de la categoría tiene rating.
+    private final Double ratingPromedio;
+    private final Double ratingMinimo;
+    private final Double ratingMaximo;
+    /**
+     * Constructor que recibe todos los atributos de la estadística.
+     * @param categoria Categoría, normalizada.
+     * @param cantidad Cantidad de restaurantes de la categoría.
+     * @param ratingPromedio Rating promedio.
+     * @param ratingMinimo Rating mínimo.
+     * @param ratingMaximo Rating máximo.
+     */
+    public EstadisticaCategoriaDTO(String categoria, long cantidad, Double ratingPromedio, Double ratingMinimo, Double ratingMaximo) {
+        this.categoria = categoria;
+        this.cantidad = cantidad;
+        this.ratingPromedio = ratingPromedio;
+        this.ratingMinimo = ratingMinimo;
+        this.ratingMaximo = ratingMaximo;
+    }
+    /**
+     * Retorna la categoría, normalizada.
+     * @return Categoría.
+     */
+    public String getCategoria() {return categoria;}
+    /**
+     * Retorna la cantidad de restaurantes de la categoría.
+     * @return Cantidad de restaurantes.
+     */
+    public long getCantidad() {return cantidad;}
+    /**
+     * Retorna el rating promedio de la categoría.
+     * @return Rating promedio, o null si ningún restaurante tiene rating.
+     */
+    public Double getRatingPromedio() {return ratingPromedio;}
+    /**
+     * Retorna el rating mínimo de la categoría.
+     * @return Rating mínimo, o null si ningún restaurante tiene rating.
+     */
+    public Double getRatingMinimo() {return ratingMinimo;}
+    /**
+     * Retorna el rating máximo de la categoría.
+     * @return Rating máximo, o null si ningún restaurante tiene rating.
+     */
+    public Double getRatingMaximo() {return ratingMaximo;}
+    /**
+     * Retorna una cadena con la información de la estadística.
+     * @return cadena con la información de la estadística.
+     */
+    @Override
+    public String toString() {
+        return "EstadisticaCategoriaDTO{" + "categoria=" + categoria + ", cantidad=" + cantidad + ", ratingPromedio=" + ratingPromedio + ", ratingMinimo=" + ratingMinimo + ", ratingMaximo=" + ratingMaximo + '}';
+    }
+}
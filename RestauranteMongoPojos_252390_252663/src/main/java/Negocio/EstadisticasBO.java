@@ -0,0 +1,208 @@
+package Negocio;
+
+import Persistencia.FabricaDAO;
+import Persistencia.IRestauranteDAO;
+import Persistencia.PersistenciaException;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BucketOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Clase de Negocio EstadisticasBO. Calcula estadísticas de los restaurantes con pipelines
+ * de agregación que se ejecutan en el servidor, por lo que solo los números agregados
+ * viajan por la red en lugar de la colección completa.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EstadisticasBO implements IEstadisticasBO {
+    // Rating máximo de la escala.
+    public static final double RATING_MAXIMO = 5.0;
+    // Ancho mínimo de los rangos del histograma, para acotar la cantidad de rangos.
+    public static final double ANCHO_MINIMO = 0.01;
+    // Identificador del rango de restaurantes sin rating o fuera de la escala.
+    private static final String FUERA_DE_ESCALA = "fueraDeEscala";
+    // Atributo DAO para operaciones con la BD.
+    private final IRestauranteDAO restauranteDAO;
+    /**
+     * Contructor por defecto. Usa el DAO del backend configurado en {@link FabricaDAO}.
+     */
+    private EstadisticasBO(){this(FabricaDAO.crearDAO());}
+    /**
+     * Constructor que recibe el DAO, para ejecutar el negocio sobre otro backend o una cadena
+     * de decoradores compuesta con {@link FabricaDAO#constructor()}. La instancia es independiente
+     * de la de {@link #getInstance()}.
+     * @param restauranteDAO DAO de restaurantes.
+     * @throws IllegalArgumentException Si el DAO es null.
+     */
+    public EstadisticasBO(IRestauranteDAO restauranteDAO){
+        if (restauranteDAO == null)
+            throw new IllegalArgumentException("El DAO de restaurantes no puede ser null.");
+        this.restauranteDAO = restauranteDAO;
+    }
+    /**
+     * Clase contenedora de la instancia SingleTon. La JVM la inicializa una sola vez,
+     * de forma segura entre hilos, la primera vez que se accede a ella.
+     */
+    private static final class Instancia {
+        // Atributo estático de la clase.
+        private static final EstadisticasBO INSTANCE = new EstadisticasBO();
+    }
+    /**
+     * Retorna la instancia SingleTon de la clase.
+     * @return Instancia de la clase.
+     */
+    public static EstadisticasBO getInstance(){
+        return Instancia.INSTANCE;
+    }
+    /**
+     * Calcula, por categoría normalizada, la cantidad de restaurantes y su rating promedio, mínimo y máximo.
+     * Se agrupa por categoriasNorm, de modo que "Mariscos" y "mariscos" cuentan como una sola categoría
+     * y un restaurante cuenta una sola vez en cada categoría.
+     * @return Lista de estadísticas, ordenada por categoría.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<EstadisticaCategoriaDTO> estadisticasPorCategoria() throws NegocioException {
+        List<Bson> pipeline = Arrays.asList(
+                // Un documento por cada categoría de cada restaurante.
+                Aggregates.unwind("$categoriasNorm"),
+                Aggregates.group("$categoriasNorm",
+                        Accumulators.sum("cantidad", 1),
+                        Accumulators.avg("promedio", "$rating"),
+                        Accumulators.min("minimo", "$rating"),
+                        Accumulators.max("maximo", "$rating")),
+                Aggregates.sort(Sorts.ascending("_id"))
+        );
+        try {
+            List<EstadisticaCategoriaDTO> estadisticas = new ArrayList<>();
+            for (Document documento : restauranteDAO.agregar(pipeline))
+                estadisticas.add(new EstadisticaCategoriaDTO(
+                        documento.getString("_id"),
+                        numero(documento, "cantidad").longValue(),
+                        decimal(documento, "promedio"),
+                        decimal(documento, "minimo"),
+                        decimal(documento, "maximo")));
+            return estadisticas;
+        } catch (PersistenciaException ex) {
+            throw new NegocioException("Ha ocurrido un error al intentar calcular las estadísticas por categoría.");
+        }
+    }
+    /**
+     * Calcula el histograma de ratings de 0 a {@value #RATING_MAXIMO}, con rangos del ancho recibido.
+     * Los rangos sin restaurantes se incluyen con cantidad cero; si existen restaurantes sin rating
+     * o fuera de la escala, se agrega al final un rango con límites null.
+     * @param ancho Ancho de cada rango, de {@value #ANCHO_MINIMO} en adelante.
+     * @return Lista de rangos, ordenada por límite inferior.
+     * @throws NegocioException Si el ancho no es válido o la consulta falla.
+     */
+    @Override
+    public List<RangoRatingDTO> histogramaRating(double ancho) throws NegocioException {
+        // Valida el ancho recibido (también rechaza NaN).
+        if (!(ancho >= ANCHO_MINIMO))
+            throw new NegocioException("El ancho de los rangos debe ser de al menos " + ANCHO_MINIMO + ".");
+        // Límites de los rangos; el último se extiende apenas sobre el máximo para incluirlo.
+        List<Double> limites = new ArrayList<>();
+        for (int i = 0; i * ancho < RATING_MAXIMO; i++)
+            limites.add(i * ancho);
+        limites.add(Math.nextUp(RATING_MAXIMO));
+        List<Bson> pipeline = Arrays.asList(
+                Aggregates.bucket("$rating", limites, new BucketOptions()
+                        .defaultBucket(FUERA_DE_ESCALA)
+                        .output(Accumulators.sum("cantidad", 1)))
+        );
+        try {
+            // Cantidad por límite inferior; el servidor omite los rangos vacíos.
+            Map<Double, Long> cantidades = new HashMap<>();
+            long fueraDeEscala = 0;
+            for (Document documento : restauranteDAO.agregar(pipeline)) {
+                long cantidad = numero(documento, "cantidad").longValue();
+                if (documento.get("_id") instanceof Number desde)
+                    cantidades.put(desde.doubleValue(), cantidad);
+                else
+                    fueraDeEscala = cantidad;
+            }
+            List<RangoRatingDTO> histograma = new ArrayList<>(limites.size());
+            for (int i = 0; i < limites.size() - 1; i++) {
+                double hasta = i == limites.size() - 2 ? RATING_MAXIMO : limites.get(i + 1);
+                histograma.add(new RangoRatingDTO(limites.get(i), hasta, cantidades.getOrDefault(limites.get(i), 0L)));
+            }
+            if (fueraDeEscala > 0)
+                histograma.add(new RangoRatingDTO(null, null, fueraDeEscala));
+            return histograma;
+        } catch (PersistenciaException ex) {
+            throw new NegocioException("Ha ocurrido un error al intentar calcular el histograma de ratings.");
+        }
+    }
+    /**
+     * Cuenta los restaurantes inaugurados en cada año. Se omiten los restaurantes sin fecha de inauguración.
+     * @return Lista de aperturas por año, ordenada por año.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<AperturasAnioDTO> aperturasPorAnio() throws NegocioException {
+        List<Bson> pipeline = Arrays.asList(
+                // Solo los restaurantes con fecha; $year falla con otros tipos.
+                Aggregates.match(Filters.type("fechaInauguracion", BsonType.DATE_TIME)),
+                Aggregates.group(new Document("$year", "$fechaInauguracion"), Accumulators.sum("cantidad", 1)),
+                Aggregates.sort(Sorts.ascending("_id"))
+        );
+        try {
+            List<AperturasAnioDTO> aperturas = new ArrayList<>();
+            for (Document documento : restauranteDAO.agregar(pipeline))
+                aperturas.add(new AperturasAnioDTO(numero(documento, "_id").intValue(), numero(documento, "cantidad").longValue()));
+            return aperturas;
+        } catch (PersistenciaException ex) {
+            throw new NegocioException("Ha ocurrido un error al intentar contar las aperturas por año.");
+        }
+    }
+    /**
+     * Obtiene, para cada categoría normalizada, los N restaurantes con mayor rating, desempatando
+     * por nombre. El servidor conserva solo N restaurantes por grupo mientras agrupa ($topN,
+     * disponible desde MongoDB 5.2), por lo que la memoria no crece con el tamaño de la categoría.
+     * @param n Cantidad de restaurantes por categoría.
+     * @return Mapa de categoría a sus mejores restaurantes, ordenado por categoría.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    @Override
+    public Map<String, List<RestauranteDTO>> topNPorCategoria(int n) throws NegocioException {
+        // Valida la cantidad recibida.
+        if (n <= 0)
+            throw new NegocioException("La cantidad de restaurantes por categoría debe ser mayor a cero.");
+        try {
+            // Todas las categorías: el filtro de tipo se cumple antes de $unwind (algún elemento es
+            // cadena) y después (el valor es cadena).
+            return RestauranteBO.agruparTopN(restauranteDAO.agregar(
+                    RestauranteBO.pipelineTopN(Filters.type("categoriasNorm", BsonType.STRING), n)));
+        } catch (PersistenciaException ex) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar los mejores restaurantes por categoría.");
+        }
+    }
+    /**
+     * Lee un campo numérico de un resultado de agregación, que el servidor puede devolver como int, long o double.
+     * @param documento Documento de resultado.
+     * @param campo Nombre del campo.
+     * @return Valor del campo.
+     */
+    private static Number numero(Document documento, String campo) {
+        return (Number) documento.get(campo);
+    }
+    /**
+     * Lee un campo numérico opcional de un resultado de agregación como double.
+     * @param documento Documento de resultado.
+     * @param campo Nombre del campo.
+     * @return Valor del campo, o null si no existe o no es numérico.
+     */
+    private static Double decimal(Document documento, String campo) {
+        return documento.get(campo) instanceof Number valor ? valor.doubleValue() : null;
+    }
+}
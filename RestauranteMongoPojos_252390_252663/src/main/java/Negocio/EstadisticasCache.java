@@ -0,0 +1,85 @@
+package Negocio;
+
+/**
+ * Clase que representa una fotografía de los contadores de una {@link CacheLRU}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EstadisticasCache {
+    // Consultas respondidas desde la caché.
+    private final long aciertos;
+    // Consultas que no encontraron una entrada vigente.
+    private final long fallos;
+    // Entradas desalojadas por exceder la capacidad.
+    private final long desalojos;
+    // Entradas descartadas por exceder su tiempo de vida.
+    private final long expiraciones;
+    // Entradas removidas por escrituras sobre restaurantes que contenían.
+    private final long invalidaciones;
+    // Cantidad de entradas actuales.
+    private final int tamano;
+    /**
+     * Constructor que recibe todos los contadores.
+     * @param aciertos Consultas respondidas desde la caché.
+     * @param fallos Consultas que no encontraron una entrada vigente.
+     * @param desalojos Entradas desalojadas por exceder la capacidad.
+     * @param expiraciones Entradas descartadas por exceder su tiempo de vida.
+     * @param invalidaciones Entradas removidas por escrituras.
+     * @param tamano Cantidad de entradas actuales.
+     */
+    public EstadisticasCache(long aciertos, long fallos, long desalojos, long expiraciones, long invalidaciones, int tamano) {
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojos = desalojos;
+        this.expiraciones = expiraciones;
+        this.invalidaciones = invalidaciones;
+        this.tamano = tamano;
+    }
+    /**
+     * Retorna las consultas respondidas desde la caché.
+     * @return Aciertos.
+     */
+    public long getAciertos() {return aciertos;}
+    /**
+     * Retorna las consultas que no encontraron una entrada vigente.
+     * @return Fallos.
+     */
+    public long getFallos() {return fallos;}
+    /**
+     * Retorna las entradas desalojadas por exceder la capacidad.
+     * @return Desalojos.
+     */
+    public long getDesalojos() {return desalojos;}
+    /**
+     * Retorna las entradas descartadas por exceder su tiempo de vida.
+     * @return Expiraciones.
+     */
+    public long getExpiraciones() {return expiraciones;}
+    /**
+     * Retorna las entradas removidas por escrituras.
+     * @return Invalidaciones.
+     */
+    public long getInvalidaciones() {return invalidaciones;}
+    /**
+     * Retorna la cantidad de entradas actuales.
+     * @return Tamaño de la caché.
+     */
+    public int getTamano() {return tamano;}
+    /**
+     * Retorna la proporción de consultas respondidas desde la caché.
+     * @return Tasa de aciertos, entre 0 y 1.
+     */
+    public double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0.0 : (double) aciertos / total;
+    }
+    /**
+     * Retorna una cadena con los contadores.
+     * @return Cadena con los contadores.
+     */
+    @Override
+    public String toString() {
+        return "EstadisticasCache{" + "aciertos=" + aciertos + ", fallos=" + fallos + ", desalojos=" + desalojos
+                + ", expiraciones=" + expiraciones + ", invalidaciones=" + invalidaciones + ", tamano=" + tamano + '}';
+    }
+}
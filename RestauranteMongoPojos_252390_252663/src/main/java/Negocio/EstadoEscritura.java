@@ -0,0 +1,23 @@
+package Negocio;
+
+/**
+ * Estados posibles de un restaurante dentro de una escritura masiva, un upsert o una actualización por lotes.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public enum EstadoEscritura {
+    /** El restaurante fue insertado. */
+    INSERTADO,
+    /** El restaurante ya existía (según la llave del upsert o el nombre de la actualización) y fue reemplazado o actualizado. */
+    ACTUALIZADO,
+    /** Ningún restaurante coincidió con la actualización: no existe su nombre, o ya tenía la categoría a agregar. */
+    NO_ENCONTRADO,
+    /** La actualización se aplicó, pero no puede saberse si coincidió con un restaurante: el lote cambió mientras se escribía. */
+    INDETERMINADO,
+    /** El restaurante no se escribió porque viola un índice único (por ejemplo, su nombre ya existe). */
+    DUPLICADO,
+    /** El restaurante no se envió a la base de datos porque no pasó la validación. */
+    INVALIDO,
+    /** El restaurante no se escribió por un error de la base de datos. */
+    ERROR
+}
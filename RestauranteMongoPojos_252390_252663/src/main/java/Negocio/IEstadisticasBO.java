@@ -0,0 +1,41 @@
+package Negocio;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interfaz para la clase EstadisticasBO.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface IEstadisticasBO {
+    /**
+     * Calcula, por categoría normalizada, la cantidad de restaurantes y su rating promedio, mínimo y máximo.
+     * @return Lista de estadísticas, ordenada por categoría.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<EstadisticaCategoriaDTO> estadisticasPorCategoria() throws NegocioException;
+    /**
+     * Calcula el histograma de ratings de 0 a {@value EstadisticasBO#RATING_MAXIMO}, con rangos del ancho recibido.
+     * Los rangos sin restaurantes se incluyen con cantidad cero; si existen restaurantes sin rating
+     * o fuera de la escala, se agrega al final un rango con límites null.
+     * @param ancho Ancho de cada rango.
+     * @return Lista de rangos, ordenada por límite inferior.
+     * @throws NegocioException Si el ancho no es válido o la consulta falla.
+     */
+    public List<RangoRatingDTO> histogramaRating(double ancho) throws NegocioException;
+    /**
+     * Cuenta los restaurantes inaugurados en cada año. Se omiten los restaurantes sin fecha de inauguración.
+     * @return Lista de aperturas por año, ordenada por año.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<AperturasAnioDTO> aperturasPorAnio() throws NegocioException;
+    /**
+     * Obtiene, para cada categoría normalizada, los N restaurantes con mayor rating,
+     * desempatando por nombre.
+     * @param n Cantidad de restaurantes por categoría.
+     * @return Mapa de categoría a sus mejores restaurantes, ordenado por categoría.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    public Map<String, List<RestauranteDTO>> topNPorCategoria(int n) throws NegocioException;
+}
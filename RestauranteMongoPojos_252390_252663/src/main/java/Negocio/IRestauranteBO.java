@@ -1,7 +1,10 @@
 package Negocio;
 
 import Negocio.RestauranteDTO;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Interfaz para la clase RestauranteBO.
@@ -11,7 +14,7 @@ import java.util.List;
 public interface IRestauranteBO {
     // Inserciones
     /**
-     * Inserta unos restaurantes por defecto.
+     * Inserta unos restaurantes por defecto, omitiendo los que ya existen.
      * @throws NegocioException Excepción de negocio.
      */
     public void insertarRestaurantesPorDefecto() throws NegocioException;;
@@ -27,6 +30,38 @@ public interface IRestauranteBO {
      * @throws NegocioException Excepción de negocio.
      */
     public void insertarVarios(List<RestauranteDTO> restaurantes) throws NegocioException;;
+    /**
+     * Inserta restaurantes de forma masiva, dividiéndolos en lotes que se envían como
+     * escrituras no ordenadas. Mientras un lote se escribe, el siguiente se valida y mapea.
+     * Un restaurante inválido o duplicado no detiene a los demás: cada uno recibe su propio
+     * resultado, en el orden de la entrada.
+     * @param restaurantes Restaurantes a insertar; se recorren una sola vez, lote por lote.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: ID insertado, duplicado, inválido o error.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<ResultadoEscrituraDTO> insertarMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote) throws NegocioException;
+    /**
+     * Guarda un restaurante completo por su nombre o su clave de idempotencia: si ya existe uno con la
+     * misma llave lo reemplaza y, si no, lo inserta, en una sola operación. Es seguro reintentarlo.
+     * @param restaurante Restaurante a guardar.
+     * @param llave Campo que identifica al restaurante.
+     * @return Resultado de la escritura: INSERTADO, con el nuevo ID, o ACTUALIZADO.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public ResultadoEscrituraDTO upsert(RestauranteDTO restaurante, LlaveUpsert llave) throws NegocioException;
+    /**
+     * Guarda restaurantes de forma masiva por su nombre o su clave de idempotencia, con upserts no
+     * ordenados enviados en lotes: cada restaurante se inserta si su llave no existe y, si existe,
+     * se reemplaza completo o se actualizan solo sus atributos no nulos.
+     * @param restaurantes Restaurantes a guardar; se recorren una sola vez, lote por lote.
+     * @param llave Campo que identifica a cada restaurante.
+     * @param reemplazar VERDADERO para reemplazar el restaurante completo, FALSO para actualizar solo los atributos no nulos.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: insertado con su ID, actualizado, duplicado, inválido o error.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<ResultadoEscrituraDTO> upsertVarios(Iterable<RestauranteDTO> restaurantes, LlaveUpsert llave, boolean reemplazar, int tamanoLote) throws NegocioException;
     
     // Consultas
     /**
@@ -58,12 +93,35 @@ public interface IRestauranteBO {
      */
     public List<RestauranteDTO> consultarPorCategoria(String categoria) throws NegocioException;
     /**
-     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida.
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida, con el tiempo
+     * máximo por defecto en el servidor.
      * @param patron Expresión regular a comparar.
      * @return Lista con restaurantes encontrados.
-     * @throws NegocioException Excepción de negocio.
+     * @throws NegocioException Excepción de negocio, o si la búsqueda excede el tiempo máximo.
+     * @deprecated Una expresión regular sin ancla evalúa el nombre de cada restaurante; usar
+     * {@link #buscarTexto(String, int)}, o {@link #buscarPorNombreRegex(String, long)} si se necesita una expresión regular.
      */
+    @Deprecated
     public List<RestauranteDTO> buscarPorNombreRegex(String patron) throws NegocioException;
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida. El servidor
+     * aborta la búsqueda si excede el tiempo máximo recibido.
+     * @param patron Expresión regular a comparar.
+     * @param tiempoMaximoMS Tiempo máximo de la búsqueda en el servidor, en milisegundos.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Si el tiempo máximo no es válido, la búsqueda lo excede o falla.
+     */
+    public List<RestauranteDTO> buscarPorNombreRegex(String patron, long tiempoMaximoMS) throws NegocioException;
+    /**
+     * Busca restaurantes por palabras en su nombre o categorías con el índice de texto, que
+     * reconoce las raíces de las palabras en español (p. ej. "marisco" encuentra "Mariscos").
+     * Los resultados se ordenan por relevancia.
+     * @param consulta Palabras a buscar; admite frases entre comillas y exclusiones con "-".
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, del más al menos relevante.
+     * @throws NegocioException Si la consulta o el límite no son válidos o la búsqueda falla.
+     */
+    public List<RestauranteDTO> buscarTexto(String consulta, int limite) throws NegocioException;
     /**
      * Consulta restaurantes cuyo nombre comienza con el prefijo recibido.
      * @param prefijo Prefijo a comparar.
@@ -71,6 +129,15 @@ public interface IRestauranteBO {
      * @throws NegocioException Excepción de negocio.
      */
     public List<RestauranteDTO> buscarNombreIniciaCon(String prefijo) throws NegocioException;
+    /**
+     * Sugiere nombres de restaurantes que comienzan con el prefijo recibido, sin distinguir
+     * mayúsculas ni acentos, en orden alfabético.
+     * @param prefijo Texto escrito hasta el momento.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Lista con los nombres sugeridos.
+     * @throws NegocioException Si el prefijo o el límite no son válidos o la consulta falla.
+     */
+    public List<String> autocompletarNombre(String prefijo, int limite) throws NegocioException;
     /**
      * Consulta restaurantes cuya fecha de inauguración está después del año recibido, y muestra
      * los resultados según el orden recibido.
@@ -81,12 +148,32 @@ public interface IRestauranteBO {
      */
     public List<RestauranteDTO> consultarPorFechaDesdeOrdenado(int anio, boolean ascendente) throws NegocioException;
     /**
-     * Consulta restaurantes cuya categoría equivale a la recibida, y muestra solo tres resultados.
+     * Consulta los tres restaurantes con mayor rating cuya categoría equivale a la recibida.
+     * Equivale a {@code topNPorCategoria(categoria, 3)}.
      * @param categoria Categoría a comparar.
      * @return Lista con restaurantes encontrados.
      * @throws NegocioException Excepción de negocio.
      */
     public List<RestauranteDTO> top3RestaurantesPorCategoria(String categoria) throws NegocioException;
+    /**
+     * Consulta los N restaurantes con mayor rating cuya categoría equivale a la recibida,
+     * desempatando por nombre.
+     * @param categoria Categoría a comparar.
+     * @param n Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, ordenada por rating descendente y nombre.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    public List<RestauranteDTO> topNPorCategoria(String categoria, int n) throws NegocioException;
+    /**
+     * Consulta, en una sola petición, los N restaurantes con mayor rating de cada una de las
+     * categorías recibidas, desempatando por nombre.
+     * @param categorias Categorías a comparar.
+     * @param n Cantidad máxima de restaurantes por categoría.
+     * @return Mapa de cada categoría recibida a sus restaurantes encontrados, en el orden recibido;
+     * las categorías sin restaurantes tienen una lista vacía.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    public Map<String, List<RestauranteDTO>> topNPorCategorias(Collection<String> categorias, int n) throws NegocioException;
     /**
      * Consulta restaurantes sin categorías.
      * @return Lista con restaurantes encontrados.
@@ -101,6 +188,159 @@ public interface IRestauranteBO {
      */
     public RestauranteDTO consultarRestaurantePorNombreCompleto(String nombre) throws NegocioException;
     
+    // Consultas en flujo
+    /**
+     * Consulta todos los restaurantes como un flujo respaldado por un cursor.
+     * Cada restaurante se mapea conforme se lee del cursor, y el flujo debe cerrarse
+     * (por ejemplo, con try-with-resources) para liberar el cursor.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Stream<RestauranteDTO> consultarTodosStream(int tamanoLote) throws NegocioException;
+    /**
+     * Consulta restaurantes cuyo rating es mayor al valor recibido, como un flujo respaldado por un cursor.
+     * @param valor Rating a límite.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Stream<RestauranteDTO> consultarPorRatingMayorAStream(double valor, int tamanoLote) throws NegocioException;
+    /**
+     * Consulta restaurantes cuyo rating se encuentra dentro del rango recibido, como un flujo respaldado por un cursor.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Stream<RestauranteDTO> consultarPorRangoRatingStream(double min, double max, int tamanoLote) throws NegocioException;
+    /**
+     * Consulta restaurantes cuya categoría es igual a la recibida, como un flujo respaldado por un cursor.
+     * @param categoria Categoría a comparar.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Stream<RestauranteDTO> consultarPorCategoriaStream(String categoria, int tamanoLote) throws NegocioException;
+    /**
+     * Consulta restaurantes cuya fecha de inauguración está después del año recibido, en el orden recibido,
+     * como un flujo respaldado por un cursor.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Stream<RestauranteDTO> consultarPorFechaDesdeOrdenadoStream(int anio, boolean ascendente, int tamanoLote) throws NegocioException;
+    
+    // Consultas paginadas
+    /**
+     * Consulta todos los restaurantes por páginas, ordenados por ID.
+     * Cada página se obtiene con un predicado de rango a partir del token, no con skip,
+     * por lo que su costo no depende de cuántas páginas se hayan leído antes.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> consultarTodosPagina(int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuyo rating es mayor al valor recibido, ordenados por rating.
+     * @param valor Rating a límite.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> consultarPorRatingMayorAPagina(double valor, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuyo rating se encuentra dentro del rango recibido, ordenados por rating.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> consultarPorRangoRatingPagina(double min, double max, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuya categoría es igual a la recibida, ordenados por ID.
+     * @param categoria Categoría a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> consultarPorCategoriaPagina(String categoria, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre coincide con la expresión regular recibida, ordenados por nombre.
+     * @param patron Expresión regular a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> buscarPorNombreRegexPagina(String patron, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre comienza con el prefijo recibido, ordenados por nombre.
+     * @param prefijo Prefijo a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> buscarNombreIniciaConPagina(String prefijo, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes cuya fecha de inauguración está después del año recibido,
+     * en el orden recibido.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> consultarPorFechaDesdeOrdenadoPagina(int anio, boolean ascendente, int tamanoPagina, String token) throws NegocioException;
+    /**
+     * Consulta por páginas los restaurantes sin categorías, ordenados por ID.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public Pagina<RestauranteDTO> sinCategoriasPagina(int tamanoPagina, String token) throws NegocioException;
+    
+    // Consultas de resumen
+    /**
+     * Consulta el resumen (ID, nombre y rating) de todos los restaurantes.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<RestauranteResumenDTO> consultarTodosResumen() throws NegocioException;
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating es mayor al valor recibido.
+     * @param valor Rating a límite.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<RestauranteResumenDTO> consultarPorRatingMayorAResumen(double valor) throws NegocioException;
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating se encuentra dentro del rango recibido.
+     * @param min Rating mínimo.
+     * @param max Rating máximo.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<RestauranteResumenDTO> consultarPorRangoRatingResumen(double min, double max) throws NegocioException;
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuya categoría equivale a la recibida.
+     * @param categoria Categoría a comparar.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<RestauranteResumenDTO> consultarPorCategoriaResumen(String categoria) throws NegocioException;
+    
     // Actualizaciones
     /**
      * Actualiza el rating de un restaurante por su nombre.
@@ -157,6 +397,15 @@ public interface IRestauranteBO {
      * @throws NegocioException Excepción de negocio.
      */
     public boolean actualizarCategorias(String nombre, List<String> categorias) throws NegocioException;;
+    /**
+     * Aplica una lista de actualizaciones por nombre de restaurante, enviándolas en lotes
+     * (una escritura por lote) en lugar de una por actualización.
+     * @param actualizaciones Actualizaciones a aplicar, en orden.
+     * @param tamanoLote Cantidad máxima de actualizaciones por lote.
+     * @return Resultado de cada actualización (coincidencias y modificados), en el orden de la entrada.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public List<ResultadoActualizacionDTO> actualizarVarios(List<ActualizacionRestauranteDTO> actualizaciones, int tamanoLote) throws NegocioException;
     
     // Eliminaciones
     /**
@@ -193,4 +442,15 @@ public interface IRestauranteBO {
      * @throws NegocioException Excepción de negocio.
      */
     public boolean eliminarPorID(String id) throws NegocioException;;
-}
\ No newline at end of file
+    
+    // Mantenimiento
+    /**
+     * Rellena, en lotes, las categorías normalizadas de los restaurantes existentes
+     * que aún no las tienen. Solo procesa los restaurantes pendientes, por lo que
+     * basta con ejecutarlo una vez tras actualizar la aplicación.
+     * @param tamanoLote Cantidad de restaurantes procesados por lote.
+     * @return Número de restaurantes actualizados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    public long migrarCategoriasNormalizadas(int tamanoLote) throws NegocioException;
+}
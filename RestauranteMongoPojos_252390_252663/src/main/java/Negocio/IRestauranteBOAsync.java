@@ -0,0 +1,361 @@
+package Negocio;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interfaz asíncrona de negocio de restaurantes. Cada método equivale al método del mismo
+ * nombre de {@link IRestauranteBO}, pero regresa de inmediato un {@link CompletableFuture}
+ * en lugar de bloquear al llamador mientras se espera a MongoDB. Si la operación lanza una
+ * {@link NegocioException}, el futuro se completa excepcionalmente con ella (envuelta en una
+ * ExecutionException o CompletionException al usar get() o join()). En cada método con
+ * resultado, el {@code @return} describe el valor con el que se completa el futuro.
+ * Las consultas en flujo no tienen equivalente, ya que su cursor debe consumirse en un solo hilo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface IRestauranteBOAsync {
+    // Inserciones
+    /**
+     * Inserta unos restaurantes por defecto.
+     * @return Futuro que se completa al terminar la operación.
+     */
+    public CompletableFuture<Void> insertarRestaurantesPorDefecto();
+    /**
+     * Inserta un nuevo restaurante.
+     * @param restaurante Restaurante a insertar.
+     * @return Futuro que se completa al terminar la operación.
+     */
+    public CompletableFuture<Void> insertar(RestauranteDTO restaurante);
+    /**
+     * Inserta una lista de restaurantes.
+     * @param restaurantes Lista de restaurantes a insertar.
+     * @return Futuro que se completa al terminar la operación.
+     */
+    public CompletableFuture<Void> insertarVarios(List<RestauranteDTO> restaurantes);
+    /**
+     * Inserta restaurantes de forma masiva, dividiéndolos en lotes que se envían como
+     * escrituras no ordenadas. Mientras un lote se escribe, el siguiente se valida y mapea.
+     * Un restaurante inválido o duplicado no detiene a los demás: cada uno recibe su propio
+     * resultado, en el orden de la entrada.
+     * @param restaurantes Restaurantes a insertar; se recorren una sola vez, lote por lote.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: ID insertado, duplicado, inválido o error.
+     */
+    public CompletableFuture<List<ResultadoEscrituraDTO>> insertarMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote);
+    /**
+     * Guarda un restaurante completo por su nombre o su clave de idempotencia: si ya existe uno con la
+     * misma llave lo reemplaza y, si no, lo inserta, en una sola operación. Es seguro reintentarlo.
+     * @param restaurante Restaurante a guardar.
+     * @param llave Campo que identifica al restaurante.
+     * @return Resultado de la escritura: INSERTADO, con el nuevo ID, o ACTUALIZADO.
+     */
+    public CompletableFuture<ResultadoEscrituraDTO> upsert(RestauranteDTO restaurante, LlaveUpsert llave);
+    /**
+     * Guarda restaurantes de forma masiva por su nombre o su clave de idempotencia, con upserts no
+     * ordenados enviados en lotes: cada restaurante se inserta si su llave no existe y, si existe,
+     * se reemplaza completo o se actualizan solo sus atributos no nulos.
+     * @param restaurantes Restaurantes a guardar; se recorren una sola vez, lote por lote.
+     * @param llave Campo que identifica a cada restaurante.
+     * @param reemplazar VERDADERO para reemplazar el restaurante completo, FALSO para actualizar solo los atributos no nulos.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: insertado con su ID, actualizado, duplicado, inválido o error.
+     */
+    public CompletableFuture<List<ResultadoEscrituraDTO>> upsertVarios(Iterable<RestauranteDTO> restaurantes, LlaveUpsert llave, boolean reemplazar, int tamanoLote);
+    
+    // Consultas
+    /**
+     * Consulta todos los restaurantes.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> consultarTodos();
+    /**
+     * Consulta restaurantes cuyo rating es mayor al valor recibido.
+     * @param valor Rating a límite.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> consultarPorRatingMayorA(double valor);
+    /**
+     * Consulta restaurantes cuyo rating se encuentra dentro del rango recibido.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> consultarPorRangoRating(double min, double max);
+    /**
+     *  Consulta restaurantes cuya categoría es igual a la recibida.
+     * @param categoria Categoría a comparar.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> consultarPorCategoria(String categoria);
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida.
+     * @param patron Expresión regular a comparar.
+     * @return Lista con restaurantes encontrados.
+     * @deprecated Usar {@link #buscarTexto(String, int)} o {@link #buscarPorNombreRegex(String, long)}.
+     */
+    @Deprecated
+    public CompletableFuture<List<RestauranteDTO>> buscarPorNombreRegex(String patron);
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida, con tiempo máximo en el servidor.
+     * @param patron Expresión regular a comparar.
+     * @param tiempoMaximoMS Tiempo máximo de la búsqueda en el servidor, en milisegundos.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> buscarPorNombreRegex(String patron, long tiempoMaximoMS);
+    /**
+     * Busca restaurantes por palabras en su nombre o categorías, ordenados por relevancia.
+     * @param consulta Palabras a buscar.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, del más al menos relevante.
+     */
+    public CompletableFuture<List<RestauranteDTO>> buscarTexto(String consulta, int limite);
+    /**
+     * Consulta restaurantes cuyo nombre comienza con el prefijo recibido.
+     * @param prefijo Prefijo a comparar.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> buscarNombreIniciaCon(String prefijo);
+    /**
+     * Sugiere nombres de restaurantes que comienzan con el prefijo recibido, sin distinguir
+     * mayúsculas ni acentos, en orden alfabético.
+     * @param prefijo Texto escrito hasta el momento.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Lista con los nombres sugeridos.
+     */
+    public CompletableFuture<List<String>> autocompletarNombre(String prefijo, int limite);
+    /**
+     * Consulta restaurantes cuya fecha de inauguración está después del año recibido, y muestra
+     * los resultados según el orden recibido.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> consultarPorFechaDesdeOrdenado(int anio, boolean ascendente);
+    /**
+     * Consulta restaurantes cuya categoría equivale a la recibida, y muestra solo tres resultados.
+     * @param categoria Categoría a comparar.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> top3RestaurantesPorCategoria(String categoria);
+    /**
+     * Consulta los N restaurantes con mayor rating cuya categoría equivale a la recibida.
+     * @param categoria Categoría a comparar.
+     * @param n Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> topNPorCategoria(String categoria, int n);
+    /**
+     * Consulta los N restaurantes con mayor rating de cada una de las categorías recibidas.
+     * @param categorias Categorías a comparar.
+     * @param n Cantidad máxima de restaurantes por categoría.
+     * @return Mapa de cada categoría recibida a sus restaurantes encontrados.
+     */
+    public CompletableFuture<Map<String, List<RestauranteDTO>>> topNPorCategorias(Collection<String> categorias, int n);
+    /**
+     * Consulta restaurantes sin categorías.
+     * @return Lista con restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteDTO>> sinCategorias();
+    /**
+     * Consulta restaurantes por su nombre completo.
+     * @param nombre Nombre completo del restaurante.
+     * @return Restaurante encontrado.
+     */
+    public CompletableFuture<RestauranteDTO> consultarRestaurantePorNombreCompleto(String nombre);
+    
+    // Consultas paginadas
+    /**
+     * Consulta todos los restaurantes por páginas, ordenados por ID.
+     * Cada página se obtiene con un predicado de rango a partir del token, no con skip,
+     * por lo que su costo no depende de cuántas páginas se hayan leído antes.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarTodosPagina(int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuyo rating es mayor al valor recibido, ordenados por rating.
+     * @param valor Rating a límite.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorRatingMayorAPagina(double valor, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuyo rating se encuentra dentro del rango recibido, ordenados por rating.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorRangoRatingPagina(double min, double max, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuya categoría es igual a la recibida, ordenados por ID.
+     * @param categoria Categoría a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorCategoriaPagina(String categoria, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre coincide con la expresión regular recibida, ordenados por nombre.
+     * @param patron Expresión regular a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> buscarPorNombreRegexPagina(String patron, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre comienza con el prefijo recibido, ordenados por nombre.
+     * @param prefijo Prefijo a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> buscarNombreIniciaConPagina(String prefijo, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes cuya fecha de inauguración está después del año recibido,
+     * en el orden recibido.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorFechaDesdeOrdenadoPagina(int anio, boolean ascendente, int tamanoPagina, String token);
+    /**
+     * Consulta por páginas los restaurantes sin categorías, ordenados por ID.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     */
+    public CompletableFuture<Pagina<RestauranteDTO>> sinCategoriasPagina(int tamanoPagina, String token);
+    
+    // Consultas de resumen
+    /**
+     * Consulta el resumen (ID, nombre y rating) de todos los restaurantes.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarTodosResumen();
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating es mayor al valor recibido.
+     * @param valor Rating a límite.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorRatingMayorAResumen(double valor);
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating se encuentra dentro del rango recibido.
+     * @param min Rating mínimo.
+     * @param max Rating máximo.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorRangoRatingResumen(double min, double max);
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuya categoría equivale a la recibida.
+     * @param categoria Categoría a comparar.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     */
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorCategoriaResumen(String categoria);
+    
+    // Actualizaciones
+    /**
+     * Actualiza el rating de un restaurante por su nombre.
+     * @param nombre Nombre del restaurante.
+     * @param nuevoRating Nuevo rating del restaurante.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> actualizarRatingPorNombre(String nombre, double nuevoRating);
+    /**
+     * Agrega una nueva categoría a un restaurante.
+     * @param nombre Nombre del restaurante.
+     * @param nuevaCategoria Nueva categoría a añadir.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> agregarCategoriaSinDuplicado(String nombre, String nuevaCategoria);
+    /**
+     * Incrementa el rating de uno o varios restaurantes por categoría.
+     * @param categoria Categoría de los restaurantes.
+     * @param incremento Valor de incremento.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> aumentarRatingPorCategoria(String categoria, double incremento);
+    /**
+     * Incrementa el rating de un restaurante por su nombre.
+     * @param nombre Nombre del restaurante.
+     * @param incremento Valor de incremento.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> aumentarRatingPorNombreRestaurante(String nombre, double incremento);
+    /**
+     * Agrega una lista de categorías a restaurantes que no cuentan con ninguna.
+     * @param categorias Lista de categorías a añadir.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Integer> agregarCategoriasDondeFalten(List<String> categorias);
+    /**
+     * Actualiza el nombre de un restaurante.
+     * @param anterior Nombre previo.
+     * @param nuevo Nuevo nombre.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> actualizarNombre(String anterior, String nuevo);
+    /**
+     * Actualiza las categorías de un restaurante (reemplaza las previas).
+     * @param nombre Nombre del restaurante.
+     * @param categorias Nuevas categorías.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> actualizarCategorias(String nombre, List<String> categorias);
+    /**
+     * Aplica una lista de actualizaciones por nombre de restaurante, enviándolas en lotes.
+     * @param actualizaciones Actualizaciones a aplicar, en orden.
+     * @param tamanoLote Cantidad máxima de actualizaciones por lote.
+     * @return Resultado de cada actualización, en el orden de la entrada.
+     */
+    public CompletableFuture<List<ResultadoActualizacionDTO>> actualizarVarios(List<ActualizacionRestauranteDTO> actualizaciones, int tamanoLote);
+    
+    // Eliminaciones
+    /**
+     * Elimina un restaurante por su nombre.
+     * @param nombre Nombre del restaurante.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> eliminarPorNombre(String nombre);
+    /**
+     * Elimina restaurantes cuyo rating es menor al valor recibido.
+     * @param limite Valor límite.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Integer> eliminarPorRatingMenorA(double limite);
+    /**
+     * Elimina restaurantes que contengan la categoría recibida.
+     * @param categoria Categoría a comparar.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Integer> eliminarPorCategoria(String categoria);
+    /**
+     * Elmina restaurantes que no tengan fecha de inauguración.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Integer> eliminarSinFechaInauguracion();
+    /**
+     * Elimina unn restaurante por su ID.
+     * @param id ID del restaurante.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     */
+    public CompletableFuture<Boolean> eliminarPorID(String id);
+    
+    // Mantenimiento
+    /**
+     * Rellena, en lotes, las categorías normalizadas de los restaurantes existentes
+     * que aún no las tienen. Solo procesa los restaurantes pendientes, por lo que
+     * basta con ejecutarlo una vez tras actualizar la aplicación.
+     * @param tamanoLote Cantidad de restaurantes procesados por lote.
+     * @return Número de restaurantes actualizados.
+     */
+    public CompletableFuture<Long> migrarCategoriasNormalizadas(int tamanoLote);
+}
@@ -0,0 +1,34 @@
+package Negocio;
+
+/**
+ * Campo que identifica a un restaurante en los upserts. Ambos tienen índice único, por lo que
+ * un upsert repetido con la misma llave encuentra el restaurante ya escrito en lugar de duplicarlo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public enum LlaveUpsert {
+    /** El nombre del restaurante. */
+    NOMBRE("nombre"),
+    /** La clave de idempotencia asignada por el cliente. */
+    CLAVE_IDEMPOTENCIA("claveIdempotencia");
+    // Nombre del campo en la colección.
+    private final String campo;
+    /**
+     * Constructor que recibe el nombre del campo.
+     * @param campo Nombre del campo en la colección.
+     */
+    LlaveUpsert(String campo) {this.campo = campo;}
+    /**
+     * Retorna el nombre del campo en la colección.
+     * @return Nombre del campo.
+     */
+    public String getCampo() {return campo;}
+    /**
+     * Retorna el valor de la llave en un restaurante.
+     * @param restaurante Restaurante del que se lee la llave.
+     * @return Nombre o clave de idempotencia del restaurante.
+     */
+    public String valor(RestauranteDTO restaurante) {
+        return this == NOMBRE ? restaurante.getNombre() : restaurante.getClaveIdempotencia();
+    }
+}
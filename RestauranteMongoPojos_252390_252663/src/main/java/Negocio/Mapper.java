@@ -4,30 +4,169 @@ import Dominio.Restaurante;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.bson.Document;
 
 /**
  * Clase que convierte objetos Restaurante a 
- * RestauranteDTO, y viceversa.
+ * RestauranteDTO, y viceversa. Los DTOs creados desde una entidad o un documento convierten su
+ * ID a hexadecimal hasta que se lee. Las listas se convierten con {@link #toDTOs(List)}, que
+ * reparte las listas grandes entre los hilos del ForkJoinPool común, o con {@link #toVistas(List)},
+ * que envuelve cada entidad en un {@link RestauranteVistaDTO} sin copiar sus atributos.
  * @author Leonardo Flores Leyva (252390)
  * @author Jesús Ernesto López Ibarra (252663)
  */
 public class Mapper {
+    // Tamaño de lista a partir del cual toDTOs convierte en paralelo; con listas menores el costo
+    // de repartir el trabajo entre hilos supera al de convertirlas en el hilo que llama.
+    public static final int UMBRAL_PARALELO = 20_000;
+    // Cantidad máxima de restaurantes que convierte cada tarea paralela sin volver a dividirse.
+    private static final int TAMANO_TAREA = 4_096;
+    /**
+     * Tarea que convierte un rango de la lista de entidades, dividiéndolo a la mitad mientras sea
+     * mayor a {@value #TAMANO_TAREA}. Cada tarea escribe solo su rango del arreglo de salida.
+     * Nunca se serializa: solo vive durante una conversión.
+     */
+    @SuppressWarnings("serial")
+    private static final class ConversionParalela extends RecursiveAction {
+        // Entidades a convertir y DTOs convertidos, en la misma posición.
+        private final List<Restaurante> entidades;
+        private final RestauranteDTO[] dtos;
+        // Rango de la tarea: desde (inclusivo) y hasta (exclusivo).
+        private final int desde;
+        private final int hasta;
+        /**
+         * Constructor que recibe las listas y el rango a convertir.
+         * @param entidades Entidades a convertir, con acceso aleatorio.
+         * @param dtos Arreglo donde se escriben los DTOs.
+         * @param desde Inicio del rango, inclusivo.
+         * @param hasta Fin del rango, exclusivo.
+         */
+        ConversionParalela(List<Restaurante> entidades, RestauranteDTO[] dtos, int desde, int hasta) {
+            this.entidades = entidades;
+            this.dtos = dtos;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+        /**
+         * Convierte el rango, o lo divide en dos tareas si es grande.
+         */
+        @Override
+        protected void compute() {
+            if (hasta - desde <= TAMANO_TAREA) {
+                for (int i = desde; i < hasta; i++)
+                    dtos[i] = toDTO(entidades.get(i));
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new ConversionParalela(entidades, dtos, desde, mitad), new ConversionParalela(entidades, dtos, mitad, hasta));
+        }
+    }
     /**
      * Convierte una entidad Restaurante a un objeto RestauranteDTO.
      * @param r Entidad Restaurante a mapear.
      * @return Objeto RestauranteDTO mapeado.
      */
     public static RestauranteDTO toDTO (Restaurante r){
-        return new RestauranteDTO(
-                r.getId().toHexString(),
+        RestauranteDTO dto = new RestauranteDTO(
+                null,
                 r.getNombre(),
                 r.getFechaInauguracion(),
                 r.getRating(),
                 r.getCategorias()
         );
+        dto.setIdPendiente(r.getId());
+        dto.setClaveIdempotencia(r.getClaveIdempotencia());
+        return dto;
+    }
+    /**
+     * Convierte una lista de entidades a objetos RestauranteDTO, en el mismo orden. Las listas de
+     * al menos {@value #UMBRAL_PARALELO} restaurantes se convierten en paralelo.
+     * @param restaurantes Entidades a mapear; puede ser null.
+     * @return Lista modificable con los DTOs mapeados, vacía si no se recibieron entidades.
+     */
+    public static List<RestauranteDTO> toDTOs (List<Restaurante> restaurantes){
+        return toDTOs(restaurantes, UMBRAL_PARALELO);
+    }
+    /**
+     * Convierte una lista de entidades a objetos RestauranteDTO, en el mismo orden. Las listas
+     * menores al umbral se convierten en el hilo que llama, sobre una lista del tamaño exacto;
+     * las demás se reparten en tareas del ForkJoinPool común, que escriben cada una su rango de un
+     * arreglo. Si el pool común tiene un solo hilo, siempre se convierte en el hilo que llama.
+     * @param restaurantes Entidades a mapear; puede ser null.
+     * @param umbralParalelo Tamaño de lista a partir del cual se convierte en paralelo.
+     * @return Lista modificable con los DTOs mapeados, vacía si no se recibieron entidades.
+     */
+    public static List<RestauranteDTO> toDTOs (List<Restaurante> restaurantes, int umbralParalelo){
+        if (restaurantes == null || restaurantes.isEmpty())
+            return new ArrayList<>();
+        int cantidad = restaurantes.size();
+        if (cantidad < umbralParalelo || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            List<RestauranteDTO> dtos = new ArrayList<>(cantidad);
+            for (Restaurante r : restaurantes)
+                dtos.add(toDTO(r));
+            return dtos;
+        }
+        // Las tareas leen por posición, por lo que las listas sin acceso aleatorio se copian antes.
+        List<Restaurante> entidades = restaurantes instanceof RandomAccess ? restaurantes : new ArrayList<>(restaurantes);
+        RestauranteDTO[] dtos = new RestauranteDTO[cantidad];
+        ForkJoinPool.commonPool().invoke(new ConversionParalela(entidades, dtos, 0, cantidad));
+        return new ArrayList<>(Arrays.asList(dtos));
+    }
+    /**
+     * Envuelve una entidad Restaurante en una vista, sin copiar sus atributos.
+     * @param r Entidad Restaurante a envolver.
+     * @return Vista del restaurante.
+     */
+    public static RestauranteDTO toVista (Restaurante r){
+        return new RestauranteVistaDTO(r);
+    }
+    /**
+     * Envuelve cada entidad de una lista en una vista, en el mismo orden. Es la conversión más
+     * barata, pero las vistas comparten el estado con las entidades (ver {@link RestauranteVistaDTO}).
+     * @param restaurantes Entidades a envolver; puede ser null.
+     * @return Lista modificable con las vistas, vacía si no se recibieron entidades.
+     */
+    public static List<RestauranteDTO> toVistas (List<Restaurante> restaurantes){
+        if (restaurantes == null || restaurantes.isEmpty())
+            return new ArrayList<>();
+        List<RestauranteDTO> vistas = new ArrayList<>(restaurantes.size());
+        for (Restaurante r : restaurantes)
+            vistas.add(new RestauranteVistaDTO(r));
+        return vistas;
+    }
+    /**
+     * Convierte un documento de restaurante, obtenido de una agregación, a un objeto RestauranteDTO.
+     * @param d Documento a mapear.
+     * @return Objeto RestauranteDTO mapeado.
+     */
+    public static RestauranteDTO toDTO (Document d){
+        Date fecha = d.getDate("fechaInauguracion");
+        Object rating = d.get("rating");
+        RestauranteDTO dto = new RestauranteDTO(
+                null,
+                d.getString("nombre"),
+                fecha == null ? null : LocalDate.ofInstant(fecha.toInstant(), ZoneId.of("UTC")),
+                rating instanceof Number numero ? numero.doubleValue() : null,
+                d.getList("categorias", String.class)
+        );
+        dto.setIdPendiente(d.getObjectId("_id"));
+        dto.setClaveIdempotencia(d.getString("claveIdempotencia"));
+        return dto;
+    }
+    /**
+     * Convierte una entidad Restaurante, leída con o sin proyección, a un objeto RestauranteResumenDTO.
+     * @param r Entidad Restaurante a mapear.
+     * @return Objeto RestauranteResumenDTO mapeado.
+     */
+    public static RestauranteResumenDTO toResumenDTO (Restaurante r){
+        return new RestauranteResumenDTO(r.getId().toHexString(), r.getNombre(), r.getRating());
     }
     /**
      * Convierte un objeto RestauranteDTO a una entidad Restaurante.
@@ -40,6 +179,7 @@ public class Mapper {
             r.setFechaInauguracion(dto.getFechaInauguracion());
             r.setRating(dto.getRating());
             r.setCategorias(dto.getCategorias());
+            r.setClaveIdempotencia(dto.getClaveIdempotencia());
         return r;
     }
 }
\ No newline at end of file
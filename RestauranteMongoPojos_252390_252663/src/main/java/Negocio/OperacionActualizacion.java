@@ -0,0 +1,19 @@
+package Negocio;
+
+/**
+ * Operaciones que admite la actualización por lotes de restaurantes.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public enum OperacionActualizacion {
+    /** Establece el rating. */
+    ESTABLECER_RATING,
+    /** Incrementa el rating (un valor negativo lo disminuye). */
+    AUMENTAR_RATING,
+    /** Cambia el nombre. */
+    CAMBIAR_NOMBRE,
+    /** Reemplaza las categorías. */
+    ESTABLECER_CATEGORIAS,
+    /** Agrega una categoría si el restaurante aún no la tiene. */
+    AGREGAR_CATEGORIA
+}
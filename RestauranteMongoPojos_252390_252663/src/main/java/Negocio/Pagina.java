@@ -0,0 +1,50 @@
+package Negocio;
+
+import java.util.List;
+
+/**
+ * Clase que representa una página de resultados de una consulta paginada.
+ * Además de los elementos, contiene un token opaco que permite solicitar la
+ * página siguiente; el token es null cuando ya no hay más resultados.
+ * @param <T> Tipo de los elementos de la página.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class Pagina<T> {
+    // Elementos de la página.
+    private final List<T> elementos;
+    // Token para solicitar la página siguiente, o null si es la última.
+    private final String tokenSiguiente;
+    /**
+     * Constructor que recibe los elementos y el token de la página siguiente.
+     * @param elementos Elementos de la página.
+     * @param tokenSiguiente Token para solicitar la página siguiente, o null si es la última.
+     */
+    public Pagina(List<T> elementos, String tokenSiguiente) {
+        this.elementos = elementos;
+        this.tokenSiguiente = tokenSiguiente;
+    }
+    /**
+     * Retorna los elementos de la página.
+     * @return Elementos de la página.
+     */
+    public List<T> getElementos() {return elementos;}
+    /**
+     * Retorna el token para solicitar la página siguiente.
+     * @return Token de la página siguiente, o null si es la última.
+     */
+    public String getTokenSiguiente() {return tokenSiguiente;}
+    /**
+     * Indica si existe una página siguiente.
+     * @return VERDADERO si hay más resultados, FALSO en caso contrario.
+     */
+    public boolean hayMas() {return tokenSiguiente != null;}
+    /**
+     * Retorna una cadena con la información de la página.
+     * @return Cadena con la información de la página.
+     */
+    @Override
+    public String toString() {
+        return "Pagina{" + "elementos=" + elementos + ", tokenSiguiente=" + tokenSiguiente + '}';
+    }
+}
@@ -0,0 +1,49 @@
+package Negocio;
+
+/**
+ * Clase que representa un rango del histograma de ratings: la cantidad de restaurantes
+ * cuyo rating está en [desde, hasta). El último rango incluye su límite superior.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RangoRatingDTO {
+    // Límites del rango; ambos son null en el rango de restaurantes sin rating o fuera de la escala.
+    private final Double desde;
+    private final Double hasta;
+    // Cantidad de restaurantes del rango.
+    private final long cantidad;
+    /**
+     * Constructor que recibe todos los atributos del rango.
+     * @param desde Límite inferior, incluido.
+     * @param hasta Límite superior, excluido salvo en el último rango.
+     * @param cantidad Cantidad de restaurantes del rango.
+     */
+    public RangoRatingDTO(Double desde, Double hasta, long cantidad) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.cantidad = cantidad;
+    }
+    /**
+     * Retorna el límite inferior del rango.
+     * @return Límite inferior, o null en el rango de restaurantes sin rating o fuera de la escala.
+     */
+    public Double getDesde() {return desde;}
+    /**
+     * Retorna el límite superior del rango.
+     * @return Límite superior, o null en el rango de restaurantes sin rating o fuera de la escala.
+     */
+    public Double getHasta() {return hasta;}
+    /**
+     * Retorna la cantidad de restaurantes del rango.
+     * @return Cantidad de restaurantes.
+     */
+    public long getCantidad() {return cantidad;}
+    /**
+     * Retorna una cadena con la información del rango.
+     * @return cadena con la información del rango.
+     */
+    @Override
+    public String toString() {
+        return "RangoRatingDTO{" + "desde=" + desde + ", hasta=" + hasta + ", cantidad=" + cantidad + '}';
+    }
+}
@@ -1,15 +1,53 @@
 package Negocio;
 
+import Dominio.Normalizador;
 import Dominio.Restaurante;
+import Persistencia.ErrorEscritura;
+import Persistencia.FabricaDAO;
+import Persistencia.GestorIndices;
 import Persistencia.IRestauranteDAO;
+import Persistencia.OpcionesConsulta;
 import Persistencia.PersistenciaException;
-import Persistencia.RestauranteDAO;
+import Persistencia.ResultadoLote;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.bson.BsonDateTime;
+import org.bson.BsonDouble;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
@@ -19,26 +57,64 @@ import org.bson.types.ObjectId;
  * @author Jesús Ernesto López Ibarra (252663)
  */
 public class RestauranteBO implements IRestauranteBO{
-    // Atributo estático de la clase.
-    private static RestauranteBO instance;
+    // Orden de los top N: rating descendente, desempatando por nombre.
+    static final Bson ORDEN_TOP = Sorts.orderBy(Sorts.descending("rating"), Sorts.ascending("nombre"));
+    // Tiempo máximo en el servidor de las búsquedas por expresión regular y por texto.
+    public static final long TIEMPO_MAXIMO_REGEX_MS = 2_000;
+    public static final long TIEMPO_MAXIMO_TEXTO_MS = 5_000;
+    // Campos de los resúmenes; el _id se incluye por defecto.
+    private static final Bson PROYECCION_RESUMEN = Projections.include("nombre", "rating");
+    // Cantidad máxima de sugerencias del autocompletado.
+    public static final int LIMITE_AUTOCOMPLETADO = 20;
+    // Caracter con el mayor peso primario de la colación (CLDR); acota por arriba el rango de un prefijo.
+    private static final String LIMITE_RANGO_PREFIJO = "\uFFFF";
+    // Caracteres con significado especial en una expresión regular.
+    private static final String METACARACTERES_REGEX = "\\^$.|?*+()[]{}";
+    // Filtro de restaurantes cuyas categorías normalizadas están al día: las tienen, o no tienen categorías que normalizar.
+    private static final Bson FILTRO_CATEGORIAS_NORMALIZADAS = Filters.or(
+            Filters.exists("categoriasNorm", true), Filters.exists("categorias", false));
+    // Campos que deciden si hay que normalizar las categorías de un restaurante.
+    private static final Bson PROYECCION_CATEGORIAS = Projections.fields(
+            Projections.include("nombre", "categorias", "categoriasNorm"), Projections.excludeId());
     // Atributo DAO para operaciones con la BD.
     private final IRestauranteDAO restauranteDAO;
+    // Sugerencias de los prefijos de hasta 3 caracteres: hasta 10,000 nodos, vigentes 10 segundos.
+    private final TriePrefijos triePrefijos = new TriePrefijos(3, 10_000, Duration.ofSeconds(10));
     /**
-     * Contructor por defecto.
+     * Contructor por defecto. Usa el DAO del backend configurado en {@link FabricaDAO}.
      */
-    private RestauranteBO(){restauranteDAO = new RestauranteDAO();}
+    private RestauranteBO(){this(FabricaDAO.crearDAO());}
+    /**
+     * Constructor que recibe el DAO, para ejecutar el negocio sobre otro backend o una cadena
+     * de decoradores compuesta con {@link FabricaDAO#constructor()}. La instancia es independiente
+     * de la de {@link #getInstance()}.
+     * @param restauranteDAO DAO de restaurantes.
+     * @throws IllegalArgumentException Si el DAO es null.
+     */
+    public RestauranteBO(IRestauranteDAO restauranteDAO){
+        if (restauranteDAO == null)
+            throw new IllegalArgumentException("El DAO de restaurantes no puede ser null.");
+        this.restauranteDAO = restauranteDAO;
+    }
+    /**
+     * Clase contenedora de la instancia SingleTon. La JVM la inicializa una sola vez,
+     * de forma segura entre hilos, la primera vez que se accede a ella.
+     */
+    private static final class Instancia {
+        // Atributo estático de la clase.
+        private static final RestauranteBO INSTANCE = new RestauranteBO();
+    }
     /**
      * Retorna la instancia SingleTon de la clase.
-     * Si la instancia aún no existe, se crea.
+     * Si la instancia aún no existe, se crea; las llamadas
+     * posteriores solo la leen, sin bloqueos.
      * @return Instancia de la clase.
      */
-    public synchronized static RestauranteBO getInstance(){
-        if(instance == null)
-            instance = new RestauranteBO();
-        return instance;
+    public static RestauranteBO getInstance(){
+        return Instancia.INSTANCE;
     }
     /**
-     * Inserta unos restaurantes por defecto.
+     * Inserta unos restaurantes por defecto, omitiendo los que ya existen.
      * @throws NegocioException Excepción de negocio.
      */
     @Override
@@ -46,10 +122,16 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             restauranteDAO.insertarRestaurantesPorDefecto();
         } catch (PersistenciaException ex) {
-            throw new NegocioException("Ha ocurrido un error al insertar los restaurantes por defecto;");}
+            throw new NegocioException("Ha ocurrido un error al insertar los restaurantes por defecto;");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
+        }
     }
     /**
-     * Inserta un nuevo restaurante.
+     * Inserta un nuevo restaurante. Si tiene clave de idempotencia, la inserción es un upsert que
+     * solo escribe los campos al insertar ($setOnInsert): reintentar con la misma clave, por ejemplo
+     * tras un tiempo de espera agotado, no crea un duplicado ni modifica el restaurante ya insertado.
      * @param restaurante Restaurante a insertar.
      * @throws NegocioException Excepción de negocio.
      */
@@ -60,10 +142,17 @@ public class RestauranteBO implements IRestauranteBO{
         // Mapea el nuevo restaurante.
         Restaurante restauranteInsertar = Mapper.toEntity(restaurante);
         try {
-            // Inserta el nuevo restaurante.
-            restauranteDAO.insertar(restauranteInsertar);
+            // Inserta el nuevo restaurante, solo una vez por clave de idempotencia.
+            if(restauranteInsertar.getClaveIdempotencia() != null)
+                restauranteDAO.upsertActualizar(Filters.eq(LlaveUpsert.CLAVE_IDEMPOTENCIA.getCampo(), restauranteInsertar.getClaveIdempotencia()),
+                        actualizacionCampos(restauranteInsertar, Updates::setOnInsert));
+            else
+                restauranteDAO.insertar(restauranteInsertar);
         } catch (PersistenciaException ex) {
             throw new NegocioException("Error al insertar el restaurante " + restaurante.getNombre() + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -85,8 +174,123 @@ public class RestauranteBO implements IRestauranteBO{
             restauranteDAO.insertarVarios(restaurantesInsertar);
         } catch (PersistenciaException ex) {
             throw new NegocioException("Ha ocurrido un error al insertar la lista de restaurantes.");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
+    /**
+     * Inserta restaurantes de forma masiva, dividiéndolos en lotes que se envían como
+     * escrituras no ordenadas. Mientras un lote se escribe, el siguiente se valida y mapea.
+     * Un restaurante inválido o duplicado no detiene a los demás: cada uno recibe su propio
+     * resultado, en el orden de la entrada.
+     * @param restaurantes Restaurantes a insertar; se recorren una sola vez, lote por lote.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: ID insertado, duplicado, inválido o error.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<ResultadoEscrituraDTO> insertarMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote) throws NegocioException {
+        return escribirMasivo(restaurantes, tamanoLote, null, false);
+    }
+    /**
+     * Guarda un restaurante completo por su nombre o su clave de idempotencia: si ya existe uno con la
+     * misma llave lo reemplaza y, si no, lo inserta, en una sola operación. Repetir la llamada deja
+     * el mismo resultado, por lo que es seguro reintentarla.
+     * @param restaurante Restaurante a guardar.
+     * @param llave Campo que identifica al restaurante.
+     * @return Resultado de la escritura: INSERTADO, con el nuevo ID, o ACTUALIZADO.
+     * @throws NegocioException Si el restaurante no es válido, viola otro índice único o la escritura falla.
+     */
+    @Override
+    public ResultadoEscrituraDTO upsert(RestauranteDTO restaurante, LlaveUpsert llave) throws NegocioException {
+        // Valida el restaurante y su llave.
+        validarRestaurante(restaurante);
+        validarLlave(restaurante, llave);
+        // Mapea el restaurante.
+        Restaurante restauranteGuardar = Mapper.toEntity(restaurante);
+        try {
+            // Reemplaza o inserta el restaurante.
+            ObjectId id = restauranteDAO.upsert(Filters.eq(llave.getCampo(), llave.valor(restaurante)), restauranteGuardar);
+            return id != null
+                    ? new ResultadoEscrituraDTO(0, restaurante.getNombre(), id.toHexString(), EstadoEscritura.INSERTADO, null)
+                    : new ResultadoEscrituraDTO(0, restaurante.getNombre(), null, EstadoEscritura.ACTUALIZADO, null);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar guardar el restaurante " + restaurante.getNombre() + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
+        }
+    }
+    /**
+     * Guarda restaurantes de forma masiva por su nombre o su clave de idempotencia, con upserts no
+     * ordenados enviados en lotes (bulkWrite): cada restaurante se inserta si su llave no existe y,
+     * si existe, se reemplaza completo o se actualizan solo sus atributos no nulos. Permite sincronizar
+     * un catálogo completo en una sola pasada, sin leer antes cada restaurante, y reintentarla sin duplicados.
+     * @param restaurantes Restaurantes a guardar; se recorren una sola vez, lote por lote.
+     * @param llave Campo que identifica a cada restaurante.
+     * @param reemplazar VERDADERO para reemplazar el restaurante completo (los atributos nulos se
+     * eliminan), FALSO para actualizar solo los atributos no nulos.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante: insertado con su ID, actualizado, duplicado, inválido o error.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<ResultadoEscrituraDTO> upsertVarios(Iterable<RestauranteDTO> restaurantes, LlaveUpsert llave, boolean reemplazar, int tamanoLote) throws NegocioException {
+        if(llave == null)
+            throw new NegocioException("La llave de los upserts no puede estar vacía.");
+        return escribirMasivo(restaurantes, tamanoLote, llave, reemplazar);
+    }
+    /**
+     * Escribe restaurantes de forma masiva, dividiéndolos en lotes que se envían como escrituras
+     * no ordenadas. Mientras un lote se escribe, el siguiente se valida y mapea.
+     * @param restaurantes Restaurantes a escribir.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @param llave Llave de los upserts, o null para insertar.
+     * @param reemplazar En los upserts, VERDADERO para reemplazar y FALSO para actualizar los atributos no nulos.
+     * @return Resultado de cada restaurante, en el orden de la entrada.
+     * @throws NegocioException Excepción de negocio.
+     */
+    private List<ResultadoEscrituraDTO> escribirMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote,
+            LlaveUpsert llave, boolean reemplazar) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        if(restaurantes == null)
+            throw new NegocioException("La lista de restaurantes no puede estar vacía.");
+        // Resultados de cada restaurante.
+        List<ResultadoEscrituraDTO> resultados = new ArrayList<>();
+        Iterator<RestauranteDTO> iterador = restaurantes.iterator();
+        // Hilo que escribe un lote mientras el hilo actual prepara el siguiente.
+        ExecutorService escritor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "restaurantes-escritura-masiva");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            Future<List<ResultadoEscrituraDTO>> escrituraPendiente = null;
+            int indice = 0;
+            while(iterador.hasNext()){
+                // Valida y mapea el siguiente lote mientras el anterior se escribe.
+                LoteEscritura lote = prepararLote(iterador, indice, tamanoLote, llave);
+                indice += lote.leidos;
+                resultados.addAll(lote.invalidos);
+                // Espera a que termine la escritura del lote anterior antes de enviar el nuevo.
+                if(escrituraPendiente != null)
+                    resultados.addAll(esperarEscritura(escrituraPendiente));
+                escrituraPendiente = lote.entidades.isEmpty() ? null : escritor.submit(() -> escribirLote(lote, llave, reemplazar));
+            }
+            // Espera la escritura del último lote.
+            if(escrituraPendiente != null)
+                resultados.addAll(esperarEscritura(escrituraPendiente));
+        } finally {
+            escritor.shutdownNow();
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
+        }
+        // Regresa los resultados en el orden de la entrada.
+        resultados.sort(Comparator.comparingInt(ResultadoEscrituraDTO::getIndice));
+        return resultados;
+    }
     /**
      * Consulta todos los restaurantes.
      * @return Lista con restaurantes encontrados.
@@ -99,11 +303,8 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultarTodos();
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar todos los restaurantes.");
         }
@@ -125,11 +326,8 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtro);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating mayor a " + valor + ".");
         }
@@ -156,11 +354,8 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroRango);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating entre " + min + " y " + max + ".");
         }
@@ -177,16 +372,13 @@ public class RestauranteBO implements IRestauranteBO{
     public List<RestauranteDTO> consultarPorCategoria(String categoria) throws NegocioException {
         // Lista de restaurantes encontrados.
         List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
-        // Filtro para obtener restaurantes que tengan la categoría recibida, usando una expresión regular.
-        Bson filtroCategoria = Filters.regex("categorias", "^" + categoria + "$", "i");
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroCategoria = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroCategoria);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con la categoria " + categoria + ".");
         }
@@ -194,33 +386,98 @@ public class RestauranteBO implements IRestauranteBO{
         return restaurantesEncontrados;
     }
     /**
-     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida.
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida, con un
+     * tiempo máximo de {@value #TIEMPO_MAXIMO_REGEX_MS} ms en el servidor.
      * @param patron Expresión regular a comparar.
      * @return Lista con restaurantes encontrados.
-     * @throws NegocioException Excepción de negocio.
+     * @throws NegocioException Excepción de negocio, o si la búsqueda excede el tiempo máximo.
+     * @deprecated Usar {@link #buscarTexto(String, int)} o {@link #buscarPorNombreRegex(String, long)}.
      */
+    @Deprecated
     @Override
     public List<RestauranteDTO> buscarPorNombreRegex(String patron) throws NegocioException {
+        return buscarPorNombreRegex(patron, TIEMPO_MAXIMO_REGEX_MS);
+    }
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida. El servidor
+     * aborta la búsqueda si excede el tiempo máximo recibido.
+     * @param patron Expresión regular a comparar.
+     * @param tiempoMaximoMS Tiempo máximo de la búsqueda en el servidor, en milisegundos.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Si el tiempo máximo no es válido, la búsqueda lo excede o falla.
+     */
+    @Override
+    public List<RestauranteDTO> buscarPorNombreRegex(String patron, long tiempoMaximoMS) throws NegocioException {
+        // Valida el tiempo máximo recibido: las expresiones regulares siempre se ejecutan con límite.
+        if(tiempoMaximoMS <= 0)
+            throw new NegocioException("El tiempo máximo de la búsqueda debe ser mayor a cero.");
         // Lista de restaurantes encontrados.
         List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
         // Filtro para obtener restaurantes cuyo nombre coincide con la expresión regular recibida.
         Bson filtroRegex = Filters.regex("nombre", patron);
         try {
             // Ejecuta la consulta.
-            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroRegex);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroRegex,
+                    new OpcionesConsulta().tiempoMaximoMS(tiempoMaximoMS));
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException(mensajeBusqueda(e, tiempoMaximoMS,
+                    "Ha ocurrido un error al intentar consultar restaurantes cuyo nombre coincide con el patron recibido."));
+        }
+        // Regresa la lista de restaurantes obtenidos.
+        return restaurantesEncontrados;
+    }
+    /**
+     * Busca restaurantes por palabras en su nombre o categorías con el índice de texto en español,
+     * ordenados por relevancia (textScore). Las coincidencias en el nombre pesan el doble que en las categorías.
+     * @param consulta Palabras a buscar; admite frases entre comillas y exclusiones con "-".
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, del más al menos relevante.
+     * @throws NegocioException Si la consulta o el límite no son válidos o la búsqueda falla.
+     */
+    @Override
+    public List<RestauranteDTO> buscarTexto(String consulta, int limite) throws NegocioException {
+        // Valida los parámetros recibidos.
+        if(consulta == null || consulta.isBlank())
+            throw new NegocioException("La consulta de búsqueda no puede estar vacía.");
+        if(limite <= 0)
+            throw new NegocioException("El límite de la búsqueda debe ser mayor a cero.");
+        // Lista de restaurantes encontrados.
+        List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>(limite);
+        // Filtro de texto; el idioma lo define el índice.
+        Bson filtroTexto = Filters.text(consulta);
+        try {
+            // Ejecuta la consulta, ordenada por relevancia.
+            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroTexto, new OpcionesConsulta()
+                    .orden(Sorts.metaTextScore("puntaje"))
+                    .limite(limite)
+                    .tiempoMaximoMS(TIEMPO_MAXIMO_TEXTO_MS));
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
-            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuyo nombre coincide con el patron recibido.");
+            throw new NegocioException(mensajeBusqueda(e, TIEMPO_MAXIMO_TEXTO_MS,
+                    "Ha ocurrido un error al intentar buscar restaurantes con el texto " + consulta + "."));
         }
         // Regresa la lista de restaurantes obtenidos.
         return restaurantesEncontrados;
     }
     /**
-     * Consulta restaurantes cuyo nombre comienza con el prefijo recibido.
+     * Retorna el mensaje de error de una búsqueda, distinguiendo el exceso del tiempo máximo.
+     * @param e Excepción de la capa de Persistencia.
+     * @param tiempoMaximoMS Tiempo máximo de la búsqueda.
+     * @param mensaje Mensaje para los demás errores.
+     * @return Mensaje de error.
+     */
+    private static String mensajeBusqueda(PersistenciaException e, long tiempoMaximoMS, String mensaje) {
+        return e.getCause() instanceof MongoExecutionTimeoutException
+                ? "La búsqueda excedió el tiempo máximo de " + tiempoMaximoMS + " ms; use una búsqueda más específica."
+                : mensaje;
+    }
+    /**
+     * Consulta restaurantes cuyo nombre comienza con el prefijo recibido, distinguiendo mayúsculas.
+     * Los caracteres especiales del prefijo se comparan literalmente.
+     * Para sugerencias mientras se escribe, use {@link #autocompletarNombre(String, int)}.
      * @param prefijo Prefijo a comparar.
      * @return Lista con restaurantes encontrados.
      * @throws NegocioException Excepción de negocio.
@@ -229,24 +486,90 @@ public class RestauranteBO implements IRestauranteBO{
     public List<RestauranteDTO> buscarNombreIniciaCon(String prefijo) throws NegocioException {
         // Lista de restaurantes encontrados.
         List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
-        // Filtro para obtener restaurantes que empiezan con el prefijo recibido.
-        // El caracter "^" representa el inicio de una línea.
-        // La cobinación ".*" representa cualquier caracter, cero o más veces.
-        Bson filtroPrefijo = Filters.regex("nombre", "^" + prefijo + ".*");
+        // Filtro para obtener restaurantes que empiezan con el prefijo recibido, escapado para que se compare literalmente.
+        // El caracter "^" representa el inicio del texto; al ser un prefijo literal, el servidor lo
+        // resuelve como un rango sobre el índice de nombre.
+        Bson filtroPrefijo = Filters.regex("nombre", "^" + escaparRegex(prefijo));
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroPrefijo);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuyo nombre inicia con ." + prefijo + ".");
         }
         // Regresa la lista de restaurantes obtenidos.
         return restaurantesEncontrados;
     }
+    /**
+     * Sugiere nombres de restaurantes que comienzan con el prefijo recibido, sin distinguir
+     * mayúsculas ni acentos, en orden alfabético.
+     * <p>
+     * El prefijo se convierte en el rango [prefijo, prefijo + U+FFFF) comparado con la colación del
+     * índice {@value GestorIndices#INDICE_NOMBRE_COLACION}, por lo que el servidor recorre solo
+     * la parte del índice que corresponde al prefijo y no interpreta ningún caracter como
+     * expresión regular. Los prefijos de hasta 3 caracteres se responden desde un trie en memoria
+     * mientras sus sugerencias sigan vigentes.
+     * @param prefijo Texto escrito hasta el momento; se ignoran los espacios iniciales.
+     * @param limite Cantidad máxima de sugerencias; se acota a {@value #LIMITE_AUTOCOMPLETADO}.
+     * @return Lista con los nombres sugeridos.
+     * @throws NegocioException Si el prefijo o el límite no son válidos o la consulta falla.
+     */
+    @Override
+    public List<String> autocompletarNombre(String prefijo, int limite) throws NegocioException {
+        // Valida los parámetros recibidos.
+        if(prefijo == null || prefijo.isBlank())
+            throw new NegocioException("El prefijo a autocompletar no puede estar vacío.");
+        if(limite <= 0)
+            throw new NegocioException("El límite de sugerencias debe ser mayor a cero.");
+        String inicio = prefijo.stripLeading();
+        int cantidad = Math.min(limite, LIMITE_AUTOCOMPLETADO);
+        // Busca primero en el trie; guarda siempre el límite máximo para servir cualquier límite menor.
+        List<String> sugeridos = triePrefijos.obtener(inicio);
+        if(sugeridos != null)
+            return new ArrayList<>(sugeridos.subList(0, Math.min(cantidad, sugeridos.size())));
+        long version = triePrefijos.version();
+        int consultados = triePrefijos.admite(inicio) ? LIMITE_AUTOCOMPLETADO : cantidad;
+        // Filtro de rango sobre el nombre, comparado con la colación del índice.
+        Bson filtroRango = Filters.and(
+                Filters.gte("nombre", inicio),
+                Filters.lt("nombre", inicio + LIMITE_RANGO_PREFIJO));
+        try {
+            // Ejecuta la consulta, ordenada por el mismo índice y leyendo solo el nombre.
+            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroRango, new OpcionesConsulta()
+                    .proyeccion(Projections.fields(Projections.include("nombre"), Projections.excludeId()))
+                    .orden(Sorts.ascending("nombre"))
+                    .collation(GestorIndices.COLACION_NOMBRE)
+                    .limite(consultados));
+            // Obtiene el nombre de cada restaurante encontrado.
+            sugeridos = new ArrayList<>(restaurantesEncontradosDAO.size());
+            for(Restaurante restaurante : restaurantesEncontradosDAO)
+                sugeridos.add(restaurante.getNombre());
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar autocompletar el nombre " + prefijo + ".");
+        }
+        // Guarda las sugerencias de los prefijos cortos, si nadie escribió mientras tanto.
+        triePrefijos.guardar(inicio, sugeridos, version);
+        // Regresa los nombres sugeridos.
+        return sugeridos.size() > cantidad ? new ArrayList<>(sugeridos.subList(0, cantidad)) : sugeridos;
+    }
+    /**
+     * Escapa los caracteres especiales de un texto para compararlo literalmente en una expresión regular.
+     * Se antepone una diagonal inversa a cada uno, en lugar de usar {@code \Q...\E}, para que el servidor
+     * siga reconociendo el prefijo literal y acote el recorrido del índice.
+     * @param texto Texto a escapar.
+     * @return Texto escapado.
+     */
+    static String escaparRegex(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length() + 8);
+        for (int i = 0; i < texto.length(); i++) {
+            char caracter = texto.charAt(i);
+            if (METACARACTERES_REGEX.indexOf(caracter) >= 0)
+                escapado.append('\\');
+            escapado.append(caracter);
+        }
+        return escapado.toString();
+    }
     /**
      * Consulta restaurantes cuya fecha de inauguración está después del año recibido, y muestra
      * los resultados según el orden recibido.
@@ -269,11 +592,8 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultarOrden(filtroFecha, orden);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuya "
                     + "fecha de inauguracion esta después del anio " + anio + ".");
@@ -282,31 +602,111 @@ public class RestauranteBO implements IRestauranteBO{
         return restaurantesEncontrados;
     }
     /**
-     * Consulta restaurantes cuya categoría equivale a la recibida, y muestra solo tres resultados.
+     * Consulta los tres restaurantes con mayor rating cuya categoría equivale a la recibida.
      * @param categoria Categoría a comparar.
      * @return Lista con restaurantes encontrados.
      * @throws NegocioException Excepción de negocio.
      */
     @Override
     public List<RestauranteDTO> top3RestaurantesPorCategoria(String categoria) throws NegocioException {
+        return topNPorCategoria(categoria, 3);
+    }
+    /**
+     * Consulta los N restaurantes con mayor rating cuya categoría equivale a la recibida,
+     * desempatando por nombre. El índice {categoriasNorm: 1, rating: -1, nombre: 1} entrega
+     * los restaurantes ya ordenados, por lo que el servidor deja de leer tras los primeros N.
+     * @param categoria Categoría a comparar.
+     * @param n Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, ordenada por rating descendente y nombre.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    @Override
+    public List<RestauranteDTO> topNPorCategoria(String categoria, int n) throws NegocioException {
+        // Valida la cantidad recibida.
+        if(n <= 0)
+            throw new NegocioException("La cantidad de restaurantes debe ser mayor a cero.");
         // Lista de restaurantes encontrados.
-        List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
-        // Filtro para obtener restaurantes que tengan la categoría recibida, usando una expresión regular.
-        Bson filtroCategoria = Filters.regex("categorias", "^" + categoria + "$", "i");
+        List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>(n);
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroCategoria = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
         try {
             // Ejecuta la consulta.
-            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultarLimite(filtroCategoria, 3);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultarOrdenLimite(filtroCategoria, ORDEN_TOP, n);
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
-            throw new NegocioException("Ha ocurrido un error al intentar consultar el top 3 de restaurantes con la categoria " + categoria + ".");
+            throw new NegocioException("Ha ocurrido un error al intentar consultar el top " + n + " de restaurantes con la categoria " + categoria + ".");
         }
         // Regresa la lista de restaurantes obtenidos.
         return restaurantesEncontrados;
     }
+    /**
+     * Consulta, en una sola petición, los N restaurantes con mayor rating de cada una de las
+     * categorías recibidas, desempatando por nombre. Se usa una agregación que agrupa por
+     * categoría conservando solo N restaurantes por grupo ($topN, disponible desde MongoDB 5.2).
+     * @param categorias Categorías a comparar.
+     * @param n Cantidad máxima de restaurantes por categoría.
+     * @return Mapa de cada categoría recibida a sus restaurantes encontrados, en el orden recibido;
+     * las categorías sin restaurantes tienen una lista vacía.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    @Override
+    public Map<String, List<RestauranteDTO>> topNPorCategorias(Collection<String> categorias, int n) throws NegocioException {
+        // Valida la cantidad recibida.
+        if(n <= 0)
+            throw new NegocioException("La cantidad de restaurantes debe ser mayor a cero.");
+        // Categorías normalizadas, sin repetir.
+        List<String> categoriasNorm = Normalizador.normalizar(new ArrayList<>(categorias));
+        Map<String, List<RestauranteDTO>> restaurantesEncontrados = new LinkedHashMap<>();
+        if(categoriasNorm.isEmpty())
+            return restaurantesEncontrados;
+        try {
+            // Ejecuta la agregación y agrupa el resultado por categoría normalizada.
+            Map<String, List<RestauranteDTO>> porCategoria = agruparTopN(
+                    restauranteDAO.agregar(pipelineTopN(Filters.in("categoriasNorm", categoriasNorm), n)));
+            // Asocia cada categoría recibida con los restaurantes de su forma normalizada.
+            for(String categoria : categorias)
+                restaurantesEncontrados.put(categoria, new ArrayList<>(
+                        porCategoria.getOrDefault(Normalizador.normalizar(categoria), List.of())));
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar el top " + n + " de restaurantes de las categorias " + categorias + ".");
+        }
+        return restaurantesEncontrados;
+    }
+    /**
+     * Construye el pipeline que obtiene los N restaurantes con mayor rating de cada categoría
+     * normalizada de los restaurantes que cumplen el filtro.
+     * @param filtro Filtro de las categorías a incluir, sobre el campo categoriasNorm; se aplica antes
+     * y después de separar las categorías, por lo que debe cumplirse tanto para la lista como para cada elemento.
+     * @param n Cantidad máxima de restaurantes por categoría.
+     * @return Etapas del pipeline.
+     */
+    static List<Bson> pipelineTopN(Bson filtro, int n) {
+        return Arrays.asList(
+                // El primer filtro usa el índice; el segundo descarta las demás categorías de cada restaurante.
+                Aggregates.match(filtro),
+                Aggregates.unwind("$categoriasNorm"),
+                Aggregates.match(filtro),
+                Aggregates.group("$categoriasNorm", Accumulators.topN("restaurantes", ORDEN_TOP, "$$ROOT", n)),
+                Aggregates.sort(Sorts.ascending("_id"))
+        );
+    }
+    /**
+     * Convierte el resultado de {@link #pipelineTopN(Bson, int)} en un mapa de categoría normalizada a restaurantes.
+     * @param documentos Documentos producidos por el pipeline.
+     * @return Mapa de categoría a sus mejores restaurantes, ordenado por categoría.
+     */
+    static Map<String, List<RestauranteDTO>> agruparTopN(List<Document> documentos) {
+        Map<String, List<RestauranteDTO>> top = new LinkedHashMap<>();
+        for(Document documento : documentos){
+            List<Document> restaurantes = documento.getList("restaurantes", Document.class);
+            List<RestauranteDTO> restaurantesDTO = new ArrayList<>(restaurantes.size());
+            for(Document restaurante : restaurantes)
+                restaurantesDTO.add(Mapper.toDTO(restaurante));
+            top.put(documento.getString("_id"), restaurantesDTO);
+        }
+        return top;
+    }
     /**
      * Consulta restaurantes sin categorías.
      * @return Lista con restaurantes encontrados.
@@ -321,11 +721,8 @@ public class RestauranteBO implements IRestauranteBO{
         try {
             // Ejecuta la consulta.
             List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtroSinCategorias);
-            // Mapea cada restaurante encontrado y lo añade a la lista de restaurantes encontrados.
-            if(restaurantesEncontradosDAO != null && !restaurantesEncontradosDAO.isEmpty()){
-                for(Restaurante restaurante : restaurantesEncontradosDAO)
-                    restaurantesEncontrados.add(Mapper.toDTO(restaurante));
-            }
+            // Mapea los restaurantes encontrados a la lista de restaurantes encontrados.
+            restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes sin categorias.");
         }
@@ -356,8 +753,349 @@ public class RestauranteBO implements IRestauranteBO{
         }
         // Regresa la lista de restaurantes obtenidos.
         return restauranteEncontrado;
+    }
+    /**
+     * Consulta todos los restaurantes como un flujo respaldado por un cursor.
+     * Cada restaurante se mapea conforme se lee del cursor, y el flujo debe cerrarse
+     * (por ejemplo, con try-with-resources) para liberar el cursor.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarTodosStream(int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        try {
+            // Abre el flujo y mapea cada restaurante conforme se lee.
+            return restauranteDAO.consultarStream(Filters.empty(), tamanoLote).map(Mapper::toDTO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar todos los restaurantes.");
+        }
+    }
+    /**
+     * Consulta restaurantes cuyo rating es mayor al valor recibido, como un flujo respaldado por un cursor.
+     * @param valor Rating a límite.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorRatingMayorAStream(double valor, int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        // Filtro para obtener restaurantes cuyo rating es mayor al valor recibido en el parámetro.
+        Bson filtro = Filters.gt("rating", valor);
+        try {
+            // Abre el flujo y mapea cada restaurante conforme se lee.
+            return restauranteDAO.consultarStream(filtro, tamanoLote).map(Mapper::toDTO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating mayor a " + valor + ".");
+        }
+    }
+    /**
+     * Consulta restaurantes cuyo rating se encuentra dentro del rango recibido, como un flujo respaldado por un cursor.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorRangoRatingStream(double min, double max, int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        // Filtro para establecer el rango (rating entre ambos límites).
+        Bson filtroRango = Filters.and(Filters.gte("rating", min), Filters.lte("rating", max));
+        try {
+            // Abre el flujo y mapea cada restaurante conforme se lee.
+            return restauranteDAO.consultarStream(filtroRango, tamanoLote).map(Mapper::toDTO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating entre " + min + " y " + max + ".");
+        }
+    }
+    /**
+     * Consulta restaurantes cuya categoría es igual a la recibida, como un flujo respaldado por un cursor.
+     * @param categoria Categoría a comparar.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorCategoriaStream(String categoria, int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroCategoria = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
+        try {
+            // Abre el flujo y mapea cada restaurante conforme se lee.
+            return restauranteDAO.consultarStream(filtroCategoria, tamanoLote).map(Mapper::toDTO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con la categoria " + categoria + ".");
+        }
+    }
+    /**
+     * Consulta restaurantes cuya fecha de inauguración está después del año recibido, en el orden recibido,
+     * como un flujo respaldado por un cursor.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorFechaDesdeOrdenadoStream(int anio, boolean ascendente, int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        // Filtro para obtener restaurantes inaugurados a partir del año recibido como parámetro.
+        Bson filtroFecha = Filters.gt("fechaInauguracion", LocalDate.ofYearDay(anio, 1));
+        // Ordenamiento a ser aplicado en la consulta, según el orden recibido.
+        Bson orden = ascendente ? Sorts.ascending("fechaInauguracion") : Sorts.descending("fechaInauguracion");
+        try {
+            // Abre el flujo y mapea cada restaurante conforme se lee.
+            return restauranteDAO.consultarOrdenStream(filtroFecha, orden, tamanoLote).map(Mapper::toDTO);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuya "
+                    + "fecha de inauguracion esta después del anio " + anio + ".");
+        }
     }
      /**
+     * Consulta todos los restaurantes por páginas, ordenados por ID.
+     * Cada página se obtiene con un predicado de rango a partir del token, no con skip,
+     * por lo que su costo no depende de cuántas páginas se hayan leído antes.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarTodosPagina(int tamanoPagina, String token) throws NegocioException {
+        // Sin filtro: se recorren todos los restaurantes.
+        Bson filtro = Filters.empty();
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, TokenPagina.SOLO_ID, null, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar todos los restaurantes.");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo rating es mayor al valor recibido, ordenados por rating.
+     * @param valor Rating a límite.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorRatingMayorAPagina(double valor, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes cuyo rating es mayor al valor recibido en el parámetro.
+        Bson filtro = Filters.gt("rating", valor);
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, "rating", RestauranteBO::llaveRating, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating mayor a " + valor + ".");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo rating se encuentra dentro del rango recibido, ordenados por rating.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorRangoRatingPagina(double min, double max, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para establecer el rango (rating entre ambos límites).
+        Bson filtro = Filters.and(Filters.gte("rating", min), Filters.lte("rating", max));
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, "rating", RestauranteBO::llaveRating, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating entre " + min + " y " + max + ".");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuya categoría es igual a la recibida, ordenados por ID.
+     * @param categoria Categoría a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorCategoriaPagina(String categoria, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtro = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, TokenPagina.SOLO_ID, null, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con la categoria " + categoria + ".");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre coincide con la expresión regular recibida, ordenados por nombre.
+     * @param patron Expresión regular a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> buscarPorNombreRegexPagina(String patron, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes cuyo nombre coincide con la expresión regular recibida.
+        Bson filtro = Filters.regex("nombre", patron);
+        try {
+            // Ejecuta la consulta de la página solicitada, con el tiempo máximo de las expresiones regulares.
+            return consultarPagina(filtro, "nombre", RestauranteBO::llaveNombre, true, tamanoPagina, token, TIEMPO_MAXIMO_REGEX_MS);
+        } catch (PersistenciaException e) {
+            throw new NegocioException(mensajeBusqueda(e, TIEMPO_MAXIMO_REGEX_MS,
+                    "Ha ocurrido un error al intentar consultar restaurantes cuyo nombre coincide con el patron recibido."));
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre comienza con el prefijo recibido, ordenados por nombre.
+     * @param prefijo Prefijo a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> buscarNombreIniciaConPagina(String prefijo, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes que empiezan con el prefijo recibido, escapado para que se compare literalmente.
+        Bson filtro = Filters.regex("nombre", "^" + escaparRegex(prefijo));
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, "nombre", RestauranteBO::llaveNombre, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuyo nombre inicia con " + prefijo + ".");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes cuya fecha de inauguración está después del año recibido,
+     * en el orden recibido.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorFechaDesdeOrdenadoPagina(int anio, boolean ascendente, int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes inaugurados a partir del año recibido como parámetro.
+        Bson filtro = Filters.gt("fechaInauguracion", LocalDate.ofYearDay(anio, 1));
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, "fechaInauguracion", RestauranteBO::llaveFecha, ascendente, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes cuya "
+                    + "fecha de inauguracion esta después del anio " + anio + ".");
+        }
+    }
+    /**
+     * Consulta por páginas los restaurantes sin categorías, ordenados por ID.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados y el token de la página siguiente.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> sinCategoriasPagina(int tamanoPagina, String token) throws NegocioException {
+        // Filtro para obtener restaurantes sin categorías.
+        Bson filtro = Filters.exists("categorias", false);
+        try {
+            // Ejecuta la consulta de la página solicitada.
+            return consultarPagina(filtro, TokenPagina.SOLO_ID, null, true, tamanoPagina, token);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes sin categorias.");
+        }
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de todos los restaurantes.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarTodosResumen() throws NegocioException {
+        try {
+            return consultarResumen(new Document());
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar todos los restaurantes.");
+        }
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating es mayor al valor recibido.
+     * La consulta queda cubierta por el índice {rating: 1, _id: 1, nombre: 1}: el servidor no lee los documentos.
+     * @param valor Rating a límite.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorRatingMayorAResumen(double valor) throws NegocioException {
+        // Filtro para obtener restaurantes cuyo rating es mayor al valor recibido en el parámetro.
+        Bson filtro = Filters.gt("rating", valor);
+        try {
+            return consultarResumen(filtro);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating mayor a " + valor + ".");
+        }
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating se encuentra dentro del rango recibido.
+     * La consulta queda cubierta por el índice {rating: 1, _id: 1, nombre: 1}: el servidor no lee los documentos.
+     * @param min Rating mínimo.
+     * @param max Rating máximo.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorRangoRatingResumen(double min, double max) throws NegocioException {
+        // Filtro para establecer el rango (rating entre ambos límites).
+        Bson filtro = Filters.and(Filters.gte("rating", min), Filters.lte("rating", max));
+        try {
+            return consultarResumen(filtro);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con rating entre " + min + " y " + max + ".");
+        }
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuya categoría equivale a la recibida.
+     * Las categorías son un arreglo, por lo que su índice no puede cubrir la consulta, pero solo
+     * los tres campos del resumen viajan por la red.
+     * @param categoria Categoría a comparar.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorCategoriaResumen(String categoria) throws NegocioException {
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtro = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
+        try {
+            return consultarResumen(filtro);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar consultar restaurantes con la categoria " + categoria + ".");
+        }
+    }
+    /**
+     * Consulta los restaurantes que cumplen el filtro, leyendo solo los campos del resumen.
+     * @param filtro Filtro de la consulta.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    private List<RestauranteResumenDTO> consultarResumen(Bson filtro) throws PersistenciaException {
+        List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtro, PROYECCION_RESUMEN);
+        List<RestauranteResumenDTO> resumenes = new ArrayList<>(restaurantesEncontradosDAO.size());
+        for(Restaurante restaurante : restaurantesEncontradosDAO)
+            resumenes.add(Mapper.toResumenDTO(restaurante));
+        return resumenes;
+    }
+    /**
      * Actualiza el rating de un restaurante por su nombre.
      * @param nombre Nombre del restaurante.
      * @param nuevoRating Nuevo rating del restaurante.
@@ -378,7 +1116,9 @@ public class RestauranteBO implements IRestauranteBO{
         }
     }
     /**
-     * Agrega una nueva categoría a un restaurante.
+     * Agrega una nueva categoría a un restaurante. Si el restaurante aún no tiene sus categorías
+     * normalizadas (no se ha migrado), primero se normalizan las que ya tiene; de lo contrario, las
+     * categorías normalizadas quedarían solo con la nueva.
      * @param nombre Nombre del restaurante.
      * @param nuevaCategoria Nueva categoría a añadir.
      * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
@@ -388,15 +1128,19 @@ public class RestauranteBO implements IRestauranteBO{
     public boolean agregarCategoriaSinDuplicado(String nombre, String nuevaCategoria) throws NegocioException {
         // Filtro para obtener un restaurante cuyo nombre sea igual al recibido en el parámetro.
         Bson filtroNombre = Filters.eq("nombre", nombre);
-        // Filtro para obtener restaurantes que tengan la categoría recibida, usando una expresión regular.
-        Bson filtroCategoria = Filters.regex("categorias", "^" + nuevaCategoria + "$", "i");
-        // Filtro para obtener restaurantes que no tengan la categoría recibida, negando el filtro anterior.
-        Bson filtroNoCategoria = Filters.not(filtroCategoria);
-        // Filtro que garantiza que se apliquen los dos filtros anteriores.
-        Bson filtroNombreNoCategoria = Filters.and(filtroNombre, filtroNoCategoria);
-        // Agrega la nueva categoría al restaurante encontrado.
-        Bson agregarCategoria = Updates.addToSet("categorias", nuevaCategoria);
+        // Forma normalizada de la nueva categoría.
+        String categoriaNorm = Normalizador.normalizar(nuevaCategoria);
+        // Filtro para obtener restaurantes que no tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroNoCategoria = Filters.ne("categoriasNorm", categoriaNorm);
+        // Filtro que garantiza que se apliquen los filtros anteriores, solo sobre categorías normalizadas al día.
+        Bson filtroNombreNoCategoria = Filters.and(filtroNombre, FILTRO_CATEGORIAS_NORMALIZADAS, filtroNoCategoria);
+        // Agrega la nueva categoría, y su forma normalizada, al restaurante encontrado.
+        Bson agregarCategoria = Updates.combine(
+                Updates.addToSet("categorias", nuevaCategoria),
+                Updates.addToSet("categoriasNorm", categoriaNorm));
         try {
+            // Normaliza las categorías que ya tiene el restaurante, si aún no lo están.
+            normalizarCategoriasPendientes(restauranteDAO.consultar(filtroNombre, PROYECCION_CATEGORIAS));
             // Ejecuta la actualización.
             return restauranteDAO.actualizar(filtroNombreNoCategoria, agregarCategoria);
         } catch (PersistenciaException e) {
@@ -412,8 +1156,8 @@ public class RestauranteBO implements IRestauranteBO{
      */
     @Override
     public boolean aumentarRatingPorCategoria(String categoria, double incremento) throws NegocioException {
-        // Filtro para obtener restaurantes que tengan la categoría "Sushi", usando una expresión regular.
-        Bson filtroCategoria = Filters.regex("categorias", "^" + categoria + "$", "i");
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroCategoria = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
         // Incrementa el rating de los restaurantes encontrados al incremento recibido.
         Bson incrementar = Updates.inc("rating", incremento);
         try {
@@ -453,8 +1197,10 @@ public class RestauranteBO implements IRestauranteBO{
     public int agregarCategoriasDondeFalten(List<String> categorias) throws NegocioException {
         // Filtro para obtener restaurantes sin categorías.
         Bson filtroSinCategorias = Filters.exists("categorias", false);
-        // Actualización para agregar las nuevas categorías recibidas.
-        Bson agregarCategorias = Updates.set("categorias", categorias);
+        // Actualización para agregar las nuevas categorías recibidas, y su forma normalizada.
+        Bson agregarCategorias = Updates.combine(
+                Updates.set("categorias", categorias),
+                Updates.set("categoriasNorm", Normalizador.normalizar(categorias)));
         try {
             // Ejecuta la actualización.
             long resultado = restauranteDAO.actualizarConteo(filtroSinCategorias, agregarCategorias);
@@ -487,6 +1233,9 @@ public class RestauranteBO implements IRestauranteBO{
             return restauranteDAO.actualizar(filtroNombre, cambiarNombre);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar actualizar el nombre a " + nuevo + " del restaurante " + anterior + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -501,7 +1250,9 @@ public class RestauranteBO implements IRestauranteBO{
         // Filtro para obtener un restaurante cuyo nombre sea igual al nombre recibido en el parámetro. 
         Bson filtroNombre = Filters.eq("nombre", nombre);
         // Actualización que establece las categorías del restaurante obtenido por las nuevas categorías recibidas en el parámetro.
-        Bson cambiarCategorias = Updates.set("categorias", categorias);
+        Bson cambiarCategorias = Updates.combine(
+                Updates.set("categorias", categorias),
+                Updates.set("categoriasNorm", Normalizador.normalizar(categorias)));
         try {
             // Ejecuta la actualización.
             return restauranteDAO.actualizar(filtroNombre, cambiarCategorias);
@@ -509,6 +1260,199 @@ public class RestauranteBO implements IRestauranteBO{
             throw new NegocioException("Ha ocurrido un error al intentar actualizar las categorias del restaurante " + nombre + ".");
         }
     }
+    /**
+     * Aplica una lista de actualizaciones, cada una sobre el restaurante con el nombre indicado,
+     * enviándolas en lotes: cada lote es una sola escritura no ordenada (bulkWrite), por lo que N
+     * actualizaciones cuestan del orden de N / tamanoLote viajes a la base de datos en lugar de N.
+     * <p>
+     * Antes de cada lote se leen, con una sola consulta cubierta por el índice de nombre, cuáles
+     * restaurantes existen; así cada actualización reporta si coincidió con un restaurante. Si otro
+     * cliente inserta o elimina alguno de esos restaurantes antes de la escritura, el total leído no
+     * concuerda con el que reporta el servidor y las actualizaciones del lote que no fallaron se
+     * reportan como {@link EstadoEscritura#INDETERMINADO}, sin coincidencias ni modificados. Dos
+     * actualizaciones que involucran el mismo nombre (incluido el nuevo nombre de un cambio de
+     * nombre) nunca van en el mismo lote, ya que el servidor no garantiza el orden dentro de él.
+     * Una actualización inválida o fallida no detiene a las demás. Los restaurantes del lote que
+     * aún no tienen sus categorías normalizadas se normalizan antes de enviarlo.
+     * @param actualizaciones Actualizaciones a aplicar, en orden.
+     * @param tamanoLote Cantidad máxima de actualizaciones por lote.
+     * @return Resultado de cada actualización, en el orden de la entrada.
+     * @throws NegocioException Si la lista o el tamaño de lote no son válidos.
+     */
+    @Override
+    public List<ResultadoActualizacionDTO> actualizarVarios(List<ActualizacionRestauranteDTO> actualizaciones, int tamanoLote) throws NegocioException {
+        // Valida los parámetros recibidos.
+        validarTamanoLote(tamanoLote);
+        if(actualizaciones == null)
+            throw new NegocioException("La lista de actualizaciones no puede estar vacía.");
+        // Resultados de cada actualización.
+        List<ResultadoActualizacionDTO> resultados = new ArrayList<>(actualizaciones.size());
+        // Lote en construcción: posiciones en la entrada y nombres involucrados.
+        List<Integer> lote = new ArrayList<>(Math.min(tamanoLote, actualizaciones.size()));
+        Set<String> nombresLote = new HashSet<>();
+        try {
+            for(int i = 0; i < actualizaciones.size(); i++){
+                ActualizacionRestauranteDTO actualizacion = actualizaciones.get(i);
+                // Valida la actualización.
+                String error = validarActualizacion(actualizacion);
+                if(error != null){
+                    resultados.add(new ResultadoActualizacionDTO(i, actualizacion == null ? null : actualizacion.getNombre(),
+                            EstadoEscritura.INVALIDO, 0, 0, error));
+                    continue;
+                }
+                // Cierra el lote si está lleno o si ya involucra alguno de los nombres de la actualización.
+                String nuevoNombre = actualizacion.getOperacion() == OperacionActualizacion.CAMBIAR_NOMBRE ? actualizacion.getTexto() : null;
+                if(lote.size() == tamanoLote || nombresLote.contains(actualizacion.getNombre())
+                        || (nuevoNombre != null && nombresLote.contains(nuevoNombre))){
+                    resultados.addAll(actualizarLote(actualizaciones, lote));
+                    lote.clear();
+                    nombresLote.clear();
+                }
+                lote.add(i);
+                nombresLote.add(actualizacion.getNombre());
+                if(nuevoNombre != null)
+                    nombresLote.add(nuevoNombre);
+            }
+            // Envía el último lote.
+            if(!lote.isEmpty())
+                resultados.addAll(actualizarLote(actualizaciones, lote));
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
+        }
+        // Regresa los resultados en el orden de la entrada.
+        resultados.sort(Comparator.comparingInt(ResultadoActualizacionDTO::getIndice));
+        return resultados;
+    }
+    /**
+     * Envía un lote de actualizaciones como una escritura no ordenada y construye el resultado de cada una.
+     * @param actualizaciones Actualizaciones de la entrada.
+     * @param lote Posiciones en la entrada de las actualizaciones del lote.
+     * @return Resultado de cada actualización del lote.
+     */
+    private List<ResultadoActualizacionDTO> actualizarLote(List<ActualizacionRestauranteDTO> actualizaciones, List<Integer> lote) {
+        List<ResultadoActualizacionDTO> resultados = new ArrayList<>(lote.size());
+        // Nombres y operaciones del lote.
+        List<String> nombres = new ArrayList<>(lote.size());
+        List<UpdateOneModel<Restaurante>> operaciones = new ArrayList<>(lote.size());
+        for(int indice : lote){
+            ActualizacionRestauranteDTO actualizacion = actualizaciones.get(indice);
+            nombres.add(actualizacion.getNombre());
+            operaciones.add(operacionActualizacion(actualizacion));
+        }
+        try {
+            // Lee los restaurantes existentes, solo con los campos que deciden si una actualización coincide.
+            List<Restaurante> leidos = restauranteDAO.consultar(Filters.in("nombre", nombres), PROYECCION_CATEGORIAS);
+            // Normaliza las categorías de los que aún no las tienen, antes de que el lote agregue otras.
+            normalizarCategoriasPendientes(leidos);
+            Map<String, Restaurante> existentes = new HashMap<>();
+            for(Restaurante restaurante : leidos)
+                existentes.put(restaurante.getNombre(), restaurante);
+            // Indica, por posición en el lote, si la actualización coincide con un restaurante.
+            boolean[] coincide = new boolean[lote.size()];
+            for(int i = 0; i < lote.size(); i++)
+                coincide[i] = coincide(actualizaciones.get(lote.get(i)), existentes.get(nombres.get(i)));
+            // Ejecuta la escritura y asocia cada error con su actualización.
+            ResultadoLote resultado = restauranteDAO.escribirLote(operaciones);
+            Map<Integer, ErrorEscritura> errores = new HashMap<>();
+            for(ErrorEscritura error : resultado.getErrores())
+                errores.put(error.getIndice(), error);
+            // Actualizaciones que coincidieron con un restaurante y no fallaron.
+            int coincidencias = 0;
+            for(int i = 0; i < lote.size(); i++){
+                if(!errores.containsKey(i) && coincide[i])
+                    coincidencias++;
+            }
+            // Si el servidor no coincidió con lo leído, el lote cambió entre la lectura y la escritura.
+            boolean indeterminado = resultado.getCoincidencias() != coincidencias;
+            // El servidor solo reporta el total de modificados del lote: se distribuye cuando no hay ambigüedad.
+            Integer modificados = resultado.getModificados() == coincidencias ? Integer.valueOf(1)
+                    : resultado.getModificados() == 0 ? Integer.valueOf(0) : null;
+            for(int i = 0; i < lote.size(); i++){
+                ErrorEscritura error = errores.get(i);
+                if(error != null)
+                    resultados.add(new ResultadoActualizacionDTO(lote.get(i), nombres.get(i),
+                            error.esDuplicado() ? EstadoEscritura.DUPLICADO : EstadoEscritura.ERROR, 0, 0, error.getMensaje()));
+                else if(indeterminado)
+                    resultados.add(new ResultadoActualizacionDTO(lote.get(i), nombres.get(i), EstadoEscritura.INDETERMINADO, null, null, null));
+                else if(coincide[i])
+                    resultados.add(new ResultadoActualizacionDTO(lote.get(i), nombres.get(i), EstadoEscritura.ACTUALIZADO, 1, modificados, null));
+                else
+                    resultados.add(new ResultadoActualizacionDTO(lote.get(i), nombres.get(i), EstadoEscritura.NO_ENCONTRADO, 0, 0, null));
+            }
+        } catch (PersistenciaException e) {
+            // El lote completo falló: se reporta el error en cada actualización.
+            for(int i = 0; i < lote.size(); i++)
+                resultados.add(new ResultadoActualizacionDTO(lote.get(i), nombres.get(i), EstadoEscritura.ERROR, 0, null,
+                        "Ha ocurrido un error al actualizar el lote: " + e.getMessage()));
+        }
+        return resultados;
+    }
+    /**
+     * Construye la operación de escritura de una actualización, con las mismas actualizaciones
+     * que los métodos individuales equivalentes.
+     * @param actualizacion Actualización a convertir.
+     * @return Actualización de un restaurante por su nombre.
+     */
+    private static UpdateOneModel<Restaurante> operacionActualizacion(ActualizacionRestauranteDTO actualizacion) {
+        Bson filtroNombre = Filters.eq("nombre", actualizacion.getNombre());
+        return switch (actualizacion.getOperacion()) {
+            case ESTABLECER_RATING -> new UpdateOneModel<>(filtroNombre, Updates.set("rating", actualizacion.getNumero()));
+            case AUMENTAR_RATING -> new UpdateOneModel<>(filtroNombre, Updates.inc("rating", actualizacion.getNumero()));
+            case CAMBIAR_NOMBRE -> new UpdateOneModel<>(filtroNombre, Updates.set("nombre", actualizacion.getTexto()));
+            case ESTABLECER_CATEGORIAS -> new UpdateOneModel<>(filtroNombre, Updates.combine(
+                    Updates.set("categorias", actualizacion.getCategorias()),
+                    Updates.set("categoriasNorm", Normalizador.normalizar(actualizacion.getCategorias()))));
+            // Igual que agregarCategoriaSinDuplicado: no agrega la categoría si ya existe en su forma normalizada.
+            case AGREGAR_CATEGORIA -> new UpdateOneModel<>(
+                    Filters.and(filtroNombre, FILTRO_CATEGORIAS_NORMALIZADAS,
+                            Filters.ne("categoriasNorm", Normalizador.normalizar(actualizacion.getTexto()))),
+                    Updates.combine(
+                            Updates.addToSet("categorias", actualizacion.getTexto()),
+                            Updates.addToSet("categoriasNorm", Normalizador.normalizar(actualizacion.getTexto()))));
+        };
+    }
+    /**
+     * Escribe las categorías normalizadas de los restaurantes recibidos que tienen categorías pero
+     * aún no las tienen normalizadas, y las establece también en las entidades recibidas. Cada
+     * escritura solo se aplica si las categorías del restaurante siguen siendo las leídas; si otro
+     * cliente las cambió, el restaurante sigue sin normalizar y las actualizaciones que agregan
+     * categorías no lo modifican.
+     * @param restaurantes Restaurantes leídos con su nombre, sus categorías y sus categorías normalizadas.
+     * @throws PersistenciaException Si falla la escritura.
+     */
+    private void normalizarCategoriasPendientes(List<Restaurante> restaurantes) throws PersistenciaException {
+        List<UpdateOneModel<Restaurante>> operaciones = new ArrayList<>();
+        for(Restaurante restaurante : restaurantes){
+            if(restaurante.getCategorias() == null || restaurante.getCategoriasNorm() != null)
+                continue;
+            List<String> categoriasNorm = Normalizador.normalizar(restaurante.getCategorias());
+            operaciones.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("nombre", restaurante.getNombre()), Filters.exists("categoriasNorm", false),
+                            Filters.eq("categorias", restaurante.getCategorias())),
+                    Updates.set("categoriasNorm", categoriasNorm)));
+            restaurante.setCategoriasNorm(categoriasNorm);
+        }
+        // Envía las normalizaciones en una sola escritura, si hay alguna.
+        if(!operaciones.isEmpty())
+            restauranteDAO.escribirLote(operaciones);
+    }
+    /**
+     * Indica si el filtro de una actualización coincide con el restaurante leído antes de la escritura.
+     * @param actualizacion Actualización a revisar.
+     * @param restaurante Restaurante con el nombre de la actualización, o null si no existe.
+     * @return VERDADERO si la actualización coincide con el restaurante, FALSO en caso contrario.
+     */
+    private static boolean coincide(ActualizacionRestauranteDTO actualizacion, Restaurante restaurante) {
+        if(restaurante == null)
+            return false;
+        // Si la categoría a agregar ya existe, el filtro no coincide. Sin categorías normalizadas
+        // (ya normalizadas las pendientes), el restaurante no tiene categorías y la agrega.
+        if(actualizacion.getOperacion() == OperacionActualizacion.AGREGAR_CATEGORIA)
+            return restaurante.getCategoriasNorm() == null
+                    || !restaurante.getCategoriasNorm().contains(Normalizador.normalizar(actualizacion.getTexto()));
+        return true;
+    }
     /**
      * Elimina un restaurante por su nombre.
      * @param nombre Nombre del restaurante.
@@ -524,6 +1468,9 @@ public class RestauranteBO implements IRestauranteBO{
             return restauranteDAO.eliminar(filtroNombre);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar eliminar el restaurante " + nombre + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -547,6 +1494,9 @@ public class RestauranteBO implements IRestauranteBO{
                 return (int) resultado;
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar eliminar restaurantes con rating menor a " + limite + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -557,8 +1507,8 @@ public class RestauranteBO implements IRestauranteBO{
      */
     @Override
     public int eliminarPorCategoria(String categoria) throws NegocioException {
-        // Filtro para obtener restaurantes que tengan la categoría recibida en el parámetro, usando una expresión regular.
-        Bson filtroCategoria = Filters.regex("categorias", "^" + categoria + "$", "i");
+        // Filtro para obtener restaurantes que tengan la categoría recibida, comparando su forma normalizada.
+        Bson filtroCategoria = Filters.eq("categoriasNorm", Normalizador.normalizar(categoria));
         try {
             // Ejecuta la eliminación.
             long resultado = restauranteDAO.eliminarConteo(filtroCategoria);
@@ -570,6 +1520,9 @@ public class RestauranteBO implements IRestauranteBO{
                 return (int) resultado;
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar eliminar restaurantes con la categoria " + categoria + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -592,6 +1545,9 @@ public class RestauranteBO implements IRestauranteBO{
                 return (int) resultado;
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar eliminar restaurantes sin fecha de inauguracion.");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
         }
     }
     /**
@@ -609,8 +1565,308 @@ public class RestauranteBO implements IRestauranteBO{
             return restauranteDAO.eliminar(filtroID);
         } catch (PersistenciaException e) {
             throw new NegocioException("Ha ocurrido un error al intentar eliminar el restaurante con id" + id + ".");
+        } finally {
+            // Invalida las sugerencias del autocompletado que pudieron cambiar.
+            triePrefijos.limpiar();
+        }
+    }
+    /**
+     * Rellena, en lotes, las categorías normalizadas de los restaurantes existentes
+     * que aún no las tienen. Solo procesa los restaurantes pendientes, por lo que
+     * basta con ejecutarlo una vez tras actualizar la aplicación.
+     * @param tamanoLote Cantidad de restaurantes procesados por lote.
+     * @return Número de restaurantes actualizados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public long migrarCategoriasNormalizadas(int tamanoLote) throws NegocioException {
+        // Valida el tamaño de lote recibido.
+        validarTamanoLote(tamanoLote);
+        try {
+            // Ejecuta la migración.
+            return restauranteDAO.normalizarCategoriasExistentes(tamanoLote);
+        } catch (PersistenciaException e) {
+            throw new NegocioException("Ha ocurrido un error al intentar normalizar las categorias de los restaurantes existentes.");
         }
     }
+    /**
+     * Consulta una página de restaurantes ordenados por (llave, _id), o solo por la llave si es
+     * única, de modo que el índice de la llave entrega el orden. Se solicita un restaurante
+     * más que el tamaño de página para saber si existe una página siguiente sin contar el total.
+     * @param filtro Filtro de la consulta.
+     * @param campo Campo de orden, o {@link TokenPagina#SOLO_ID} para ordenar solo por ID.
+     * @param llave Función que obtiene el valor de la llave de orden de un restaurante (null si se ordena solo por ID).
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     * @throws NegocioException Si el tamaño de página o el token no son válidos.
+     */
+    private Pagina<RestauranteDTO> consultarPagina(Bson filtro, String campo, Function<Restaurante, BsonValue> llave,
+            boolean ascendente, int tamanoPagina, String token) throws PersistenciaException, NegocioException{
+        return consultarPagina(filtro, campo, llave, ascendente, tamanoPagina, token, 0);
+    }
+    /**
+     * Consulta una página de restaurantes ordenados por (llave, _id) o por la llave única, con un tiempo máximo en el servidor.
+     * @param filtro Filtro de la consulta.
+     * @param campo Campo de orden, o {@link TokenPagina#SOLO_ID} para ordenar solo por ID.
+     * @param llave Función que obtiene el valor de la llave de orden de un restaurante (null si se ordena solo por ID).
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación, o null para la primera página.
+     * @param tiempoMaximoMS Tiempo máximo de la consulta en el servidor, en milisegundos; 0 indica sin límite.
+     * @return Página con restaurantes encontrados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     * @throws NegocioException Si el tamaño de página o el token no son válidos.
+     */
+    private Pagina<RestauranteDTO> consultarPagina(Bson filtro, String campo, Function<Restaurante, BsonValue> llave,
+            boolean ascendente, int tamanoPagina, String token, long tiempoMaximoMS) throws PersistenciaException, NegocioException{
+        // Valida el tamaño de página recibido.
+        if(tamanoPagina <= 0)
+            throw new NegocioException("El tamaño de página debe ser mayor a cero.");
+        int direccion = ascendente ? 1 : -1;
+        // Ordenamiento por la llave, con el ID como desempate para que el orden sea total; una llave única no lo necesita.
+        Bson orden = TokenPagina.esLlaveUnica(campo)
+                ? (ascendente ? Sorts.ascending(campo) : Sorts.descending(campo))
+                : (ascendente ? Sorts.ascending(campo, TokenPagina.SOLO_ID) : Sorts.descending(campo, TokenPagina.SOLO_ID));
+        // A partir de la segunda página se agrega el predicado de rango del token.
+        if(token != null)
+            filtro = Filters.and(filtro, TokenPagina.decodificar(token, campo, direccion).filtroSiguiente());
+        // Ejecuta la consulta, con un restaurante extra para detectar la página siguiente.
+        List<Restaurante> restaurantesEncontradosDAO = restauranteDAO.consultar(filtro, new OpcionesConsulta()
+                .orden(orden).limite(tamanoPagina + 1).tiempoMaximoMS(tiempoMaximoMS));
+        boolean hayMas = restaurantesEncontradosDAO.size() > tamanoPagina;
+        if(hayMas)
+            restaurantesEncontradosDAO = restaurantesEncontradosDAO.subList(0, tamanoPagina);
+        // Mapea los restaurantes encontrados a la página.
+        List<RestauranteDTO> restaurantesEncontrados = Mapper.toDTOs(restaurantesEncontradosDAO);
+        // El token de la página siguiente apunta al último restaurante de esta página.
+        String tokenSiguiente = null;
+        if(hayMas){
+            Restaurante ultimo = restaurantesEncontradosDAO.getLast();
+            tokenSiguiente = new TokenPagina(campo, direccion, llave == null ? null : llave.apply(ultimo), ultimo.getId()).codificar();
+        }
+        return new Pagina<>(restaurantesEncontrados, tokenSiguiente);
+    }
+    /**
+     * Retorna el rating de un restaurante como llave de orden.
+     * @param restaurante Restaurante.
+     * @return Rating como valor BSON.
+     */
+    private static BsonValue llaveRating(Restaurante restaurante) {return new BsonDouble(restaurante.getRating());}
+    /**
+     * Retorna el nombre de un restaurante como llave de orden.
+     * @param restaurante Restaurante.
+     * @return Nombre como valor BSON.
+     */
+    private static BsonValue llaveNombre(Restaurante restaurante) {return new BsonString(restaurante.getNombre());}
+    /**
+     * Retorna la fecha de inauguración de un restaurante como llave de orden,
+     * con la misma representación que se guarda en la base de datos (medianoche UTC).
+     * @param restaurante Restaurante.
+     * @return Fecha de inauguración como valor BSON.
+     */
+    private static BsonValue llaveFecha(Restaurante restaurante) {
+        return new BsonDateTime(restaurante.getFechaInauguracion().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+    }
+    /**
+     * Lote de restaurantes ya validados y mapeados, listo para escribirse.
+     */
+    private static final class LoteEscritura {
+        // Entidades a escribir.
+        private final List<Restaurante> entidades;
+        // Posición en la entrada de cada entidad.
+        private final int[] indices;
+        // Resultados de los restaurantes que no pasaron la validación.
+        private final List<ResultadoEscrituraDTO> invalidos = new ArrayList<>();
+        // Cantidad de restaurantes leídos de la entrada.
+        private int leidos;
+        /**
+         * Constructor que recibe el tamaño del lote.
+         * @param tamanoLote Cantidad máxima de restaurantes del lote.
+         */
+        private LoteEscritura(int tamanoLote) {
+            this.entidades = new ArrayList<>(tamanoLote);
+            this.indices = new int[tamanoLote];
+        }
+    }
+    /**
+     * Lee de la entrada hasta un lote de restaurantes, validándolos y mapeándolos.
+     * @param iterador Entrada de restaurantes.
+     * @param indiceInicial Posición en la entrada del primer restaurante del lote.
+     * @param tamanoLote Cantidad máxima de restaurantes del lote.
+     * @param llave Llave de los upserts, que cada restaurante debe tener, o null para insertar.
+     * @return Lote preparado.
+     */
+    private LoteEscritura prepararLote(Iterator<RestauranteDTO> iterador, int indiceInicial, int tamanoLote, LlaveUpsert llave) {
+        LoteEscritura lote = new LoteEscritura(tamanoLote);
+        while(lote.leidos < tamanoLote && iterador.hasNext()){
+            RestauranteDTO restaurante = iterador.next();
+            int indice = indiceInicial + lote.leidos++;
+            try {
+                // Valida el restaurante y, en los upserts, su llave.
+                validarRestaurante(restaurante);
+                if(llave != null)
+                    validarLlave(restaurante, llave);
+                // Mapea el restaurante y lo añade al lote.
+                lote.indices[lote.entidades.size()] = indice;
+                lote.entidades.add(Mapper.toEntity(restaurante));
+            } catch (NegocioException e) {
+                lote.invalidos.add(new ResultadoEscrituraDTO(indice,
+                        restaurante == null ? null : restaurante.getNombre(), null, EstadoEscritura.INVALIDO, e.getMessage()));
+            }
+        }
+        return lote;
+    }
+    /**
+     * Escribe un lote de restaurantes como una escritura no ordenada y
+     * construye el resultado de cada uno.
+     * @param lote Lote a escribir.
+     * @param llave Llave de los upserts, o null para insertar.
+     * @param reemplazar En los upserts, VERDADERO para reemplazar y FALSO para actualizar los atributos no nulos.
+     * @return Resultado de cada restaurante del lote.
+     */
+    private List<ResultadoEscrituraDTO> escribirLote(LoteEscritura lote, LlaveUpsert llave, boolean reemplazar) {
+        List<ResultadoEscrituraDTO> resultados = new ArrayList<>(lote.entidades.size());
+        List<WriteModel<Restaurante>> operaciones = new ArrayList<>(lote.entidades.size());
+        for(Restaurante restaurante : lote.entidades)
+            operaciones.add(operacionEscritura(restaurante, llave, reemplazar));
+        try {
+            // Ejecuta la escritura y asocia cada error con su restaurante.
+            ResultadoLote resultado = restauranteDAO.escribirLote(operaciones);
+            Map<Integer, ErrorEscritura> errores = new HashMap<>();
+            for(ErrorEscritura error : resultado.getErrores())
+                errores.put(error.getIndice(), error);
+            for(int i = 0; i < lote.entidades.size(); i++){
+                Restaurante restaurante = lote.entidades.get(i);
+                ErrorEscritura error = errores.get(i);
+                // Un upsert sin ID insertado encontró un restaurante con su llave y lo actualizó.
+                ObjectId insertado = llave == null ? restaurante.getId() : resultado.getIdsUpsert().get(i);
+                if(error != null)
+                    resultados.add(new ResultadoEscrituraDTO(lote.indices[i], restaurante.getNombre(), null,
+                            error.esDuplicado() ? EstadoEscritura.DUPLICADO : EstadoEscritura.ERROR, error.getMensaje()));
+                else if(insertado != null)
+                    resultados.add(new ResultadoEscrituraDTO(lote.indices[i], restaurante.getNombre(),
+                            insertado.toHexString(), EstadoEscritura.INSERTADO, null));
+                else
+                    resultados.add(new ResultadoEscrituraDTO(lote.indices[i], restaurante.getNombre(), null,
+                            EstadoEscritura.ACTUALIZADO, null));
+            }
+        } catch (PersistenciaException e) {
+            // El lote completo falló: se reporta el error en cada restaurante.
+            for(int i = 0; i < lote.entidades.size(); i++)
+                resultados.add(new ResultadoEscrituraDTO(lote.indices[i], lote.entidades.get(i).getNombre(), null,
+                        EstadoEscritura.ERROR, "Ha ocurrido un error al escribir el lote: " + e.getMessage()));
+        }
+        return resultados;
+    }
+    /**
+     * Construye la operación de escritura de un restaurante dentro de un lote.
+     * @param restaurante Restaurante a escribir.
+     * @param llave Llave del upsert, o null para insertar.
+     * @param reemplazar En los upserts, VERDADERO para reemplazar y FALSO para actualizar los atributos no nulos.
+     * @return Inserción, reemplazo con upsert o actualización con upsert.
+     */
+    private static WriteModel<Restaurante> operacionEscritura(Restaurante restaurante, LlaveUpsert llave, boolean reemplazar) {
+        if(llave == null){
+            // Asigna el ID en el cliente para poder reportarlo.
+            if(restaurante.getId() == null)
+                restaurante.setId(new ObjectId());
+            return new InsertOneModel<>(restaurante);
+        }
+        Bson filtroLlave = Filters.eq(llave.getCampo(),
+                llave == LlaveUpsert.NOMBRE ? restaurante.getNombre() : restaurante.getClaveIdempotencia());
+        return reemplazar
+                ? new ReplaceOneModel<>(filtroLlave, restaurante, new ReplaceOptions().upsert(true))
+                : new UpdateOneModel<>(filtroLlave, actualizacionCampos(restaurante, Updates::set), new UpdateOptions().upsert(true));
+    }
+    /**
+     * Construye una actualización que escribe, con el operador recibido ($set o $setOnInsert), cada
+     * atributo no nulo del restaurante, incluidas sus categorías normalizadas.
+     * @param restaurante Restaurante del que se leen los atributos.
+     * @param operador Operador de actualización por campo, por ejemplo {@code Updates::set}.
+     * @return Actualización combinada.
+     */
+    private static Bson actualizacionCampos(Restaurante restaurante, BiFunction<String, Object, Bson> operador) {
+        List<Bson> campos = new ArrayList<>(6);
+        if(restaurante.getNombre() != null)
+            campos.add(operador.apply("nombre", restaurante.getNombre()));
+        if(restaurante.getFechaInauguracion() != null)
+            campos.add(operador.apply("fechaInauguracion", restaurante.getFechaInauguracion()));
+        if(restaurante.getRating() != null)
+            campos.add(operador.apply("rating", restaurante.getRating()));
+        if(restaurante.getCategorias() != null){
+            campos.add(operador.apply("categorias", restaurante.getCategorias()));
+            campos.add(operador.apply("categoriasNorm", Normalizador.normalizar(restaurante.getCategorias())));
+        }
+        if(restaurante.getClaveIdempotencia() != null)
+            campos.add(operador.apply("claveIdempotencia", restaurante.getClaveIdempotencia()));
+        return Updates.combine(campos);
+    }
+    /**
+     * Espera a que termine la escritura de un lote.
+     * @param escritura Escritura pendiente.
+     * @return Resultado de cada restaurante del lote.
+     * @throws NegocioException Si la espera es interrumpida o la escritura falla inesperadamente.
+     */
+    private List<ResultadoEscrituraDTO> esperarEscritura(Future<List<ResultadoEscrituraDTO>> escritura) throws NegocioException{
+        try {
+            return escritura.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NegocioException("La escritura masiva fue interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new NegocioException("Ha ocurrido un error al escribir la lista de restaurantes.", e.getCause());
+        }
+    }
+    /**
+     * Valida el tamaño de lote de una consulta en flujo o de un proceso por lotes.
+     * @param tamanoLote Tamaño de lote a validar.
+     * @throws NegocioException Excepción de negocio.
+     */
+    private void validarTamanoLote(int tamanoLote) throws NegocioException{
+        // Si el tamaño de lote no es positivo.
+        if(tamanoLote <= 0)
+            throw new NegocioException("El tamaño de lote debe ser mayor a cero.");
+    }
+    /**
+     * Valida una actualización de la actualización por lotes.
+     * @param actualizacion Actualización a validar.
+     * @return Mensaje de error, o null si la actualización es válida.
+     */
+    private String validarActualizacion(ActualizacionRestauranteDTO actualizacion){
+        // Si la actualización o su nombre son null.
+        if(actualizacion == null || actualizacion.getOperacion() == null)
+            return "La actualización no puede estar vacía.";
+        if(actualizacion.getNombre() == null)
+            return "El nombre del restaurante no puede estar vacío";
+        return switch (actualizacion.getOperacion()) {
+            // Si el nuevo rating es menor a cero o mayor a 5.
+            case ESTABLECER_RATING -> actualizacion.getNumero() < 0.0 || actualizacion.getNumero() > 5.0
+                    ? "El rating del restaurante no puede ser menor a cero o mayor a 5." : null;
+            case AUMENTAR_RATING -> null;
+            // Si el nuevo nombre o la categoría son null.
+            case CAMBIAR_NOMBRE -> actualizacion.getTexto() == null ? "El nuevo nombre del restaurante no puede estar vacío." : null;
+            case AGREGAR_CATEGORIA -> actualizacion.getTexto() == null ? "La categoría a agregar no puede estar vacía." : null;
+            case ESTABLECER_CATEGORIAS -> actualizacion.getCategorias() == null ? "Las categorías del restaurante no pueden estar vacías." : null;
+        };
+    }
+    /**
+     * Valida que el restaurante tenga la llave de un upsert.
+     * @param restauranteDTO Restaurante a validar.
+     * @param llave Llave del upsert.
+     * @throws NegocioException Si la llave es nula o el restaurante no la tiene.
+     */
+    private void validarLlave(RestauranteDTO restauranteDTO, LlaveUpsert llave) throws NegocioException{
+        // Si no se indicó la llave.
+        if(llave == null)
+            throw new NegocioException("La llave del upsert no puede estar vacía.");
+        // Si el restaurante no tiene valor para la llave.
+        String valor = llave.valor(restauranteDTO);
+        if(valor == null || valor.isBlank())
+            throw new NegocioException("El restaurante no tiene " + (llave == LlaveUpsert.NOMBRE ? "nombre" : "clave de idempotencia") + " para el upsert.");
+    }
     /**
      * Valida un restaurante.
      * @param restauranteDTO Restaurante a validar.
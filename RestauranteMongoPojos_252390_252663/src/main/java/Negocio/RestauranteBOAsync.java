@@ -0,0 +1,450 @@
+package Negocio;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Clase de Negocio asíncrona. Ejecuta cada operación de un {@link IRestauranteBO} en su propio
+ * hilo virtual, de modo que la espera a MongoDB no ocupa un hilo de plataforma del llamador.
+ * Un semáforo limita cuántas operaciones se ejecutan a la vez; las demás esperan, también en
+ * hilos virtuales, sin bloquear a nadie. Conviene que el límite no supere el tamaño máximo del
+ * pool de conexiones (mongo.pool.maxSize), para que la espera ocurra aquí y no en el pool.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteBOAsync implements IRestauranteBOAsync, AutoCloseable {
+    // Objeto de negocio que ejecuta las operaciones.
+    private final IRestauranteBO negocio;
+    // Ejecutor que crea un hilo virtual por operación.
+    private final ExecutorService ejecutor;
+    // Límite de operaciones concurrentes.
+    private final Semaphore limite;
+    /**
+     * Operación de negocio a ejecutar en un hilo virtual.
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    private interface Operacion<T> {
+        /**
+         * Ejecuta la operación.
+         * @return Resultado de la operación.
+         * @throws NegocioException Excepción de negocio.
+         */
+        T ejecutar() throws NegocioException;
+    }
+    /**
+     * Constructor que recibe el objeto de negocio y el límite de operaciones concurrentes.
+     * @param negocio Objeto de negocio que ejecuta las operaciones.
+     * @param concurrenciaMaxima Cantidad máxima de operaciones ejecutándose a la vez.
+     */
+    public RestauranteBOAsync(IRestauranteBO negocio, int concurrenciaMaxima) {
+        if(concurrenciaMaxima <= 0)
+            throw new IllegalArgumentException("La concurrencia máxima debe ser mayor a cero.");
+        this.negocio = negocio;
+        this.ejecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("restaurantes-async-", 0).factory());
+        this.limite = new Semaphore(concurrenciaMaxima, true);
+    }
+    /**
+     * Retorna la cantidad de operaciones que pueden iniciar en este momento sin esperar.
+     * @return Permisos disponibles del límite de concurrencia.
+     */
+    public int getPermisosDisponibles() {return limite.availablePermits();}
+    /**
+     * Deja de aceptar operaciones y espera a que terminen las pendientes.
+     */
+    @Override
+    public void close() {ejecutor.close();}
+
+    // Inserciones
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> insertarRestaurantesPorDefecto() {
+        return ejecutar(() -> {
+            negocio.insertarRestaurantesPorDefecto();
+            return null;
+        });
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> insertar(RestauranteDTO restaurante) {
+        return ejecutar(() -> {
+            negocio.insertar(restaurante);
+            return null;
+        });
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> insertarVarios(List<RestauranteDTO> restaurantes) {
+        return ejecutar(() -> {
+            negocio.insertarVarios(restaurantes);
+            return null;
+        });
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<ResultadoEscrituraDTO>> insertarMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote) {
+        return ejecutar(() -> negocio.insertarMasivo(restaurantes, tamanoLote));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<ResultadoEscrituraDTO> upsert(RestauranteDTO restaurante, LlaveUpsert llave) {
+        return ejecutar(() -> negocio.upsert(restaurante, llave));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<ResultadoEscrituraDTO>> upsertVarios(Iterable<RestauranteDTO> restaurantes, LlaveUpsert llave, boolean reemplazar, int tamanoLote) {
+        return ejecutar(() -> negocio.upsertVarios(restaurantes, llave, reemplazar, tamanoLote));
+    }
+
+    // Consultas
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> consultarTodos() {
+        return ejecutar(() -> negocio.consultarTodos());
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> consultarPorRatingMayorA(double valor) {
+        return ejecutar(() -> negocio.consultarPorRatingMayorA(valor));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> consultarPorRangoRating(double min, double max) {
+        return ejecutar(() -> negocio.consultarPorRangoRating(min, max));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> consultarPorCategoria(String categoria) {
+        return ejecutar(() -> negocio.consultarPorCategoria(categoria));
+    }
+    /**
+     * {@inheritDoc}
+     * @deprecated Usar {@link #buscarTexto(String, int)} o {@link #buscarPorNombreRegex(String, long)}.
+     */
+    @Deprecated
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> buscarPorNombreRegex(String patron) {
+        return ejecutar(() -> negocio.buscarPorNombreRegex(patron, RestauranteBO.TIEMPO_MAXIMO_REGEX_MS));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> buscarPorNombreRegex(String patron, long tiempoMaximoMS) {
+        return ejecutar(() -> negocio.buscarPorNombreRegex(patron, tiempoMaximoMS));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> buscarTexto(String consulta, int limite) {
+        return ejecutar(() -> negocio.buscarTexto(consulta, limite));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> buscarNombreIniciaCon(String prefijo) {
+        return ejecutar(() -> negocio.buscarNombreIniciaCon(prefijo));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<String>> autocompletarNombre(String prefijo, int limite) {
+        return ejecutar(() -> negocio.autocompletarNombre(prefijo, limite));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> consultarPorFechaDesdeOrdenado(int anio, boolean ascendente) {
+        return ejecutar(() -> negocio.consultarPorFechaDesdeOrdenado(anio, ascendente));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> top3RestaurantesPorCategoria(String categoria) {
+        return ejecutar(() -> negocio.top3RestaurantesPorCategoria(categoria));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> topNPorCategoria(String categoria, int n) {
+        return ejecutar(() -> negocio.topNPorCategoria(categoria, n));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Map<String, List<RestauranteDTO>>> topNPorCategorias(Collection<String> categorias, int n) {
+        return ejecutar(() -> negocio.topNPorCategorias(categorias, n));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteDTO>> sinCategorias() {
+        return ejecutar(() -> negocio.sinCategorias());
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<RestauranteDTO> consultarRestaurantePorNombreCompleto(String nombre) {
+        return ejecutar(() -> negocio.consultarRestaurantePorNombreCompleto(nombre));
+    }
+
+    // Consultas paginadas
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarTodosPagina(int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.consultarTodosPagina(tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorRatingMayorAPagina(double valor, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.consultarPorRatingMayorAPagina(valor, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorRangoRatingPagina(double min, double max, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.consultarPorRangoRatingPagina(min, max, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorCategoriaPagina(String categoria, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.consultarPorCategoriaPagina(categoria, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> buscarPorNombreRegexPagina(String patron, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.buscarPorNombreRegexPagina(patron, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> buscarNombreIniciaConPagina(String prefijo, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.buscarNombreIniciaConPagina(prefijo, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> consultarPorFechaDesdeOrdenadoPagina(int anio, boolean ascendente, int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.consultarPorFechaDesdeOrdenadoPagina(anio, ascendente, tamanoPagina, token));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Pagina<RestauranteDTO>> sinCategoriasPagina(int tamanoPagina, String token) {
+        return ejecutar(() -> negocio.sinCategoriasPagina(tamanoPagina, token));
+    }
+
+    // Consultas de resumen
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarTodosResumen() {
+        return ejecutar(() -> negocio.consultarTodosResumen());
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorRatingMayorAResumen(double valor) {
+        return ejecutar(() -> negocio.consultarPorRatingMayorAResumen(valor));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorRangoRatingResumen(double min, double max) {
+        return ejecutar(() -> negocio.consultarPorRangoRatingResumen(min, max));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<RestauranteResumenDTO>> consultarPorCategoriaResumen(String categoria) {
+        return ejecutar(() -> negocio.consultarPorCategoriaResumen(categoria));
+    }
+
+    // Actualizaciones
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> actualizarRatingPorNombre(String nombre, double nuevoRating) {
+        return ejecutar(() -> negocio.actualizarRatingPorNombre(nombre, nuevoRating));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> agregarCategoriaSinDuplicado(String nombre, String nuevaCategoria) {
+        return ejecutar(() -> negocio.agregarCategoriaSinDuplicado(nombre, nuevaCategoria));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> aumentarRatingPorCategoria(String categoria, double incremento) {
+        return ejecutar(() -> negocio.aumentarRatingPorCategoria(categoria, incremento));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> aumentarRatingPorNombreRestaurante(String nombre, double incremento) {
+        return ejecutar(() -> negocio.aumentarRatingPorNombreRestaurante(nombre, incremento));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Integer> agregarCategoriasDondeFalten(List<String> categorias) {
+        return ejecutar(() -> negocio.agregarCategoriasDondeFalten(categorias));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> actualizarNombre(String anterior, String nuevo) {
+        return ejecutar(() -> negocio.actualizarNombre(anterior, nuevo));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> actualizarCategorias(String nombre, List<String> categorias) {
+        return ejecutar(() -> negocio.actualizarCategorias(nombre, categorias));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<ResultadoActualizacionDTO>> actualizarVarios(List<ActualizacionRestauranteDTO> actualizaciones, int tamanoLote) {
+        return ejecutar(() -> negocio.actualizarVarios(actualizaciones, tamanoLote));
+    }
+
+    // Eliminaciones
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> eliminarPorNombre(String nombre) {
+        return ejecutar(() -> negocio.eliminarPorNombre(nombre));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Integer> eliminarPorRatingMenorA(double limite) {
+        return ejecutar(() -> negocio.eliminarPorRatingMenorA(limite));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Integer> eliminarPorCategoria(String categoria) {
+        return ejecutar(() -> negocio.eliminarPorCategoria(categoria));
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Integer> eliminarSinFechaInauguracion() {
+        return ejecutar(() -> negocio.eliminarSinFechaInauguracion());
+    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> eliminarPorID(String id) {
+        return ejecutar(() -> negocio.eliminarPorID(id));
+    }
+
+    // Mantenimiento
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Long> migrarCategoriasNormalizadas(int tamanoLote) {
+        return ejecutar(() -> negocio.migrarCategoriasNormalizadas(tamanoLote));
+    }
+
+    /**
+     * Ejecuta una operación en un hilo virtual, respetando el límite de concurrencia.
+     * @param <T> Tipo del resultado.
+     * @param operacion Operación a ejecutar.
+     * @return Futuro que se completa con el resultado o con la excepción de la operación.
+     */
+    private <T> CompletableFuture<T> ejecutar(Operacion<T> operacion) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        try {
+            ejecutor.execute(() -> {
+                // Espera un permiso; en un hilo virtual la espera no ocupa un hilo de plataforma.
+                try {
+                    limite.acquire();
+                } catch (InterruptedException e) {
+                    futuro.completeExceptionally(new NegocioException("La operación fue interrumpida.", e));
+                    return;
+                }
+                try {
+                    futuro.complete(operacion.ejecutar());
+                } catch (Throwable e) {
+                    // También los Error (por ejemplo, si falla la inicialización de la conexión),
+                    // para que el futuro siempre se complete y nadie espere en join() para siempre.
+                    futuro.completeExceptionally(e);
+                } finally {
+                    limite.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            futuro.completeExceptionally(new NegocioException("El objeto de negocio asíncrono ya fue cerrado.", e));
+        }
+        return futuro;
+    }
+}
@@ -0,0 +1,943 @@
+package Negocio;
+
+import Dominio.Normalizador;
+import Dominio.Restaurante;
+import Persistencia.EventoCambioRestaurante;
+import Persistencia.SuscriptorCambios;
+import Persistencia.TipoCambio;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Decorador de {@link IRestauranteBO} que guarda en memoria los resultados de las consultas
+ * más repetidas: por categoría, top 3 por categoría y por nombre completo. Cada consulta tiene
+ * su propia {@link CacheLRU}, acotada por tamaño y por tiempo de vida.
+ * <p>
+ * Las escrituras hechas a través de este objeto invalidan solo las entradas que pueden haber
+ * cambiado: las que contienen a los restaurantes afectados y las de las categorías a las que
+ * estos entran. Un cambio de rating puede alterar qué restaurantes forman un top 3, por lo que
+ * si no se conocen las categorías del restaurante se invalidan todos los top 3. Sin una escucha de
+ * cambios, las escrituras hechas por otros procesos no se detectan y el límite de obsolescencia es el tiempo de vida.
+ * <p>
+ * Para detectar también las escrituras de otros nodos, la caché puede suscribirse a una
+ * {@link Persistencia.EscuchaCambiosRestaurantes}: cada cambio recibido invalida las mismas
+ * entradas que invalidaría la escritura local equivalente.
+ * <p>
+ * Los restaurantes guardados nunca se entregan directamente: cada acierto regresa copias, para
+ * que el llamador pueda modificarlas sin alterar la caché.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteBOCache implements IRestauranteBO, SuscriptorCambios {
+    // Objeto de negocio decorado.
+    private final IRestauranteBO negocio;
+    // Restaurantes por categoría normalizada.
+    private final CacheLRU<String, List<RestauranteDTO>> porCategoria;
+    // Top 3 de restaurantes por categoría normalizada.
+    private final CacheLRU<String, List<RestauranteDTO>> top3;
+    // Restaurante por nombre completo (un restaurante vacío representa que no existe).
+    private final CacheLRU<String, RestauranteDTO> porNombre;
+    /**
+     * Constructor que recibe el objeto de negocio a decorar y la configuración de las cachés.
+     * @param negocio Objeto de negocio decorado.
+     * @param capacidad Cantidad máxima de entradas de cada caché.
+     * @param ttl Tiempo de vida de cada entrada.
+     */
+    public RestauranteBOCache(IRestauranteBO negocio, int capacidad, Duration ttl) {
+        this.negocio = negocio;
+        this.porCategoria = new CacheLRU<>(capacidad, ttl);
+        this.top3 = new CacheLRU<>(capacidad, ttl);
+        this.porNombre = new CacheLRU<>(capacidad, ttl);
+    }
+    /**
+     * Retorna los contadores de cada caché, identificadas por el nombre de la consulta.
+     * @return Estadísticas de las cachés.
+     */
+    public Map<String, EstadisticasCache> estadisticas() {
+        Map<String, EstadisticasCache> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("consultarPorCategoria", porCategoria.estadisticas());
+        estadisticas.put("top3RestaurantesPorCategoria", top3.estadisticas());
+        estadisticas.put("consultarRestaurantePorNombreCompleto", porNombre.estadisticas());
+        return estadisticas;
+    }
+    /**
+     * Vacía todas las cachés.
+     */
+    public void limpiar() {
+        porCategoria.limpiar();
+        top3.limpiar();
+        porNombre.limpiar();
+    }
+    /**
+     * Invalida las entradas afectadas por un cambio de la colección, hecho por este u otro nodo.
+     * @param evento Cambio ocurrido en la colección.
+     */
+    @Override
+    public void alCambiar(EventoCambioRestaurante evento) {
+        String id = evento.getId() == null ? null : evento.getId().toHexString();
+        Restaurante actual = evento.getRestaurante();
+        switch (evento.getTipo()) {
+            case INSERCION -> invalidarNuevo(actual);
+            case ACTUALIZACION, REEMPLAZO -> {
+                // Entradas que contienen la versión anterior del restaurante.
+                invalidarRestaurantes(restaurante -> id != null && id.equals(restaurante.getId()));
+                if(actual == null)
+                    break;
+                if(actual.getNombre() != null)
+                    porNombre.invalidar(actual.getNombre());
+                // Si cambiaron sus categorías o su rating, también las entradas de sus categorías actuales.
+                if(evento.getTipo() == TipoCambio.REEMPLAZO || afectaCategorias(evento.getCamposActualizados())
+                        || afectaCategorias(evento.getCamposRemovidos()))
+                    for(String categoria : categoriasNorm(actual))
+                        invalidarCategoria(categoria);
+            }
+            case ELIMINACION -> invalidarRestaurantes(restaurante -> id != null && id.equals(restaurante.getId()));
+            case REINICIO -> limpiar();
+        }
+    }
+
+    // Inserciones
+    /**
+     * Inserta unos restaurantes por defecto y vacía las cachés.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public void insertarRestaurantesPorDefecto() throws NegocioException {
+        try {
+            negocio.insertarRestaurantesPorDefecto();
+        } finally {
+            limpiar();
+        }
+    }
+    /**
+     * Inserta un nuevo restaurante e invalida las entradas de su nombre y de sus categorías.
+     * @param restaurante Restaurante a insertar.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public void insertar(RestauranteDTO restaurante) throws NegocioException {
+        try {
+            negocio.insertar(restaurante);
+        } finally {
+            invalidarInsercion(restaurante);
+        }
+    }
+    /**
+     * Inserta una lista de restaurantes e invalida las entradas de sus nombres y de sus categorías.
+     * @param restaurantes Lista de restaurantes a insertar.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public void insertarVarios(List<RestauranteDTO> restaurantes) throws NegocioException {
+        try {
+            negocio.insertarVarios(restaurantes);
+        } finally {
+            if(restaurantes != null)
+                for(RestauranteDTO restaurante : restaurantes)
+                    invalidarInsercion(restaurante);
+        }
+    }
+    /**
+     * Inserta restaurantes de forma masiva y vacía las cachés, ya que la entrada
+     * se recorre una sola vez y no se conservan sus categorías.
+     * @param restaurantes Restaurantes a insertar.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<ResultadoEscrituraDTO> insertarMasivo(Iterable<RestauranteDTO> restaurantes, int tamanoLote) throws NegocioException {
+        try {
+            return negocio.insertarMasivo(restaurantes, tamanoLote);
+        } finally {
+            limpiar();
+        }
+    }
+    /**
+     * Guarda un restaurante por su nombre o su clave de idempotencia y vacía las cachés, ya que
+     * un reemplazo puede quitarle categorías que no se conocen de antemano.
+     * @param restaurante Restaurante a guardar.
+     * @param llave Campo que identifica al restaurante.
+     * @return Resultado de la escritura.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public ResultadoEscrituraDTO upsert(RestauranteDTO restaurante, LlaveUpsert llave) throws NegocioException {
+        try {
+            return negocio.upsert(restaurante, llave);
+        } finally {
+            limpiar();
+        }
+    }
+    /**
+     * Guarda restaurantes de forma masiva por su nombre o su clave de idempotencia y vacía las cachés.
+     * @param restaurantes Restaurantes a guardar.
+     * @param llave Campo que identifica a cada restaurante.
+     * @param reemplazar VERDADERO para reemplazar el restaurante completo, FALSO para actualizar solo los atributos no nulos.
+     * @param tamanoLote Cantidad de restaurantes por lote.
+     * @return Resultado de cada restaurante.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<ResultadoEscrituraDTO> upsertVarios(Iterable<RestauranteDTO> restaurantes, LlaveUpsert llave, boolean reemplazar, int tamanoLote) throws NegocioException {
+        try {
+            return negocio.upsertVarios(restaurantes, llave, reemplazar, tamanoLote);
+        } finally {
+            limpiar();
+        }
+    }
+
+    // Consultas
+    /**
+     * Consulta todos los restaurantes, sin caché.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> consultarTodos() throws NegocioException {return negocio.consultarTodos();}
+    /**
+     * Consulta restaurantes cuyo rating es mayor al valor recibido, sin caché.
+     * @param valor Rating a límite.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> consultarPorRatingMayorA(double valor) throws NegocioException {return negocio.consultarPorRatingMayorA(valor);}
+    /**
+     * Consulta restaurantes cuyo rating se encuentra dentro del rango recibido, sin caché.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> consultarPorRangoRating(double min, double max) throws NegocioException {return negocio.consultarPorRangoRating(min, max);}
+    /**
+     * Consulta restaurantes cuya categoría es igual a la recibida, desde la caché si existe una entrada vigente.
+     * @param categoria Categoría a comparar.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> consultarPorCategoria(String categoria) throws NegocioException {
+        // La llave es la categoría normalizada, igual que la comparación en la base de datos.
+        String llave = Normalizador.normalizar(categoria);
+        List<RestauranteDTO> guardados = porCategoria.obtener(llave);
+        if(guardados != null)
+            return copiar(guardados);
+        // Lee la versión antes de consultar, para no guardar un resultado ya invalidado.
+        long version = porCategoria.version();
+        List<RestauranteDTO> restaurantesEncontrados = negocio.consultarPorCategoria(categoria);
+        porCategoria.guardar(llave, copiar(restaurantesEncontrados), version);
+        return restaurantesEncontrados;
+    }
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida, sin caché.
+     * @param patron Expresión regular a comparar.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     * @deprecated Usar {@link #buscarTexto(String, int)} o {@link #buscarPorNombreRegex(String, long)}.
+     */
+    @Deprecated
+    @Override
+    public List<RestauranteDTO> buscarPorNombreRegex(String patron) throws NegocioException {return negocio.buscarPorNombreRegex(patron, RestauranteBO.TIEMPO_MAXIMO_REGEX_MS);}
+    /**
+     * Consulta restaurantes cuyo nombre coincide con la expresión regular recibida, con tiempo máximo y sin caché.
+     * @param patron Expresión regular a comparar.
+     * @param tiempoMaximoMS Tiempo máximo de la búsqueda en el servidor, en milisegundos.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Si el tiempo máximo no es válido, la búsqueda lo excede o falla.
+     */
+    @Override
+    public List<RestauranteDTO> buscarPorNombreRegex(String patron, long tiempoMaximoMS) throws NegocioException {
+        return negocio.buscarPorNombreRegex(patron, tiempoMaximoMS);
+    }
+    /**
+     * Busca restaurantes por palabras en su nombre o categorías, sin caché.
+     * @param consulta Palabras a buscar.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados, del más al menos relevante.
+     * @throws NegocioException Si la consulta o el límite no son válidos o la búsqueda falla.
+     */
+    @Override
+    public List<RestauranteDTO> buscarTexto(String consulta, int limite) throws NegocioException {
+        return negocio.buscarTexto(consulta, limite);
+    }
+    /**
+     * Consulta restaurantes cuyo nombre comienza con el prefijo recibido, sin caché.
+     * @param prefijo Prefijo a comparar.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> buscarNombreIniciaCon(String prefijo) throws NegocioException {return negocio.buscarNombreIniciaCon(prefijo);}
+    /**
+     * Sugiere nombres de restaurantes que comienzan con el prefijo recibido, con el trie de prefijos del negocio.
+     * @param prefijo Texto escrito hasta el momento.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Lista con los nombres sugeridos.
+     * @throws NegocioException Si el prefijo o el límite no son válidos o la consulta falla.
+     */
+    @Override
+    public List<String> autocompletarNombre(String prefijo, int limite) throws NegocioException {return negocio.autocompletarNombre(prefijo, limite);}
+    /**
+     * Consulta restaurantes cuya fecha de inauguración está después del año recibido, sin caché.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> consultarPorFechaDesdeOrdenado(int anio, boolean ascendente) throws NegocioException {
+        return negocio.consultarPorFechaDesdeOrdenado(anio, ascendente);
+    }
+    /**
+     * Consulta el top 3 de restaurantes de la categoría recibida, desde la caché si existe una entrada vigente.
+     * @param categoria Categoría a comparar.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> top3RestaurantesPorCategoria(String categoria) throws NegocioException {
+        String llave = Normalizador.normalizar(categoria);
+        List<RestauranteDTO> guardados = top3.obtener(llave);
+        if(guardados != null)
+            return copiar(guardados);
+        long version = top3.version();
+        List<RestauranteDTO> restaurantesEncontrados = negocio.top3RestaurantesPorCategoria(categoria);
+        top3.guardar(llave, copiar(restaurantesEncontrados), version);
+        return restaurantesEncontrados;
+    }
+    /**
+     * Consulta los N restaurantes con mayor rating de la categoría recibida. Solo el top 3 usa la caché.
+     * @param categoria Categoría a comparar.
+     * @param n Cantidad máxima de restaurantes.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    @Override
+    public List<RestauranteDTO> topNPorCategoria(String categoria, int n) throws NegocioException {
+        return n == 3 ? top3RestaurantesPorCategoria(categoria) : negocio.topNPorCategoria(categoria, n);
+    }
+    /**
+     * Consulta los N restaurantes con mayor rating de cada una de las categorías recibidas, sin caché.
+     * @param categorias Categorías a comparar.
+     * @param n Cantidad máxima de restaurantes por categoría.
+     * @return Mapa de cada categoría recibida a sus restaurantes encontrados.
+     * @throws NegocioException Si N no es válido o la consulta falla.
+     */
+    @Override
+    public Map<String, List<RestauranteDTO>> topNPorCategorias(Collection<String> categorias, int n) throws NegocioException {
+        return negocio.topNPorCategorias(categorias, n);
+    }
+    /**
+     * Consulta restaurantes sin categorías, sin caché.
+     * @return Lista con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteDTO> sinCategorias() throws NegocioException {return negocio.sinCategorias();}
+    /**
+     * Consulta un restaurante por su nombre completo, desde la caché si existe una entrada vigente.
+     * También se guarda el resultado vacío de un nombre inexistente, hasta que se inserte o renombre
+     * un restaurante con ese nombre.
+     * @param nombre Nombre completo del restaurante.
+     * @return Restaurante encontrado.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public RestauranteDTO consultarRestaurantePorNombreCompleto(String nombre) throws NegocioException {
+        RestauranteDTO guardado = porNombre.obtener(nombre);
+        if(guardado != null)
+            return copiar(guardado);
+        long version = porNombre.version();
+        RestauranteDTO restauranteEncontrado = negocio.consultarRestaurantePorNombreCompleto(nombre);
+        if(restauranteEncontrado != null)
+            porNombre.guardar(nombre, copiar(restauranteEncontrado), version);
+        return restauranteEncontrado;
+    }
+
+    // Consultas en flujo
+    /**
+     * Consulta todos los restaurantes como un flujo, sin caché.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarTodosStream(int tamanoLote) throws NegocioException {return negocio.consultarTodosStream(tamanoLote);}
+    /**
+     * Consulta restaurantes cuyo rating es mayor al valor recibido como un flujo, sin caché.
+     * @param valor Rating a límite.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorRatingMayorAStream(double valor, int tamanoLote) throws NegocioException {
+        return negocio.consultarPorRatingMayorAStream(valor, tamanoLote);
+    }
+    /**
+     * Consulta restaurantes cuyo rating se encuentra dentro del rango recibido como un flujo, sin caché.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorRangoRatingStream(double min, double max, int tamanoLote) throws NegocioException {
+        return negocio.consultarPorRangoRatingStream(min, max, tamanoLote);
+    }
+    /**
+     * Consulta restaurantes cuya categoría es igual a la recibida como un flujo, sin caché.
+     * @param categoria Categoría a comparar.
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorCategoriaStream(String categoria, int tamanoLote) throws NegocioException {
+        return negocio.consultarPorCategoriaStream(categoria, tamanoLote);
+    }
+    /**
+     * Consulta restaurantes cuya fecha de inauguración está después del año recibido como un flujo, sin caché.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoLote Cantidad de restaurantes solicitados al servidor por lote.
+     * @return Flujo con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Stream<RestauranteDTO> consultarPorFechaDesdeOrdenadoStream(int anio, boolean ascendente, int tamanoLote) throws NegocioException {
+        return negocio.consultarPorFechaDesdeOrdenadoStream(anio, ascendente, tamanoLote);
+    }
+
+    // Consultas paginadas
+    /**
+     * Consulta todos los restaurantes por páginas, sin caché.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarTodosPagina(int tamanoPagina, String token) throws NegocioException {
+        return negocio.consultarTodosPagina(tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo rating es mayor al valor recibido, sin caché.
+     * @param valor Rating a límite.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorRatingMayorAPagina(double valor, int tamanoPagina, String token) throws NegocioException {
+        return negocio.consultarPorRatingMayorAPagina(valor, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo rating se encuentra dentro del rango recibido, sin caché.
+     * @param min Límite inferior.
+     * @param max Límite superior.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorRangoRatingPagina(double min, double max, int tamanoPagina, String token) throws NegocioException {
+        return negocio.consultarPorRangoRatingPagina(min, max, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuya categoría es igual a la recibida, sin caché.
+     * @param categoria Categoría a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorCategoriaPagina(String categoria, int tamanoPagina, String token) throws NegocioException {
+        return negocio.consultarPorCategoriaPagina(categoria, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre coincide con la expresión regular recibida, sin caché.
+     * @param patron Expresión regular a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> buscarPorNombreRegexPagina(String patron, int tamanoPagina, String token) throws NegocioException {
+        return negocio.buscarPorNombreRegexPagina(patron, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuyo nombre comienza con el prefijo recibido, sin caché.
+     * @param prefijo Prefijo a comparar.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> buscarNombreIniciaConPagina(String prefijo, int tamanoPagina, String token) throws NegocioException {
+        return negocio.buscarNombreIniciaConPagina(prefijo, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes cuya fecha de inauguración está después del año recibido, sin caché.
+     * @param anio Año a comparar.
+     * @param ascendente Orden a aplicar (true = ascendente, false = descendente).
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> consultarPorFechaDesdeOrdenadoPagina(int anio, boolean ascendente, int tamanoPagina, String token) throws NegocioException {
+        return negocio.consultarPorFechaDesdeOrdenadoPagina(anio, ascendente, tamanoPagina, token);
+    }
+    /**
+     * Consulta por páginas los restaurantes sin categorías, sin caché.
+     * @param tamanoPagina Cantidad máxima de restaurantes por página.
+     * @param token Token de continuación de la página anterior, o null para la primera página.
+     * @return Página con restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public Pagina<RestauranteDTO> sinCategoriasPagina(int tamanoPagina, String token) throws NegocioException {
+        return negocio.sinCategoriasPagina(tamanoPagina, token);
+    }
+
+    // Consultas de resumen
+    /**
+     * Consulta el resumen (ID, nombre y rating) de todos los restaurantes, sin caché.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarTodosResumen() throws NegocioException {
+        return negocio.consultarTodosResumen();
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating es mayor al valor recibido, sin caché.
+     * @param valor Rating a límite.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorRatingMayorAResumen(double valor) throws NegocioException {
+        return negocio.consultarPorRatingMayorAResumen(valor);
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuyo rating se encuentra dentro del rango recibido, sin caché.
+     * @param min Rating mínimo.
+     * @param max Rating máximo.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorRangoRatingResumen(double min, double max) throws NegocioException {
+        return negocio.consultarPorRangoRatingResumen(min, max);
+    }
+    /**
+     * Consulta el resumen (ID, nombre y rating) de los restaurantes cuya categoría equivale a la recibida, sin caché.
+     * @param categoria Categoría a comparar.
+     * @return Lista con los resúmenes de los restaurantes encontrados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<RestauranteResumenDTO> consultarPorCategoriaResumen(String categoria) throws NegocioException {
+        return negocio.consultarPorCategoriaResumen(categoria);
+    }
+
+    // Actualizaciones
+    /**
+     * Actualiza el rating de un restaurante por su nombre e invalida las entradas que lo contienen
+     * y los top 3 de sus categorías.
+     * @param nombre Nombre del restaurante.
+     * @param nuevoRating Nuevo rating del restaurante.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean actualizarRatingPorNombre(String nombre, double nuevoRating) throws NegocioException {
+        // Las categorías se buscan antes de escribir, mientras las entradas aún existen.
+        Set<String> categorias = categoriasConocidas(nombre);
+        try {
+            return negocio.actualizarRatingPorNombre(nombre, nuevoRating);
+        } finally {
+            invalidarRestaurantes(restaurante -> nombre != null && nombre.equals(restaurante.getNombre()));
+            invalidarTop3(categorias);
+        }
+    }
+    /**
+     * Agrega una nueva categoría a un restaurante e invalida las entradas que lo contienen
+     * y las de la nueva categoría.
+     * @param nombre Nombre del restaurante.
+     * @param nuevaCategoria Nueva categoría a añadir.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean agregarCategoriaSinDuplicado(String nombre, String nuevaCategoria) throws NegocioException {
+        try {
+            return negocio.agregarCategoriaSinDuplicado(nombre, nuevaCategoria);
+        } finally {
+            invalidarRestaurantes(restaurante -> nombre != null && nombre.equals(restaurante.getNombre()));
+            invalidarCategoria(Normalizador.normalizar(nuevaCategoria));
+        }
+    }
+    /**
+     * Incrementa el rating de los restaurantes de una categoría e invalida las entradas que los
+     * contienen. Estos restaurantes pueden pertenecer a otras categorías, por lo que se invalidan
+     * todos los top 3.
+     * @param categoria Categoría de los restaurantes.
+     * @param incremento Valor de incremento.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean aumentarRatingPorCategoria(String categoria, double incremento) throws NegocioException {
+        String categoriaNorm = Normalizador.normalizar(categoria);
+        try {
+            return negocio.aumentarRatingPorCategoria(categoria, incremento);
+        } finally {
+            invalidarRestaurantes(restaurante -> tieneCategoria(restaurante, categoriaNorm));
+            porCategoria.invalidar(categoriaNorm);
+            top3.limpiar();
+        }
+    }
+    /**
+     * Incrementa el rating de un restaurante por su nombre e invalida las entradas que lo contienen
+     * y los top 3 de sus categorías.
+     * @param nombre Nombre del restaurante.
+     * @param incremento Valor de incremento.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean aumentarRatingPorNombreRestaurante(String nombre, double incremento) throws NegocioException {
+        Set<String> categorias = categoriasConocidas(nombre);
+        try {
+            return negocio.aumentarRatingPorNombreRestaurante(nombre, incremento);
+        } finally {
+            invalidarRestaurantes(restaurante -> nombre != null && nombre.equals(restaurante.getNombre()));
+            invalidarTop3(categorias);
+        }
+    }
+    /**
+     * Agrega categorías a los restaurantes que no cuentan con ninguna e invalida las entradas
+     * que los contienen y las de las categorías agregadas.
+     * @param categorias Lista de categorías a añadir.
+     * @return Número de restaurantes actualizados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public int agregarCategoriasDondeFalten(List<String> categorias) throws NegocioException {
+        try {
+            return negocio.agregarCategoriasDondeFalten(categorias);
+        } finally {
+            invalidarRestaurantes(restaurante -> restaurante.getCategorias() == null);
+            if(categorias != null)
+                for(String categoria : categorias)
+                    invalidarCategoria(Normalizador.normalizar(categoria));
+        }
+    }
+    /**
+     * Actualiza el nombre de un restaurante e invalida las entradas que lo contienen y las de ambos nombres.
+     * @param anterior Nombre previo.
+     * @param nuevo Nuevo nombre.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean actualizarNombre(String anterior, String nuevo) throws NegocioException {
+        try {
+            return negocio.actualizarNombre(anterior, nuevo);
+        } finally {
+            invalidarRestaurantes(restaurante -> anterior != null && anterior.equals(restaurante.getNombre()));
+            if(anterior != null)
+                porNombre.invalidar(anterior);
+            if(nuevo != null)
+                porNombre.invalidar(nuevo);
+        }
+    }
+    /**
+     * Reemplaza las categorías de un restaurante e invalida las entradas que lo contienen
+     * y las de las nuevas categorías.
+     * @param nombre Nombre del restaurante.
+     * @param categorias Nuevas categorías.
+     * @return VERDARERO si la actualización fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean actualizarCategorias(String nombre, List<String> categorias) throws NegocioException {
+        try {
+            return negocio.actualizarCategorias(nombre, categorias);
+        } finally {
+            invalidarRestaurantes(restaurante -> nombre != null && nombre.equals(restaurante.getNombre()));
+            if(categorias != null)
+                for(String categoria : categorias)
+                    invalidarCategoria(Normalizador.normalizar(categoria));
+        }
+    }
+    /**
+     * Aplica una lista de actualizaciones en lotes y vacía el caché, ya que pueden cambiar
+     * nombres, ratings y categorías de muchos restaurantes.
+     * @param actualizaciones Actualizaciones a aplicar, en orden.
+     * @param tamanoLote Cantidad máxima de actualizaciones por lote.
+     * @return Resultado de cada actualización, en el orden de la entrada.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public List<ResultadoActualizacionDTO> actualizarVarios(List<ActualizacionRestauranteDTO> actualizaciones, int tamanoLote) throws NegocioException {
+        try {
+            return negocio.actualizarVarios(actualizaciones, tamanoLote);
+        } finally {
+            limpiar();
+        }
+    }
+
+    // Eliminaciones
+    /**
+     * Elimina un restaurante por su nombre e invalida las entradas que lo contienen.
+     * @param nombre Nombre del restaurante.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean eliminarPorNombre(String nombre) throws NegocioException {
+        try {
+            return negocio.eliminarPorNombre(nombre);
+        } finally {
+            invalidarRestaurantes(restaurante -> nombre != null && nombre.equals(restaurante.getNombre()));
+            if(nombre != null)
+                porNombre.invalidar(nombre);
+        }
+    }
+    /**
+     * Elimina restaurantes cuyo rating es menor al valor recibido e invalida las entradas que los contienen.
+     * @param limite Valor límite.
+     * @return Número de restaurantes eliminados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public int eliminarPorRatingMenorA(double limite) throws NegocioException {
+        try {
+            return negocio.eliminarPorRatingMenorA(limite);
+        } finally {
+            invalidarRestaurantes(restaurante -> restaurante.getRating() != null && restaurante.getRating() < limite);
+        }
+    }
+    /**
+     * Elimina restaurantes que contengan la categoría recibida e invalida las entradas que los contienen.
+     * @param categoria Categoría a comparar.
+     * @return Número de restaurantes eliminados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public int eliminarPorCategoria(String categoria) throws NegocioException {
+        String categoriaNorm = Normalizador.normalizar(categoria);
+        try {
+            return negocio.eliminarPorCategoria(categoria);
+        } finally {
+            invalidarRestaurantes(restaurante -> tieneCategoria(restaurante, categoriaNorm));
+            invalidarCategoria(categoriaNorm);
+        }
+    }
+    /**
+     * Elimina restaurantes que no tengan fecha de inauguración e invalida las entradas que los contienen.
+     * @return Número de restaurantes eliminados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public int eliminarSinFechaInauguracion() throws NegocioException {
+        try {
+            return negocio.eliminarSinFechaInauguracion();
+        } finally {
+            invalidarRestaurantes(restaurante -> restaurante.getFechaInauguracion() == null);
+        }
+    }
+    /**
+     * Elimina un restaurante por su ID e invalida las entradas que lo contienen.
+     * @param id ID del restaurante.
+     * @return VERDADERO si la eliminación fue exitosa, FALSO en caso contrario.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public boolean eliminarPorID(String id) throws NegocioException {
+        try {
+            return negocio.eliminarPorID(id);
+        } finally {
+            invalidarRestaurantes(restaurante -> id != null && id.equals(restaurante.getId()));
+        }
+    }
+
+    // Mantenimiento
+    /**
+     * Rellena las categorías normalizadas de los restaurantes existentes y vacía las cachés.
+     * @param tamanoLote Cantidad de restaurantes procesados por lote.
+     * @return Número de restaurantes actualizados.
+     * @throws NegocioException Excepción de negocio.
+     */
+    @Override
+    public long migrarCategoriasNormalizadas(int tamanoLote) throws NegocioException {
+        try {
+            return negocio.migrarCategoriasNormalizadas(tamanoLote);
+        } finally {
+            limpiar();
+        }
+    }
+
+    /**
+     * Invalida las entradas afectadas por la inserción de un restaurante:
+     * la de su nombre y las de sus categorías.
+     * @param restaurante Restaurante insertado.
+     */
+    private void invalidarInsercion(RestauranteDTO restaurante) {
+        if(restaurante == null)
+            return;
+        if(restaurante.getNombre() != null)
+            porNombre.invalidar(restaurante.getNombre());
+        if(restaurante.getCategorias() != null)
+            for(String categoria : restaurante.getCategorias())
+                invalidarCategoria(Normalizador.normalizar(categoria));
+    }
+    /**
+     * Invalida las entradas afectadas por un restaurante insertado por otro nodo:
+     * la de su nombre y las de sus categorías.
+     * @param restaurante Restaurante insertado, o null si ya no existe.
+     */
+    private void invalidarNuevo(Restaurante restaurante) {
+        if(restaurante == null)
+            return;
+        if(restaurante.getNombre() != null)
+            porNombre.invalidar(restaurante.getNombre());
+        for(String categoria : categoriasNorm(restaurante))
+            invalidarCategoria(categoria);
+    }
+    /**
+     * Retorna las categorías normalizadas de un restaurante, calculándolas si el documento no las tiene.
+     * @param restaurante Restaurante.
+     * @return Categorías normalizadas (vacía si no tiene categorías).
+     */
+    private static List<String> categoriasNorm(Restaurante restaurante) {
+        if(restaurante.getCategoriasNorm() != null)
+            return restaurante.getCategoriasNorm();
+        List<String> categorias = Normalizador.normalizar(restaurante.getCategorias());
+        return categorias == null ? List.of() : categorias;
+    }
+    /**
+     * Indica si alguno de los campos modificados cambia las categorías o el rating de un restaurante,
+     * es decir, si puede cambiar a qué listas por categoría o top 3 pertenece.
+     * @param campos Campos modificados, en notación de punto (por ejemplo, "categorias.2").
+     * @return VERDADERO si alguno afecta las categorías o el rating, FALSO en caso contrario.
+     */
+    private static boolean afectaCategorias(Collection<String> campos) {
+        for(String campo : campos)
+            if(campo.equals("rating") || campo.startsWith("categorias"))
+                return true;
+        return false;
+    }
+    /**
+     * Invalida las entradas de una categoría en las cachés por categoría y top 3.
+     * @param categoriaNorm Categoría normalizada.
+     */
+    private void invalidarCategoria(String categoriaNorm) {
+        if(categoriaNorm == null)
+            return;
+        porCategoria.invalidar(categoriaNorm);
+        top3.invalidar(categoriaNorm);
+    }
+    /**
+     * Invalida los top 3 de las categorías recibidas, o todos si no se conocen.
+     * @param categoriasNorm Categorías normalizadas, o null si no se conocen.
+     */
+    private void invalidarTop3(Set<String> categoriasNorm) {
+        if(categoriasNorm == null)
+            top3.limpiar();
+        else
+            for(String categoria : categoriasNorm)
+                top3.invalidar(categoria);
+    }
+    /**
+     * Invalida, en todas las cachés, las entradas que contienen algún restaurante que cumple la condición.
+     * @param afectado Condición que identifica a los restaurantes afectados por una escritura.
+     */
+    private void invalidarRestaurantes(Predicate<RestauranteDTO> afectado) {
+        porCategoria.invalidarSi((llave, restaurantes) -> restaurantes.stream().anyMatch(afectado));
+        top3.invalidarSi((llave, restaurantes) -> restaurantes.stream().anyMatch(afectado));
+        porNombre.invalidarSi((llave, restaurante) -> afectado.test(restaurante));
+    }
+    /**
+     * Busca en las cachés las categorías normalizadas de un restaurante.
+     * @param nombre Nombre del restaurante.
+     * @return Categorías normalizadas, o null si el restaurante no está en ninguna caché.
+     */
+    private Set<String> categoriasConocidas(String nombre) {
+        if(nombre == null)
+            return null;
+        List<RestauranteDTO> candidatos = new ArrayList<>(porNombre.valores());
+        for(List<RestauranteDTO> restaurantes : porCategoria.valores())
+            candidatos.addAll(restaurantes);
+        for(List<RestauranteDTO> restaurantes : top3.valores())
+            candidatos.addAll(restaurantes);
+        for(RestauranteDTO restaurante : candidatos){
+            if(nombre.equals(restaurante.getNombre())){
+                Set<String> categorias = new HashSet<>();
+                if(restaurante.getCategorias() != null)
+                    for(String categoria : restaurante.getCategorias())
+                        categorias.add(Normalizador.normalizar(categoria));
+                return categorias;
+            }
+        }
+        return null;
+    }
+    /**
+     * Indica si un restaurante tiene la categoría normalizada recibida.
+     * @param restaurante Restaurante a revisar.
+     * @param categoriaNorm Categoría normalizada.
+     * @return VERDADERO si tiene la categoría, FALSO en caso contrario.
+     */
+    private static boolean tieneCategoria(RestauranteDTO restaurante, String categoriaNorm) {
+        if(restaurante.getCategorias() == null || categoriaNorm == null)
+            return false;
+        for(String categoria : restaurante.getCategorias())
+            if(categoriaNorm.equals(Normalizador.normalizar(categoria)))
+                return true;
+        return false;
+    }
+    /**
+     * Copia una lista de restaurantes, copiando también cada restaurante.
+     * @param restaurantes Lista a copiar.
+     * @return Copia de la lista.
+     */
+    private static List<RestauranteDTO> copiar(List<RestauranteDTO> restaurantes) {
+        List<RestauranteDTO> copia = new ArrayList<>(restaurantes.size());
+        for(RestauranteDTO restaurante : restaurantes)
+            copia.add(copiar(restaurante));
+        return copia;
+    }
+    /**
+     * Copia un restaurante.
+     * @param restaurante Restaurante a copiar.
+     * @return Copia del restaurante.
+     */
+    private static RestauranteDTO copiar(RestauranteDTO restaurante) {
+        RestauranteDTO copia = new RestauranteDTO(restaurante.getId(), restaurante.getNombre(), restaurante.getFechaInauguracion(),
+                restaurante.getRating(), restaurante.getCategorias() == null ? null : new ArrayList<>(restaurante.getCategorias()));
+        copia.setClaveIdempotencia(restaurante.getClaveIdempotencia());
+        return copia;
+    }
+}
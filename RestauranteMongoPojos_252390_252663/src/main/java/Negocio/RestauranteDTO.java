@@ -2,9 +2,12 @@ package Negocio;
 
 import java.time.LocalDate;
 import java.util.List;
+import org.bson.types.ObjectId;
 
 /**
- * Clase POJO que representa un Restaurante.
+ * Clase POJO que representa un Restaurante. Cuando el {@link Mapper} la crea desde una entidad,
+ * guarda el ID binario y lo convierte a hexadecimal solo la primera vez que se lee, por lo que
+ * las consultas que no muestran el ID no pagan la conversión.
  * @author Leonardo Flores Leyva (252390)
  * @author Jesús Ernesto López Ibarra (252663)
  */
@@ -15,6 +18,11 @@ public class RestauranteDTO {
     private LocalDate fechaInauguracion;
     private Double rating;
     private List<String> categorias;
+    // Clave de idempotencia asignada por el cliente, o null si no tiene.
+    private String claveIdempotencia;
+    // ID binario recibido del Mapper, o null si el ID se estableció como texto. Se conserva tras
+    // convertirlo para que dos hilos que leen el ID a la vez obtengan el mismo valor.
+    private ObjectId idPendiente;
     /**
      * Constructor por defecto.
      */
@@ -42,15 +50,30 @@ public class RestauranteDTO {
         this.categorias = categorias;
     }
     /**
-     * Retorna el ID del restaurante.
+     * Retorna el ID del restaurante, convirtiendo el ID binario pendiente la primera vez.
      * @return ID del restaurante.
      */
-    public String getId() {return id;}
+    public String getId() {
+        if (id == null && idPendiente != null)
+            id = idPendiente.toHexString();
+        return id;
+    }
     /**
      * Establece el ID del restaurante.
      * @param id Nuevo ID del restaurante.
      */
-    public void setId(String id) {this.id = id;}
+    public void setId(String id) {
+        this.id = id;
+        this.idPendiente = null;
+    }
+    /**
+     * Establece el ID binario del restaurante, que se convierte a hexadecimal la primera vez que se lee.
+     * @param id ID binario del restaurante.
+     */
+    void setIdPendiente(ObjectId id) {
+        this.id = null;
+        this.idPendiente = id;
+    }
     /**
      * Retorna el nombre del restaurante.
      * @return Nombre del restaurante.
@@ -91,6 +114,17 @@ public class RestauranteDTO {
      * @param categorias Nueva lista de categorías del restaurante.
      */
     public void setCategorias(List<String> categorias) {this.categorias = categorias;}
+    /**
+     * Retorna la clave de idempotencia del restaurante.
+     * @return Clave de idempotencia, o null si no tiene.
+     */
+    public String getClaveIdempotencia() {return claveIdempotencia;}
+    /**
+     * Establece la clave de idempotencia del restaurante. Los reintentos de una escritura con
+     * la misma clave no crean restaurantes duplicados.
+     * @param claveIdempotencia Nueva clave de idempotencia del restaurante.
+     */
+    public void setClaveIdempotencia(String claveIdempotencia) {this.claveIdempotencia = claveIdempotencia;}
     /**
      * Retorna una cadena con la 
      * información relevante del restaurante.
@@ -98,6 +132,6 @@ public class RestauranteDTO {
      */
     @Override
     public String toString() {
-        return "RestauranteDTO{" + "nombre=" + nombre + ", fechaInauguracion=" + fechaInauguracion + ", rating=" + rating + ", categorias=" + categorias + '}';
+        return "RestauranteDTO{" + "nombre=" + getNombre() + ", fechaInauguracion=" + getFechaInauguracion() + ", rating=" + getRating() + ", categorias=" + getCategorias() + '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package Negocio;
+
+/**
+ * Clase que representa el resumen de un restaurante para las pantallas de listado:
+ * solo su ID, nombre y rating.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteResumenDTO {
+    // Atributos del resumen.
+    private final String id;
+    private final String nombre;
+    private final Double rating;
+    /**
+     * Constructor que recibe todos los atributos del resumen.
+     * @param id ID del restaurante.
+     * @param nombre Nombre del restaurante.
+     * @param rating Rating del restaurante.
+     */
+    public RestauranteResumenDTO(String id, String nombre, Double rating) {
+        this.id = id;
+        this.nombre = nombre;
+        this.rating = rating;
+    }
+    /**
+     * Retorna el ID del restaurante.
+     * @return ID del restaurante.
+     */
+    public String getId() {return id;}
+    /**
+     * Retorna el nombre del restaurante.
+     * @return Nombre del restaurante.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna el rating del restaurante.
+     * @return Rating del restaurante.
+     */
+    public Double getRating() {return rating;}
+    /**
+     * Retorna una cadena con la información del resumen.
+     * @return cadena con la información del resumen.
+     */
+    @Override
+    public String toString() {
+        return "RestauranteResumenDTO{" + "id=" + id + ", nombre=" + nombre + ", rating=" + rating + '}';
+    }
+}
@@ -0,0 +1,115 @@
+package Negocio;
+
+import Dominio.Restaurante;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.types.ObjectId;
+
+/**
+ * Vista de un restaurante: un RestauranteDTO que, en lugar de copiar los atributos de la entidad,
+ * la envuelve y lee cada atributo de ella al pedirlo. Crear la vista solo reserva un objeto con
+ * una referencia, y el ID se convierte a hexadecimal la primera vez que se lee.
+ * <p>
+ * La vista comparte el estado con la entidad: los cambios hechos con sus métodos set se escriben
+ * en la entidad, y los cambios a la entidad se ven en la vista, salvo el ID, que se convierte una
+ * sola vez. Por eso solo debe crearse sobre entidades que nadie más modifica, como las que acaba
+ * de leer el DAO para una consulta.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteVistaDTO extends RestauranteDTO {
+    // Entidad envuelta.
+    private final Restaurante restaurante;
+    // ID en hexadecimal, o null si aún no se lee.
+    private String id;
+    /**
+     * Constructor que recibe la entidad a envolver.
+     * @param restaurante Entidad del restaurante.
+     * @throws IllegalArgumentException Si la entidad es null.
+     */
+    public RestauranteVistaDTO(Restaurante restaurante) {
+        if (restaurante == null)
+            throw new IllegalArgumentException("El restaurante de la vista no puede ser null.");
+        this.restaurante = restaurante;
+    }
+    /**
+     * Retorna el ID del restaurante, convirtiéndolo a hexadecimal la primera vez.
+     * @return ID del restaurante.
+     */
+    @Override
+    public String getId() {
+        if (id == null && restaurante.getId() != null)
+            id = restaurante.getId().toHexString();
+        return id;
+    }
+    /**
+     * Establece el ID del restaurante en la entidad.
+     * @param id Nuevo ID del restaurante, en hexadecimal.
+     * @throws IllegalArgumentException Si el ID no es un ObjectId válido.
+     */
+    @Override
+    public void setId(String id) {
+        restaurante.setId(id == null ? null : new ObjectId(id));
+        this.id = id;
+    }
+    /**
+     * Retorna el nombre del restaurante.
+     * @return Nombre del restaurante.
+     */
+    @Override
+    public String getNombre() {return restaurante.getNombre();}
+    /**
+     * Establece el nombre del restaurante en la entidad.
+     * @param nombre Nuevo nombre del restaurante.
+     */
+    @Override
+    public void setNombre(String nombre) {restaurante.setNombre(nombre);}
+    /**
+     * Retorna la fecha de inauguración del restaurante.
+     * @return Fecha de inauguración del restaurante.
+     */
+    @Override
+    public LocalDate getFechaInauguracion() {return restaurante.getFechaInauguracion();}
+    /**
+     * Establece la fecha de inauguración del restaurante en la entidad.
+     * @param fechaInauguracion Nueva fecha de inauguración del restaurante.
+     */
+    @Override
+    public void setFechaInauguracion(LocalDate fechaInauguracion) {restaurante.setFechaInauguracion(fechaInauguracion);}
+    /**
+     * Retorna el rating del restaurante.
+     * @return Rating del restaurante.
+     */
+    @Override
+    public Double getRating() {return restaurante.getRating();}
+    /**
+     * Establece el rating del restaurante en la entidad.
+     * @param rating Nuevo rating del restaurante.
+     */
+    @Override
+    public void setRating(Double rating) {restaurante.setRating(rating);}
+    /**
+     * Retorna la lista de categorías del restaurante.
+     * @return Lista de categorías del restaurante.
+     */
+    @Override
+    public List<String> getCategorias() {return restaurante.getCategorias();}
+    /**
+     * Establece la lista de categorías del restaurante en la entidad.
+     * @param categorias Nueva lista de categorías del restaurante.
+     */
+    @Override
+    public void setCategorias(List<String> categorias) {restaurante.setCategorias(categorias);}
+    /**
+     * Retorna la clave de idempotencia del restaurante.
+     * @return Clave de idempotencia, o null si no tiene.
+     */
+    @Override
+    public String getClaveIdempotencia() {return restaurante.getClaveIdempotencia();}
+    /**
+     * Establece la clave de idempotencia del restaurante en la entidad.
+     * @param claveIdempotencia Nueva clave de idempotencia del restaurante.
+     */
+    @Override
+    public void setClaveIdempotencia(String claveIdempotencia) {restaurante.setClaveIdempotencia(claveIdempotencia);}
+}
@@ -0,0 +1,81 @@
+package Negocio;
+
+/**
+ * Clase que representa el resultado de una actualización dentro de una actualización por lotes.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ResultadoActualizacionDTO {
+    // Posición de la actualización en la entrada.
+    private final int indice;
+    // Nombre del restaurante a actualizar.
+    private final String nombre;
+    // Estado de la actualización.
+    private final EstadoEscritura estado;
+    // Cantidad de restaurantes que coincidieron con el nombre (0 o 1), o null si no puede determinarse.
+    private final Integer coincidencias;
+    // Cantidad de restaurantes modificados (0 o 1), o null si no puede determinarse.
+    private final Integer modificados;
+    // Mensaje de error, o null si la actualización fue exitosa.
+    private final String mensaje;
+    /**
+     * Constructor que recibe todos los atributos del resultado.
+     * @param indice Posición de la actualización en la entrada.
+     * @param nombre Nombre del restaurante a actualizar.
+     * @param estado Estado de la actualización.
+     * @param coincidencias Cantidad de restaurantes que coincidieron con el nombre, o null si no puede determinarse.
+     * @param modificados Cantidad de restaurantes modificados, o null si no puede determinarse.
+     * @param mensaje Mensaje de error, o null si la actualización fue exitosa.
+     */
+    public ResultadoActualizacionDTO(int indice, String nombre, EstadoEscritura estado, Integer coincidencias, Integer modificados, String mensaje) {
+        this.indice = indice;
+        this.nombre = nombre;
+        this.estado = estado;
+        this.coincidencias = coincidencias;
+        this.modificados = modificados;
+        this.mensaje = mensaje;
+    }
+    /**
+     * Retorna la posición de la actualización en la entrada.
+     * @return Posición de la actualización.
+     */
+    public int getIndice() {return indice;}
+    /**
+     * Retorna el nombre del restaurante a actualizar.
+     * @return Nombre del restaurante.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna el estado de la actualización.
+     * @return Estado de la actualización.
+     */
+    public EstadoEscritura getEstado() {return estado;}
+    /**
+     * Retorna la cantidad de restaurantes que coincidieron con el nombre. Se decide con una lectura
+     * previa al lote, por lo que es null cuando el total de esa lectura no concuerda con el que
+     * reporta el servidor (otro cliente insertó o eliminó restaurantes del lote entre ambas).
+     * @return 1 si el restaurante existía, 0 si no, o null si no puede determinarse.
+     */
+    public Integer getCoincidencias() {return coincidencias;}
+    /**
+     * Retorna la cantidad de restaurantes modificados. El servidor solo reporta el total de cada
+     * lote, por lo que es null cuando en el mismo lote hubo actualizaciones que no cambiaron nada
+     * (por ejemplo, establecer el rating que ya tenía) junto con otras que sí.
+     * @return 1 si se modificó, 0 si no, o null si no puede determinarse.
+     */
+    public Integer getModificados() {return modificados;}
+    /**
+     * Retorna el mensaje de error.
+     * @return Mensaje de error, o null si la actualización fue exitosa.
+     */
+    public String getMensaje() {return mensaje;}
+    /**
+     * Retorna una cadena con la información del resultado.
+     * @return cadena con la información del resultado.
+     */
+    @Override
+    public String toString() {
+        return "ResultadoActualizacionDTO{" + "indice=" + indice + ", nombre=" + nombre + ", estado=" + estado
+                + ", coincidencias=" + coincidencias + ", modificados=" + modificados + ", mensaje=" + mensaje + '}';
+    }
+}
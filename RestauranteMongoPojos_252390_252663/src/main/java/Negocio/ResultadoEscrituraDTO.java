@@ -0,0 +1,67 @@
+package Negocio;
+
+/**
+ * Clase que representa el resultado de escribir un restaurante dentro de una escritura masiva o un upsert.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ResultadoEscrituraDTO {
+    // Posición del restaurante en la entrada.
+    private final int indice;
+    // Nombre del restaurante.
+    private final String nombre;
+    // ID del restaurante insertado, o null si no se insertó (incluido un upsert que actualizó uno existente).
+    private final String id;
+    // Estado de la escritura.
+    private final EstadoEscritura estado;
+    // Mensaje de error, o null si la escritura fue exitosa.
+    private final String mensaje;
+    /**
+     * Constructor que recibe todos los atributos del resultado.
+     * @param indice Posición del restaurante en la entrada.
+     * @param nombre Nombre del restaurante.
+     * @param id ID del restaurante insertado, o null si no se insertó.
+     * @param estado Estado de la escritura.
+     * @param mensaje Mensaje de error, o null si la escritura fue exitosa.
+     */
+    public ResultadoEscrituraDTO(int indice, String nombre, String id, EstadoEscritura estado, String mensaje) {
+        this.indice = indice;
+        this.nombre = nombre;
+        this.id = id;
+        this.estado = estado;
+        this.mensaje = mensaje;
+    }
+    /**
+     * Retorna la posición del restaurante en la entrada.
+     * @return Posición del restaurante.
+     */
+    public int getIndice() {return indice;}
+    /**
+     * Retorna el nombre del restaurante.
+     * @return Nombre del restaurante.
+     */
+    public String getNombre() {return nombre;}
+    /**
+     * Retorna el ID del restaurante insertado.
+     * @return ID del restaurante, o null si no se insertó.
+     */
+    public String getId() {return id;}
+    /**
+     * Retorna el estado de la escritura.
+     * @return Estado de la escritura.
+     */
+    public EstadoEscritura getEstado() {return estado;}
+    /**
+     * Retorna el mensaje de error.
+     * @return Mensaje de error, o null si la escritura fue exitosa.
+     */
+    public String getMensaje() {return mensaje;}
+    /**
+     * Retorna una cadena con la información del resultado.
+     * @return cadena con la información del resultado.
+     */
+    @Override
+    public String toString() {
+        return "ResultadoEscrituraDTO{" + "indice=" + indice + ", nombre=" + nombre + ", id=" + id + ", estado=" + estado + ", mensaje=" + mensaje + '}';
+    }
+}
@@ -0,0 +1,112 @@
+package Negocio;
+
+import com.mongodb.client.model.Filters;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Token de continuación de una consulta paginada por llave (keyset). Guarda el valor
+ * de la llave de orden y el _id del último restaurante de la página, de modo que la
+ * página siguiente se obtiene con un predicado de rango sobre (llave, _id) en lugar de
+ * saltar documentos con skip: cualquier página cuesta lo mismo que la primera. Si la llave es
+ * única, no hay empates que desempatar por _id, y el orden y el predicado usan solo la llave.
+ * Se serializa como JSON extendido en Base64 URL, y para el cliente es opaco.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+final class TokenPagina {
+    // Llave que usa _id como único criterio de orden.
+    static final String SOLO_ID = "_id";
+    // Llaves de orden con índice único (_id y nombre_1), que no necesitan desempate.
+    private static final Set<String> LLAVES_UNICAS = Set.of(SOLO_ID, "nombre");
+    // Nombres de los campos del token.
+    private static final String CAMPO = "c";
+    private static final String DIRECCION = "d";
+    private static final String VALOR = "v";
+    private static final String ID = "id";
+    // Campo de orden.
+    private final String campo;
+    // Dirección del orden (1 = ascendente, -1 = descendente).
+    private final int direccion;
+    // Valor de la llave de orden del último restaurante de la página.
+    private final BsonValue valor;
+    // ID del último restaurante de la página.
+    private final ObjectId id;
+    /**
+     * Constructor que recibe todos los atributos del token.
+     * @param campo Campo de orden.
+     * @param direccion Dirección del orden (1 = ascendente, -1 = descendente).
+     * @param valor Valor de la llave de orden del último restaurante.
+     * @param id ID del último restaurante.
+     */
+    TokenPagina(String campo, int direccion, BsonValue valor, ObjectId id) {
+        this.campo = campo;
+        this.direccion = direccion;
+        this.valor = valor;
+        this.id = id;
+    }
+    /**
+     * Indica si una llave de orden es única, por lo que se ordena solo por ella.
+     * @param campo Campo de orden.
+     * @return VERDADERO si la llave tiene un índice único, FALSO en caso contrario.
+     */
+    static boolean esLlaveUnica(String campo) {return LLAVES_UNICAS.contains(campo);}
+    /**
+     * Serializa el token como texto opaco.
+     * @return Token codificado.
+     */
+    String codificar() {
+        BsonDocument documento = new BsonDocument(CAMPO, new BsonString(campo))
+                .append(DIRECCION, new BsonInt32(direccion))
+                .append(ID, new BsonObjectId(id));
+        if (!SOLO_ID.equals(campo))
+            documento.append(VALOR, valor);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(documento.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+    /**
+     * Lee un token recibido del cliente, verificando que corresponda al orden de la consulta.
+     * @param token Token codificado.
+     * @param campo Campo de orden de la consulta.
+     * @param direccion Dirección del orden de la consulta.
+     * @return Token leído.
+     * @throws NegocioException Si el token no es válido o pertenece a otro orden.
+     */
+    static TokenPagina decodificar(String token, String campo, int direccion) throws NegocioException {
+        try {
+            BsonDocument documento = BsonDocument.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+            if (!campo.equals(documento.getString(CAMPO).getValue()) || documento.getInt32(DIRECCION).getValue() != direccion)
+                throw new NegocioException("El token de continuación no corresponde a esta consulta.");
+            return new TokenPagina(campo, direccion, documento.get(VALOR), documento.getObjectId(ID).getValue());
+        } catch (NegocioException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new NegocioException("El token de continuación no es válido.", e);
+        }
+    }
+    /**
+     * Retorna el predicado de rango que selecciona los restaurantes posteriores al token,
+     * en la forma (llave ≥ v) y ((llave > v) o (_id > id)) para el orden ascendente. El primer
+     * término acota el recorrido del índice (llave, _id); el segundo descarta los empates ya vistos.
+     * Con una llave única el predicado es solo (llave > v).
+     * @return Predicado de la página siguiente.
+     */
+    Bson filtroSiguiente() {
+        boolean ascendente = direccion > 0;
+        Bson despuesDeId = ascendente ? Filters.gt(SOLO_ID, id) : Filters.lt(SOLO_ID, id);
+        if (SOLO_ID.equals(campo))
+            return despuesDeId;
+        if (esLlaveUnica(campo))
+            return ascendente ? Filters.gt(campo, valor) : Filters.lt(campo, valor);
+        return Filters.and(
+                ascendente ? Filters.gte(campo, valor) : Filters.lte(campo, valor),
+                Filters.or(ascendente ? Filters.gt(campo, valor) : Filters.lt(campo, valor), despuesDeId));
+    }
+}
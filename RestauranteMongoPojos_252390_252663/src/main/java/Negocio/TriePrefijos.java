@@ -0,0 +1,152 @@
+package Negocio;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trie en memoria con los resultados del autocompletado de los prefijos cortos, que son los
+ * más consultados (las primeras teclas). Cada nodo corresponde a un prefijo en minúsculas y
+ * guarda los nombres que el servidor regresó para él, con un tiempo de vida (TTL).
+ * Todas las operaciones son sincronizadas.
+ * <p>
+ * Igual que en {@link CacheLRU}, la consulta a la base de datos debe hacerse entre
+ * {@link #version()} y {@link #guardar(String, List, long)}: si hubo una invalidación
+ * en medio, los nombres se descartan.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class TriePrefijos {
+    // Idioma con el que se convierten los prefijos a minúsculas.
+    private static final Locale ESPANOL = Locale.forLanguageTag("es");
+    // Longitud máxima de los prefijos guardados.
+    private final int longitudMaxima;
+    // Cantidad máxima de nodos; al excederla, el trie se vacía.
+    private final int capacidad;
+    // Tiempo de vida de los nombres de cada nodo, en nanosegundos.
+    private final long ttlNanos;
+    // Nodo raíz, correspondiente al prefijo vacío.
+    private Nodo raiz = new Nodo();
+    // Cantidad de nodos, sin contar la raíz.
+    private int nodos;
+    // Versión del trie, incrementada en cada invalidación.
+    private long version;
+    /**
+     * Nodo del trie.
+     */
+    private static final class Nodo {
+        // Nodos hijos, por el siguiente caracter del prefijo.
+        private final Map<Character, Nodo> hijos = new HashMap<>(4);
+        // Nombres guardados para el prefijo del nodo, o null si no tiene.
+        private List<String> nombres;
+        // Instante en que se guardaron los nombres, según System.nanoTime().
+        private long guardados;
+    }
+    /**
+     * Constructor que recibe la longitud máxima de los prefijos, la capacidad y el tiempo de vida.
+     * @param longitudMaxima Longitud máxima de los prefijos guardados.
+     * @param capacidad Cantidad máxima de nodos.
+     * @param ttl Tiempo de vida de los nombres de cada nodo.
+     */
+    public TriePrefijos(int longitudMaxima, int capacidad, Duration ttl) {
+        if (longitudMaxima <= 0)
+            throw new IllegalArgumentException("La longitud máxima de los prefijos debe ser mayor a cero.");
+        if (capacidad < longitudMaxima)
+            throw new IllegalArgumentException("La capacidad del trie debe alcanzar al menos para un prefijo de longitud máxima.");
+        if (ttl == null || ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("El tiempo de vida del trie debe ser mayor a cero.");
+        this.longitudMaxima = longitudMaxima;
+        this.capacidad = capacidad;
+        this.ttlNanos = ttl.toNanos();
+    }
+    /**
+     * Indica si el prefijo es lo bastante corto para guardarse en el trie.
+     * @param prefijo Prefijo a revisar.
+     * @return VERDADERO si el prefijo puede guardarse, FALSO en caso contrario.
+     */
+    public boolean admite(String prefijo) {
+        return prefijo != null && !prefijo.isEmpty() && llave(prefijo).length() <= longitudMaxima;
+    }
+    /**
+     * Retorna los nombres vigentes guardados para el prefijo, sin distinguir mayúsculas.
+     * @param prefijo Prefijo a buscar.
+     * @return Nombres guardados, o null si no existen, ya expiraron o el prefijo no es admitido.
+     */
+    public synchronized List<String> obtener(String prefijo) {
+        if (!admite(prefijo))
+            return null;
+        // Recorre el trie caracter por caracter.
+        Nodo nodo = raiz;
+        for (char caracter : llave(prefijo).toCharArray()) {
+            nodo = nodo.hijos.get(caracter);
+            if (nodo == null)
+                return null;
+        }
+        if (nodo.nombres == null)
+            return null;
+        // Descarta los nombres si ya excedieron su tiempo de vida.
+        if (System.nanoTime() - nodo.guardados > ttlNanos) {
+            nodo.nombres = null;
+            return null;
+        }
+        return nodo.nombres;
+    }
+    /**
+     * Retorna la versión actual del trie. Debe leerse antes de consultar la base de datos.
+     * @return Versión actual.
+     */
+    public synchronized long version() {return version;}
+    /**
+     * Guarda los nombres de un prefijo, siempre que el trie no haya sido invalidado desde la versión indicada.
+     * @param prefijo Prefijo consultado.
+     * @param nombres Nombres regresados por el servidor; se guarda una copia inmutable.
+     * @param versionLectura Versión leída antes de consultar la base de datos.
+     */
+    public synchronized void guardar(String prefijo, List<String> nombres, long versionLectura) {
+        if (versionLectura != version || !admite(prefijo))
+            return;
+        // Crea los nodos que falten en el camino del prefijo.
+        Nodo nodo = raiz;
+        for (char caracter : llave(prefijo).toCharArray()) {
+            Nodo hijo = nodo.hijos.get(caracter);
+            if (hijo == null) {
+                // Al exceder la capacidad se vacía el trie: los prefijos frecuentes se recuperan pronto.
+                if (nodos >= capacidad) {
+                    raiz = new Nodo();
+                    nodos = 0;
+                    guardar(prefijo, nombres, versionLectura);
+                    return;
+                }
+                hijo = new Nodo();
+                nodo.hijos.put(caracter, hijo);
+                nodos++;
+            }
+            nodo = hijo;
+        }
+        nodo.nombres = List.copyOf(nombres);
+        nodo.guardados = System.nanoTime();
+    }
+    /**
+     * Remueve todos los nodos.
+     */
+    public synchronized void limpiar() {
+        version++;
+        raiz = new Nodo();
+        nodos = 0;
+    }
+    /**
+     * Retorna la cantidad de nodos del trie, sin contar la raíz.
+     * @return Cantidad de nodos.
+     */
+    public synchronized int tamano() {return nodos;}
+    /**
+     * Convierte un prefijo en la llave del trie. La colación del índice ignora las mayúsculas,
+     * por lo que dos prefijos que solo difieren en ellas tienen el mismo resultado; los que
+     * difieren en acentos se guardan por separado.
+     * @param prefijo Prefijo a convertir.
+     * @return Prefijo en minúsculas.
+     */
+    private static String llave(String prefijo) {return prefijo.toLowerCase(ESPANOL);}
+}
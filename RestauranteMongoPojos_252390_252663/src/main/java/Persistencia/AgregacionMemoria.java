@@ -0,0 +1,338 @@
+package Persistencia;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+
+/**
+ * Ejecuta en memoria los pipelines de agregación que construyen RestauranteBO y EstadisticasBO.
+ * <p>
+ * Etapas: $match, $unwind, $group, $bucket, $sort, $skip, $limit y $count. Acumuladores: $sum,
+ * $avg, $min, $max, $first, $last, $push y $topN. Expresiones: rutas de campo ("$campo"),
+ * "$$ROOT", literales, documentos de expresiones y los operadores $year, $month, $dayOfMonth y
+ * $literal. Cualquier otra etapa, acumulador u operador lanza {@link IllegalArgumentException}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+final class AgregacionMemoria {
+    // Evaluador de los filtros, comparaciones y órdenes.
+    private final EvaluadorBson evaluador;
+    /**
+     * Constructor que recibe el evaluador de los filtros y comparaciones.
+     * @param evaluador Evaluador a usar.
+     */
+    AgregacionMemoria(EvaluadorBson evaluador) {
+        this.evaluador = evaluador;
+    }
+    /**
+     * Ejecuta un pipeline sobre los documentos recibidos.
+     * @param documentos Documentos de entrada; no se modifican.
+     * @param etapas Etapas del pipeline, ya convertidas a BsonDocument.
+     * @return Documentos de salida.
+     */
+    List<BsonDocument> ejecutar(List<BsonDocument> documentos, List<BsonDocument> etapas) {
+        List<BsonDocument> actuales = documentos;
+        for (BsonDocument etapa : etapas) {
+            String nombre = etapa.getFirstKey();
+            BsonValue argumento = etapa.get(nombre);
+            actuales = switch (nombre) {
+                case "$match" -> filtrar(actuales, argumento.asDocument());
+                case "$unwind" -> desenrollar(actuales, argumento);
+                case "$group" -> agrupar(actuales, argumento.asDocument());
+                case "$bucket" -> agruparRangos(actuales, argumento.asDocument());
+                case "$sort" -> ordenar(actuales, argumento.asDocument());
+                case "$skip" -> actuales.subList(Math.min(argumento.asNumber().intValue(), actuales.size()), actuales.size());
+                case "$limit" -> actuales.subList(0, Math.min(argumento.asNumber().intValue(), actuales.size()));
+                case "$count" -> actuales.isEmpty() ? List.of()
+                        : List.of(new BsonDocument(argumento.asString().getValue(), new BsonInt32(actuales.size())));
+                default -> throw new IllegalArgumentException("Etapa de agregación no soportada en memoria: " + nombre);
+            };
+        }
+        return actuales;
+    }
+    /**
+     * Etapa $match: conserva los documentos que cumplen el filtro.
+     * @param documentos Documentos de entrada.
+     * @param filtro Filtro.
+     * @return Documentos que cumplen el filtro.
+     */
+    private List<BsonDocument> filtrar(List<BsonDocument> documentos, BsonDocument filtro) {
+        List<BsonDocument> filtrados = new ArrayList<>();
+        for (BsonDocument documento : documentos)
+            if (evaluador.coincide(filtro, documento))
+                filtrados.add(documento);
+        return filtrados;
+    }
+    /**
+     * Etapa $unwind: genera un documento por cada elemento del arreglo indicado. Los documentos
+     * sin el campo, con null o con un arreglo vacío se descartan, salvo con preserveNullAndEmptyArrays.
+     * @param documentos Documentos de entrada.
+     * @param argumento Ruta del arreglo ("$campo") o documento {path, preserveNullAndEmptyArrays}.
+     * @return Documentos desenrollados.
+     */
+    private List<BsonDocument> desenrollar(List<BsonDocument> documentos, BsonValue argumento) {
+        String ruta = (argumento.isString() ? argumento : argumento.asDocument().get("path")).asString().getValue().substring(1);
+        boolean conservar = argumento.isDocument() && argumento.asDocument().getBoolean("preserveNullAndEmptyArrays", org.bson.BsonBoolean.FALSE).getValue();
+        List<BsonDocument> desenrollados = new ArrayList<>(documentos.size());
+        for (BsonDocument documento : documentos) {
+            BsonValue valor = EvaluadorBson.valor(documento, ruta);
+            if (valor != null && valor.isArray() && !valor.asArray().isEmpty()) {
+                for (BsonValue elemento : valor.asArray()) {
+                    BsonDocument copia = documento.clone();
+                    copia.put(ruta, elemento);
+                    desenrollados.add(copia);
+                }
+            } else if ((valor != null && !valor.isNull() && !valor.isArray()) || conservar) {
+                desenrollados.add(documento);
+            }
+        }
+        return desenrollados;
+    }
+    /**
+     * Etapa $group: agrupa por la expresión de _id y calcula los acumuladores de cada grupo.
+     * Los grupos se regresan en el orden en que aparecen por primera vez.
+     * @param documentos Documentos de entrada.
+     * @param especificacion Documento {_id: expresión, campo: {acumulador: expresión}, ...}.
+     * @return Un documento por grupo.
+     */
+    private List<BsonDocument> agrupar(List<BsonDocument> documentos, BsonDocument especificacion) {
+        BsonValue expresionId = especificacion.get("_id");
+        Map<BsonValue, List<BsonDocument>> grupos = new LinkedHashMap<>();
+        for (BsonDocument documento : documentos)
+            grupos.computeIfAbsent(valorONull(evaluar(expresionId, documento)), llave -> new ArrayList<>()).add(documento);
+        List<BsonDocument> resultado = new ArrayList<>(grupos.size());
+        for (Map.Entry<BsonValue, List<BsonDocument>> grupo : grupos.entrySet())
+            resultado.add(acumular(grupo.getKey(), grupo.getValue(), especificacion));
+        return resultado;
+    }
+    /**
+     * Etapa $bucket: agrupa por rangos [límite_i, límite_i+1) del valor de groupBy. Los valores
+     * fuera de los límites, o de otro tipo, van al grupo default.
+     * @param documentos Documentos de entrada.
+     * @param especificacion Documento {groupBy, boundaries, default, output}.
+     * @return Un documento por rango con documentos, en el orden de los límites y el default al final.
+     */
+    private List<BsonDocument> agruparRangos(List<BsonDocument> documentos, BsonDocument especificacion) {
+        BsonValue agruparPor = especificacion.get("groupBy");
+        BsonArray limites = especificacion.getArray("boundaries");
+        BsonValue omision = especificacion.get("default");
+        BsonDocument salida = especificacion.getDocument("output",
+                new BsonDocument("count", new BsonDocument("$sum", new BsonInt32(1))));
+        Map<BsonValue, List<BsonDocument>> grupos = new LinkedHashMap<>();
+        for (int i = 0; i < limites.size() - 1; i++)
+            grupos.put(limites.get(i), new ArrayList<>());
+        for (BsonDocument documento : documentos) {
+            BsonValue valor = valorONull(evaluar(agruparPor, documento));
+            BsonValue llave = null;
+            for (int i = 0; i < limites.size() - 1 && llave == null; i++) {
+                if (mismoTipo(valor, limites.get(i)) && evaluador.comparar(valor, limites.get(i)) >= 0
+                        && evaluador.comparar(valor, limites.get(i + 1)) < 0)
+                    llave = limites.get(i);
+            }
+            if (llave == null) {
+                if (omision == null)
+                    throw new IllegalArgumentException("El valor " + valor + " no cae en ningún rango de $bucket y no hay default.");
+                llave = omision;
+            }
+            grupos.computeIfAbsent(llave, l -> new ArrayList<>()).add(documento);
+        }
+        List<BsonDocument> resultado = new ArrayList<>(grupos.size());
+        for (Map.Entry<BsonValue, List<BsonDocument>> grupo : grupos.entrySet()) {
+            if (!grupo.getValue().isEmpty())
+                resultado.add(acumular(grupo.getKey(), grupo.getValue(), salida));
+        }
+        return resultado;
+    }
+    /**
+     * Indica si dos valores son del mismo tipo de comparación, para ubicar un valor en un rango.
+     * @param a Primer valor.
+     * @param b Segundo valor.
+     * @return VERDADERO si son del mismo tipo.
+     */
+    private boolean mismoTipo(BsonValue a, BsonValue b) {
+        return (a.isNumber() && b.isNumber()) || a.getBsonType() == b.getBsonType();
+    }
+    /**
+     * Calcula los acumuladores de un grupo.
+     * @param id Llave del grupo.
+     * @param documentos Documentos del grupo.
+     * @param especificacion Acumuladores por campo; el campo _id se ignora.
+     * @return Documento del grupo.
+     */
+    private BsonDocument acumular(BsonValue id, List<BsonDocument> documentos, BsonDocument especificacion) {
+        BsonDocument grupo = new BsonDocument("_id", id);
+        for (Map.Entry<String, BsonValue> campo : especificacion.entrySet()) {
+            if (campo.getKey().equals("_id"))
+                continue;
+            BsonDocument acumulador = campo.getValue().asDocument();
+            String operador = acumulador.getFirstKey();
+            BsonValue argumento = acumulador.get(operador);
+            grupo.put(campo.getKey(), switch (operador) {
+                case "$sum" -> sumar(documentos, argumento);
+                case "$avg" -> promediar(documentos, argumento);
+                case "$min", "$max" -> extremo(documentos, argumento, operador.equals("$min"));
+                case "$first" -> documentos.isEmpty() ? BsonNull.VALUE : valorONull(evaluar(argumento, documentos.get(0)));
+                case "$last" -> documentos.isEmpty() ? BsonNull.VALUE : valorONull(evaluar(argumento, documentos.get(documentos.size() - 1)));
+                case "$push" -> {
+                    BsonArray valores = new BsonArray(new ArrayList<>(documentos.size()));
+                    for (BsonDocument documento : documentos)
+                        valores.add(valorONull(evaluar(argumento, documento)));
+                    yield valores;
+                }
+                case "$topN" -> primeros(documentos, argumento.asDocument());
+                default -> throw new IllegalArgumentException("Acumulador no soportado en memoria: " + operador);
+            });
+        }
+        return grupo;
+    }
+    /**
+     * Acumulador $sum: suma los valores numéricos de la expresión; los demás se ignoran.
+     * @param documentos Documentos del grupo.
+     * @param expresion Expresión a sumar.
+     * @return Suma, con el tipo numérico más amplio de los sumandos (int32 si todos lo son y cabe).
+     */
+    private BsonValue sumar(List<BsonDocument> documentos, BsonValue expresion) {
+        BsonValue suma = new BsonInt32(0);
+        for (BsonDocument documento : documentos) {
+            BsonValue valor = evaluar(expresion, documento);
+            if (valor != null && valor.isNumber())
+                suma = EvaluadorBson.sumar(suma, valor);
+        }
+        return suma;
+    }
+    /**
+     * Acumulador $avg: promedia los valores numéricos de la expresión.
+     * @param documentos Documentos del grupo.
+     * @param expresion Expresión a promediar.
+     * @return Promedio, o null si no hay valores numéricos.
+     */
+    private BsonValue promediar(List<BsonDocument> documentos, BsonValue expresion) {
+        double suma = 0;
+        int cantidad = 0;
+        for (BsonDocument documento : documentos) {
+            BsonValue valor = evaluar(expresion, documento);
+            if (valor != null && valor.isNumber()) {
+                suma += valor.asNumber().doubleValue();
+                cantidad++;
+            }
+        }
+        return cantidad == 0 ? BsonNull.VALUE : new BsonDouble(suma / cantidad);
+    }
+    /**
+     * Acumuladores $min y $max: ignoran los valores ausentes y null.
+     * @param documentos Documentos del grupo.
+     * @param expresion Expresión a comparar.
+     * @param minimo VERDADERO para el mínimo, FALSO para el máximo.
+     * @return Valor extremo, o null si no hay valores.
+     */
+    private BsonValue extremo(List<BsonDocument> documentos, BsonValue expresion, boolean minimo) {
+        BsonValue extremo = null;
+        for (BsonDocument documento : documentos) {
+            BsonValue valor = evaluar(expresion, documento);
+            if (valor == null || valor.isNull())
+                continue;
+            if (extremo == null || (minimo ? evaluador.comparar(valor, extremo) < 0 : evaluador.comparar(valor, extremo) > 0))
+                extremo = valor;
+        }
+        return extremo == null ? BsonNull.VALUE : extremo;
+    }
+    /**
+     * Acumulador $topN: los primeros n documentos del grupo según sortBy, convertidos con output.
+     * @param documentos Documentos del grupo.
+     * @param especificacion Documento {n, sortBy, output}.
+     * @return Arreglo con las salidas de los primeros n documentos.
+     */
+    private BsonValue primeros(List<BsonDocument> documentos, BsonDocument especificacion) {
+        int n = especificacion.getNumber("n").intValue();
+        Comparator<BsonDocument> orden = evaluador.comparador(especificacion.getDocument("sortBy"), null);
+        List<BsonDocument> ordenados = new ArrayList<>(documentos);
+        ordenados.sort(orden);
+        BsonArray primeros = new BsonArray(new ArrayList<>(Math.min(n, ordenados.size())));
+        for (BsonDocument documento : ordenados.subList(0, Math.min(n, ordenados.size())))
+            primeros.add(valorONull(evaluar(especificacion.get("output"), documento)));
+        return primeros;
+    }
+    /**
+     * Etapa $sort: ordena los documentos (el orden es estable, como en el servidor ante empates por _id).
+     * @param documentos Documentos de entrada.
+     * @param orden Orden de la etapa.
+     * @return Documentos ordenados.
+     */
+    private List<BsonDocument> ordenar(List<BsonDocument> documentos, BsonDocument orden) {
+        List<BsonDocument> ordenados = new ArrayList<>(documentos);
+        ordenados.sort(evaluador.comparador(orden, null));
+        return ordenados;
+    }
+    /**
+     * Evalúa una expresión de agregación sobre un documento.
+     * @param expresion Expresión: ruta de campo, variable, literal, documento o arreglo de expresiones.
+     * @param documento Documento actual.
+     * @return Valor de la expresión, o null si una ruta de campo no existe.
+     */
+    private BsonValue evaluar(BsonValue expresion, BsonDocument documento) {
+        if (expresion == null)
+            return BsonNull.VALUE;
+        if (expresion.isString()) {
+            String texto = expresion.asString().getValue();
+            if (texto.equals("$$ROOT") || texto.equals("$$CURRENT"))
+                return documento;
+            if (texto.startsWith("$$"))
+                throw new IllegalArgumentException("Variable no soportada en memoria: " + texto);
+            return texto.startsWith("$") ? EvaluadorBson.valor(documento, texto.substring(1)) : expresion;
+        }
+        if (expresion.isArray()) {
+            BsonArray valores = new BsonArray();
+            for (BsonValue elemento : expresion.asArray())
+                valores.add(valorONull(evaluar(elemento, documento)));
+            return valores;
+        }
+        if (!expresion.isDocument())
+            return expresion;
+        BsonDocument expresionDocumento = expresion.asDocument();
+        if (EvaluadorBson.esOperadores(expresionDocumento)) {
+            String operador = expresionDocumento.getFirstKey();
+            BsonValue argumento = expresionDocumento.get(operador);
+            if (operador.equals("$literal"))
+                return argumento;
+            // Los operadores de fecha aceptan la expresión directa o {date: expresión}.
+            BsonValue fecha = evaluar(argumento.isDocument() && argumento.asDocument().containsKey("date")
+                    ? argumento.asDocument().get("date") : argumento, documento);
+            if (fecha == null || fecha.isNull())
+                return BsonNull.VALUE;
+            ZonedDateTime instante = Instant.ofEpochMilli(fecha.asDateTime().getValue()).atZone(ZoneOffset.UTC);
+            return switch (operador) {
+                case "$year" -> new BsonInt32(instante.getYear());
+                case "$month" -> new BsonInt32(instante.getMonthValue());
+                case "$dayOfMonth" -> new BsonInt32(instante.getDayOfMonth());
+                default -> throw new IllegalArgumentException("Operador de expresión no soportado en memoria: " + operador);
+            };
+        }
+        // Documento de expresiones: cada campo se evalúa por separado.
+        BsonDocument resultado = new BsonDocument();
+        for (Map.Entry<String, BsonValue> campo : expresionDocumento.entrySet()) {
+            BsonValue valor = evaluar(campo.getValue(), documento);
+            if (valor != null)
+                resultado.put(campo.getKey(), valor);
+        }
+        return resultado;
+    }
+    /**
+     * Convierte una ruta de campo ausente en null.
+     * @param valor Valor evaluado.
+     * @return El mismo valor, o null BSON si no existe.
+     */
+    private static BsonValue valorONull(BsonValue valor) {
+        return valor == null ? BsonNull.VALUE : valor;
+    }
+}
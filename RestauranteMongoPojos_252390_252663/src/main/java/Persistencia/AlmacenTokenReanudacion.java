@@ -0,0 +1,66 @@
+package Persistencia;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import java.util.Date;
+import org.bson.BsonDocument;
+import org.bson.Document;
+
+/**
+ * Clase que guarda en MongoDB el token de reanudación de una escucha de cambios, para que
+ * al reiniciar la aplicación continúe desde el último evento procesado. Cada escucha se
+ * identifica por un nombre; cada nodo de la aplicación debe usar uno distinto.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class AlmacenTokenReanudacion {
+    // Nombre de la colección donde se guardan los tokens.
+    public static final String COLECCION = "tokensReanudacion";
+    // Colección de tokens.
+    private final MongoCollection<Document> coleccion;
+    // Nombre de la escucha.
+    private final String nombre;
+    /**
+     * Constructor que recibe la colección de tokens y el nombre de la escucha.
+     * @param coleccion Colección de tokens.
+     * @param nombre Nombre de la escucha.
+     */
+    public AlmacenTokenReanudacion(MongoCollection<Document> coleccion, String nombre) {
+        this.coleccion = coleccion;
+        this.nombre = nombre;
+    }
+    /**
+     * Lee el último token guardado.
+     * @return Token de reanudación, o null si no existe.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public BsonDocument leer() throws PersistenciaException {
+        try {
+            Document documento = coleccion.find(Filters.eq("_id", nombre)).first();
+            if (documento == null || documento.get("token") == null)
+                return null;
+            return documento.get("token", Document.class).toBsonDocument();
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Guarda el token recibido, reemplazando el anterior.
+     * @param token Token de reanudación.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public void guardar(BsonDocument token) throws PersistenciaException {
+        try {
+            Document documento = new Document("_id", nombre).append("token", token).append("actualizado", new Date());
+            coleccion.replaceOne(Filters.eq("_id", nombre), documento, new ReplaceOptions().upsert(true));
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Elimina el token guardado, para que la escucha comience desde el momento actual.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public void borrar() throws PersistenciaException {
+        try {
+            coleccion.deleteOne(Filters.eq("_id", nombre));
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+}
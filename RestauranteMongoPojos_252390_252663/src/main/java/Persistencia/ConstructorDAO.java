@@ -0,0 +1,114 @@
+package Persistencia;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Constructor que compone el DAO de restaurantes: un DAO base (un backend de {@link FabricaDAO}
+ * o una instancia cualquiera) envuelto por una cadena de decoradores. Los decoradores se aplican
+ * en el orden en que se agregan, del más interno al más externo; por ejemplo, con
+ * {@code reintentos(...).decorar(metricas)} las métricas miden cada operación con todos sus
+ * reintentos incluidos.
+ * <pre>{@code
+ * IRestauranteDAO dao = FabricaDAO.constructor()
+ *         .backend(FabricaDAO.SINCRONO)
+ *         .reintentos(3, Duration.ofMillis(100), Duration.ofSeconds(2))
+ *         .enrutarLecturas(daoSecundarios)
+ *         .construir();
+ * IRestauranteBO negocio = new RestauranteBO(dao);
+ * }</pre>
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public final class ConstructorDAO {
+    // DAO base, o null para crear el del backend.
+    private IRestauranteDAO base;
+    // Backend del DAO base, o null para usar el configurado.
+    private String backend;
+    // Decoradores, del más interno al más externo.
+    private final List<UnaryOperator<IRestauranteDAO>> decoradores = new ArrayList<>();
+    /**
+     * Constructor por defecto. Sin más llamadas, construye el DAO del backend configurado, sin decoradores.
+     */
+    public ConstructorDAO() {}
+    /**
+     * Usa como base el DAO del backend indicado, en lugar del configurado.
+     * @param backend Nombre del backend: uno incluido en {@link FabricaDAO} o el de un {@link ProveedorDAO}.
+     * @return El mismo constructor, para encadenar llamadas.
+     */
+    public ConstructorDAO backend(String backend) {
+        this.backend = backend;
+        this.base = null;
+        return this;
+    }
+    /**
+     * Usa como base el DAO recibido.
+     * @param base DAO base.
+     * @return El mismo constructor, para encadenar llamadas.
+     * @throws IllegalArgumentException Si el DAO es null.
+     */
+    public ConstructorDAO base(IRestauranteDAO base) {
+        if (base == null)
+            throw new IllegalArgumentException("El DAO base no puede ser null.");
+        this.base = base;
+        this.backend = null;
+        return this;
+    }
+    /**
+     * Agrega un decorador de reintentos de las lecturas ({@link RestauranteDAOReintentos}).
+     * @param intentosMaximos Cantidad máxima de intentos, incluido el primero.
+     * @param esperaBase Espera antes del primer reintento; se duplica en cada reintento.
+     * @param esperaMaxima Tope de la espera entre intentos.
+     * @return El mismo constructor, para encadenar llamadas.
+     */
+    public ConstructorDAO reintentos(int intentosMaximos, Duration esperaBase, Duration esperaMaxima) {
+        return decorar(dao -> new RestauranteDAOReintentos(dao, intentosMaximos, esperaBase, esperaMaxima));
+    }
+    /**
+     * Agrega un decorador que envía las lecturas al DAO recibido ({@link RestauranteDAOEnrutado});
+     * las escrituras siguen por la cadena construida hasta este punto.
+     * @param lecturas DAO que atiende las lecturas.
+     * @return El mismo constructor, para encadenar llamadas.
+     */
+    public ConstructorDAO enrutarLecturas(IRestauranteDAO lecturas) {
+        return decorar(dao -> new RestauranteDAOEnrutado(dao, lecturas));
+    }
+    /**
+     * Agrega el decorador con el nombre indicado: uno incluido en {@link FabricaDAO} o el de un
+     * {@link ProveedorDecoradorDAO}.
+     * @param nombre Nombre del decorador.
+     * @return El mismo constructor, para encadenar llamadas.
+     * @throws IllegalStateException Si no existe un decorador con ese nombre.
+     */
+    public ConstructorDAO decorar(String nombre) {
+        return decorar(FabricaDAO.decorador(nombre));
+    }
+    /**
+     * Agrega un decorador cualquiera.
+     * @param decorador Función que envuelve el DAO construido hasta este punto.
+     * @return El mismo constructor, para encadenar llamadas.
+     * @throws IllegalArgumentException Si el decorador es null.
+     */
+    public ConstructorDAO decorar(UnaryOperator<IRestauranteDAO> decorador) {
+        if (decorador == null)
+            throw new IllegalArgumentException("El decorador no puede ser null.");
+        decoradores.add(decorador);
+        return this;
+    }
+    /**
+     * Construye el DAO: crea la base, si no se recibió una instancia, y le aplica los decoradores en orden.
+     * @return DAO de restaurantes.
+     * @throws IllegalStateException Si el backend no existe o algún decorador regresa null.
+     */
+    public IRestauranteDAO construir() {
+        IRestauranteDAO dao = base != null ? base : FabricaDAO.crearBackend(backend != null ? backend : FabricaDAO.backend());
+        for (UnaryOperator<IRestauranteDAO> decorador : decoradores) {
+            dao = decorador.apply(dao);
+            if (dao == null)
+                throw new IllegalStateException("Un decorador del DAO regresó null.");
+        }
+        return dao;
+    }
+}
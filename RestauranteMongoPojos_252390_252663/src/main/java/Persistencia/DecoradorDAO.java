@@ -0,0 +1,254 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import com.mongodb.client.model.WriteModel;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Clase base de los decoradores de {@link IRestauranteDAO}: delega cada operación en el DAO
+ * envuelto, de modo que una subclase solo sobrescribe las operaciones que modifica (reintentos,
+ * enrutamiento, métricas, caché). Los decoradores se componen con {@link ConstructorDAO}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public abstract class DecoradorDAO implements IRestauranteDAO {
+    // DAO envuelto.
+    protected final IRestauranteDAO delegado;
+    /**
+     * Constructor que recibe el DAO a envolver.
+     * @param delegado DAO envuelto.
+     * @throws IllegalArgumentException Si el DAO es null.
+     */
+    protected DecoradorDAO(IRestauranteDAO delegado) {
+        if (delegado == null)
+            throw new IllegalArgumentException("El DAO a decorar no puede ser null.");
+        this.delegado = delegado;
+    }
+    /**
+     * Retorna el DAO envuelto.
+     * @return DAO envuelto.
+     */
+    public IRestauranteDAO getDelegado() {return delegado;}
+    /**
+     * Delega la inserción de los restaurantes de ejemplo.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertarRestaurantesPorDefecto() throws PersistenciaException {
+        delegado.insertarRestaurantesPorDefecto();
+    }
+    /**
+     * Delega la inserción de un restaurante.
+     * @param restaurante Restaurante a insertar.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertar(Restaurante restaurante) throws PersistenciaException {
+        delegado.insertar(restaurante);
+    }
+    /**
+     * Delega la inserción de varios restaurantes.
+     * @param restaurantes Restaurantes a insertar.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException {
+        delegado.insertarVarios(restaurantes);
+    }
+    /**
+     * Delega un lote de operaciones de escritura.
+     * @param operaciones Operaciones de escritura.
+     * @return Resultado del lote.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException {
+        return delegado.escribirLote(operaciones);
+    }
+    /**
+     * Delega la consulta de todos los restaurantes.
+     * @return Restaurantes.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return delegado.consultarTodos();
+    }
+    /**
+     * Delega una consulta con filtro.
+     * @param filtro Filtro de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return delegado.consultar(filtro);
+    }
+    /**
+     * Delega una consulta con filtro y proyección.
+     * @param filtro Filtro de la consulta.
+     * @param proyeccion Campos a leer.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return delegado.consultar(filtro, proyeccion);
+    }
+    /**
+     * Delega una consulta con filtro y opciones.
+     * @param filtro Filtro de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        return delegado.consultar(filtro, opciones);
+    }
+    /**
+     * Delega una consulta ordenada.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return delegado.consultarOrden(filtro, orden);
+    }
+    /**
+     * Delega una consulta limitada.
+     * @param filtro Filtro de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return delegado.consultarLimite(filtro, limite);
+    }
+    /**
+     * Delega una consulta ordenada y limitada.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return delegado.consultarOrdenLimite(filtro, orden, limite);
+    }
+    /**
+     * Delega una consulta como flujo.
+     * @param filtro Filtro de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return delegado.consultarStream(filtro, tamanoLote);
+    }
+    /**
+     * Delega una consulta ordenada como flujo.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return delegado.consultarOrdenStream(filtro, orden, tamanoLote);
+    }
+    /**
+     * Delega un pipeline de agregación.
+     * @param pipeline Etapas del pipeline.
+     * @return Documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        return delegado.agregar(pipeline);
+    }
+    /**
+     * Delega una actualización.
+     * @param filtro Restaurantes a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return Resultado del DAO envuelto.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public boolean actualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return delegado.actualizar(filtro, actualizaciones);
+    }
+    /**
+     * Delega una actualización que cuenta los restaurantes modificados.
+     * @param filtro Restaurantes a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return Cantidad de restaurantes modificados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long actualizarConteo(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return delegado.actualizarConteo(filtro, actualizaciones);
+    }
+    /**
+     * Delega un upsert por reemplazo.
+     * @param filtro Restaurante a reemplazar.
+     * @param restaurante Restaurante completo.
+     * @return ID del restaurante insertado, o null si fue reemplazado.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException {
+        return delegado.upsert(filtro, restaurante);
+    }
+    /**
+     * Delega un upsert por actualización.
+     * @param filtro Restaurante a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return ID del restaurante insertado, o null si fue actualizado.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return delegado.upsertActualizar(filtro, actualizaciones);
+    }
+    /**
+     * Delega una eliminación.
+     * @param filtro Restaurantes a eliminar.
+     * @return Resultado del DAO envuelto.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public boolean eliminar(Bson filtro) throws PersistenciaException {
+        return delegado.eliminar(filtro);
+    }
+    /**
+     * Delega una eliminación que cuenta los restaurantes eliminados.
+     * @param filtro Restaurantes a eliminar.
+     * @return Cantidad de restaurantes eliminados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long eliminarConteo(Bson filtro) throws PersistenciaException {
+        return delegado.eliminarConteo(filtro);
+    }
+    /**
+     * Delega la migración de las categorías normalizadas.
+     * @param tamanoLote Tamaño de lote de la migración.
+     * @return Cantidad de restaurantes actualizados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException {
+        return delegado.normalizarCategoriasExistentes(tamanoLote);
+    }
+}
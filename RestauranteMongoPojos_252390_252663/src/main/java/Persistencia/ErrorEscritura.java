@@ -0,0 +1,56 @@
+package Persistencia;
+
+/**
+ * Clase que describe el error de una operación dentro de una escritura por lotes.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ErrorEscritura {
+    // Código de error de MongoDB para una llave duplicada.
+    private static final int LLAVE_DUPLICADA = 11000;
+    // Posición de la operación dentro del lote.
+    private final int indice;
+    // Código de error devuelto por el servidor.
+    private final int codigo;
+    // Mensaje de error devuelto por el servidor.
+    private final String mensaje;
+    /**
+     * Constructor que recibe todos los atributos del error.
+     * @param indice Posición de la operación dentro del lote.
+     * @param codigo Código de error devuelto por el servidor.
+     * @param mensaje Mensaje de error devuelto por el servidor.
+     */
+    public ErrorEscritura(int indice, int codigo, String mensaje) {
+        this.indice = indice;
+        this.codigo = codigo;
+        this.mensaje = mensaje;
+    }
+    /**
+     * Retorna la posición de la operación dentro del lote.
+     * @return Posición de la operación.
+     */
+    public int getIndice() {return indice;}
+    /**
+     * Retorna el código de error devuelto por el servidor.
+     * @return Código de error.
+     */
+    public int getCodigo() {return codigo;}
+    /**
+     * Retorna el mensaje de error devuelto por el servidor.
+     * @return Mensaje de error.
+     */
+    public String getMensaje() {return mensaje;}
+    /**
+     * Indica si el error se debe a una llave duplicada (por ejemplo, un nombre repetido).
+     * @return VERDADERO si es un error de llave duplicada, FALSO en caso contrario.
+     */
+    public boolean esDuplicado() {return codigo == LLAVE_DUPLICADA;}
+    /**
+     * Retorna una cadena con la información del error.
+     * @return cadena con la información del error.
+     */
+    @Override
+    public String toString() {
+        return "ErrorEscritura{" + "indice=" + indice + ", codigo=" + codigo + ", mensaje=" + mensaje + '}';
+    }
+}
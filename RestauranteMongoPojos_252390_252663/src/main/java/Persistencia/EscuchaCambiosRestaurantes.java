@@ -0,0 +1,297 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+
+/**
+ * Escucha el change stream de la colección de restaurantes en un hilo dedicado y publica
+ * cada inserción, actualización, reemplazo y eliminación a los suscriptores registrados,
+ * incluidas las hechas por otros nodos de la aplicación.
+ * <p>
+ * El token de reanudación se guarda con {@link AlmacenTokenReanudacion} después de entregar
+ * los eventos, por lo que al reiniciar la escucha continúa desde el último evento procesado:
+ * la entrega es "al menos una vez" y un suscriptor puede recibir de nuevo los últimos eventos.
+ * Los errores transitorios se reintentan con espera exponencial; si el token ya no es válido
+ * (por ejemplo, porque el oplog lo rebasó), se publica un {@link TipoCambio#REINICIO} y la
+ * escucha continúa desde el momento actual.
+ * <p>
+ * Los change streams requieren un replica set; para probar localmente basta un nodo:
+ * {@code mongod --replSet rs0} seguido de {@code rs.initiate()} en mongosh, y
+ * {@code mongo.url=mongodb://localhost:27017/?replicaSet=rs0}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EscuchaCambiosRestaurantes {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(EscuchaCambiosRestaurantes.class.getName());
+    // Códigos de error de MongoDB que indican que el token de reanudación ya no sirve.
+    private static final Set<Integer> TOKEN_INVALIDO = Set.of(
+            260,    // InvalidResumeToken
+            280,    // ChangeStreamFatalError
+            286     // ChangeStreamHistoryLost
+    );
+    // Tiempo máximo que el servidor espera nuevos eventos antes de responder un lote vacío.
+    private static final long ESPERA_MAXIMA_MS = 1_000;
+    // Tiempo mínimo entre dos escrituras del token de reanudación.
+    private static final long INTERVALO_GUARDADO_MS = 1_000;
+    // Espera inicial y máxima entre reintentos tras un error.
+    private static final long ESPERA_REINTENTO_INICIAL_MS = 500;
+    private static final long ESPERA_REINTENTO_MAXIMA_MS = 30_000;
+    // Colección observada.
+    private final MongoCollection<Restaurante> coleccion;
+    // Almacén del token de reanudación.
+    private final AlmacenTokenReanudacion almacen;
+    // Suscriptores registrados.
+    private final List<SuscriptorCambios> suscriptores = new CopyOnWriteArrayList<>();
+    // Indica si la escucha debe seguir ejecutándose.
+    private volatile boolean activa;
+    // Hilo de la escucha; se conserva hasta que termina, aunque la escucha ya se haya detenido.
+    private Thread hilo;
+    // Último token de reanudación recibido y último token guardado.
+    private BsonDocument token;
+    private BsonDocument tokenGuardado;
+    // Instante del último guardado del token.
+    private long ultimoGuardado;
+    /**
+     * Constructor que recibe la colección a observar y el almacén del token de reanudación.
+     * @param coleccion Colección de restaurantes.
+     * @param almacen Almacén del token de reanudación.
+     */
+    public EscuchaCambiosRestaurantes(MongoCollection<Restaurante> coleccion, AlmacenTokenReanudacion almacen) {
+        this.coleccion = coleccion;
+        this.almacen = almacen;
+    }
+    /**
+     * Registra un suscriptor.
+     * @param suscriptor Suscriptor a registrar.
+     */
+    public void suscribir(SuscriptorCambios suscriptor) {suscriptores.add(suscriptor);}
+    /**
+     * Quita un suscriptor registrado.
+     * @param suscriptor Suscriptor a quitar.
+     */
+    public void desuscribir(SuscriptorCambios suscriptor) {suscriptores.remove(suscriptor);}
+    /**
+     * Indica si la escucha está en ejecución.
+     * @return VERDADERO si está en ejecución, FALSO en caso contrario.
+     */
+    public boolean estaActiva() {return activa;}
+    /**
+     * Inicia la escucha en un hilo dedicado, reanudando desde el último token guardado. Si el hilo
+     * de una escucha detenida aún no termina, lo espera, para que nunca haya dos ciclos publicando
+     * eventos y guardando el token a la vez.
+     * @throws PersistenciaException Si no es posible leer el token guardado o el hilo anterior no termina.
+     */
+    public synchronized void iniciar() throws PersistenciaException {
+        if (activa)
+            return;
+        if (hilo != null) {
+            try {
+                hilo.join(ESPERA_MAXIMA_MS * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PersistenciaException("Se interrumpió la espera del hilo de la escucha anterior.", e);
+            }
+            if (hilo.isAlive())
+                throw new PersistenciaException("El hilo de la escucha anterior aún no termina.");
+            hilo = null;
+        }
+        token = almacen.leer();
+        tokenGuardado = token;
+        activa = true;
+        hilo = new Thread(this::escuchar, "restaurantes-escucha-cambios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    /**
+     * Detiene la escucha, espera a que su hilo termine y guarda el último token recibido. El hilo
+     * se interrumpe para despertarlo de la espera entre reintentos o de la lectura del cursor.
+     * @throws InterruptedException Si la espera es interrumpida.
+     */
+    public synchronized void detener() throws InterruptedException {
+        if (!activa)
+            return;
+        activa = false;
+        hilo.interrupt();
+        hilo.join(ESPERA_MAXIMA_MS * 5);
+        if (hilo.isAlive())
+            LOG.log(Level.WARNING, "El hilo de la escucha de cambios aún no termina; se esperará al volver a iniciarla.");
+        else
+            hilo = null;
+    }
+    /**
+     * Ciclo principal de la escucha: abre el change stream, publica los eventos y lo
+     * vuelve a abrir desde el último token tras un error.
+     */
+    private void escuchar() {
+        long espera = ESPERA_REINTENTO_INICIAL_MS;
+        while (activa) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Restaurante>> cursor = abrir().cursor()) {
+                espera = ESPERA_REINTENTO_INICIAL_MS;
+                while (activa) {
+                    ChangeStreamDocument<Restaurante> cambio = cursor.tryNext();
+                    boolean invalidado = cambio != null && procesar(cambio);
+                    // Con o sin eventos, el cursor avanza su token (post-batch resume token).
+                    if (cursor.getResumeToken() != null)
+                        token = cursor.getResumeToken();
+                    guardarToken(false);
+                    // El servidor cierra el change stream tras una invalidación; se abre uno nuevo.
+                    if (invalidado)
+                        break;
+                }
+            } catch (MongoException e) {
+                // La interrupción de detener() aborta la lectura del cursor.
+                if (!activa)
+                    break;
+                if (TOKEN_INVALIDO.contains(e.getCode())) {
+                    LOG.log(Level.WARNING, "El token de reanudación ya no es válido; la escucha continúa desde el momento actual.", e);
+                    reiniciar();
+                } else {
+                    LOG.log(Level.WARNING, "Error en la escucha de cambios; se reintentará en " + espera + " ms.", e);
+                    if (!dormir(espera))
+                        break;
+                    espera = Math.min(espera * 2, ESPERA_REINTENTO_MAXIMA_MS);
+                }
+            } catch (RuntimeException e) {
+                if (!activa)
+                    break;
+                LOG.log(Level.SEVERE, "Error inesperado en la escucha de cambios; se reintentará en " + espera + " ms.", e);
+                if (!dormir(espera))
+                    break;
+                espera = Math.min(espera * 2, ESPERA_REINTENTO_MAXIMA_MS);
+            }
+        }
+        // Guarda el último token antes de terminar; se limpia la interrupción de detener() para que
+        // no aborte la escritura.
+        Thread.interrupted();
+        guardarToken(true);
+    }
+    /**
+     * Crea el change stream, reanudándolo desde el último token si existe.
+     * @return Change stream de la colección.
+     */
+    private ChangeStreamIterable<Restaurante> abrir() {
+        ChangeStreamIterable<Restaurante> cambios = coleccion.watch()
+                // Las actualizaciones incluyen el documento actual, leído después del cambio.
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        // startAfter, a diferencia de resumeAfter, también acepta el token de un evento de invalidación.
+        return token == null ? cambios : cambios.startAfter(token);
+    }
+    /**
+     * Convierte un cambio del change stream en un evento y lo publica.
+     * @param cambio Cambio leído del change stream.
+     * @return VERDADERO si el cambio invalidó el change stream, FALSO en caso contrario.
+     */
+    private boolean procesar(ChangeStreamDocument<Restaurante> cambio) {
+        switch (cambio.getOperationType()) {
+            case INSERT -> publicar(new EventoCambioRestaurante(TipoCambio.INSERCION, id(cambio), cambio.getFullDocument(), null, null));
+            case REPLACE -> publicar(new EventoCambioRestaurante(TipoCambio.REEMPLAZO, id(cambio), cambio.getFullDocument(), null, null));
+            case DELETE -> publicar(new EventoCambioRestaurante(TipoCambio.ELIMINACION, id(cambio), null, null, null));
+            case UPDATE -> {
+                UpdateDescription descripcion = cambio.getUpdateDescription();
+                Set<String> actualizados = new HashSet<>();
+                List<String> removidos = null;
+                if (descripcion != null) {
+                    if (descripcion.getUpdatedFields() != null)
+                        actualizados.addAll(descripcion.getUpdatedFields().keySet());
+                    removidos = descripcion.getRemovedFields();
+                }
+                publicar(new EventoCambioRestaurante(TipoCambio.ACTUALIZACION, id(cambio), cambio.getFullDocument(), actualizados, removidos));
+            }
+            // La colección fue eliminada o renombrada (el servidor envía después una invalidación):
+            // el estado derivado ya no es válido.
+            case INVALIDATE -> {
+                publicar(EventoCambioRestaurante.reinicio());
+                return true;
+            }
+            default -> LOG.log(Level.FINE, "Cambio ignorado: {0}", cambio.getOperationType());
+        }
+        return false;
+    }
+    /**
+     * Obtiene el ID del restaurante afectado por un cambio.
+     * @param cambio Cambio leído del change stream.
+     * @return ID del restaurante, o null si no es un ObjectId.
+     */
+    private static ObjectId id(ChangeStreamDocument<Restaurante> cambio) {
+        BsonDocument llave = cambio.getDocumentKey();
+        BsonValue id = llave == null ? null : llave.get("_id");
+        return id != null && id.isObjectId() ? id.asObjectId().getValue() : null;
+    }
+    /**
+     * Entrega un evento a cada suscriptor. La falla de un suscriptor no afecta a los demás.
+     * @param evento Evento a entregar.
+     */
+    private void publicar(EventoCambioRestaurante evento) {
+        for (SuscriptorCambios suscriptor : suscriptores) {
+            try {
+                suscriptor.alCambiar(evento);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Un suscriptor falló al procesar " + evento.getTipo() + ".", e);
+            }
+        }
+    }
+    /**
+     * Descarta el token de reanudación y publica un reinicio, para que los suscriptores
+     * descarten el estado que ya no pueden mantener al día.
+     */
+    private void reiniciar() {
+        token = null;
+        try {
+            almacen.borrar();
+            tokenGuardado = null;
+        } catch (PersistenciaException e) {
+            LOG.log(Level.WARNING, "No fue posible borrar el token de reanudación.", e);
+        }
+        publicar(EventoCambioRestaurante.reinicio());
+    }
+    /**
+     * Guarda el último token recibido si cambió y ya pasó el intervalo de guardado.
+     * @param forzar VERDADERO para guardarlo sin esperar el intervalo.
+     */
+    private void guardarToken(boolean forzar) {
+        if (token == null || token.equals(tokenGuardado))
+            return;
+        long ahora = System.currentTimeMillis();
+        if (!forzar && ahora - ultimoGuardado < INTERVALO_GUARDADO_MS)
+            return;
+        try {
+            almacen.guardar(token);
+            tokenGuardado = token;
+            ultimoGuardado = ahora;
+        } catch (PersistenciaException e) {
+            LOG.log(Level.WARNING, "No fue posible guardar el token de reanudación.", e);
+        }
+    }
+    /**
+     * Espera el tiempo indicado antes de un reintento.
+     * @param milisegundos Tiempo a esperar.
+     * @return FALSO si la espera fue interrumpida o la escucha se detuvo.
+     */
+    private boolean dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+            return activa;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
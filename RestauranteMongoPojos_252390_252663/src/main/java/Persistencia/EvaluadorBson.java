@@ -0,0 +1,857 @@
+package Persistencia;
+
+import Dominio.Normalizador;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+
+/**
+ * Evalúa, sobre documentos BSON en memoria, los filtros, órdenes, actualizaciones y proyecciones
+ * que construyen las capas de Negocio y Persistencia, con la semántica de MongoDB: los campos se
+ * recorren con notación de punto, una condición sobre un arreglo se cumple si la cumple alguno de
+ * sus elementos y los operadores de comparación solo comparan valores del mismo tipo.
+ * <p>
+ * Operadores de consulta: $eq, $ne, $gt, $gte, $lt, $lte, $in, $nin, $exists, $type, $regex,
+ * $not, $size, $all, $and, $or, $nor y $text. Operadores de actualización: $set, $setOnInsert,
+ * $unset, $inc, $min, $max, $addToSet y $push (ambos con $each). Cualquier otro operador lanza
+ * {@link IllegalArgumentException}.
+ * <p>
+ * Si se construye con una colación, los textos se comparan con ella en las igualdades, rangos y
+ * órdenes, como en el servidor; las expresiones regulares nunca la usan.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+final class EvaluadorBson {
+    // Evaluador sin colación: compara los textos por su valor binario.
+    static final EvaluadorBson BINARIO = new EvaluadorBson(null);
+    // Pesos de los campos del índice de texto, los mismos que declara GestorIndices.
+    private static final int PESO_TEXTO_NOMBRE = 10;
+    private static final int PESO_TEXTO_CATEGORIAS = 5;
+    // Separador de las palabras de un texto.
+    private static final Pattern SEPARADOR_PALABRAS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Expresiones regulares ya compiladas, por patrón y opciones; se vacía al llenarse.
+    private static final Map<BsonRegularExpression, Pattern> PATRONES = new ConcurrentHashMap<>();
+    private static final int MAXIMO_PATRONES = 1_000;
+    // Colación de los textos, o null para compararlos por su valor binario.
+    private final Collator colacion;
+    /**
+     * Constructor que recibe la colación de los textos.
+     * @param colacion Colación, o null para compararlos por su valor binario.
+     */
+    EvaluadorBson(Collator colacion) {
+        this.colacion = colacion;
+    }
+    /**
+     * Crea un evaluador con la colación del driver indicada.
+     * @param collation Colación de la consulta, o null.
+     * @return Evaluador con la colación equivalente de Java, o {@link #BINARIO} si no hay colación.
+     */
+    static EvaluadorBson conColacion(com.mongodb.client.model.Collation collation) {
+        if (collation == null || collation.getLocale() == null || collation.getLocale().equals("simple"))
+            return BINARIO;
+        Collator colacion = Collator.getInstance(Locale.forLanguageTag(collation.getLocale().replace('_', '-')));
+        colacion.setStrength(collation.getStrength() == null ? Collator.TERTIARY : switch (collation.getStrength()) {
+            case PRIMARY -> Collator.PRIMARY;
+            case SECONDARY -> Collator.SECONDARY;
+            case TERTIARY -> Collator.TERTIARY;
+            case QUATERNARY, IDENTICAL -> Collator.IDENTICAL;
+        });
+        return new EvaluadorBson(colacion);
+    }
+    /**
+     * Indica si el evaluador compara los textos con una colación.
+     * @return VERDADERO si tiene colación, FALSO en caso contrario.
+     */
+    boolean tieneColacion() {return colacion != null;}
+
+    // Consultas
+    /**
+     * Indica si un documento cumple un filtro.
+     * @param filtro Filtro, ya convertido a BsonDocument.
+     * @param documento Documento a revisar.
+     * @return VERDADERO si el documento cumple el filtro, FALSO en caso contrario.
+     */
+    boolean coincide(BsonDocument filtro, BsonDocument documento) {
+        for (Map.Entry<String, BsonValue> condicion : filtro.entrySet()) {
+            String campo = condicion.getKey();
+            BsonValue valor = condicion.getValue();
+            boolean cumple = switch (campo) {
+                case "$and" -> todas(valor, documento);
+                case "$or" -> alguna(valor, documento);
+                case "$nor" -> !alguna(valor, documento);
+                case "$text" -> puntajeTexto(valor.asDocument(), documento) > 0;
+                case "$comment" -> true;
+                default -> {
+                    if (campo.startsWith("$"))
+                        throw new IllegalArgumentException("Operador de consulta no soportado en memoria: " + campo);
+                    yield coincideCampo(documento, campo, valor);
+                }
+            };
+            if (!cumple)
+                return false;
+        }
+        return true;
+    }
+    /**
+     * Indica si un documento cumple todos los filtros de un arreglo ($and).
+     * @param filtros Arreglo de filtros.
+     * @param documento Documento a revisar.
+     * @return VERDADERO si los cumple todos.
+     */
+    private boolean todas(BsonValue filtros, BsonDocument documento) {
+        for (BsonValue filtro : filtros.asArray())
+            if (!coincide(filtro.asDocument(), documento))
+                return false;
+        return true;
+    }
+    /**
+     * Indica si un documento cumple alguno de los filtros de un arreglo ($or).
+     * @param filtros Arreglo de filtros.
+     * @param documento Documento a revisar.
+     * @return VERDADERO si cumple al menos uno.
+     */
+    private boolean alguna(BsonValue filtros, BsonDocument documento) {
+        for (BsonValue filtro : filtros.asArray())
+            if (coincide(filtro.asDocument(), documento))
+                return true;
+        return false;
+    }
+    /**
+     * Indica si el campo de un documento cumple una condición: un valor (igualdad), una expresión
+     * regular o un documento de operadores.
+     * @param documento Documento a revisar.
+     * @param ruta Ruta del campo, con notación de punto.
+     * @param condicion Condición del campo.
+     * @return VERDADERO si la cumple, FALSO en caso contrario.
+     */
+    private boolean coincideCampo(BsonDocument documento, String ruta, BsonValue condicion) {
+        if (esOperadores(condicion)) {
+            BsonDocument operadores = condicion.asDocument();
+            for (Map.Entry<String, BsonValue> operador : operadores.entrySet())
+                if (!coincideOperador(documento, ruta, operador.getKey(), operador.getValue(), operadores))
+                    return false;
+            return true;
+        }
+        if (condicion.isRegularExpression())
+            return algunValor(valores(documento, ruta), valor -> coincideRegex(valor, condicion.asRegularExpression()));
+        return igual(valores(documento, ruta), condicion);
+    }
+    /**
+     * Indica si el campo de un documento cumple un operador de consulta.
+     * @param documento Documento a revisar.
+     * @param ruta Ruta del campo.
+     * @param operador Nombre del operador.
+     * @param argumento Argumento del operador.
+     * @param operadores Documento con todos los operadores del campo (para $regex y $options).
+     * @return VERDADERO si lo cumple, FALSO en caso contrario.
+     */
+    private boolean coincideOperador(BsonDocument documento, String ruta, String operador, BsonValue argumento, BsonDocument operadores) {
+        List<BsonValue> valores = valores(documento, ruta);
+        return switch (operador) {
+            case "$eq" -> igual(valores, argumento);
+            case "$ne" -> !igual(valores, argumento);
+            case "$gt" -> algunValor(valores, valor -> comparable(valor, argumento) && comparar(valor, argumento) > 0);
+            case "$gte" -> algunValor(valores, valor -> comparable(valor, argumento) && comparar(valor, argumento) >= 0);
+            case "$lt" -> algunValor(valores, valor -> comparable(valor, argumento) && comparar(valor, argumento) < 0);
+            case "$lte" -> algunValor(valores, valor -> comparable(valor, argumento) && comparar(valor, argumento) <= 0);
+            case "$in" -> enArreglo(valores, argumento.asArray());
+            case "$nin" -> !enArreglo(valores, argumento.asArray());
+            case "$exists" -> !valores.isEmpty() == esVerdadero(argumento);
+            case "$type" -> algunValor(valores, valor -> esTipo(valor, argumento))
+                    || valores.stream().anyMatch(valor -> valor.isArray() && esAliasArreglo(argumento));
+            case "$regex" -> {
+                BsonRegularExpression regex = argumento.isRegularExpression() ? argumento.asRegularExpression()
+                        : new BsonRegularExpression(argumento.asString().getValue(),
+                                operadores.containsKey("$options") ? operadores.getString("$options").getValue() : null);
+                yield algunValor(valores, valor -> coincideRegex(valor, regex));
+            }
+            case "$options" -> true;
+            case "$not" -> !coincideCampo(documento, ruta, argumento);
+            case "$size" -> valores.stream().anyMatch(valor -> valor.isArray() && valor.asArray().size() == argumento.asNumber().intValue());
+            case "$all" -> {
+                for (BsonValue requerido : argumento.asArray())
+                    if (!igual(valores, requerido))
+                        yield false;
+                yield !argumento.asArray().isEmpty();
+            }
+            default -> throw new IllegalArgumentException("Operador de consulta no soportado en memoria: " + operador);
+        };
+    }
+    /**
+     * Indica si una condición es un documento de operadores, es decir, si su primer campo empieza con $.
+     * @param condicion Condición de un campo.
+     * @return VERDADERO si es un documento de operadores.
+     */
+    static boolean esOperadores(BsonValue condicion) {
+        return condicion.isDocument() && !condicion.asDocument().isEmpty()
+                && condicion.asDocument().getFirstKey().startsWith("$");
+    }
+    /**
+     * Indica si alguno de los valores de un campo es igual al valor recibido. Un campo ausente
+     * es igual a null, y un arreglo es igual al valor si él o alguno de sus elementos lo es.
+     * @param valores Valores del campo.
+     * @param valor Valor a comparar.
+     * @return VERDADERO si hay un valor igual.
+     */
+    private boolean igual(List<BsonValue> valores, BsonValue valor) {
+        if (valores.isEmpty())
+            return valor.isNull();
+        if (valor.isRegularExpression())
+            return algunValor(valores, candidato -> coincideRegex(candidato, valor.asRegularExpression()));
+        for (BsonValue candidato : valores) {
+            if (iguales(candidato, valor))
+                return true;
+            if (candidato.isArray())
+                for (BsonValue elemento : candidato.asArray())
+                    if (iguales(elemento, valor))
+                        return true;
+        }
+        return false;
+    }
+    /**
+     * Indica si alguno de los valores de un campo es igual a alguno de los valores de un arreglo ($in).
+     * @param valores Valores del campo.
+     * @param arreglo Valores aceptados.
+     * @return VERDADERO si hay coincidencia.
+     */
+    private boolean enArreglo(List<BsonValue> valores, BsonArray arreglo) {
+        for (BsonValue valor : arreglo)
+            if (igual(valores, valor))
+                return true;
+        return false;
+    }
+    /**
+     * Indica si alguno de los valores, o alguno de los elementos de los valores que son arreglos, cumple el predicado.
+     * @param valores Valores del campo.
+     * @param predicado Predicado a evaluar.
+     * @return VERDADERO si alguno lo cumple.
+     */
+    private static boolean algunValor(List<BsonValue> valores, Predicate<BsonValue> predicado) {
+        for (BsonValue valor : valores) {
+            if (predicado.test(valor))
+                return true;
+            if (valor.isArray())
+                for (BsonValue elemento : valor.asArray())
+                    if (predicado.test(elemento))
+                        return true;
+        }
+        return false;
+    }
+    /**
+     * Indica si un valor de texto cumple una expresión regular. Los demás tipos no la cumplen.
+     * @param valor Valor a revisar.
+     * @param regex Expresión regular, con sus opciones.
+     * @return VERDADERO si la cumple.
+     */
+    private static boolean coincideRegex(BsonValue valor, BsonRegularExpression regex) {
+        return valor.isString() && patron(regex).matcher(valor.asString().getValue()).find();
+    }
+    /**
+     * Compila una expresión regular de MongoDB, reutilizando las ya compiladas.
+     * @param regex Expresión regular, con sus opciones (i, m, s, x).
+     * @return Patrón compilado.
+     */
+    private static Pattern patron(BsonRegularExpression regex) {
+        Pattern patron = PATRONES.get(regex);
+        if (patron == null) {
+            int banderas = 0;
+            for (char opcion : regex.getOptions().toCharArray()) {
+                banderas |= switch (opcion) {
+                    case 'i' -> Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                    case 'm' -> Pattern.MULTILINE;
+                    case 's' -> Pattern.DOTALL;
+                    case 'x' -> Pattern.COMMENTS;
+                    default -> 0;
+                };
+            }
+            patron = Pattern.compile(regex.getPattern(), banderas);
+            if (PATRONES.size() >= MAXIMO_PATRONES)
+                PATRONES.clear();
+            PATRONES.put(regex, patron);
+        }
+        return patron;
+    }
+    /**
+     * Indica si un valor es del tipo indicado por $type: un número de tipo BSON, un alias
+     * ("string", "date", "number", ...) o un arreglo de ellos.
+     * @param valor Valor a revisar.
+     * @param tipo Tipo o tipos aceptados.
+     * @return VERDADERO si el valor es de alguno de los tipos.
+     */
+    private static boolean esTipo(BsonValue valor, BsonValue tipo) {
+        if (tipo.isArray()) {
+            for (BsonValue alternativa : tipo.asArray())
+                if (esTipo(valor, alternativa))
+                    return true;
+            return false;
+        }
+        if (tipo.isNumber())
+            return valor.getBsonType().getValue() == tipo.asNumber().intValue();
+        return switch (tipo.asString().getValue()) {
+            case "double" -> valor.isDouble();
+            case "string" -> valor.isString();
+            case "object" -> valor.isDocument();
+            case "array" -> valor.isArray();
+            case "objectId" -> valor.isObjectId();
+            case "bool" -> valor.isBoolean();
+            case "date" -> valor.isDateTime();
+            case "null" -> valor.isNull();
+            case "int" -> valor.isInt32();
+            case "long" -> valor.isInt64();
+            case "decimal" -> valor.isDecimal128();
+            case "number" -> valor.isNumber() || valor.isDecimal128();
+            default -> throw new IllegalArgumentException("Tipo no soportado en memoria: " + tipo.asString().getValue());
+        };
+    }
+    /**
+     * Indica si el argumento de $type acepta arreglos, que se comparan completos y no por elemento.
+     * @param tipo Tipo o tipos aceptados.
+     * @return VERDADERO si acepta arreglos.
+     */
+    private static boolean esAliasArreglo(BsonValue tipo) {
+        if (tipo.isArray())
+            return tipo.asArray().stream().anyMatch(EvaluadorBson::esAliasArreglo);
+        return tipo.isNumber() ? tipo.asNumber().intValue() == BsonType.ARRAY.getValue() : tipo.asString().getValue().equals("array");
+    }
+    /**
+     * Interpreta un valor BSON como booleano, como lo hace $exists.
+     * @param valor Valor a interpretar.
+     * @return FALSO si es false, null o el número cero; VERDADERO en otro caso.
+     */
+    private static boolean esVerdadero(BsonValue valor) {
+        if (valor.isBoolean())
+            return valor.asBoolean().getValue();
+        if (valor.isNumber())
+            return valor.asNumber().doubleValue() != 0;
+        return !valor.isNull();
+    }
+
+    // Comparaciones
+    /**
+     * Retorna la posición del tipo de un valor en el orden de comparación de BSON.
+     * Los números de cualquier tipo comparten posición, igual que los textos.
+     * @param valor Valor BSON.
+     * @return Posición del tipo.
+     */
+    private static int rangoTipo(BsonValue valor) {
+        return switch (valor.getBsonType()) {
+            case MIN_KEY -> -1;
+            case NULL, UNDEFINED -> 0;
+            case INT32, INT64, DOUBLE, DECIMAL128 -> 1;
+            case STRING, SYMBOL -> 2;
+            case DOCUMENT -> 3;
+            case ARRAY -> 4;
+            case BINARY -> 5;
+            case OBJECT_ID -> 6;
+            case BOOLEAN -> 7;
+            case DATE_TIME -> 8;
+            case TIMESTAMP -> 9;
+            case REGULAR_EXPRESSION -> 10;
+            case MAX_KEY -> 100;
+            default -> 50;
+        };
+    }
+    /**
+     * Indica si dos valores pueden compararse con $gt, $gte, $lt y $lte: solo los del mismo tipo.
+     * @param valor Valor del documento.
+     * @param argumento Argumento del operador.
+     * @return VERDADERO si son del mismo tipo de comparación.
+     */
+    private static boolean comparable(BsonValue valor, BsonValue argumento) {
+        return rangoTipo(valor) == rangoTipo(argumento);
+    }
+    /**
+     * Indica si dos valores son iguales según el orden de comparación (1 y 1.0 son iguales).
+     * @param a Primer valor.
+     * @param b Segundo valor.
+     * @return VERDADERO si son iguales.
+     */
+    boolean iguales(BsonValue a, BsonValue b) {
+        return rangoTipo(a) == rangoTipo(b) && comparar(a, b) == 0;
+    }
+    /**
+     * Compara dos valores con el orden de BSON: primero por tipo y luego por valor.
+     * @param a Primer valor.
+     * @param b Segundo valor.
+     * @return Negativo, cero o positivo si a es menor, igual o mayor que b.
+     */
+    int comparar(BsonValue a, BsonValue b) {
+        int rangoA = rangoTipo(a);
+        int rangoB = rangoTipo(b);
+        if (rangoA != rangoB)
+            return Integer.compare(rangoA, rangoB);
+        return switch (rangoA) {
+            case 1 -> compararNumeros(a, b);
+            case 2 -> compararTextos(texto(a), texto(b));
+            case 3 -> compararDocumentos(a.asDocument(), b.asDocument());
+            case 4 -> compararArreglos(a.asArray(), b.asArray());
+            case 5 -> compararBytes(a.asBinary().getData(), b.asBinary().getData());
+            case 6 -> a.asObjectId().getValue().compareTo(b.asObjectId().getValue());
+            case 7 -> Boolean.compare(a.asBoolean().getValue(), b.asBoolean().getValue());
+            case 8 -> Long.compare(a.asDateTime().getValue(), b.asDateTime().getValue());
+            case 9 -> a.asTimestamp().compareTo(b.asTimestamp());
+            case 10 -> a.asRegularExpression().getPattern().compareTo(b.asRegularExpression().getPattern());
+            default -> 0;
+        };
+    }
+    /**
+     * Compara dos textos con la colación del evaluador o, sin ella, por su valor binario.
+     * @param a Primer texto.
+     * @param b Segundo texto.
+     * @return Resultado de la comparación.
+     */
+    private int compararTextos(String a, String b) {
+        return colacion == null ? a.compareTo(b) : colacion.compare(a, b);
+    }
+    /**
+     * Obtiene el texto de un valor de tipo texto o símbolo.
+     * @param valor Valor de texto.
+     * @return Texto.
+     */
+    private static String texto(BsonValue valor) {
+        return valor.isString() ? valor.asString().getValue() : valor.asSymbol().getSymbol();
+    }
+    /**
+     * Compara dos números de cualquier tipo numérico. NaN es menor que cualquier otro número.
+     * @param a Primer número.
+     * @param b Segundo número.
+     * @return Resultado de la comparación.
+     */
+    private static int compararNumeros(BsonValue a, BsonValue b) {
+        if (!a.isDouble() && !b.isDouble() && !a.isDecimal128() && !b.isDecimal128())
+            return Long.compare(a.asNumber().longValue(), b.asNumber().longValue());
+        double x = a.isDecimal128() ? a.asDecimal128().getValue().doubleValue() : a.asNumber().doubleValue();
+        double y = b.isDecimal128() ? b.asDecimal128().getValue().doubleValue() : b.asNumber().doubleValue();
+        if (Double.isNaN(x) || Double.isNaN(y))
+            return Boolean.compare(!Double.isNaN(x), !Double.isNaN(y));
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+    /**
+     * Compara dos documentos campo por campo: primero el nombre y luego el valor.
+     * @param a Primer documento.
+     * @param b Segundo documento.
+     * @return Resultado de la comparación.
+     */
+    private int compararDocumentos(BsonDocument a, BsonDocument b) {
+        var campoA = a.entrySet().iterator();
+        var campoB = b.entrySet().iterator();
+        while (campoA.hasNext() && campoB.hasNext()) {
+            Map.Entry<String, BsonValue> x = campoA.next();
+            Map.Entry<String, BsonValue> y = campoB.next();
+            int resultado = Integer.compare(rangoTipo(x.getValue()), rangoTipo(y.getValue()));
+            if (resultado == 0)
+                resultado = x.getKey().compareTo(y.getKey());
+            if (resultado == 0)
+                resultado = comparar(x.getValue(), y.getValue());
+            if (resultado != 0)
+                return resultado;
+        }
+        return Boolean.compare(campoA.hasNext(), campoB.hasNext());
+    }
+    /**
+     * Compara dos arreglos elemento por elemento; el más corto es menor si comparten el inicio.
+     * @param a Primer arreglo.
+     * @param b Segundo arreglo.
+     * @return Resultado de la comparación.
+     */
+    private int compararArreglos(BsonArray a, BsonArray b) {
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+            int resultado = comparar(a.get(i), b.get(i));
+            if (resultado != 0)
+                return resultado;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+    /**
+     * Compara dos arreglos de bytes: primero por longitud y luego byte por byte.
+     * @param a Primer arreglo.
+     * @param b Segundo arreglo.
+     * @return Resultado de la comparación.
+     */
+    private static int compararBytes(byte[] a, byte[] b) {
+        return a.length != b.length ? Integer.compare(a.length, b.length) : java.util.Arrays.compareUnsigned(a, b);
+    }
+    /**
+     * Construye el comparador de un orden de MongoDB ({campo: 1 | -1 | {$meta: "textScore"}}).
+     * Un arreglo se ordena por su menor elemento en orden ascendente y por el mayor en descendente.
+     * @param orden Orden, ya convertido a BsonDocument.
+     * @param puntaje Puntaje de texto de cada documento, para los campos {$meta: "textScore"}; puede ser null.
+     * @return Comparador de documentos.
+     */
+    Comparator<BsonDocument> comparador(BsonDocument orden, ToDoubleFunction<BsonDocument> puntaje) {
+        Comparator<BsonDocument> comparador = (a, b) -> 0;
+        for (Map.Entry<String, BsonValue> campo : orden.entrySet()) {
+            String ruta = campo.getKey();
+            BsonValue direccion = campo.getValue();
+            if (direccion.isDocument()) {
+                // {$meta: "textScore"}: de mayor a menor relevancia.
+                if (puntaje == null)
+                    throw new IllegalArgumentException("El orden por relevancia requiere un filtro $text.");
+                comparador = comparador.thenComparing(Comparator.comparingDouble(puntaje).reversed());
+                continue;
+            }
+            boolean ascendente = direccion.asNumber().intValue() >= 0;
+            Comparator<BsonDocument> porCampo = (a, b) -> comparar(llaveOrden(a, ruta, ascendente), llaveOrden(b, ruta, ascendente));
+            comparador = comparador.thenComparing(ascendente ? porCampo : porCampo.reversed());
+        }
+        return comparador;
+    }
+    /**
+     * Obtiene el valor con el que se ordena un documento por un campo.
+     * @param documento Documento.
+     * @param ruta Ruta del campo.
+     * @param ascendente Dirección del orden.
+     * @return Valor del campo, null si no existe, o el menor (ascendente) o mayor (descendente) elemento de un arreglo.
+     */
+    private BsonValue llaveOrden(BsonDocument documento, String ruta, boolean ascendente) {
+        BsonValue llave = null;
+        for (BsonValue valor : valores(documento, ruta)) {
+            List<BsonValue> candidatos = valor.isArray() && !valor.asArray().isEmpty() ? valor.asArray().getValues() : List.of(valor);
+            for (BsonValue candidato : candidatos) {
+                if (llave == null || (ascendente ? comparar(candidato, llave) < 0 : comparar(candidato, llave) > 0))
+                    llave = candidato;
+            }
+        }
+        return llave == null ? BsonNull.VALUE : llave;
+    }
+
+    // Rutas
+    /**
+     * Obtiene los valores de un campo con notación de punto. Si una parte intermedia de la ruta
+     * es un arreglo, se recorre cada uno de sus documentos, por lo que puede haber varios valores.
+     * @param documento Documento.
+     * @param ruta Ruta del campo.
+     * @return Valores encontrados; vacío si el campo no existe.
+     */
+    static List<BsonValue> valores(BsonDocument documento, String ruta) {
+        int punto = ruta.indexOf('.');
+        if (punto < 0) {
+            BsonValue valor = documento.get(ruta);
+            return valor == null ? List.of() : List.of(valor);
+        }
+        List<BsonValue> valores = new ArrayList<>(1);
+        agregarValores(documento.get(ruta.substring(0, punto)), ruta.substring(punto + 1), valores);
+        return valores;
+    }
+    /**
+     * Agrega a la lista los valores del resto de una ruta dentro de un valor.
+     * @param valor Valor intermedio de la ruta.
+     * @param resto Resto de la ruta.
+     * @param valores Lista donde se agregan los valores encontrados.
+     */
+    private static void agregarValores(BsonValue valor, String resto, List<BsonValue> valores) {
+        if (valor == null)
+            return;
+        if (valor.isDocument()) {
+            valores.addAll(valores(valor.asDocument(), resto));
+        } else if (valor.isArray()) {
+            for (BsonValue elemento : valor.asArray())
+                agregarValores(elemento, resto, valores);
+        }
+    }
+    /**
+     * Obtiene el valor de un campo con notación de punto, sin recorrer arreglos intermedios.
+     * @param documento Documento.
+     * @param ruta Ruta del campo.
+     * @return Valor del campo, o null si no existe.
+     */
+    static BsonValue valor(BsonDocument documento, String ruta) {
+        BsonValue actual = documento;
+        for (String parte : ruta.split("\\.")) {
+            if (actual == null || !actual.isDocument())
+                return null;
+            actual = actual.asDocument().get(parte);
+        }
+        return actual;
+    }
+
+    // Actualizaciones
+    /**
+     * Aplica una actualización ($set, $inc, ...) a un documento.
+     * @param documento Documento a modificar; se modifica en el lugar.
+     * @param actualizaciones Actualización, ya convertida a BsonDocument.
+     * @param insercion VERDADERO si el documento se está insertando por un upsert, para aplicar $setOnInsert.
+     * @return VERDADERO si el documento cambió, FALSO en caso contrario.
+     */
+    boolean actualizar(BsonDocument documento, BsonDocument actualizaciones, boolean insercion) {
+        BsonDocument anterior = documento.clone();
+        for (Map.Entry<String, BsonValue> operacion : actualizaciones.entrySet()) {
+            String operador = operacion.getKey();
+            for (Map.Entry<String, BsonValue> campo : operacion.getValue().asDocument().entrySet()) {
+                String ruta = campo.getKey();
+                BsonValue valor = campo.getValue();
+                if (ruta.equals("_id") && !operador.equals("$setOnInsert") && !insercion)
+                    throw new IllegalArgumentException("El campo _id es inmutable.");
+                switch (operador) {
+                    case "$set" -> asignar(documento, ruta, copia(valor));
+                    case "$setOnInsert" -> {
+                        if (insercion)
+                            asignar(documento, ruta, copia(valor));
+                    }
+                    case "$unset" -> remover(documento, ruta);
+                    case "$inc" -> {
+                        BsonValue actual = valor(documento, ruta);
+                        if (actual != null && !actual.isNumber())
+                            throw new IllegalArgumentException("No es posible incrementar el campo no numérico " + ruta + ".");
+                        asignar(documento, ruta, actual == null ? valor : sumar(actual, valor));
+                    }
+                    case "$min", "$max" -> {
+                        BsonValue actual = valor(documento, ruta);
+                        int comparacion = actual == null ? 0 : comparar(valor, actual);
+                        if (actual == null || (operador.equals("$min") ? comparacion < 0 : comparacion > 0))
+                            asignar(documento, ruta, copia(valor));
+                    }
+                    case "$addToSet", "$push" -> {
+                        BsonArray arreglo = arreglo(documento, ruta);
+                        List<BsonValue> nuevos = valor.isDocument() && valor.asDocument().containsKey("$each")
+                                ? valor.asDocument().getArray("$each").getValues() : List.of(valor);
+                        for (BsonValue nuevo : nuevos) {
+                            if (operador.equals("$push") || arreglo.stream().noneMatch(existente -> existente.equals(nuevo)))
+                                arreglo.add(copia(nuevo));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Operador de actualización no soportado en memoria: " + operador);
+                }
+            }
+        }
+        return !anterior.equals(documento);
+    }
+    /**
+     * Copia un valor mutable (documento o arreglo); los demás valores BSON son inmutables.
+     * @param valor Valor a copiar.
+     * @return Copia del valor, o el mismo valor si es inmutable.
+     */
+    static BsonValue copia(BsonValue valor) {
+        if (valor.isDocument())
+            return valor.asDocument().clone();
+        return valor.isArray() ? valor.asArray().clone() : valor;
+    }
+    /**
+     * Indica si un documento de actualización usa operadores ($set, ...) en lugar de ser un documento de reemplazo.
+     * @param actualizaciones Actualización, ya convertida a BsonDocument.
+     * @return VERDADERO si usa operadores.
+     */
+    static boolean esActualizacion(BsonDocument actualizaciones) {
+        return !actualizaciones.isEmpty() && actualizaciones.getFirstKey().startsWith("$");
+    }
+    /**
+     * Asigna un valor a un campo con notación de punto, creando los documentos intermedios que falten.
+     * @param documento Documento a modificar.
+     * @param ruta Ruta del campo.
+     * @param valor Valor a asignar.
+     */
+    private static void asignar(BsonDocument documento, String ruta, BsonValue valor) {
+        int punto = ruta.indexOf('.');
+        if (punto < 0) {
+            documento.put(ruta, valor);
+            return;
+        }
+        String parte = ruta.substring(0, punto);
+        BsonValue intermedio = documento.get(parte);
+        if (intermedio == null) {
+            intermedio = new BsonDocument();
+            documento.put(parte, intermedio);
+        } else if (!intermedio.isDocument()) {
+            throw new IllegalArgumentException("No es posible crear el campo " + ruta + " dentro de un valor que no es documento.");
+        }
+        asignar(intermedio.asDocument(), ruta.substring(punto + 1), valor);
+    }
+    /**
+     * Remueve un campo con notación de punto, si existe.
+     * @param documento Documento a modificar.
+     * @param ruta Ruta del campo.
+     */
+    private static void remover(BsonDocument documento, String ruta) {
+        int punto = ruta.lastIndexOf('.');
+        BsonValue padre = punto < 0 ? documento : valor(documento, ruta.substring(0, punto));
+        if (padre != null && padre.isDocument())
+            padre.asDocument().remove(ruta.substring(punto + 1));
+    }
+    /**
+     * Obtiene el arreglo de un campo, creándolo vacío si no existe.
+     * @param documento Documento a modificar.
+     * @param ruta Ruta del campo.
+     * @return Arreglo del campo.
+     */
+    private static BsonArray arreglo(BsonDocument documento, String ruta) {
+        BsonValue actual = valor(documento, ruta);
+        if (actual == null) {
+            BsonArray arreglo = new BsonArray();
+            asignar(documento, ruta, arreglo);
+            return arreglo;
+        }
+        if (!actual.isArray())
+            throw new IllegalArgumentException("El campo " + ruta + " no es un arreglo.");
+        return actual.asArray();
+    }
+    /**
+     * Suma dos números conservando el tipo más amplio, como $inc: int32 si ambos lo son y el
+     * resultado cabe, int64 si ninguno es double, y double en otro caso.
+     * @param a Primer número.
+     * @param b Segundo número.
+     * @return Suma.
+     */
+    static BsonValue sumar(BsonValue a, BsonValue b) {
+        if (a.isDouble() || b.isDouble() || a.isDecimal128() || b.isDecimal128())
+            return new BsonDouble(a.asNumber().doubleValue() + b.asNumber().doubleValue());
+        long suma = a.asNumber().longValue() + b.asNumber().longValue();
+        if (a.isInt32() && b.isInt32() && suma == (int) suma)
+            return new BsonInt32((int) suma);
+        return new BsonInt64(suma);
+    }
+    /**
+     * Construye el documento inicial de un upsert que no encontró documento: los campos del
+     * filtro con igualdad ({campo: valor} o {campo: {$eq: valor}}), incluidos los de $and.
+     * @param filtro Filtro del upsert, ya convertido a BsonDocument.
+     * @return Documento inicial.
+     */
+    static BsonDocument documentoUpsert(BsonDocument filtro) {
+        BsonDocument documento = new BsonDocument();
+        agregarIgualdades(filtro, documento);
+        return documento;
+    }
+    /**
+     * Agrega al documento los campos con igualdad de un filtro.
+     * @param filtro Filtro.
+     * @param documento Documento donde se agregan.
+     */
+    private static void agregarIgualdades(BsonDocument filtro, BsonDocument documento) {
+        for (Map.Entry<String, BsonValue> condicion : filtro.entrySet()) {
+            String campo = condicion.getKey();
+            BsonValue valor = condicion.getValue();
+            if (campo.equals("$and")) {
+                for (BsonValue subfiltro : valor.asArray())
+                    agregarIgualdades(subfiltro.asDocument(), documento);
+            } else if (!campo.startsWith("$")) {
+                if (esOperadores(valor)) {
+                    if (valor.asDocument().containsKey("$eq"))
+                        asignar(documento, campo, copia(valor.asDocument().get("$eq")));
+                } else if (!valor.isRegularExpression()) {
+                    asignar(documento, campo, copia(valor));
+                }
+            }
+        }
+    }
+
+    // Proyecciones
+    /**
+     * Aplica una proyección de inclusión ({campo: 1}) o exclusión ({campo: 0}) de campos de
+     * primer nivel. El _id se incluye salvo que se excluya explícitamente. Los campos $meta se ignoran.
+     * @param documento Documento completo.
+     * @param proyeccion Proyección, ya convertida a BsonDocument; null o vacía para no proyectar.
+     * @return Documento proyectado; el mismo documento si no hay proyección.
+     */
+    static BsonDocument proyectar(BsonDocument documento, BsonDocument proyeccion) {
+        if (proyeccion == null || proyeccion.isEmpty())
+            return documento;
+        boolean incluirId = true;
+        boolean inclusion = false;
+        for (Map.Entry<String, BsonValue> campo : proyeccion.entrySet()) {
+            if (campo.getValue().isDocument())
+                continue;
+            if (campo.getKey().equals("_id"))
+                incluirId = esVerdadero(campo.getValue());
+            else
+                inclusion |= esVerdadero(campo.getValue());
+        }
+        BsonDocument proyectado = new BsonDocument();
+        for (Map.Entry<String, BsonValue> campo : documento.entrySet()) {
+            String nombre = campo.getKey();
+            BsonValue regla = proyeccion.get(nombre);
+            boolean incluir = nombre.equals("_id") ? incluirId
+                    : inclusion ? regla != null && !regla.isDocument() && esVerdadero(regla)
+                    : regla == null || regla.isDocument() || esVerdadero(regla);
+            if (incluir)
+                proyectado.put(nombre, campo.getValue());
+        }
+        return proyectado;
+    }
+
+    // Búsqueda de texto
+    /**
+     * Calcula la relevancia de un documento para un filtro $text sobre nombre y categorías, con los
+     * pesos del índice de texto. Las palabras se comparan normalizadas y sin plurales; las frases
+     * entre comillas deben aparecer completas y las palabras precedidas de "-" excluyen el documento.
+     * Es una aproximación del índice de texto del servidor, que además aplica raíces del español.
+     * @param texto Argumento del filtro $text ({$search: ...}).
+     * @param documento Documento a evaluar.
+     * @return Relevancia; cero si el documento no coincide.
+     */
+    static double puntajeTexto(BsonDocument texto, BsonDocument documento) {
+        String busqueda = texto.getString("$search").getValue();
+        // Frases entre comillas.
+        List<String> frases = new ArrayList<>();
+        StringBuilder resto = new StringBuilder();
+        String[] partes = busqueda.split("\"", -1);
+        for (int i = 0; i < partes.length; i++) {
+            if (i % 2 == 1 && !partes[i].isBlank())
+                frases.add(Normalizador.normalizar(partes[i]));
+            else
+                resto.append(' ').append(partes[i]);
+        }
+        // Textos del documento, normalizados, con su peso.
+        List<String> textos = new ArrayList<>();
+        List<Integer> pesos = new ArrayList<>();
+        BsonValue nombre = documento.get("nombre");
+        if (nombre != null && nombre.isString()) {
+            textos.add(Normalizador.normalizar(nombre.asString().getValue()));
+            pesos.add(PESO_TEXTO_NOMBRE);
+        }
+        BsonValue categorias = documento.get("categorias");
+        if (categorias != null && categorias.isArray()) {
+            for (BsonValue categoria : categorias.asArray()) {
+                if (categoria.isString()) {
+                    textos.add(Normalizador.normalizar(categoria.asString().getValue()));
+                    pesos.add(PESO_TEXTO_CATEGORIAS);
+                }
+            }
+        }
+        for (String frase : frases)
+            if (textos.stream().noneMatch(valor -> valor.contains(frase)))
+                return 0;
+        double puntaje = frases.isEmpty() ? 0 : 1;
+        for (String termino : resto.toString().trim().split("\\s+")) {
+            boolean exclusion = termino.startsWith("-");
+            String raiz = raiz(Normalizador.normalizar(exclusion ? termino.substring(1) : termino));
+            if (raiz.isEmpty())
+                continue;
+            for (int i = 0; i < textos.size(); i++) {
+                for (String palabra : SEPARADOR_PALABRAS.split(textos.get(i))) {
+                    if (!palabra.isEmpty() && raiz(palabra).equals(raiz)) {
+                        if (exclusion)
+                            return 0;
+                        puntaje += pesos.get(i);
+                    }
+                }
+            }
+        }
+        return puntaje;
+    }
+    /**
+     * Quita la "s" final de una palabra normalizada, para que el plural y el singular coincidan
+     * ("tacos" y "taco", "postres" y "postre").
+     * @param palabra Palabra normalizada.
+     * @return Raíz aproximada.
+     */
+    private static String raiz(String palabra) {
+        if (palabra.length() > 3 && palabra.endsWith("s"))
+            return palabra.substring(0, palabra.length() - 1);
+        return palabra;
+    }
+}
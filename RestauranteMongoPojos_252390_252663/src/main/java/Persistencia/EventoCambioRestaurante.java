@@ -0,0 +1,83 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.bson.types.ObjectId;
+
+/**
+ * Clase que representa un cambio en la colección de restaurantes, leído de su change stream.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class EventoCambioRestaurante {
+    // Tipo de cambio.
+    private final TipoCambio tipo;
+    // ID del restaurante afectado, o null en un reinicio.
+    private final ObjectId id;
+    // Documento actual del restaurante, o null si fue eliminado o ya no existe.
+    private final Restaurante restaurante;
+    // Campos modificados por una actualización.
+    private final Set<String> camposActualizados;
+    // Campos removidos por una actualización.
+    private final List<String> camposRemovidos;
+    /**
+     * Constructor que recibe todos los atributos del evento.
+     * @param tipo Tipo de cambio.
+     * @param id ID del restaurante afectado, o null en un reinicio.
+     * @param restaurante Documento actual del restaurante, o null si fue eliminado o ya no existe.
+     * @param camposActualizados Campos modificados por una actualización.
+     * @param camposRemovidos Campos removidos por una actualización.
+     */
+    public EventoCambioRestaurante(TipoCambio tipo, ObjectId id, Restaurante restaurante,
+            Set<String> camposActualizados, List<String> camposRemovidos) {
+        this.tipo = tipo;
+        this.id = id;
+        this.restaurante = restaurante;
+        this.camposActualizados = camposActualizados == null ? Collections.emptySet() : camposActualizados;
+        this.camposRemovidos = camposRemovidos == null ? Collections.emptyList() : camposRemovidos;
+    }
+    /**
+     * Crea un evento de reinicio.
+     * @return Evento de reinicio.
+     */
+    public static EventoCambioRestaurante reinicio() {
+        return new EventoCambioRestaurante(TipoCambio.REINICIO, null, null, null, null);
+    }
+    /**
+     * Retorna el tipo de cambio.
+     * @return Tipo de cambio.
+     */
+    public TipoCambio getTipo() {return tipo;}
+    /**
+     * Retorna el ID del restaurante afectado.
+     * @return ID del restaurante, o null en un reinicio.
+     */
+    public ObjectId getId() {return id;}
+    /**
+     * Retorna el documento actual del restaurante. En una actualización es el documento
+     * leído después del cambio, por lo que puede reflejar cambios posteriores.
+     * @return Restaurante, o null si fue eliminado o ya no existe.
+     */
+    public Restaurante getRestaurante() {return restaurante;}
+    /**
+     * Retorna los campos modificados por una actualización.
+     * @return Nombres de los campos modificados (vacío si no es una actualización).
+     */
+    public Set<String> getCamposActualizados() {return camposActualizados;}
+    /**
+     * Retorna los campos removidos por una actualización.
+     * @return Nombres de los campos removidos (vacío si no es una actualización).
+     */
+    public List<String> getCamposRemovidos() {return camposRemovidos;}
+    /**
+     * Retorna una cadena con la información del evento.
+     * @return Cadena con la información del evento.
+     */
+    @Override
+    public String toString() {
+        return "EventoCambioRestaurante{" + "tipo=" + tipo + ", id=" + id + ", restaurante=" + restaurante
+                + ", camposActualizados=" + camposActualizados + ", camposRemovidos=" + camposRemovidos + '}';
+    }
+}
@@ -0,0 +1,164 @@
+package Persistencia;
+
+import Conexion.Conexion;
+import Conexion.ConfiguracionConexion;
+import Metricas.RegistroMetricas;
+import com.mongodb.ReadPreference;
+import java.time.Duration;
+import java.util.ServiceLoader;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fábrica que elige, al arrancar, la implementación del DAO de restaurantes. El backend se
+ * configura con la clave {@value #BACKEND} ({@value #SINCRONO}, {@value #REACTIVO},
+ * {@value #MEMORIA} o el nombre de un {@link ProveedorDAO}) en cualquiera de las fuentes de
+ * {@link ConfiguracionConexion}; si no se configura se usa el driver síncrono.
+ * <p>
+ * El DAO del backend puede envolverse con decoradores, listados en orden (del más interno al
+ * más externo) y separados por comas en la clave {@value #DECORADORES}: los incluidos
+ * {@value #REINTENTOS}, {@value #LECTURAS_SECUNDARIAS} y {@value #METRICAS}, o el nombre de un
+ * {@link ProveedorDecoradorDAO}. Los backends y decoradores externos se descubren con
+ * {@link ServiceLoader}. Para componer el DAO desde código se usa {@link #constructor()}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class FabricaDAO {
+    // Clave de configuración del backend.
+    public static final String BACKEND = ConfiguracionConexion.DAO_BACKEND;
+    // Clave de configuración de la lista de decoradores.
+    public static final String DECORADORES = ConfiguracionConexion.DAO_DECORADORES;
+    // Backend sobre el driver síncrono.
+    public static final String SINCRONO = "sync";
+    // Backend sobre el driver reactivo.
+    public static final String REACTIVO = "reactivo";
+    // Backend en memoria, sin servidor.
+    public static final String MEMORIA = "memoria";
+    // Decorador de reintentos de las lecturas.
+    public static final String REINTENTOS = "reintentos";
+    // Decorador que envía las lecturas a los secundarios del replica set.
+    public static final String LECTURAS_SECUNDARIAS = "lecturasSecundarias";
+    // Decorador que mide cada operación en el registro global de métricas.
+    public static final String METRICAS = "metricas";
+    // Política de reintentos por defecto: intentos, espera base y espera máxima en milisegundos.
+    private static final int INTENTOS_POR_DEFECTO = 3;
+    private static final long ESPERA_POR_DEFECTO_MS = 100;
+    private static final long ESPERA_MAXIMA_POR_DEFECTO_MS = 2_000;
+    /**
+     * Contenedor del DAO en memoria, compartido por todos los consumidores del proceso para que
+     * vean los mismos datos; se crea la primera vez que se usa.
+     */
+    private static final class Memoria {
+        // Instancia compartida.
+        private static final RestauranteDAOMemoria INSTANCIA = new RestauranteDAOMemoria();
+    }
+    /**
+     * Contructor por defecto.
+     */
+    private FabricaDAO(){}
+    /**
+     * Retorna el backend configurado.
+     * @return {@value #SINCRONO}, {@value #REACTIVO}, {@value #MEMORIA} o el nombre de un {@link ProveedorDAO}.
+     * @throws IllegalStateException Si el valor configurado no es válido.
+     */
+    public static String backend() {
+        String backend = ConfiguracionConexion.cargar().obtener(BACKEND);
+        if (backend == null || backend.equalsIgnoreCase(SINCRONO))
+            return SINCRONO;
+        if (backend.equalsIgnoreCase(REACTIVO))
+            return REACTIVO;
+        if (backend.equalsIgnoreCase(MEMORIA))
+            return MEMORIA;
+        if (proveedor(backend) != null)
+            return backend;
+        throw new IllegalStateException("El valor de " + BACKEND + " debe ser " + SINCRONO + ", " + REACTIVO + ", " + MEMORIA
+                + " o el nombre de un " + ProveedorDAO.class.getSimpleName() + ": " + backend);
+    }
+    /**
+     * Crea el DAO síncrono del backend configurado, envuelto con los decoradores configurados.
+     * Con el backend reactivo, el DAO espera cada operación del driver reactivo; con el backend
+     * en memoria, todos reciben la misma instancia de {@link RestauranteDAOMemoria}.
+     * @return DAO de restaurantes.
+     * @throws IllegalStateException Si el backend o algún decorador configurado no existe.
+     */
+    public static IRestauranteDAO crearDAO() {
+        ConstructorDAO constructor = constructor().backend(backend());
+        String decoradores = ConfiguracionConexion.cargar().obtener(DECORADORES);
+        if (decoradores != null)
+            for (String nombre : decoradores.split(","))
+                if (!nombre.isBlank())
+                    constructor.decorar(nombre.trim());
+        return constructor.construir();
+    }
+    /**
+     * Crea un constructor para componer el DAO desde código, sin leer la lista de decoradores configurada.
+     * @return Constructor del DAO.
+     */
+    public static ConstructorDAO constructor() {
+        return new ConstructorDAO();
+    }
+    /**
+     * Crea el DAO reactivo, independientemente del backend configurado, para los
+     * consumidores que pueden suscribirse directamente a los publicadores.
+     * @return DAO reactivo de restaurantes.
+     */
+    public static IRestauranteDAOReactivo crearDAOReactivo() {
+        return new RestauranteDAOReactivo();
+    }
+    /**
+     * Crea el DAO de un backend, sin decoradores.
+     * @param backend Nombre del backend.
+     * @return DAO del backend.
+     * @throws IllegalStateException Si no existe un backend con ese nombre.
+     */
+    static IRestauranteDAO crearBackend(String backend) {
+        if (backend.equalsIgnoreCase(SINCRONO))
+            return new RestauranteDAO();
+        if (backend.equalsIgnoreCase(REACTIVO))
+            return new RestauranteDAOReactivoBloqueante(new RestauranteDAOReactivo());
+        if (backend.equalsIgnoreCase(MEMORIA))
+            return Memoria.INSTANCIA;
+        ProveedorDAO proveedor = proveedor(backend);
+        if (proveedor == null)
+            throw new IllegalStateException("No existe un backend del DAO llamado " + backend + ".");
+        return proveedor.crear(ConfiguracionConexion.cargar());
+    }
+    /**
+     * Obtiene el decorador con el nombre indicado.
+     * @param nombre Nombre del decorador: {@value #REINTENTOS}, {@value #LECTURAS_SECUNDARIAS}, {@value #METRICAS}
+     * o el de un {@link ProveedorDecoradorDAO}.
+     * @return Función que envuelve un DAO con el decorador.
+     * @throws IllegalStateException Si no existe un decorador con ese nombre o su configuración no es válida.
+     */
+    static UnaryOperator<IRestauranteDAO> decorador(String nombre) {
+        ConfiguracionConexion configuracion = ConfiguracionConexion.cargar();
+        if (nombre.equalsIgnoreCase(REINTENTOS)) {
+            Integer intentos = configuracion.obtenerEntero(ConfiguracionConexion.DAO_REINTENTOS);
+            Long espera = configuracion.obtenerLargo(ConfiguracionConexion.DAO_REINTENTOS_ESPERA_MS);
+            Long esperaMaxima = configuracion.obtenerLargo(ConfiguracionConexion.DAO_REINTENTOS_ESPERA_MAXIMA_MS);
+            return dao -> new RestauranteDAOReintentos(dao,
+                    intentos != null ? intentos : INTENTOS_POR_DEFECTO,
+                    Duration.ofMillis(espera != null ? espera : ESPERA_POR_DEFECTO_MS),
+                    Duration.ofMillis(esperaMaxima != null ? esperaMaxima : ESPERA_MAXIMA_POR_DEFECTO_MS));
+        }
+        if (nombre.equalsIgnoreCase(LECTURAS_SECUNDARIAS))
+            return dao -> new RestauranteDAOEnrutado(dao, new RestauranteDAO(
+                    Conexion.getColeccionRestaurantes().withReadPreference(ReadPreference.secondaryPreferred())));
+        if (nombre.equalsIgnoreCase(METRICAS))
+            return dao -> new RestauranteDAOMetricas(dao, RegistroMetricas.global());
+        for (ProveedorDecoradorDAO proveedor : ServiceLoader.load(ProveedorDecoradorDAO.class))
+            if (proveedor.nombre().equalsIgnoreCase(nombre))
+                return dao -> proveedor.decorar(dao, configuracion);
+        throw new IllegalStateException("No existe un decorador del DAO llamado " + nombre + ".");
+    }
+    /**
+     * Busca el proveedor de un backend externo.
+     * @param nombre Nombre del backend.
+     * @return Proveedor, o null si no hay uno con ese nombre.
+     */
+    private static ProveedorDAO proveedor(String nombre) {
+        for (ProveedorDAO proveedor : ServiceLoader.load(ProveedorDAO.class))
+            if (proveedor.nombre().equalsIgnoreCase(nombre))
+                return proveedor;
+        return null;
+    }
+}
@@ -0,0 +1,338 @@
+package Persistencia;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clase que declara los índices que necesitan las consultas sobre la colección
+ * de restaurantes, crea los que falten y reporta las diferencias (drift) entre
+ * lo declarado y lo que existe en el servidor.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class GestorIndices {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(GestorIndices.class.getName());
+    // Nombre del índice que MongoDB crea siempre sobre _id.
+    private static final String INDICE_ID = "_id_";
+    // Nombre del índice de texto sobre nombre y categorías.
+    public static final String INDICE_TEXTO = "texto_nombre_categorias";
+    // Nombre del índice sobre nombre con colación en español que ignora mayúsculas y acentos.
+    public static final String INDICE_NOMBRE_COLACION = "nombre_es_1";
+    // Colación del índice sobre nombre: español, fuerza 1 (ignora mayúsculas y acentos; la ñ sigue siendo distinta de la n).
+    // Las consultas deben usar exactamente esta colación para que el planificador elija el índice.
+    public static final Collation COLACION_NOMBRE = Collation.builder()
+            .locale("es").collationStrength(CollationStrength.PRIMARY).build();
+    // Tipo de las llaves de un índice de texto.
+    private static final String TEXTO = "text";
+    // Operaciones de lectura y creación de índices sobre la colección administrada.
+    private final OperacionesIndices coleccion;
+    // Índices declarados para la colección.
+    private final List<IndexModel> indicesDeclarados;
+    /**
+     * Constructor que recibe la colección a administrar, usando
+     * los índices declarados para la colección de restaurantes.
+     * @param coleccion Colección cuyos índices se administran.
+     */
+    public GestorIndices(MongoCollection<?> coleccion) {
+        this(coleccion, indicesRestaurantes());
+    }
+    /**
+     * Constructor que recibe la colección a administrar y los índices declarados.
+     * @param coleccion Colección cuyos índices se administran.
+     * @param indicesDeclarados Índices que deben existir en la colección.
+     */
+    public GestorIndices(MongoCollection<?> coleccion, List<IndexModel> indicesDeclarados) {
+        this(new OperacionesIndices() {
+            @Override
+            public Iterable<Document> listar() {return coleccion.listIndexes();}
+            @Override
+            public void crear(IndexModel indice) {coleccion.createIndex(indice.getKeys(), indice.getOptions());}
+        }, indicesDeclarados);
+    }
+    /**
+     * Constructor que recibe una colección del driver reactivo, usando los índices declarados
+     * para la colección de restaurantes. Cada operación espera a que el servidor responda,
+     * por lo que debe usarse solo durante el arranque.
+     * @param coleccion Colección reactiva cuyos índices se administran.
+     */
+    public GestorIndices(com.mongodb.reactivestreams.client.MongoCollection<?> coleccion) {
+        this(new OperacionesIndices() {
+            @Override
+            public Iterable<Document> listar() {return Flux.from(coleccion.listIndexes()).collectList().block();}
+            @Override
+            public void crear(IndexModel indice) {Mono.from(coleccion.createIndex(indice.getKeys(), indice.getOptions())).block();}
+        }, indicesRestaurantes());
+    }
+    /**
+     * Constructor que recibe las operaciones sobre la colección y los índices declarados.
+     * @param coleccion Operaciones de lectura y creación de índices.
+     * @param indicesDeclarados Índices que deben existir en la colección.
+     */
+    private GestorIndices(OperacionesIndices coleccion, List<IndexModel> indicesDeclarados) {
+        this.coleccion = coleccion;
+        this.indicesDeclarados = indicesDeclarados;
+    }
+    /**
+     * Operaciones sobre los índices de una colección, comunes a los drivers síncrono y reactivo.
+     */
+    private interface OperacionesIndices {
+        /**
+         * Lista los índices existentes.
+         * @return Descripción de cada índice.
+         */
+        Iterable<Document> listar();
+        /**
+         * Crea un índice.
+         * @param indice Índice a crear.
+         */
+        void crear(IndexModel indice);
+    }
+    /**
+     * Retorna los índices que necesitan las consultas de RestauranteBO:
+     * único sobre nombre, rating, fecha de inauguración y multillave sobre
+     * categorías y categorías normalizadas. Los índices de rating, fecha,
+     * categorías y categorías normalizadas terminan en _id para que las consultas paginadas,
+     * ordenadas por (llave, _id), recorran el índice sin ordenar en memoria (el de categorías
+     * sirve a la página de restaurantes sin categorías); las de nombre se ordenan solo por él,
+     * ya que es único. El de
+     * categorías normalizadas, rating descendente y nombre entrega los top N ya ordenados.
+     * El de rating incluye además el nombre, de modo que cubre los resúmenes por rating.
+     * El índice de texto, en español, permite buscar por nombre y categorías con raíces de palabras.
+     * El segundo índice sobre nombre, con colación que ignora mayúsculas y acentos, convierte las búsquedas por
+     * prefijo del autocompletado en recorridos de rango sobre el índice.
+     * El índice único y disperso sobre la clave de idempotencia resuelve los upserts por clave y
+     * admite cualquier cantidad de restaurantes sin clave.
+     * @return Lista de índices declarados.
+     */
+    public static List<IndexModel> indicesRestaurantes() {
+        return Arrays.asList(
+                new IndexModel(Indexes.ascending("nombre"), new IndexOptions().name("nombre_1").unique(true)),
+                new IndexModel(Indexes.ascending("rating", "_id", "nombre"), new IndexOptions().name("rating_1__id_1_nombre_1")),
+                new IndexModel(Indexes.ascending("fechaInauguracion", "_id"), new IndexOptions().name("fechaInauguracion_1__id_1")),
+                new IndexModel(Indexes.ascending("categorias", "_id"), new IndexOptions().name("categorias_1__id_1")),
+                new IndexModel(Indexes.ascending("categoriasNorm", "_id"), new IndexOptions().name("categoriasNorm_1__id_1")),
+                new IndexModel(Indexes.compoundIndex(Indexes.ascending("categoriasNorm"), Indexes.descending("rating"), Indexes.ascending("nombre")),
+                        new IndexOptions().name("categoriasNorm_1_rating_-1_nombre_1")),
+                new IndexModel(Indexes.ascending("nombre"), new IndexOptions().name(INDICE_NOMBRE_COLACION).collation(COLACION_NOMBRE)),
+                new IndexModel(Indexes.ascending("claveIdempotencia"), new IndexOptions().name("claveIdempotencia_1").unique(true).sparse(true)),
+                new IndexModel(Indexes.compoundIndex(Indexes.text("nombre"), Indexes.text("categorias")),
+                        new IndexOptions().name(INDICE_TEXTO).defaultLanguage("spanish")
+                                .weights(new Document("nombre", 10).append("categorias", 5)))
+        );
+    }
+    /**
+     * Compara los índices declarados con los existentes en el servidor, crea los
+     * que falten y reporta las diferencias encontradas en la bitácora. Un índice único que no
+     * existe como único al terminar (por ejemplo, porque ya hay nombres duplicados) detiene el
+     * arranque: sin la restricción, un upsert por su llave modificaría cualquiera de los duplicados.
+     * @return Lista con la descripción de cada diferencia encontrada.
+     * @throws PersistenciaException Si no es posible leer los índices existentes.
+     * @throws IllegalStateException Si falta algún índice único declarado.
+     */
+    public List<String> asegurarIndices() throws PersistenciaException {
+        // Lista de diferencias encontradas.
+        List<String> diferencias = new ArrayList<>();
+        // Índices existentes, indexados por su nombre.
+        Map<String, Document> existentes = new HashMap<>();
+        try {
+            for (Document indice : coleccion.listar())
+                existentes.put(indice.getString("name"), indice);
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+        existentes.remove(INDICE_ID);
+        // Índices únicos declarados que no quedaron como únicos en el servidor.
+        List<String> unicosFaltantes = new ArrayList<>();
+        // Compara cada índice declarado con su contraparte en el servidor.
+        for (IndexModel declarado : indicesDeclarados) {
+            String nombre = declarado.getOptions().getName();
+            Document existente = existentes.remove(nombre);
+            // Si no existe con el mismo nombre, se busca uno con las mismas llaves.
+            if (existente == null)
+                existente = removerPorLlaves(existentes, declarado);
+            boolean unico = declarado.getOptions().isUnique();
+            if (existente == null) {
+                if (!crearIndice(declarado, diferencias) && unico)
+                    unicosFaltantes.add(nombre);
+            } else {
+                compararIndice(declarado, existente, diferencias);
+                if (unico && !existente.getBoolean("unique", false))
+                    unicosFaltantes.add(nombre);
+            }
+        }
+        // Los índices restantes existen en el servidor pero no están declarados.
+        for (String sobrante : existentes.keySet())
+            diferencias.add("El índice " + sobrante + " existe en el servidor pero no está declarado.");
+        // Reporta las diferencias en la bitácora.
+        for (String diferencia : diferencias)
+            LOG.warning(diferencia);
+        // Sin sus índices únicos, la colección no garantiza las llaves de los upserts.
+        if (!unicosFaltantes.isEmpty()) {
+            String mensaje = "Faltan los índices únicos " + String.join(", ", unicosFaltantes)
+                    + ". Elimine los restaurantes duplicados y el índice existente que no es único, si lo hay, y reinicie la aplicación.";
+            LOG.severe(mensaje);
+            throw new IllegalStateException(mensaje);
+        }
+        return diferencias;
+    }
+    /**
+     * Crea un índice declarado que no existe en el servidor.
+     * @param declarado Índice a crear.
+     * @param diferencias Lista donde se registra la diferencia o el error.
+     * @return VERDADERO si el índice se creó, FALSO en caso contrario.
+     */
+    private boolean crearIndice(IndexModel declarado, List<String> diferencias) {
+        String nombre = declarado.getOptions().getName();
+        try {
+            coleccion.crear(declarado);
+            LOG.log(Level.INFO, "Índice {0} creado.", nombre);
+            return true;
+        } catch (Exception e) {
+            diferencias.add("No se pudo crear el índice " + nombre + ": " + e.getMessage());
+            return false;
+        }
+    }
+    /**
+     * Compara un índice declarado con el existente en el servidor.
+     * @param declarado Índice declarado.
+     * @param existente Índice existente en el servidor.
+     * @param diferencias Lista donde se registran las diferencias.
+     */
+    private void compararIndice(IndexModel declarado, Document existente, List<String> diferencias) {
+        String nombre = declarado.getOptions().getName();
+        IndexOptions opciones = declarado.getOptions();
+        // Nombre.
+        if (!nombre.equals(existente.getString("name")))
+            diferencias.add("El índice " + nombre + " existe con el nombre " + existente.getString("name") + ".");
+        // Llaves.
+        if (!llavesIguales(declarado, existente))
+            diferencias.add("El índice " + nombre + " tiene las llaves " + existente.get("key", Document.class).toJson()
+                    + " en lugar de " + llaves(declarado).toJson() + ".");
+        // Unicidad.
+        if (opciones.isUnique() != existente.getBoolean("unique", false))
+            diferencias.add("El índice " + nombre + " debería " + (opciones.isUnique() ? "" : "no ") + "ser único.");
+        // Dispersión.
+        if (opciones.isSparse() != existente.getBoolean("sparse", false))
+            diferencias.add("El índice " + nombre + " debería " + (opciones.isSparse() ? "" : "no ") + "ser disperso.");
+        // Idioma de los índices de texto.
+        if (opciones.getDefaultLanguage() != null && !opciones.getDefaultLanguage().equals(existente.getString("default_language")))
+            diferencias.add("El índice " + nombre + " tiene el idioma " + existente.getString("default_language")
+                    + " en lugar de " + opciones.getDefaultLanguage() + ".");
+        // Colación.
+        if (!colacionIgual(opciones, existente))
+            diferencias.add("El índice " + nombre + " tiene la colación " + descripcionColacion(existente)
+                    + " en lugar de " + (opciones.getCollation() == null ? "simple" : opciones.getCollation().asDocument().toJson()) + ".");
+    }
+    /**
+     * Indica si la colación del índice existente coincide, en idioma y fuerza, con la declarada.
+     * @param opciones Opciones del índice declarado.
+     * @param existente Índice existente en el servidor.
+     * @return VERDADERO si las colaciones coinciden, FALSO en caso contrario.
+     */
+    private boolean colacionIgual(IndexOptions opciones, Document existente) {
+        Collation declarada = opciones.getCollation();
+        Document colacion = existente.get("collation", Document.class);
+        // Sin colación, el servidor compara las cadenas byte a byte (idioma "simple").
+        if (declarada == null)
+            return colacion == null || "simple".equals(colacion.getString("locale"));
+        if (colacion == null || !declarada.getLocale().equals(colacion.getString("locale")))
+            return false;
+        // La fuerza por omisión del servidor es 3 (terciaria).
+        int fuerza = declarada.getStrength() == null ? 3 : declarada.getStrength().getIntRepresentation();
+        Number fuerzaServidor = colacion.get("strength", Number.class);
+        return fuerzaServidor != null && fuerzaServidor.intValue() == fuerza;
+    }
+    /**
+     * Describe la colación de un índice existente.
+     * @param existente Índice existente en el servidor.
+     * @return Colación en formato JSON, o "simple" si no tiene.
+     */
+    private String descripcionColacion(Document existente) {
+        Document colacion = existente.get("collation", Document.class);
+        return colacion == null ? "simple" : colacion.toJson();
+    }
+    /**
+     * Busca y remueve del mapa un índice existente con las mismas llaves y colación que el declarado.
+     * Un mismo patrón de llaves puede indexarse varias veces con distintas colaciones.
+     * @param existentes Índices existentes.
+     * @param declarado Índice declarado.
+     * @return El índice existente encontrado, o null si no existe.
+     */
+    private Document removerPorLlaves(Map<String, Document> existentes, IndexModel declarado) {
+        for (Map.Entry<String, Document> existente : existentes.entrySet()) {
+            if (llavesIguales(declarado, existente.getValue()) && colacionIgual(declarado.getOptions(), existente.getValue()))
+                return existentes.remove(existente.getKey());
+        }
+        return null;
+    }
+    /**
+     * Indica si las llaves del índice declarado coinciden con las del existente.
+     * @param declarado Índice declarado.
+     * @param existente Índice existente en el servidor.
+     * @return VERDADERO si las llaves coinciden, FALSO en caso contrario.
+     */
+    private boolean llavesIguales(IndexModel declarado, Document existente) {
+        Document llavesExistentes = existente.get("key", Document.class);
+        if (llavesExistentes == null)
+            return false;
+        BsonDocument llavesDeclaradas = llaves(declarado);
+        // El servidor describe los índices de texto con las llaves {_fts, _ftsx} y los campos en sus pesos.
+        if (llavesDeclaradas.containsValue(new BsonString(TEXTO)))
+            return llavesExistentes.containsKey("_fts") && existente.get("weights", Document.class) != null
+                    && camposTexto(llavesDeclaradas).equals(existente.get("weights", Document.class).keySet());
+        BsonDocument llavesServidor = BsonDocument.parse(llavesExistentes.toJson());
+        // Las llaves deben coincidir en nombre y en orden.
+        if (!new ArrayList<>(llavesDeclaradas.keySet()).equals(new ArrayList<>(llavesServidor.keySet())))
+            return false;
+        for (String campo : llavesDeclaradas.keySet()) {
+            BsonValue valorDeclarado = llavesDeclaradas.get(campo);
+            BsonValue valorServidor = llavesServidor.get(campo);
+            // Las direcciones numéricas se comparan por valor (1 y 1.0 son equivalentes).
+            if (valorDeclarado.isNumber() && valorServidor.isNumber()) {
+                if (valorDeclarado.asNumber().doubleValue() != valorServidor.asNumber().doubleValue())
+                    return false;
+            } else if (!valorDeclarado.equals(valorServidor))
+                return false;
+        }
+        return true;
+    }
+    /**
+     * Retorna los campos de texto de las llaves de un índice declarado.
+     * @param llaves Llaves del índice.
+     * @return Campos indexados como texto.
+     */
+    private Set<String> camposTexto(BsonDocument llaves) {
+        Set<String> campos = new HashSet<>();
+        for (Map.Entry<String, BsonValue> llave : llaves.entrySet()) {
+            if (new BsonString(TEXTO).equals(llave.getValue()))
+                campos.add(llave.getKey());
+        }
+        return campos;
+    }
+    /**
+     * Retorna las llaves de un índice declarado como documento BSON.
+     * @param declarado Índice declarado.
+     * @return Llaves del índice.
+     */
+    private BsonDocument llaves(IndexModel declarado) {
+        return declarado.getKeys().toBsonDocument();
+    }
+}
@@ -1,8 +1,12 @@
 package Persistencia;
 
 import Dominio.Restaurante;
+import com.mongodb.client.model.WriteModel;
 import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 /**
  *  Interfaz para la clase RestauranteDAO.
@@ -11,7 +15,7 @@ import org.bson.conversions.Bson;
  */
 public interface IRestauranteDAO {
     /**
-     * Inserta cinco restaurantes.
+     * Inserta los cinco restaurantes de ejemplo que aún no existen; los que ya existen se omiten.
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public void insertarRestaurantesPorDefecto() throws PersistenciaException;
@@ -27,6 +31,15 @@ public interface IRestauranteDAO {
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException;
+    /**
+     * Ejecuta un lote de operaciones de escritura en una sola petición no ordenada
+     * (bulkWrite), de modo que la falla de una operación no detiene a las demás.
+     * Las operaciones fallidas se reportan en el resultado, con su posición en el lote.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return El resultado del lote, con los conteos y los errores por operación.
+     * @throws PersistenciaException Si el lote no pudo ejecutarse (por ejemplo, por un error de red).
+     */
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException;
     /**
      * Consulta y devuelve todos los restaurantes almacenados en la base de datos.
      * @return Una lista de todas las entidades {@link Restaurante} encontradas.
@@ -41,6 +54,25 @@ public interface IRestauranteDAO {
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public List<Restaurante> consultar(Bson filtro) throws PersistenciaException;
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, leyendo solo los campos
+     * de la proyección; los demás atributos de cada entidad quedan en null. Si un índice contiene
+     * todos los campos del filtro y de la proyección, el servidor responde sin leer los documentos.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Una lista de entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException;
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, aplicando las opciones
+     * recibidas: proyección, orden, límite y tiempo máximo de ejecución en el servidor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia, incluido el exceso del tiempo máximo.
+     */
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException;
      /**
      * Consulta y devuelve una lista de restaurantes que coinciden con el filtro proporcionado y
      * ordenado con el orden recibido.Este método genérico permite realizar diversas consultas basadas en diferentes criterios.
@@ -59,6 +91,48 @@ public interface IRestauranteDAO {
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException;
+    /**
+     * Consulta y devuelve una lista de restaurantes que coinciden con el filtro proporcionado,
+     * ordenados con el orden recibido y limitados a la cantidad indicada.
+     * Es la base de las consultas paginadas por llave (keyset).
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException;
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado y los devuelve como un
+     * {@link Stream} respaldado por un cursor de MongoDB. Los documentos se solicitan al servidor
+     * en lotes del tamaño indicado conforme el flujo es consumido, por lo que nunca se materializa
+     * el resultado completo en memoria. El flujo debe cerrarse (por ejemplo, con try-with-resources)
+     * para liberar el cursor; su iterador ({@link Stream#iterator()}) puede usarse dentro del mismo bloque.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException;
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden
+     * recibido, y los devuelve como un {@link Stream} respaldado por un cursor de MongoDB.
+     * El flujo debe cerrarse para liberar el cursor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException;
+    /**
+     * Ejecuta un pipeline de agregación sobre la colección de restaurantes en el servidor,
+     * de modo que solo el resultado agregado viaja por la red.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Una lista con los documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException;
     /**
      * Actualiza un restaurante en la base de datos que coincide con el filtro,
      * aplicando las actualizaciones especificadas.
@@ -78,6 +152,27 @@ public interface IRestauranteDAO {
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public long actualizarConteo(Bson filtro, Bson actualizaciones) throws PersistenciaException;
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide,
+     * lo inserta (upsert), en una sola operación atómica. El filtro debe ser una igualdad sobre un
+     * campo con índice único (por ejemplo, el nombre o la clave de idempotencia), de modo que
+     * repetir la operación no crea duplicados.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return El ID del restaurante insertado, o null si ya existía y fue reemplazado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException;
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo
+     * a partir de las igualdades del filtro y de las actualizaciones (upsert). Los campos de
+     * {@code $setOnInsert} solo se escriben al insertar.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return El ID del restaurante insertado, o null si ya existía y fue actualizado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException;
     /**
      * Elimina uno o varios restaurantes de la base de datos que coinciden con el filtro proporcionado.
      * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
@@ -92,4 +187,13 @@ public interface IRestauranteDAO {
      * @throws PersistenciaException Excepción de la capa de Persistencia.
      */
     public long eliminarConteo(Bson filtro) throws PersistenciaException;
+    /**
+     * Rellena, en lotes, el campo de categorías normalizadas de los restaurantes
+     * existentes que tienen categorías pero aún no lo tienen. Es seguro ejecutarlo
+     * varias veces, ya que solo procesa los documentos pendientes.
+     * @param tamanoLote Cantidad de documentos leídos y actualizados por lote.
+     * @return La cantidad de restaurantes actualizados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException;
 }
@@ -0,0 +1,19 @@
+package Persistencia;
+
+/**
+ * Interfaz de los DAOs que pueden escuchar los cambios de la colección de restaurantes con un
+ * change stream. Está separada de {@link IRestauranteDAO} porque solo los DAOs sobre un servidor
+ * de MongoDB (en un replica set) pueden implementarla; el DAO en memoria y los decoradores no.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface IRestauranteDAOCambios {
+    /**
+     * Crea una escucha de cambios sobre la colección de restaurantes, que guarda su token
+     * de reanudación con el nombre recibido. La escucha se crea detenida; debe iniciarse
+     * después de registrar sus suscriptores.
+     * @param nombre Nombre de la escucha; cada nodo de la aplicación debe usar uno distinto.
+     * @return Escucha de cambios.
+     */
+    public EscuchaCambiosRestaurantes crearEscuchaCambios(String nombre);
+}
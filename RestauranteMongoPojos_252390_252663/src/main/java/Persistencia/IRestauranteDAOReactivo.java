@@ -0,0 +1,150 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import com.mongodb.client.model.WriteModel;
+import java.util.List;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+
+/**
+ * Interfaz para la clase RestauranteDAOReactivo. Cada operación retorna un {@link Publisher}
+ * que no hace nada hasta que alguien se suscribe; los errores se entregan al suscriptor
+ * como {@link PersistenciaException}.
+ * <p>
+ * Las consultas respetan la contrapresión (backpressure): el driver solicita al servidor
+ * solo los documentos que el suscriptor ha pedido, por lo que un consumidor lento no
+ * obliga a acumular el resultado completo en memoria.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface IRestauranteDAOReactivo {
+    /**
+     * Inserta los cinco restaurantes de ejemplo que aún no existen; los que ya existen se omiten.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    public Publisher<Void> insertarRestaurantesPorDefecto();
+    /**
+     * Inserta un nuevo restaurante en la base de datos.
+     * @param restaurante La entidad {@link Restaurante} a insertar.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    public Publisher<Void> insertar(Restaurante restaurante);
+    /**
+     * Inserta varios restaurantes en la base de datos de forma masiva.
+     * @param restaurantes Una lista de entidades {@link Restaurante} a insertar.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    public Publisher<Void> insertarVarios(List<Restaurante> restaurantes);
+    /**
+     * Ejecuta un lote de operaciones de escritura en una sola petición no ordenada
+     * (bulkWrite). Las operaciones fallidas se reportan en el resultado, con su posición en el lote.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return Publicador del resultado del lote, con los conteos y los errores por operación.
+     */
+    public Publisher<ResultadoLote> escribirLote(List<? extends WriteModel<Restaurante>> operaciones);
+    /**
+     * Consulta todos los restaurantes almacenados en la base de datos.
+     * @return Publicador de las entidades {@link Restaurante} encontradas.
+     */
+    public Publisher<Restaurante> consultarTodos();
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultar(Bson filtro);
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, leyendo solo los campos
+     * de la proyección; los demás atributos de cada entidad quedan en null.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Publicador de las entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultar(Bson filtro, Bson proyeccion);
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, aplicando las opciones
+     * recibidas: proyección, orden, límite y tiempo máximo de ejecución en el servidor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones);
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden recibido.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultarOrden(Bson filtro, Bson orden);
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultarLimite(Bson filtro, int limite);
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado,
+     * ordenados con el orden recibido y limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    public Publisher<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite);
+    /**
+     * Ejecuta un pipeline de agregación sobre la colección de restaurantes en el servidor.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Publicador de los documentos que produce el pipeline.
+     */
+    public Publisher<Document> agregar(List<? extends Bson> pipeline);
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador que indica si la operación fue confirmada por el servidor.
+     */
+    public Publisher<Boolean> actualizar(Bson filtro, Bson actualizaciones);
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador de la cantidad de registros actualizados.
+     */
+    public Publisher<Long> actualizarConteo(Bson filtro, Bson actualizaciones);
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide, lo inserta.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return Publicador del ID del restaurante insertado; termina vacío si ya existía y fue reemplazado.
+     */
+    public Publisher<ObjectId> upsert(Bson filtro, Restaurante restaurante);
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador del ID del restaurante insertado; termina vacío si ya existía y fue actualizado.
+     */
+    public Publisher<ObjectId> upsertActualizar(Bson filtro, Bson actualizaciones);
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return Publicador que indica si la operación fue confirmada por el servidor.
+     */
+    public Publisher<Boolean> eliminar(Bson filtro);
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return Publicador de la cantidad de registros eliminados.
+     */
+    public Publisher<Long> eliminarConteo(Bson filtro);
+    /**
+     * Rellena, en lotes, el campo de categorías normalizadas de los restaurantes
+     * existentes que tienen categorías pero aún no lo tienen.
+     * @param tamanoLote Cantidad de documentos leídos y actualizados por lote.
+     * @return Publicador de la cantidad de restaurantes actualizados.
+     */
+    public Publisher<Long> normalizarCategoriasExistentes(int tamanoLote);
+}
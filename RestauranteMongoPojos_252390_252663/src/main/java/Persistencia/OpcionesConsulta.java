@@ -0,0 +1,97 @@
+package Persistencia;
+
+import com.mongodb.client.model.Collation;
+import org.bson.conversions.Bson;
+
+/**
+ * Opciones de una consulta: proyección, orden, límite, colación y tiempo máximo de ejecución en el servidor.
+ * Los métodos de asignación retornan la misma instancia para encadenar llamadas.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class OpcionesConsulta {
+    // Campos a leer, o null para leer el documento completo.
+    private Bson proyeccion;
+    // Orden de los resultados, o null para el orden natural.
+    private Bson orden;
+    // Cantidad máxima de resultados; 0 indica sin límite.
+    private int limite;
+    // Tiempo máximo de ejecución en el servidor, en milisegundos; 0 indica sin límite.
+    private long tiempoMaximoMS;
+    // Colación con la que se comparan las cadenas, o null para la colación de la colección.
+    private Collation collation;
+    /**
+     * Establece los campos a leer.
+     * @param proyeccion Campos a leer, o null para leer el documento completo.
+     * @return Estas opciones.
+     */
+    public OpcionesConsulta proyeccion(Bson proyeccion) {
+        this.proyeccion = proyeccion;
+        return this;
+    }
+    /**
+     * Establece el orden de los resultados.
+     * @param orden Orden de los resultados, o null para el orden natural.
+     * @return Estas opciones.
+     */
+    public OpcionesConsulta orden(Bson orden) {
+        this.orden = orden;
+        return this;
+    }
+    /**
+     * Establece la cantidad máxima de resultados.
+     * @param limite Cantidad máxima de resultados; 0 indica sin límite.
+     * @return Estas opciones.
+     */
+    public OpcionesConsulta limite(int limite) {
+        this.limite = limite;
+        return this;
+    }
+    /**
+     * Establece el tiempo máximo de ejecución en el servidor (maxTimeMS). Si se excede,
+     * el servidor aborta la consulta y se lanza una {@link PersistenciaException} cuya causa
+     * es una {@link com.mongodb.MongoExecutionTimeoutException}.
+     * @param tiempoMaximoMS Tiempo máximo en milisegundos; 0 indica sin límite.
+     * @return Estas opciones.
+     */
+    public OpcionesConsulta tiempoMaximoMS(long tiempoMaximoMS) {
+        this.tiempoMaximoMS = tiempoMaximoMS;
+        return this;
+    }
+    /**
+     * Establece la colación con la que se comparan las cadenas del filtro y del orden.
+     * Para que la consulta use un índice sobre campos de texto, la colación debe ser la misma
+     * con la que se creó el índice.
+     * @param collation Colación a usar, o null para la colación de la colección.
+     * @return Estas opciones.
+     */
+    public OpcionesConsulta collation(Collation collation) {
+        this.collation = collation;
+        return this;
+    }
+    /**
+     * Retorna los campos a leer.
+     * @return Campos a leer, o null para leer el documento completo.
+     */
+    public Bson getProyeccion() {return proyeccion;}
+    /**
+     * Retorna el orden de los resultados.
+     * @return Orden de los resultados, o null para el orden natural.
+     */
+    public Bson getOrden() {return orden;}
+    /**
+     * Retorna la cantidad máxima de resultados.
+     * @return Cantidad máxima de resultados; 0 indica sin límite.
+     */
+    public int getLimite() {return limite;}
+    /**
+     * Retorna el tiempo máximo de ejecución en el servidor.
+     * @return Tiempo máximo en milisegundos; 0 indica sin límite.
+     */
+    public long getTiempoMaximoMS() {return tiempoMaximoMS;}
+    /**
+     * Retorna la colación de la consulta.
+     * @return Colación a usar, o null para la colación de la colección.
+     */
+    public Collation getCollation() {return collation;}
+}
@@ -0,0 +1,27 @@
+package Persistencia;
+
+import Conexion.ConfiguracionConexion;
+
+/**
+ * Proveedor de un backend del DAO de restaurantes, descubierto con {@link java.util.ServiceLoader}.
+ * Una implementación se registra en el archivo
+ * {@code META-INF/services/Persistencia.ProveedorDAO} de su jar, y se elige configurando
+ * {@value FabricaDAO#BACKEND} con su nombre.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface ProveedorDAO {
+    /**
+     * Retorna el nombre del backend, con el que se configura {@value FabricaDAO#BACKEND}.
+     * No debe coincidir con los backends incluidos ({@value FabricaDAO#SINCRONO},
+     * {@value FabricaDAO#REACTIVO} o {@value FabricaDAO#MEMORIA}).
+     * @return Nombre del backend.
+     */
+    public String nombre();
+    /**
+     * Crea el DAO del backend.
+     * @param configuracion Configuración cargada, para leer las opciones propias del backend.
+     * @return DAO de restaurantes.
+     */
+    public IRestauranteDAO crear(ConfiguracionConexion configuracion);
+}
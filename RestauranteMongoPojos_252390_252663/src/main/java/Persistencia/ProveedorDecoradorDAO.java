@@ -0,0 +1,26 @@
+package Persistencia;
+
+import Conexion.ConfiguracionConexion;
+
+/**
+ * Proveedor de un decorador del DAO de restaurantes, descubierto con {@link java.util.ServiceLoader}.
+ * Una implementación se registra en el archivo
+ * {@code META-INF/services/Persistencia.ProveedorDecoradorDAO} de su jar, y se aplica
+ * agregando su nombre a la lista {@value FabricaDAO#DECORADORES}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public interface ProveedorDecoradorDAO {
+    /**
+     * Retorna el nombre del decorador, con el que se agrega a {@value FabricaDAO#DECORADORES}.
+     * @return Nombre del decorador.
+     */
+    public String nombre();
+    /**
+     * Envuelve un DAO con el decorador.
+     * @param dao DAO a envolver; puede ser el backend o un decorador anterior de la lista.
+     * @param configuracion Configuración cargada, para leer las opciones propias del decorador.
+     * @return DAO decorado.
+     */
+    public IRestauranteDAO decorar(IRestauranteDAO dao, ConfiguracionConexion configuracion);
+}
@@ -1,38 +1,112 @@
 package Persistencia;
 
 import Conexion.Conexion;
+import Dominio.Normalizador;
 import Dominio.Restaurante;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import com.mongodb.client.*;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
 import java.util.*;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import java.time.LocalDate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bson.Document;
+import org.bson.BsonValue;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 /**
  * Clase para operaciones CRUD con la BD de Restaurantes.
  * @author Leonardo Flores Leyva (252390)
  * @author Jesús Ernesto López Ibarra (252663)
  */
-public class RestauranteDAO implements IRestauranteDAO {
+public class RestauranteDAO implements IRestauranteDAO, IRestauranteDAOCambios {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(RestauranteDAO.class.getName());
     // Colección de restaurantes.
     private final MongoCollection<Restaurante> restauranteCollection;
 
     /**
      * Constructor de la clase {@code RestauranteDAO}.Inicializa la conexión a la colección "restaurantes"
      * dentro de la base de datos especificada en MongoDB, directamente
-     * mapeada a la entidad {@link Restaurante}.
+     * mapeada a la entidad {@link Restaurante}, y asegura que existan sus índices.
+     * @throws IllegalStateException Si no se pudo crear algún índice único.
      */
     public RestauranteDAO() {
-        MongoDatabase database = Conexion.getDatabase();
-        this.restauranteCollection = database.getCollection("restaurantes", Restaurante.class);
+        this(Conexion.getColeccionRestaurantes());
     }
     /**
-     * Inserta cinco restaurantes.
-     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     * Constructor que recibe la colección de restaurantes, por ejemplo, con otra preferencia de
+     * lectura o nivel de confirmación de escritura, y asegura que existan sus índices.
+     * @param restauranteCollection Colección de restaurantes, mapeada a la entidad {@link Restaurante}.
+     * @throws IllegalStateException Si no se pudo crear algún índice único.
+     */
+    public RestauranteDAO(MongoCollection<Restaurante> restauranteCollection) {
+        this.restauranteCollection = restauranteCollection;
+        // Crea los índices faltantes y reporta las diferencias con los declarados.
+        try {
+            new GestorIndices(restauranteCollection).asegurarIndices();
+        } catch (PersistenciaException e) {
+            LOG.log(Level.WARNING, "No fue posible verificar los índices de la colección restaurantes.", e);
+        }
+    }
+    /**
+     * Inserta los cinco restaurantes de ejemplo que aún no existen. Se envían en una escritura no
+     * ordenada y los que ya existen (de una ejecución anterior) fallan por el índice único de
+     * nombre y se omiten, por lo que es seguro ejecutarlo varias veces.
+     * @throws PersistenciaException Si alguna inserción falla por otro motivo.
      */
     @Override
     public void insertarRestaurantesPorDefecto() throws PersistenciaException{
+        // Inserta los restaurantes de ejemplo que no existen, omitiendo los duplicados.
+        verificarInsercionPorDefecto(escribirLote(insercionesPorDefecto()));
+    }
+
+    /**
+     * Crea las inserciones de los cinco restaurantes de ejemplo.
+     * @return Inserciones de los restaurantes de ejemplo.
+     */
+    static List<InsertOneModel<Restaurante>> insercionesPorDefecto() {
+        List<InsertOneModel<Restaurante>> inserciones = new ArrayList<>();
+        for (Restaurante restaurante : restaurantesPorDefecto())
+            inserciones.add(new InsertOneModel<>(restaurante));
+        return inserciones;
+    }
+
+    /**
+     * Revisa el resultado de insertar los restaurantes de ejemplo: los duplicados se omiten.
+     * @param resultado Resultado de la escritura.
+     * @throws PersistenciaException Si alguna inserción falló por un motivo distinto a un duplicado.
+     */
+    static void verificarInsercionPorDefecto(ResultadoLote resultado) throws PersistenciaException {
+        for (ErrorEscritura error : resultado.getErrores()) {
+            if (!error.esDuplicado())
+                throw new PersistenciaException(error.getMensaje());
+        }
+    }
+
+    /**
+     * Crea los cinco restaurantes de ejemplo.
+     * @return Lista de restaurantes de ejemplo.
+     */
+    static List<Restaurante> restaurantesPorDefecto() {
         // Primer restaurante de ejemplo
         Restaurante restaurante1 = new Restaurante();
         restaurante1.setNombre("Mariscos El Berna");
@@ -62,10 +136,7 @@ public class RestauranteDAO implements IRestauranteDAO {
         restaurante5.setRating(3.5);
         restaurante5.setFechaInauguracion(LocalDate.of(2025, 11, 12));
         // Lista de restaurantes a insertar.
-        List<Restaurante> restaurantesPorDefecto = Arrays.asList(restaurante1, restaurante2, restaurante3, restaurante4, restaurante5);
-        // Llama al mismo método de esta clase para insertar la lista de nuevos restaurantes.
-        insertarVarios(restaurantesPorDefecto);
-        
+        return Arrays.asList(restaurante1, restaurante2, restaurante3, restaurante4, restaurante5);
     }
     
     /**
@@ -76,6 +147,7 @@ public class RestauranteDAO implements IRestauranteDAO {
     @Override
     public void insertar(Restaurante restaurante) throws PersistenciaException {
         try {
+            normalizarCategorias(restaurante);
             restauranteCollection.insertOne(restaurante);
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
@@ -88,10 +160,72 @@ public class RestauranteDAO implements IRestauranteDAO {
     @Override
     public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException {
         try {
+            for (Restaurante restaurante : restaurantes)
+                normalizarCategorias(restaurante);
             restauranteCollection.insertMany(restaurantes);
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
 
+    /**
+     * Ejecuta un lote de operaciones de escritura en una sola petición no ordenada
+     * (bulkWrite), de modo que la falla de una operación no detiene a las demás.
+     * Las operaciones fallidas se reportan en el resultado, con su posición en el lote.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return El resultado del lote, con los conteos y los errores por operación.
+     * @throws PersistenciaException Si el lote no pudo ejecutarse (por ejemplo, por un error de red).
+     */
+    @Override
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException {
+        // Sincroniza las categorías normalizadas de los restaurantes que se escriben completos.
+        for (WriteModel<Restaurante> operacion : operaciones) {
+            if (operacion instanceof InsertOneModel<Restaurante> insercion)
+                normalizarCategorias(insercion.getDocument());
+            else if (operacion instanceof ReplaceOneModel<Restaurante> reemplazo)
+                normalizarCategorias(reemplazo.getReplacement());
+        }
+        try {
+            BulkWriteResult resultado = restauranteCollection.bulkWrite(operaciones, new BulkWriteOptions().ordered(false));
+            return resultadoLote(resultado, new ArrayList<>());
+        } catch (MongoBulkWriteException e) {
+            // Algunas operaciones fallaron: se reportan junto con el resultado de las demás.
+            return resultadoLote(e);
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+
+    /**
+     * Convierte un bulkWrite con operaciones fallidas en un {@link ResultadoLote}.
+     * @param excepcion Excepción del bulkWrite, con el resultado parcial y los errores.
+     * @return Resultado del lote.
+     */
+    static ResultadoLote resultadoLote(MongoBulkWriteException excepcion) {
+        List<ErrorEscritura> errores = new ArrayList<>(excepcion.getWriteErrors().size());
+        for (BulkWriteError error : excepcion.getWriteErrors())
+            errores.add(new ErrorEscritura(error.getIndex(), error.getCode(), error.getMessage()));
+        return resultadoLote(excepcion.getWriteResult(), errores);
+    }
+
+    /**
+     * Convierte el resultado de un bulkWrite en un {@link ResultadoLote}.
+     * @param resultado Resultado del bulkWrite.
+     * @param errores Errores de las operaciones fallidas.
+     * @return Resultado del lote.
+     */
+    static ResultadoLote resultadoLote(BulkWriteResult resultado, List<ErrorEscritura> errores) {
+        // IDs generados por el servidor para los upserts que no encontraron documento.
+        Map<Integer, ObjectId> idsUpsert = new HashMap<>();
+        for (BulkWriteUpsert upsert : resultado.getUpserts()) {
+            if (upsert.getId().isObjectId())
+                idsUpsert.put(upsert.getIndex(), upsert.getId().asObjectId().getValue());
+        }
+        return new ResultadoLote(
+                resultado.getInsertedCount(),
+                resultado.getMatchedCount(),
+                resultado.getModifiedCount(),
+                resultado.getDeletedCount(),
+                idsUpsert,
+                errores);
+    }
+
     /**
      * Consulta y devuelve todos los restaurantes almacenados en la base de datos.
      * @return Una lista de todas las entidades {@link Restaurante} encontradas.
@@ -114,7 +248,46 @@ public class RestauranteDAO implements IRestauranteDAO {
     @Override
     public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
         try {
-            return restauranteCollection.find(filtro).into(new ArrayList<>());
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, leyendo solo los campos
+     * de la proyección; los demás atributos de cada entidad quedan en null.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Una lista de entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        try {
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).projection(proyeccion);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, aplicando las opciones
+     * recibidas: proyección, orden, límite, colación y tiempo máximo de ejecución en el servidor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia, incluido el exceso del tiempo máximo.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        try {
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro)
+                    .projection(opciones.getProyeccion())
+                    .sort(opciones.getOrden())
+                    .limit(opciones.getLimite())
+                    .collation(opciones.getCollation())
+                    .maxTime(opciones.getTiempoMaximoMS(), TimeUnit.MILLISECONDS);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>());
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
     /**
@@ -128,7 +301,9 @@ public class RestauranteDAO implements IRestauranteDAO {
     @Override
     public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException{
         try {
-            return restauranteCollection.find(filtro).sort(orden).into(new ArrayList<>());
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).sort(orden);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>());
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
     
@@ -143,7 +318,90 @@ public class RestauranteDAO implements IRestauranteDAO {
     @Override
     public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException{
         try {
-            return restauranteCollection.find(filtro).limit(limite).into(new ArrayList<>());
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).limit(limite);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+
+    /**
+     * Consulta y devuelve una lista de restaurantes que coinciden con el filtro proporcionado,
+     * ordenados con el orden recibido y limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException{
+        try {
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).sort(orden).limit(limite);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return consulta.into(new ArrayList<>(limite));
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado y los devuelve como un
+     * {@link Stream} respaldado por un cursor de MongoDB. El flujo debe cerrarse para liberar el cursor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        try {
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).batchSize(tamanoLote);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return abrirStream(consulta);
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden
+     * recibido, y los devuelve como un {@link Stream} respaldado por un cursor de MongoDB.
+     * El flujo debe cerrarse para liberar el cursor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        try {
+            FindIterable<Restaurante> consulta = restauranteCollection.find(filtro).sort(orden).batchSize(tamanoLote);
+            VerificadorPlanes.verificar(consulta, filtro);
+            return abrirStream(consulta);
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+
+    /**
+     * Abre el cursor de la consulta recibida y lo envuelve en un {@link Stream} secuencial.
+     * Al cerrar el flujo se cierra también el cursor en el servidor.
+     * @param consulta Consulta a ejecutar.
+     * @return Flujo de entidades {@link Restaurante} respaldado por el cursor.
+     */
+    private Stream<Restaurante> abrirStream(FindIterable<Restaurante> consulta) {
+        MongoCursor<Restaurante> cursor = consulta.cursor();
+        Spliterator<Restaurante> spliterator = Spliterators.spliteratorUnknownSize(
+                cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+    
+    /**
+     * Ejecuta un pipeline de agregación sobre la colección de restaurantes en el servidor.
+     * Se permite usar disco para las etapas que agrupan u ordenan muchos documentos.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Una lista con los documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        try {
+            return restauranteCollection.aggregate(pipeline, Document.class).allowDiskUse(true).into(new ArrayList<>());
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
     
@@ -178,6 +436,42 @@ public class RestauranteDAO implements IRestauranteDAO {
             return insercion.getModifiedCount();
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide, lo inserta.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return El ID del restaurante insertado, o null si ya existía y fue reemplazado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException {
+        // Sincroniza las categorías normalizadas con las categorías del restaurante.
+        normalizarCategorias(restaurante);
+        try {
+            return idUpsert(restauranteCollection.replaceOne(filtro, restaurante, new ReplaceOptions().upsert(true)).getUpsertedId());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return El ID del restaurante insertado, o null si ya existía y fue actualizado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        try {
+            return idUpsert(restauranteCollection.updateOne(filtro, actualizaciones, new UpdateOptions().upsert(true)).getUpsertedId());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Convierte el ID insertado por un upsert en un ObjectId.
+     * @param id ID insertado, o null si el upsert encontró un documento.
+     * @return ObjectId insertado, o null si no hubo inserción.
+     */
+    static ObjectId idUpsert(BsonValue id) {
+        return id != null && id.isObjectId() ? id.asObjectId().getValue() : null;
+    }
     
     /**
      * Elimina uno o varios restaurantes de la base de datos que coinciden con el filtro proporcionado.
@@ -206,4 +500,90 @@ public class RestauranteDAO implements IRestauranteDAO {
             return eliminacion.getDeletedCount();
         } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
     }
-}
\ No newline at end of file
+
+    /**
+     * Rellena, en lotes, el campo de categorías normalizadas de los restaurantes
+     * existentes que tienen categorías pero aún no lo tienen. Es seguro ejecutarlo
+     * varias veces, ya que solo procesa los documentos pendientes. Un documento con
+     * categorías que no son texto no detiene la migración: solo se normalizan las de texto.
+     * @param tamanoLote Cantidad de documentos leídos y actualizados por lote.
+     * @return La cantidad de restaurantes actualizados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException {
+        // Colección sin mapear, para leer solo el _id y las categorías.
+        MongoCollection<Document> documentos = restauranteCollection.withDocumentClass(Document.class);
+        // Filtro para obtener restaurantes con categorías pero sin categorías normalizadas.
+        Bson pendientes = Filters.and(Filters.exists("categorias", true), Filters.exists("categoriasNorm", false));
+        // Lote de actualizaciones pendientes de enviar.
+        List<UpdateOneModel<Document>> lote = new ArrayList<>(tamanoLote);
+        long actualizados = 0;
+        try (MongoCursor<Document> cursor = documentos.find(pendientes)
+                .projection(Projections.include("categorias"))
+                .batchSize(tamanoLote)
+                .cursor()) {
+            while (cursor.hasNext()) {
+                Document documento = cursor.next();
+                // Se ignoran los documentos cuyas categorías no son una lista.
+                if (!(documento.get("categorias") instanceof List<?>))
+                    continue;
+                lote.add(new UpdateOneModel<>(
+                        Filters.eq("_id", documento.get("_id")),
+                        Updates.set("categoriasNorm", normalizarCategoriasLeidas(documento.get("_id"), (List<?>) documento.get("categorias")))));
+                // Envía el lote cuando se llena.
+                if (lote.size() == tamanoLote) {
+                    actualizados += documentos.bulkWrite(lote, new BulkWriteOptions().ordered(false)).getModifiedCount();
+                    lote.clear();
+                }
+            }
+            // Envía el último lote incompleto.
+            if (!lote.isEmpty())
+                actualizados += documentos.bulkWrite(lote, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+        return actualizados;
+    }
+
+    /**
+     * Crea una escucha de cambios sobre la colección de restaurantes, que guarda su token
+     * de reanudación en la colección {@value AlmacenTokenReanudacion#COLECCION} con el nombre recibido.
+     * @param nombre Nombre de la escucha; cada nodo de la aplicación debe usar uno distinto.
+     * @return Escucha de cambios, detenida.
+     */
+    @Override
+    public EscuchaCambiosRestaurantes crearEscuchaCambios(String nombre) {
+        AlmacenTokenReanudacion almacen = new AlmacenTokenReanudacion(
+                Conexion.getDatabase().getCollection(AlmacenTokenReanudacion.COLECCION), nombre);
+        return new EscuchaCambiosRestaurantes(restauranteCollection, almacen);
+    }
+
+    /**
+     * Sincroniza las categorías normalizadas de un restaurante con sus categorías,
+     * antes de escribirlo en la base de datos.
+     * @param restaurante Restaurante a sincronizar.
+     */
+    static void normalizarCategorias(Restaurante restaurante) {
+        restaurante.setCategoriasNorm(Normalizador.normalizar(restaurante.getCategorias()));
+    }
+
+    /**
+     * Normaliza las categorías leídas de un documento sin mapear. Los elementos que no son
+     * texto (datos anteriores a la validación) no se normalizan, y se reporta el documento.
+     * @param id ID del documento, para el reporte.
+     * @param categorias Categorías del documento, de cualquier tipo.
+     * @return Categorías de texto normalizadas.
+     */
+    static List<String> normalizarCategoriasLeidas(Object id, List<?> categorias) {
+        List<String> textos = new ArrayList<>(categorias.size());
+        boolean ignoradas = false;
+        for (Object categoria : categorias) {
+            if (categoria instanceof String texto)
+                textos.add(texto);
+            else if (categoria != null)
+                ignoradas = true;
+        }
+        if (ignoradas)
+            LOG.log(Level.WARNING, "El restaurante {0} tiene categorías que no son texto; solo se normalizan las de texto.", id);
+        return Normalizador.normalizar(textos);
+    }
+}
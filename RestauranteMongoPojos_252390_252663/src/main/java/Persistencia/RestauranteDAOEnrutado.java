@@ -0,0 +1,150 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Decorador que separa lecturas y escrituras: las escrituras (y las escuchas de cambios) van al
+ * DAO envuelto, y las consultas y agregaciones, al DAO de lecturas. Permite, por ejemplo, leer de
+ * los secundarios con un {@link RestauranteDAO} sobre la colección con otra preferencia de lectura,
+ * o servir las lecturas desde una réplica en memoria ({@link RestauranteDAOMemoria}) alimentada
+ * por una escucha de cambios.
+ * <p>
+ * Las lecturas pueden no ver de inmediato las escrituras propias si el DAO de lecturas se replica
+ * con retraso; las operaciones que necesitan leer lo que acaban de escribir deben usar el DAO de
+ * escrituras directamente.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOEnrutado extends DecoradorDAO {
+    // DAO que atiende las lecturas.
+    private final IRestauranteDAO lecturas;
+    /**
+     * Constructor que recibe el DAO de escrituras y el de lecturas.
+     * @param escrituras DAO que atiende las escrituras.
+     * @param lecturas DAO que atiende las lecturas.
+     * @throws IllegalArgumentException Si alguno de los DAO es null.
+     */
+    public RestauranteDAOEnrutado(IRestauranteDAO escrituras, IRestauranteDAO lecturas) {
+        super(escrituras);
+        if (lecturas == null)
+            throw new IllegalArgumentException("El DAO de lecturas no puede ser null.");
+        this.lecturas = lecturas;
+    }
+    /**
+     * Retorna el DAO que atiende las lecturas.
+     * @return DAO de lecturas.
+     */
+    public IRestauranteDAO getLecturas() {return lecturas;}
+    /**
+     * Consulta todos los restaurantes en el DAO de lecturas.
+     * @return Restaurantes.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return lecturas.consultarTodos();
+    }
+    /**
+     * Consulta con filtro en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return lecturas.consultar(filtro);
+    }
+    /**
+     * Consulta con filtro y proyección en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param proyeccion Campos a leer.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return lecturas.consultar(filtro, proyeccion);
+    }
+    /**
+     * Consulta con filtro y opciones en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        return lecturas.consultar(filtro, opciones);
+    }
+    /**
+     * Consulta ordenada en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return lecturas.consultarOrden(filtro, orden);
+    }
+    /**
+     * Consulta limitada en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return lecturas.consultarLimite(filtro, limite);
+    }
+    /**
+     * Consulta ordenada y limitada en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return lecturas.consultarOrdenLimite(filtro, orden, limite);
+    }
+    /**
+     * Consulta como flujo en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return lecturas.consultarStream(filtro, tamanoLote);
+    }
+    /**
+     * Consulta ordenada como flujo en el DAO de lecturas.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return lecturas.consultarOrdenStream(filtro, orden, tamanoLote);
+    }
+    /**
+     * Ejecuta un pipeline de agregación en el DAO de lecturas.
+     * @param pipeline Etapas del pipeline.
+     * @return Documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción del DAO de lecturas.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        return lecturas.agregar(pipeline);
+    }
+}
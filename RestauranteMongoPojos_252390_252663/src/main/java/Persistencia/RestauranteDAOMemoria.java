@@ -0,0 +1,959 @@
+package Persistencia;
+
+import Conexion.RestauranteCodec;
+import Dominio.Restaurante;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Implementación en memoria de {@link IRestauranteDAO}, sin conexión a MongoDB. Permite ejecutar
+ * RestauranteBO sin servidor (pruebas de carga de la lógica de negocio, demostraciones) y servir
+ * lecturas desde el mismo proceso.
+ * <p>
+ * Cada restaurante se guarda como el documento BSON que escribiría {@link RestauranteCodec}, y los
+ * filtros, órdenes, actualizaciones, proyecciones y pipelines se evalúan sobre él con
+ * {@link EvaluadorBson} y {@link AgregacionMemoria}, con la misma semántica que el servidor. Las
+ * lecturas regresan copias, por lo que modificarlas no afecta a los documentos guardados.
+ * <p>
+ * Igual que los índices de {@link GestorIndices}, el DAO mantiene estructuras secundarias: un
+ * índice hash único sobre nombre y otro, único y disperso, sobre la clave de idempotencia; árboles
+ * ordenados sobre rating y fecha de inauguración; y listas invertidas sobre las categorías
+ * normalizadas, el campo por el que consulta RestauranteBO. Cada consulta usa la estructura que
+ * entrega menos candidatos para las condiciones de igualdad o rango del filtro (incluidas las de
+ * $and) y evalúa el filtro completo solo sobre ellos; si ninguna aplica, recorre la colección.
+ * <p>
+ * Las lecturas se ejecutan en paralelo y las escrituras de forma exclusiva (ReentrantReadWriteLock);
+ * un lote de escritura es atómico respecto a las lecturas. No hay change streams.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOMemoria implements IRestauranteDAO {
+    // Códigos de error de MongoDB que reporta el DAO: llave duplicada, valor inválido y tiempo excedido.
+    private static final int LLAVE_DUPLICADA = 11000;
+    private static final int VALOR_INVALIDO = 2;
+    private static final int TIEMPO_EXCEDIDO = 50;
+    // Cada cuántos documentos revisados se verifica el tiempo máximo de una consulta.
+    private static final int REVISION_TIEMPO = 1_024;
+    // Registro de codecs para convertir filtros, órdenes y actualizaciones a BsonDocument.
+    private static final CodecRegistry REGISTRO = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new RestauranteCodec()),
+            MongoClientSettings.getDefaultCodecRegistry());
+    // Codecs de los restaurantes y de los documentos de las agregaciones.
+    private static final RestauranteCodec CODEC = new RestauranteCodec();
+    private static final DocumentCodec CODEC_DOCUMENTO = new DocumentCodec(REGISTRO);
+    // Contextos de codificación y decodificación reutilizados.
+    private static final EncoderContext CONTEXTO_CODIFICACION = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+    private static final DecoderContext CONTEXTO_DECODIFICACION = DecoderContext.builder().build();
+    // Candado de lectura y escritura.
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    // Documentos por ID, en orden de inserción (el orden natural de la colección).
+    private final Map<ObjectId, BsonDocument> documentos = new LinkedHashMap<>();
+    // Índices únicos: nombre (un documento sin nombre cuenta como null) y clave de idempotencia (disperso).
+    private final Map<BsonValue, ObjectId> porNombre = new HashMap<>();
+    private final Map<BsonValue, ObjectId> porClave = new HashMap<>();
+    // Índices ordenados de rating y de fecha de inauguración (en milisegundos); multillave si el campo es un arreglo.
+    private final NavigableMap<Double, Set<ObjectId>> porRating = new TreeMap<>();
+    private final NavigableMap<Long, Set<ObjectId>> porFecha = new TreeMap<>();
+    // Listas invertidas de las categorías normalizadas.
+    private final Map<String, Set<ObjectId>> porCategoria = new HashMap<>();
+    /**
+     * Error de escritura de un documento, con el código de error que reportaría el servidor.
+     * Nunca se serializa: se lanza y se atrapa dentro de una misma escritura.
+     */
+    @SuppressWarnings("serial")
+    private static final class ErrorDocumento extends RuntimeException {
+        // Código de error.
+        private final int codigo;
+        /**
+         * Constructor que recibe el código y el mensaje del error.
+         * @param codigo Código de error.
+         * @param mensaje Mensaje del error.
+         */
+        ErrorDocumento(int codigo, String mensaje) {
+            super(mensaje, null, false, false);
+            this.codigo = codigo;
+        }
+    }
+    /**
+     * Resultado de una actualización, reemplazo o upsert.
+     * @param coincidencias Documentos que cumplieron el filtro.
+     * @param modificados Documentos que cambiaron.
+     * @param idInsertado ID del documento insertado por un upsert, o null.
+     */
+    private record ResultadoEscritura(int coincidencias, int modificados, ObjectId idInsertado) {}
+    /**
+     * Constructor por defecto. Crea el DAO sin restaurantes.
+     */
+    public RestauranteDAOMemoria() {}
+    /**
+     * Inserta los cinco restaurantes de ejemplo que aún no existen, omitiendo los que
+     * ya existen por nombre; es seguro ejecutarlo varias veces.
+     * @throws PersistenciaException Si alguna inserción falla por otro motivo.
+     */
+    @Override
+    public void insertarRestaurantesPorDefecto() throws PersistenciaException {
+        // Inserta los restaurantes de ejemplo que no existen, omitiendo los duplicados.
+        RestauranteDAO.verificarInsercionPorDefecto(escribirLote(RestauranteDAO.insercionesPorDefecto()));
+    }
+    /**
+     * Inserta un nuevo restaurante, asignándole un ID si no tiene.
+     * @param restaurante La entidad {@link Restaurante} a insertar.
+     * @throws PersistenciaException Si viola un índice único.
+     */
+    @Override
+    public void insertar(Restaurante restaurante) throws PersistenciaException {
+        insertarVarios(List.of(restaurante));
+    }
+    /**
+     * Inserta varios restaurantes en orden, como insertMany: se detiene en el primero que falla,
+     * y los anteriores quedan insertados.
+     * @param restaurantes Una lista de entidades {@link Restaurante} a insertar.
+     * @throws PersistenciaException Si alguno viola un índice único.
+     */
+    @Override
+    public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException {
+        Lock escritura = candado.writeLock();
+        escritura.lock();
+        try {
+            for (Restaurante restaurante : restaurantes)
+                insertarDocumento(restaurante);
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    /**
+     * Ejecuta un lote de operaciones de escritura sin orden: la falla de una operación no detiene
+     * a las demás y se reporta en el resultado con su posición, como en bulkWrite. Soporta
+     * inserciones, reemplazos, actualizaciones (de uno o varios, con o sin upsert) y eliminaciones.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return El resultado del lote, con los conteos, los IDs de los upserts y los errores por operación.
+     * @throws PersistenciaException No se lanza; se declara por la interfaz.
+     */
+    @Override
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException {
+        int insertados = 0;
+        int coincidencias = 0;
+        int modificados = 0;
+        int eliminados = 0;
+        Map<Integer, ObjectId> idsUpsert = new HashMap<>();
+        List<ErrorEscritura> errores = new ArrayList<>();
+        Lock escritura = candado.writeLock();
+        escritura.lock();
+        try {
+            for (int i = 0; i < operaciones.size(); i++) {
+                WriteModel<Restaurante> operacion = operaciones.get(i);
+                try {
+                    ResultadoEscritura resultado = null;
+                    if (operacion instanceof InsertOneModel<Restaurante> insercion) {
+                        insertarDocumento(insercion.getDocument());
+                        insertados++;
+                    } else if (operacion instanceof ReplaceOneModel<Restaurante> reemplazo) {
+                        resultado = reemplazarDocumento(bson(reemplazo.getFilter()), reemplazo.getReplacement(),
+                                reemplazo.getReplaceOptions().isUpsert());
+                    } else if (operacion instanceof UpdateOneModel<Restaurante> actualizacion) {
+                        resultado = actualizarDocumentos(bson(actualizacion.getFilter()), actualizacion(actualizacion.getUpdate()),
+                                false, actualizacion.getOptions().isUpsert());
+                    } else if (operacion instanceof UpdateManyModel<Restaurante> actualizacion) {
+                        resultado = actualizarDocumentos(bson(actualizacion.getFilter()), actualizacion(actualizacion.getUpdate()),
+                                true, actualizacion.getOptions().isUpsert());
+                    } else if (operacion instanceof DeleteOneModel<Restaurante> eliminacion) {
+                        eliminados += eliminarDocumentos(bson(eliminacion.getFilter()), false);
+                    } else if (operacion instanceof DeleteManyModel<Restaurante> eliminacion) {
+                        eliminados += eliminarDocumentos(bson(eliminacion.getFilter()), true);
+                    } else {
+                        throw new IllegalArgumentException("Operación de escritura no soportada en memoria: " + operacion);
+                    }
+                    if (resultado != null) {
+                        coincidencias += resultado.coincidencias();
+                        modificados += resultado.modificados();
+                        if (resultado.idInsertado() != null)
+                            idsUpsert.put(i, resultado.idInsertado());
+                    }
+                } catch (ErrorDocumento e) {
+                    errores.add(new ErrorEscritura(i, e.codigo, e.getMessage()));
+                } catch (RuntimeException e) {
+                    errores.add(new ErrorEscritura(i, VALOR_INVALIDO, e.getMessage()));
+                }
+            }
+        } finally {
+            escritura.unlock();
+        }
+        return new ResultadoLote(insertados, coincidencias, modificados, eliminados, idsUpsert, errores);
+    }
+    /**
+     * Consulta todos los restaurantes, en orden de inserción.
+     * @return Una lista de todas las entidades {@link Restaurante}.
+     * @throws PersistenciaException No se lanza; se declara por la interfaz.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return consultar(null, new OpcionesConsulta());
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return consultar(filtro, new OpcionesConsulta());
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, leyendo solo los campos de la proyección.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Una lista de entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return consultar(filtro, new OpcionesConsulta().proyeccion(proyeccion));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, aplicando proyección, orden, límite,
+     * colación y tiempo máximo de ejecución.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado o se excede el tiempo
+     * máximo; en ese caso la causa es una {@link MongoExecutionTimeoutException}, como con el servidor.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        try {
+            return buscar(filtro, opciones.getProyeccion(), opciones.getOrden(), opciones.getLimite(),
+                    opciones.getCollation(), opciones.getTiempoMaximoMS());
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, ordenados.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro o el orden no son soportados.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return consultar(filtro, new OpcionesConsulta().orden(orden));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return consultar(filtro, new OpcionesConsulta().limite(limite));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, ordenados y limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro o el orden no son soportados.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return consultar(filtro, new OpcionesConsulta().orden(orden).limite(limite));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro como un {@link Stream}. El resultado se
+     * lee completo al llamar al método, por lo que el tamaño de lote no aplica.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param tamanoLote Ignorado.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return consultar(filtro).stream();
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro, ordenados, como un {@link Stream}.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param tamanoLote Ignorado.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Si el filtro o el orden no son soportados.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return consultarOrden(filtro, orden).stream();
+    }
+    /**
+     * Ejecuta un pipeline de agregación con las etapas soportadas por {@link AgregacionMemoria}.
+     * Si la primera etapa es un $match, sus candidatos se obtienen con los índices.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Una lista con los documentos que produce el pipeline.
+     * @throws PersistenciaException Si el pipeline usa una etapa u operador no soportado.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        try {
+            List<BsonDocument> etapas = new ArrayList<>(pipeline.size());
+            for (Bson etapa : pipeline)
+                etapas.add(bson(etapa));
+            List<BsonDocument> salida;
+            Lock lectura = candado.readLock();
+            lectura.lock();
+            try {
+                List<BsonDocument> entrada;
+                if (!etapas.isEmpty() && etapas.get(0).getFirstKey().equals("$match")) {
+                    entrada = filtrar(etapas.get(0).getDocument("$match"), EvaluadorBson.BINARIO, 0);
+                    etapas = etapas.subList(1, etapas.size());
+                } else {
+                    entrada = new ArrayList<>(documentos.values());
+                }
+                salida = new AgregacionMemoria(EvaluadorBson.BINARIO).ejecutar(entrada, etapas);
+            } finally {
+                lectura.unlock();
+            }
+            List<Document> resultado = new ArrayList<>(salida.size());
+            for (BsonDocument documento : salida)
+                resultado.add(CODEC_DOCUMENTO.decode(new BsonDocumentReader(documento), CONTEXTO_DECODIFICACION));
+            return resultado;
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);}
+    }
+    /**
+     * Actualiza todos los restaurantes que coinciden con el filtro.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return VERDADERO siempre que la actualización se ejecute.
+     * @throws PersistenciaException Si la actualización no es válida o viola un índice único.
+     */
+    @Override
+    public boolean actualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        actualizarConteo(filtro, actualizaciones);
+        return true;
+    }
+    /**
+     * Actualiza todos los restaurantes que coinciden con el filtro.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return La cantidad de restaurantes que cambiaron.
+     * @throws PersistenciaException Si la actualización no es válida o viola un índice único.
+     */
+    @Override
+    public long actualizarConteo(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return escribir(() -> actualizarDocumentos(bson(filtro), actualizacion(actualizaciones), true, false)).modificados();
+    }
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide, lo inserta.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return El ID del restaurante insertado, o null si ya existía y fue reemplazado.
+     * @throws PersistenciaException Si el restaurante viola un índice único.
+     */
+    @Override
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException {
+        return escribir(() -> reemplazarDocumento(bson(filtro), restaurante, true)).idInsertado();
+    }
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo
+     * con los campos de igualdad del filtro más las actualizaciones.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return El ID del restaurante insertado, o null si ya existía y fue actualizado.
+     * @throws PersistenciaException Si la actualización no es válida o viola un índice único.
+     */
+    @Override
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return escribir(() -> actualizarDocumentos(bson(filtro), actualizacion(actualizaciones), false, true)).idInsertado();
+    }
+    /**
+     * Elimina los restaurantes que coinciden con el filtro.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return VERDADERO siempre que la eliminación se ejecute.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public boolean eliminar(Bson filtro) throws PersistenciaException {
+        eliminarConteo(filtro);
+        return true;
+    }
+    /**
+     * Elimina los restaurantes que coinciden con el filtro.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return La cantidad de restaurantes eliminados.
+     * @throws PersistenciaException Si el filtro usa un operador no soportado.
+     */
+    @Override
+    public long eliminarConteo(Bson filtro) throws PersistenciaException {
+        return escribir(() -> eliminarDocumentos(bson(filtro), true));
+    }
+    /**
+     * Rellena el campo de categorías normalizadas de los restaurantes que tienen categorías pero
+     * aún no lo tienen. Se ejecuta en una sola escritura, por lo que el tamaño de lote no aplica.
+     * Como en la base de datos, solo se normalizan las categorías de texto.
+     * @param tamanoLote Ignorado.
+     * @return La cantidad de restaurantes actualizados.
+     * @throws PersistenciaException No se lanza; se declara por la interfaz.
+     */
+    @Override
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException {
+        return escribir(() -> {
+            int actualizados = 0;
+            for (BsonDocument documento : List.copyOf(documentos.values())) {
+                if (documento.isArray("categorias") && !documento.containsKey("categoriasNorm")) {
+                    // Categorías leídas sin mapear, para no fallar con las que no son texto.
+                    List<Object> categorias = new ArrayList<>();
+                    for (BsonValue categoria : documento.getArray("categorias"))
+                        categorias.add(categoria.isString() ? categoria.asString().getValue() : categoria);
+                    BsonArray categoriasNorm = new BsonArray();
+                    for (String categoria : RestauranteDAO.normalizarCategoriasLeidas(documento.getObjectId("_id").getValue(), categorias))
+                        categoriasNorm.add(new BsonString(categoria));
+                    guardar(documento.clone().append("categoriasNorm", categoriasNorm), documento);
+                    actualizados++;
+                }
+            }
+            return actualizados;
+        });
+    }
+    /**
+     * Retorna la cantidad de restaurantes guardados.
+     * @return Cantidad de restaurantes.
+     */
+    public int tamano() {
+        Lock lectura = candado.readLock();
+        lectura.lock();
+        try {
+            return documentos.size();
+        } finally {
+            lectura.unlock();
+        }
+    }
+    /**
+     * Elimina todos los restaurantes y vacía los índices.
+     */
+    public void limpiar() {
+        Lock escritura = candado.writeLock();
+        escritura.lock();
+        try {
+            documentos.clear();
+            porNombre.clear();
+            porClave.clear();
+            porRating.clear();
+            porFecha.clear();
+            porCategoria.clear();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Consultas
+    /**
+     * Ejecuta una consulta bajo el candado de lectura.
+     * @param filtro Filtro; null para todos los restaurantes.
+     * @param proyeccion Proyección, o null.
+     * @param orden Orden, o null.
+     * @param limite Cantidad máxima de restaurantes; cero o negativo para no limitar.
+     * @param collation Colación, o null.
+     * @param tiempoMaximoMS Tiempo máximo de la consulta; cero para no limitarlo.
+     * @return Restaurantes encontrados, como copias.
+     */
+    private List<Restaurante> buscar(Bson filtro, Bson proyeccion, Bson orden, int limite, Collation collation, long tiempoMaximoMS) {
+        BsonDocument filtroBson = bson(filtro);
+        BsonDocument proyeccionBson = proyeccion == null ? null : bson(proyeccion);
+        EvaluadorBson evaluador = EvaluadorBson.conColacion(collation);
+        Lock lectura = candado.readLock();
+        lectura.lock();
+        try {
+            List<BsonDocument> encontrados = filtrar(filtroBson, evaluador, tiempoMaximoMS);
+            if (orden != null) {
+                // El orden por relevancia usa el puntaje del filtro $text.
+                ToDoubleFunction<BsonDocument> puntaje = null;
+                if (filtroBson.containsKey("$text")) {
+                    Map<BsonDocument, Double> puntajes = new IdentityHashMap<>(encontrados.size());
+                    for (BsonDocument documento : encontrados)
+                        puntajes.put(documento, EvaluadorBson.puntajeTexto(filtroBson.getDocument("$text"), documento));
+                    puntaje = puntajes::get;
+                }
+                encontrados.sort(evaluador.comparador(bson(orden), puntaje));
+            }
+            int cantidad = limite > 0 ? Math.min(limite, encontrados.size()) : encontrados.size();
+            List<Restaurante> restaurantes = new ArrayList<>(cantidad);
+            for (BsonDocument documento : encontrados.subList(0, cantidad))
+                restaurantes.add(decodificar(EvaluadorBson.proyectar(documento, proyeccionBson)));
+            return restaurantes;
+        } finally {
+            lectura.unlock();
+        }
+    }
+    /**
+     * Obtiene los documentos que cumplen un filtro, evaluándolo solo sobre los candidatos del
+     * índice más selectivo. Debe llamarse con algún candado tomado.
+     * @param filtro Filtro.
+     * @param evaluador Evaluador, con la colación de la consulta.
+     * @param tiempoMaximoMS Tiempo máximo; cero para no limitarlo.
+     * @return Documentos que cumplen el filtro, en el orden del índice usado o en orden natural.
+     * @throws MongoExecutionTimeoutException Si se excede el tiempo máximo.
+     */
+    private List<BsonDocument> filtrar(BsonDocument filtro, EvaluadorBson evaluador, long tiempoMaximoMS) {
+        long limiteTiempo = tiempoMaximoMS > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tiempoMaximoMS) : 0;
+        Collection<ObjectId> candidatos = candidatos(filtro, evaluador);
+        Collection<BsonDocument> revisar = candidatos == null ? documentos.values() : candidatos.stream().map(documentos::get).toList();
+        List<BsonDocument> encontrados = new ArrayList<>();
+        int revisados = 0;
+        for (BsonDocument documento : revisar) {
+            if (limiteTiempo != 0 && ++revisados % REVISION_TIEMPO == 0 && System.nanoTime() - limiteTiempo > 0)
+                throw new MongoExecutionTimeoutException(TIEMPO_EXCEDIDO, "La consulta excedió el tiempo máximo de " + tiempoMaximoMS + " ms.");
+            if (filtro.isEmpty() || evaluador.coincide(filtro, documento))
+                encontrados.add(documento);
+        }
+        return encontrados;
+    }
+    /**
+     * Elige los candidatos de una consulta: de las condiciones de igualdad o rango sobre campos
+     * indexados, la que entrega menos IDs.
+     * @param filtro Filtro.
+     * @param evaluador Evaluador; con colación, los índices de textos no se usan.
+     * @return IDs candidatos, o null si ningún índice aplica y hay que recorrer la colección.
+     */
+    private Collection<ObjectId> candidatos(BsonDocument filtro, EvaluadorBson evaluador) {
+        List<Map.Entry<String, BsonValue>> condiciones = new ArrayList<>();
+        agregarCondiciones(filtro, condiciones);
+        Collection<ObjectId> mejores = null;
+        for (Map.Entry<String, BsonValue> condicion : condiciones) {
+            Collection<ObjectId> ids = switch (condicion.getKey()) {
+                case "_id" -> porIgualdad(condicion.getValue(), valor -> valor.isObjectId() && documentos.containsKey(valor.asObjectId().getValue())
+                        ? Set.of(valor.asObjectId().getValue()) : Set.of());
+                case "nombre" -> evaluador.tieneColacion() ? null : porIgualdad(condicion.getValue(), valor -> unico(porNombre.get(valor)));
+                case "claveIdempotencia" -> evaluador.tieneColacion() ? null : porIgualdad(condicion.getValue(), valor -> unico(porClave.get(valor)));
+                case "categoriasNorm" -> evaluador.tieneColacion() ? null : porIgualdad(condicion.getValue(),
+                        valor -> valor.isString() ? porCategoria.getOrDefault(valor.asString().getValue(), Set.of()) : null);
+                case "rating" -> porRango(condicion.getValue(), porRating, valor -> valor.isNumber() ? valor.asNumber().doubleValue() : null);
+                case "fechaInauguracion" -> porRango(condicion.getValue(), porFecha, valor -> valor.isDateTime() ? valor.asDateTime().getValue() : null);
+                default -> null;
+            };
+            if (ids != null && (mejores == null || ids.size() < mejores.size()))
+                mejores = ids;
+        }
+        return mejores;
+    }
+    /**
+     * Agrega las condiciones de campo de un filtro y de sus $and anidados.
+     * @param filtro Filtro.
+     * @param condiciones Lista donde se agregan las condiciones.
+     */
+    private static void agregarCondiciones(BsonDocument filtro, List<Map.Entry<String, BsonValue>> condiciones) {
+        for (Map.Entry<String, BsonValue> condicion : filtro.entrySet()) {
+            if (condicion.getKey().equals("$and")) {
+                for (BsonValue subfiltro : condicion.getValue().asArray())
+                    agregarCondiciones(subfiltro.asDocument(), condiciones);
+            } else if (!condicion.getKey().startsWith("$")) {
+                condiciones.add(condicion);
+            }
+        }
+    }
+    /**
+     * Obtiene los candidatos de una condición de igualdad ({campo: valor}, $eq o $in) con un índice hash.
+     * @param condicion Condición del campo.
+     * @param busqueda Búsqueda de un valor en el índice; regresa null si el valor no puede buscarse en él.
+     * @return IDs candidatos, o null si la condición no es de igualdad o algún valor no puede buscarse.
+     */
+    private static Collection<ObjectId> porIgualdad(BsonValue condicion, Function<BsonValue, Collection<ObjectId>> busqueda) {
+        if (condicion.isRegularExpression() || condicion.isNull() || condicion.isArray() || condicion.isDocument() && !EvaluadorBson.esOperadores(condicion))
+            return null;
+        if (!EvaluadorBson.esOperadores(condicion))
+            return busqueda.apply(condicion);
+        BsonDocument operadores = condicion.asDocument();
+        if (operadores.containsKey("$eq") && !operadores.get("$eq").isNull() && !operadores.get("$eq").isArray())
+            return busqueda.apply(operadores.get("$eq"));
+        if (operadores.isArray("$in")) {
+            Set<ObjectId> ids = new LinkedHashSet<>();
+            for (BsonValue valor : operadores.getArray("$in")) {
+                if (valor.isNull() || valor.isArray() || valor.isRegularExpression())
+                    return null;
+                Collection<ObjectId> encontrados = busqueda.apply(valor);
+                if (encontrados == null)
+                    return null;
+                ids.addAll(encontrados);
+            }
+            return ids;
+        }
+        return null;
+    }
+    /**
+     * Obtiene los candidatos de una condición de igualdad o rango ($gt, $gte, $lt, $lte, $eq) con un índice ordenado.
+     * @param <K> Tipo de la llave del índice.
+     * @param condicion Condición del campo.
+     * @param indice Índice ordenado.
+     * @param llave Conversión de un valor BSON a llave del índice; regresa null si el valor es de otro tipo.
+     * @return IDs candidatos, en el orden del índice, o null si la condición no acota el campo.
+     */
+    private static <K extends Comparable<K>> Collection<ObjectId> porRango(BsonValue condicion, NavigableMap<K, Set<ObjectId>> indice,
+            Function<BsonValue, K> llave) {
+        K minimo = null;
+        K maximo = null;
+        boolean incluyeMinimo = true;
+        boolean incluyeMaximo = true;
+        if (!EvaluadorBson.esOperadores(condicion)) {
+            minimo = maximo = llave.apply(condicion);
+            if (minimo == null)
+                return null;
+        } else {
+            for (Map.Entry<String, BsonValue> operador : condicion.asDocument().entrySet()) {
+                K valor = llave.apply(operador.getValue());
+                switch (operador.getKey()) {
+                    case "$eq" -> {
+                        if (valor == null)
+                            return null;
+                        minimo = maximo = valor;
+                        incluyeMinimo = incluyeMaximo = true;
+                    }
+                    case "$gt", "$gte" -> {
+                        if (valor != null && (minimo == null || valor.compareTo(minimo) >= 0)) {
+                            minimo = valor;
+                            incluyeMinimo = operador.getKey().equals("$gte");
+                        }
+                    }
+                    case "$lt", "$lte" -> {
+                        if (valor != null && (maximo == null || valor.compareTo(maximo) <= 0)) {
+                            maximo = valor;
+                            incluyeMaximo = operador.getKey().equals("$lte");
+                        }
+                    }
+                    default -> {}
+                }
+            }
+            if (minimo == null && maximo == null)
+                return null;
+        }
+        if (minimo != null && maximo != null && minimo.compareTo(maximo) > 0)
+            return List.of();
+        NavigableMap<K, Set<ObjectId>> rango = minimo == null ? indice.headMap(maximo, incluyeMaximo)
+                : maximo == null ? indice.tailMap(minimo, incluyeMinimo)
+                : indice.subMap(minimo, incluyeMinimo, maximo, incluyeMaximo);
+        Set<ObjectId> ids = new LinkedHashSet<>();
+        for (Set<ObjectId> conLlave : rango.values())
+            ids.addAll(conLlave);
+        return ids;
+    }
+    /**
+     * Convierte el resultado de un índice único en candidatos.
+     * @param id ID encontrado, o null.
+     * @return Conjunto con el ID, o vacío.
+     */
+    private static Collection<ObjectId> unico(ObjectId id) {
+        return id == null ? Set.of() : Set.of(id);
+    }
+
+    // Escrituras
+    /**
+     * Ejecuta una escritura bajo el candado de escritura, convirtiendo sus errores.
+     * @param <T> Tipo del resultado.
+     * @param escritura Escritura a ejecutar.
+     * @return Resultado de la escritura.
+     * @throws PersistenciaException Si la escritura falla.
+     */
+    private <T> T escribir(Supplier<T> escritura) throws PersistenciaException {
+        Lock candadoEscritura = candado.writeLock();
+        candadoEscritura.lock();
+        try {
+            return escritura.get();
+        } catch (Exception e) {throw new PersistenciaException(e.getMessage(), e);
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+    /**
+     * Inserta un restaurante, asignándole un ID si no tiene. Debe llamarse con el candado de escritura.
+     * @param restaurante Restaurante a insertar.
+     * @throws ErrorDocumento Si el ID ya existe o viola un índice único.
+     */
+    private void insertarDocumento(Restaurante restaurante) {
+        RestauranteDAO.normalizarCategorias(restaurante);
+        CODEC.generateIdIfAbsentFromDocument(restaurante);
+        if (documentos.containsKey(restaurante.getId()))
+            throw new ErrorDocumento(LLAVE_DUPLICADA, "Llave duplicada en el índice _id_: " + restaurante.getId());
+        BsonDocument documento = codificar(restaurante);
+        verificarUnicos(documento, null);
+        guardar(documento, null);
+    }
+    /**
+     * Actualiza el primero o todos los documentos que cumplen el filtro; con upsert, si ninguno lo
+     * cumple, inserta uno nuevo. Debe llamarse con el candado de escritura.
+     * @param filtro Filtro.
+     * @param actualizaciones Actualización con operadores.
+     * @param varios VERDADERO para actualizar todos los que cumplen el filtro.
+     * @param upsert VERDADERO para insertar si ninguno lo cumple.
+     * @return Resultado de la escritura.
+     * @throws ErrorDocumento Si algún documento actualizado viola un índice único.
+     */
+    private ResultadoEscritura actualizarDocumentos(BsonDocument filtro, BsonDocument actualizaciones, boolean varios, boolean upsert) {
+        List<BsonDocument> encontrados = filtrar(filtro, EvaluadorBson.BINARIO, 0);
+        if (!varios && encontrados.size() > 1)
+            encontrados = encontrados.subList(0, 1);
+        int modificados = 0;
+        for (BsonDocument anterior : encontrados) {
+            BsonDocument nuevo = anterior.clone();
+            if (EvaluadorBson.BINARIO.actualizar(nuevo, actualizaciones, false)) {
+                verificarUnicos(nuevo, anterior.getObjectId("_id").getValue());
+                guardar(nuevo, anterior);
+                modificados++;
+            }
+        }
+        if (!encontrados.isEmpty() || !upsert)
+            return new ResultadoEscritura(encontrados.size(), modificados, null);
+        // Ninguno coincidió: inserta los campos de igualdad del filtro más la actualización.
+        BsonDocument nuevo = EvaluadorBson.documentoUpsert(filtro);
+        EvaluadorBson.BINARIO.actualizar(nuevo, actualizaciones, true);
+        ObjectId id = asignarId(nuevo);
+        verificarUnicos(nuevo, null);
+        guardar(nuevo, null);
+        return new ResultadoEscritura(0, 0, id);
+    }
+    /**
+     * Reemplaza el primer documento que cumple el filtro, conservando su ID; con upsert, si
+     * ninguno lo cumple, inserta el restaurante. Debe llamarse con el candado de escritura.
+     * @param filtro Filtro.
+     * @param restaurante Restaurante de reemplazo.
+     * @param upsert VERDADERO para insertar si ninguno cumple el filtro.
+     * @return Resultado de la escritura.
+     * @throws ErrorDocumento Si el reemplazo viola un índice único o intenta cambiar el ID.
+     */
+    private ResultadoEscritura reemplazarDocumento(BsonDocument filtro, Restaurante restaurante, boolean upsert) {
+        RestauranteDAO.normalizarCategorias(restaurante);
+        List<BsonDocument> encontrados = filtrar(filtro, EvaluadorBson.BINARIO, 0);
+        if (!encontrados.isEmpty()) {
+            BsonDocument anterior = encontrados.get(0);
+            ObjectId id = anterior.getObjectId("_id").getValue();
+            if (restaurante.getId() != null && !restaurante.getId().equals(id))
+                throw new ErrorDocumento(VALOR_INVALIDO, "El reemplazo no puede cambiar el _id del restaurante.");
+            BsonDocument nuevo = new BsonDocument("_id", new BsonObjectId(id));
+            for (Map.Entry<String, BsonValue> campo : codificar(restaurante).entrySet())
+                if (!campo.getKey().equals("_id"))
+                    nuevo.put(campo.getKey(), campo.getValue());
+            if (nuevo.equals(anterior))
+                return new ResultadoEscritura(1, 0, null);
+            verificarUnicos(nuevo, id);
+            guardar(nuevo, anterior);
+            return new ResultadoEscritura(1, 1, null);
+        }
+        if (!upsert)
+            return new ResultadoEscritura(0, 0, null);
+        // Ninguno coincidió: inserta el restaurante, con el _id del filtro si lo tiene.
+        BsonDocument nuevo = codificar(restaurante);
+        BsonValue idFiltro = EvaluadorBson.documentoUpsert(filtro).get("_id");
+        if (!nuevo.containsKey("_id") && idFiltro != null)
+            nuevo.put("_id", idFiltro);
+        ObjectId id = asignarId(nuevo);
+        verificarUnicos(nuevo, null);
+        guardar(nuevo, null);
+        return new ResultadoEscritura(0, 0, id);
+    }
+    /**
+     * Elimina el primero o todos los documentos que cumplen el filtro. Debe llamarse con el candado de escritura.
+     * @param filtro Filtro.
+     * @param varios VERDADERO para eliminar todos los que cumplen el filtro.
+     * @return Cantidad de documentos eliminados.
+     */
+    private int eliminarDocumentos(BsonDocument filtro, boolean varios) {
+        List<BsonDocument> encontrados = filtrar(filtro, EvaluadorBson.BINARIO, 0);
+        if (!varios && encontrados.size() > 1)
+            encontrados = encontrados.subList(0, 1);
+        for (BsonDocument documento : encontrados) {
+            desindexar(documento);
+            documentos.remove(documento.getObjectId("_id").getValue());
+        }
+        return encontrados.size();
+    }
+    /**
+     * Asegura que un documento nuevo tenga un _id de tipo ObjectId y que sea el primer campo.
+     * @param documento Documento a insertar; se modifica en el lugar.
+     * @return ID del documento.
+     * @throws ErrorDocumento Si el _id no es un ObjectId o ya existe.
+     */
+    private ObjectId asignarId(BsonDocument documento) {
+        BsonValue id = documento.remove("_id");
+        if (id == null)
+            id = new BsonObjectId(new ObjectId());
+        if (!id.isObjectId())
+            throw new ErrorDocumento(VALOR_INVALIDO, "El DAO en memoria solo admite _id de tipo ObjectId.");
+        if (documentos.containsKey(id.asObjectId().getValue()))
+            throw new ErrorDocumento(LLAVE_DUPLICADA, "Llave duplicada en el índice _id_: " + id.asObjectId().getValue());
+        BsonDocument campos = documento.clone();
+        documento.clear();
+        documento.put("_id", id);
+        documento.putAll(campos);
+        return id.asObjectId().getValue();
+    }
+    /**
+     * Verifica que un documento no repita el nombre ni la clave de idempotencia de otro documento.
+     * @param documento Documento a guardar.
+     * @param propio ID del documento, si ya existe, para no compararlo consigo mismo; null si es nuevo.
+     * @throws ErrorDocumento Si viola alguno de los índices únicos.
+     */
+    private void verificarUnicos(BsonDocument documento, ObjectId propio) {
+        BsonValue nombre = documento.get("nombre", BsonNull.VALUE);
+        ObjectId conNombre = porNombre.get(nombre);
+        if (conNombre != null && !conNombre.equals(propio))
+            throw new ErrorDocumento(LLAVE_DUPLICADA, "Llave duplicada en el índice nombre_1: " + nombre);
+        BsonValue clave = documento.get("claveIdempotencia");
+        ObjectId conClave = clave == null ? null : porClave.get(clave);
+        if (conClave != null && !conClave.equals(propio))
+            throw new ErrorDocumento(LLAVE_DUPLICADA, "Llave duplicada en el índice claveIdempotencia_1: " + clave);
+    }
+    /**
+     * Guarda un documento nuevo o modificado y actualiza los índices.
+     * @param nuevo Documento a guardar.
+     * @param anterior Versión anterior del documento, o null si es nuevo.
+     */
+    private void guardar(BsonDocument nuevo, BsonDocument anterior) {
+        if (anterior != null)
+            desindexar(anterior);
+        documentos.put(nuevo.getObjectId("_id").getValue(), nuevo);
+        indexar(nuevo);
+    }
+    /**
+     * Agrega un documento a los índices.
+     * @param documento Documento guardado.
+     */
+    private void indexar(BsonDocument documento) {
+        ObjectId id = documento.getObjectId("_id").getValue();
+        porNombre.put(documento.get("nombre", BsonNull.VALUE), id);
+        if (documento.containsKey("claveIdempotencia"))
+            porClave.put(documento.get("claveIdempotencia"), id);
+        for (BsonValue valor : escalares(documento, "rating"))
+            if (valor.isNumber())
+                porRating.computeIfAbsent(valor.asNumber().doubleValue(), llave -> new LinkedHashSet<>()).add(id);
+        for (BsonValue valor : escalares(documento, "fechaInauguracion"))
+            if (valor.isDateTime())
+                porFecha.computeIfAbsent(valor.asDateTime().getValue(), llave -> new LinkedHashSet<>()).add(id);
+        for (BsonValue valor : escalares(documento, "categoriasNorm"))
+            if (valor.isString())
+                porCategoria.computeIfAbsent(valor.asString().getValue(), llave -> new LinkedHashSet<>()).add(id);
+    }
+    /**
+     * Quita un documento de los índices.
+     * @param documento Documento guardado.
+     */
+    private void desindexar(BsonDocument documento) {
+        ObjectId id = documento.getObjectId("_id").getValue();
+        porNombre.remove(documento.get("nombre", BsonNull.VALUE), id);
+        if (documento.containsKey("claveIdempotencia"))
+            porClave.remove(documento.get("claveIdempotencia"), id);
+        for (BsonValue valor : escalares(documento, "rating"))
+            if (valor.isNumber())
+                quitar(porRating, valor.asNumber().doubleValue(), id);
+        for (BsonValue valor : escalares(documento, "fechaInauguracion"))
+            if (valor.isDateTime())
+                quitar(porFecha, valor.asDateTime().getValue(), id);
+        for (BsonValue valor : escalares(documento, "categoriasNorm"))
+            if (valor.isString())
+                quitar(porCategoria, valor.asString().getValue(), id);
+    }
+    /**
+     * Obtiene los valores indexables de un campo: el valor, o cada elemento si es un arreglo (índice multillave).
+     * @param documento Documento.
+     * @param campo Campo de primer nivel.
+     * @return Valores del campo.
+     */
+    private static List<BsonValue> escalares(BsonDocument documento, String campo) {
+        BsonValue valor = documento.get(campo);
+        if (valor == null)
+            return List.of();
+        return valor.isArray() ? valor.asArray().getValues() : List.of(valor);
+    }
+    /**
+     * Quita un ID de la lista de una llave de un índice, y la llave si queda vacía.
+     * @param <K> Tipo de la llave.
+     * @param indice Índice.
+     * @param llave Llave.
+     * @param id ID a quitar.
+     */
+    private static <K> void quitar(Map<K, Set<ObjectId>> indice, K llave, ObjectId id) {
+        Set<ObjectId> ids = indice.get(llave);
+        if (ids != null && ids.remove(id) && ids.isEmpty())
+            indice.remove(llave);
+    }
+
+    // Conversiones
+    /**
+     * Convierte un filtro, orden, proyección o etapa a BsonDocument.
+     * @param bson Objeto Bson, o null.
+     * @return Documento equivalente; vacío si es null.
+     */
+    private static BsonDocument bson(Bson bson) {
+        return bson == null ? new BsonDocument() : bson.toBsonDocument(BsonDocument.class, REGISTRO);
+    }
+    /**
+     * Convierte una actualización a BsonDocument, verificando que use operadores.
+     * @param actualizaciones Actualización.
+     * @return Documento equivalente.
+     * @throws IllegalArgumentException Si es nula o es un documento de reemplazo.
+     */
+    private static BsonDocument actualizacion(Bson actualizaciones) {
+        if (actualizaciones == null)
+            throw new IllegalArgumentException("El DAO en memoria no soporta actualizaciones con pipeline.");
+        BsonDocument documento = bson(actualizaciones);
+        if (!EvaluadorBson.esActualizacion(documento))
+            throw new IllegalArgumentException("La actualización debe usar operadores ($set, $inc, ...).");
+        return documento;
+    }
+    /**
+     * Codifica un restaurante con {@link RestauranteCodec}.
+     * @param restaurante Restaurante.
+     * @return Documento BSON.
+     */
+    private static BsonDocument codificar(Restaurante restaurante) {
+        BsonDocument documento = new BsonDocument();
+        CODEC.encode(new BsonDocumentWriter(documento), restaurante, CONTEXTO_CODIFICACION);
+        return documento;
+    }
+    /**
+     * Decodifica un restaurante con {@link RestauranteCodec}; el resultado es una copia independiente.
+     * @param documento Documento BSON.
+     * @return Restaurante.
+     */
+    private static Restaurante decodificar(BsonDocument documento) {
+        return CODEC.decode(new BsonDocumentReader(documento), CONTEXTO_DECODIFICACION);
+    }
+}
@@ -0,0 +1,376 @@
+package Persistencia;
+
+import Conexion.RestauranteCodec;
+import Dominio.Restaurante;
+import Metricas.MetricaOperacion;
+import Metricas.RegistroMetricas;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.WriteModel;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Decorador que mide cada operación del DAO en un {@link RegistroMetricas}: llamadas, errores,
+ * latencia y documentos leídos o escritos, con el nombre {@value #PREFIJO} más el del método
+ * (las sobrecargas de consultar se distinguen por sufijo). Las operaciones lentas se escriben en
+ * la bitácora de operaciones lentas con el filtro, orden, proyección o pipeline en JSON, que solo
+ * se construye en ese caso.
+ * <p>
+ * En los flujos, la latencia es la de abrir el cursor y los documentos se suman conforme se leen.
+ * Los documentos de una escritura son los que el DAO reporta: insertados, modificados y eliminados;
+ * {@code actualizar} y {@code eliminar} solo indican si se ejecutaron, por lo que no suman documentos.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOMetricas extends DecoradorDAO {
+    // Prefijo de los nombres de las operaciones.
+    public static final String PREFIJO = "dao.";
+    // Longitud máxima de cada valor del detalle de una operación lenta.
+    private static final int LONGITUD_MAXIMA_DETALLE = 2_000;
+    // Registro de codecs para convertir los filtros a JSON.
+    private static final CodecRegistry REGISTRO_CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new RestauranteCodec()),
+            MongoClientSettings.getDefaultCodecRegistry());
+    // Registro de las métricas.
+    private final RegistroMetricas registro;
+    /**
+     * Operación medida.
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    private interface Operacion<T> {
+        /**
+         * Ejecuta la operación.
+         * @return Resultado de la operación.
+         * @throws PersistenciaException Excepción del DAO envuelto.
+         */
+        T ejecutar() throws PersistenciaException;
+    }
+    /**
+     * Constructor que recibe el DAO a envolver y el registro de las métricas.
+     * @param delegado DAO envuelto.
+     * @param registro Registro de las métricas.
+     */
+    public RestauranteDAOMetricas(IRestauranteDAO delegado, RegistroMetricas registro) {
+        super(delegado);
+        this.registro = registro;
+    }
+    /**
+     * Inserta los restaurantes de ejemplo, midiendo la operación.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertarRestaurantesPorDefecto() throws PersistenciaException {
+        medir("insertarRestaurantesPorDefecto", () -> {delegado.insertarRestaurantesPorDefecto(); return null;}, r -> 0, null);
+    }
+    /**
+     * Inserta un restaurante, midiendo la operación.
+     * @param restaurante Restaurante a insertar.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertar(Restaurante restaurante) throws PersistenciaException {
+        medir("insertar", () -> {delegado.insertar(restaurante); return null;}, r -> 1,
+                () -> "nombre=" + restaurante.getNombre());
+    }
+    /**
+     * Inserta varios restaurantes, midiendo la operación.
+     * @param restaurantes Restaurantes a insertar.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException {
+        medir("insertarVarios", () -> {delegado.insertarVarios(restaurantes); return null;}, r -> restaurantes.size(),
+                () -> "restaurantes=" + restaurantes.size());
+    }
+    /**
+     * Ejecuta un lote de operaciones de escritura, midiendo la operación.
+     * @param operaciones Operaciones de escritura.
+     * @return Resultado del lote.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException {
+        return medir("escribirLote", () -> delegado.escribirLote(operaciones),
+                r -> r.getInsertados() + r.getModificados() + r.getEliminados() + r.getIdsUpsert().size(),
+                () -> "operaciones=" + operaciones.size());
+    }
+    /**
+     * Consulta todos los restaurantes, midiendo la operación.
+     * @return Restaurantes.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return medir("consultarTodos", delegado::consultarTodos, List::size, null);
+    }
+    /**
+     * Consulta con filtro, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return medir("consultar", () -> delegado.consultar(filtro), List::size, () -> detalle("filtro", filtro));
+    }
+    /**
+     * Consulta con filtro y proyección, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @param proyeccion Campos a leer.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return medir("consultarProyeccion", () -> delegado.consultar(filtro, proyeccion), List::size,
+                () -> detalle("filtro", filtro) + ", " + detalle("proyeccion", proyeccion));
+    }
+    /**
+     * Consulta con filtro y opciones, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        return medir("consultarOpciones", () -> delegado.consultar(filtro, opciones), List::size,
+                () -> detalle("filtro", filtro) + ", " + detalle("proyeccion", opciones.getProyeccion())
+                        + ", " + detalle("orden", opciones.getOrden()) + ", limite=" + opciones.getLimite()
+                        + ", tiempoMaximoMS=" + opciones.getTiempoMaximoMS()
+                        + (opciones.getCollation() == null ? "" : ", collation=" + opciones.getCollation().asDocument().toJson()));
+    }
+    /**
+     * Consulta ordenada, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return medir("consultarOrden", () -> delegado.consultarOrden(filtro, orden), List::size,
+                () -> detalle("filtro", filtro) + ", " + detalle("orden", orden));
+    }
+    /**
+     * Consulta limitada, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return medir("consultarLimite", () -> delegado.consultarLimite(filtro, limite), List::size,
+                () -> detalle("filtro", filtro) + ", limite=" + limite);
+    }
+    /**
+     * Consulta ordenada y limitada, midiendo la operación.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return medir("consultarOrdenLimite", () -> delegado.consultarOrdenLimite(filtro, orden, limite), List::size,
+                () -> detalle("filtro", filtro) + ", " + detalle("orden", orden) + ", limite=" + limite);
+    }
+    /**
+     * Consulta como flujo, midiendo la apertura del cursor y contando los documentos leídos.
+     * @param filtro Filtro de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return contar("consultarStream", medir("consultarStream", () -> delegado.consultarStream(filtro, tamanoLote), r -> 0,
+                () -> detalle("filtro", filtro) + ", tamanoLote=" + tamanoLote));
+    }
+    /**
+     * Consulta ordenada como flujo, midiendo la apertura del cursor y contando los documentos leídos.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return contar("consultarOrdenStream", medir("consultarOrdenStream", () -> delegado.consultarOrdenStream(filtro, orden, tamanoLote), r -> 0,
+                () -> detalle("filtro", filtro) + ", " + detalle("orden", orden) + ", tamanoLote=" + tamanoLote));
+    }
+    /**
+     * Ejecuta un pipeline de agregación, midiendo la operación.
+     * @param pipeline Etapas del pipeline.
+     * @return Documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        return medir("agregar", () -> delegado.agregar(pipeline), List::size, () -> {
+            StringBuilder etapas = new StringBuilder("pipeline=[");
+            for (int i = 0; i < pipeline.size(); i++)
+                etapas.append(i == 0 ? "" : ", ").append(json(pipeline.get(i)));
+            return recortar(etapas.append(']').toString());
+        });
+    }
+    /**
+     * Actualiza los restaurantes que cumplen el filtro, midiendo la operación.
+     * @param filtro Restaurantes a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return Resultado del DAO envuelto.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public boolean actualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return medir("actualizar", () -> delegado.actualizar(filtro, actualizaciones), r -> 0,
+                () -> detalle("filtro", filtro) + ", " + detalle("actualizacion", actualizaciones));
+    }
+    /**
+     * Actualiza los restaurantes que cumplen el filtro, midiendo la operación.
+     * @param filtro Restaurantes a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return Cantidad de restaurantes modificados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long actualizarConteo(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return medir("actualizarConteo", () -> delegado.actualizarConteo(filtro, actualizaciones), r -> r,
+                () -> detalle("filtro", filtro) + ", " + detalle("actualizacion", actualizaciones));
+    }
+    /**
+     * Reemplaza o inserta un restaurante, midiendo la operación.
+     * @param filtro Restaurante a reemplazar.
+     * @param restaurante Restaurante completo.
+     * @return ID del restaurante insertado, o null si fue reemplazado.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException {
+        return medir("upsert", () -> delegado.upsert(filtro, restaurante), r -> 1, () -> detalle("filtro", filtro));
+    }
+    /**
+     * Actualiza o inserta un restaurante, midiendo la operación.
+     * @param filtro Restaurante a actualizar.
+     * @param actualizaciones Modificaciones a realizar.
+     * @return ID del restaurante insertado, o null si fue actualizado.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return medir("upsertActualizar", () -> delegado.upsertActualizar(filtro, actualizaciones), r -> 1,
+                () -> detalle("filtro", filtro) + ", " + detalle("actualizacion", actualizaciones));
+    }
+    /**
+     * Elimina los restaurantes que cumplen el filtro, midiendo la operación.
+     * @param filtro Restaurantes a eliminar.
+     * @return Resultado del DAO envuelto.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public boolean eliminar(Bson filtro) throws PersistenciaException {
+        return medir("eliminar", () -> delegado.eliminar(filtro), r -> 0, () -> detalle("filtro", filtro));
+    }
+    /**
+     * Elimina los restaurantes que cumplen el filtro, midiendo la operación.
+     * @param filtro Restaurantes a eliminar.
+     * @return Cantidad de restaurantes eliminados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long eliminarConteo(Bson filtro) throws PersistenciaException {
+        return medir("eliminarConteo", () -> delegado.eliminarConteo(filtro), r -> r, () -> detalle("filtro", filtro));
+    }
+    /**
+     * Migra las categorías normalizadas, midiendo la operación.
+     * @param tamanoLote Tamaño de lote de la migración.
+     * @return Cantidad de restaurantes actualizados.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    @Override
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException {
+        return medir("normalizarCategoriasExistentes", () -> delegado.normalizarCategoriasExistentes(tamanoLote), r -> r,
+                () -> "tamanoLote=" + tamanoLote);
+    }
+    /**
+     * Ejecuta una operación y registra su latencia, sus documentos y si falló.
+     * @param <T> Tipo del resultado.
+     * @param nombre Nombre de la operación, sin el prefijo.
+     * @param operacion Operación a ejecutar.
+     * @param documentos Cuenta los documentos del resultado.
+     * @param detalle Detalle para la bitácora de operaciones lentas, o null.
+     * @return Resultado de la operación.
+     * @throws PersistenciaException Excepción del DAO envuelto.
+     */
+    private <T> T medir(String nombre, Operacion<T> operacion, ToLongFunction<T> documentos, Supplier<String> detalle) throws PersistenciaException {
+        long inicio = System.nanoTime();
+        T resultado;
+        try {
+            resultado = operacion.ejecutar();
+        } catch (PersistenciaException | RuntimeException e) {
+            registro.registrar(PREFIJO + nombre, System.nanoTime() - inicio, 0, true, detalle);
+            throw e;
+        }
+        registro.registrar(PREFIJO + nombre, System.nanoTime() - inicio, documentos.applyAsLong(resultado), false, detalle);
+        return resultado;
+    }
+    /**
+     * Cuenta los documentos que se leen de un flujo y los suma a la operación al cerrarlo.
+     * @param nombre Nombre de la operación, sin el prefijo.
+     * @param flujo Flujo del DAO envuelto.
+     * @return Flujo que cuenta sus documentos.
+     */
+    private Stream<Restaurante> contar(String nombre, Stream<Restaurante> flujo) {
+        MetricaOperacion operacion = registro.operacion(PREFIJO + nombre);
+        LongAdder leidos = new LongAdder();
+        // Se cuenta en un filter y no en un peek: count() omite el peek si conoce el tamaño del flujo.
+        return flujo.filter(restaurante -> {
+            leidos.increment();
+            return true;
+        }).onClose(() -> operacion.sumarDocumentos(leidos.sum()));
+    }
+    /**
+     * Construye el detalle de un valor Bson para la bitácora de operaciones lentas.
+     * @param nombre Nombre del valor (filtro, orden, etc.).
+     * @param bson Valor Bson, o null.
+     * @return Texto {@code nombre=json}.
+     */
+    private static String detalle(String nombre, Bson bson) {
+        return nombre + "=" + recortar(json(bson));
+    }
+    /**
+     * Convierte un valor Bson a JSON.
+     * @param bson Valor Bson, o null.
+     * @return JSON del valor, o su representación de texto si no puede convertirse.
+     */
+    private static String json(Bson bson) {
+        if (bson == null)
+            return "null";
+        try {
+            return bson.toBsonDocument(BsonDocument.class, REGISTRO_CODECS).toJson();
+        } catch (RuntimeException e) {
+            return bson.toString();
+        }
+    }
+    /**
+     * Recorta un texto a la longitud máxima del detalle.
+     * @param texto Texto.
+     * @return Texto recortado, con puntos suspensivos si era más largo.
+     */
+    private static String recortar(String texto) {
+        return texto.length() <= LONGITUD_MAXIMA_DETALLE ? texto : texto.substring(0, LONGITUD_MAXIMA_DETALLE) + "…";
+    }
+}
@@ -0,0 +1,362 @@
+package Persistencia;
+
+import Conexion.Conexion;
+import Dominio.Restaurante;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Clase para operaciones CRUD con la BD de Restaurantes sobre el driver reactivo de MongoDB.
+ * Las consultas no bloquean ningún hilo mientras esperan al servidor, por lo que pocos hilos
+ * pueden atender muchas consultas concurrentes, y entregan los documentos conforme el
+ * suscriptor los solicita.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOReactivo implements IRestauranteDAOReactivo {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(RestauranteDAOReactivo.class.getName());
+    // Colección de restaurantes.
+    private final MongoCollection<Restaurante> restauranteCollection;
+
+    /**
+     * Constructor de la clase {@code RestauranteDAOReactivo}. Inicializa la colección reactiva
+     * "restaurantes", mapeada a la entidad {@link Restaurante}, y asegura que existan sus índices.
+     * La verificación de índices espera al servidor, ya que ocurre una sola vez al arrancar.
+     * @throws IllegalStateException Si no se pudo crear algún índice único.
+     */
+    public RestauranteDAOReactivo() {
+        this.restauranteCollection = Conexion.getColeccionRestaurantesReactiva();
+        // Crea los índices faltantes y reporta las diferencias con los declarados.
+        try {
+            new GestorIndices(restauranteCollection).asegurarIndices();
+        } catch (PersistenciaException e) {
+            LOG.log(Level.WARNING, "No fue posible verificar los índices de la colección restaurantes.", e);
+        }
+    }
+    /**
+     * Inserta los cinco restaurantes de ejemplo que aún no existen, omitiendo los que
+     * fallan por el índice único de nombre; es seguro ejecutarlo varias veces.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    @Override
+    public Publisher<Void> insertarRestaurantesPorDefecto() {
+        return Mono.from(escribirLote(RestauranteDAO.insercionesPorDefecto())).flatMap(resultado -> {
+            try {
+                RestauranteDAO.verificarInsercionPorDefecto(resultado);
+                return Mono.<Void>empty();
+            } catch (PersistenciaException e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    /**
+     * Inserta un nuevo restaurante en la base de datos.
+     * @param restaurante La entidad {@link Restaurante} a insertar.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    @Override
+    public Publisher<Void> insertar(Restaurante restaurante) {
+        return mapearErrores(Mono.defer(() -> {
+            RestauranteDAO.normalizarCategorias(restaurante);
+            return Mono.from(restauranteCollection.insertOne(restaurante));
+        }).then());
+    }
+
+    /**
+     * Inserta varios restaurantes en la base de datos de forma masiva.
+     * @param restaurantes Una lista de entidades {@link Restaurante} a insertar.
+     * @return Publicador que se completa al terminar la inserción.
+     */
+    @Override
+    public Publisher<Void> insertarVarios(List<Restaurante> restaurantes) {
+        return mapearErrores(Mono.defer(() -> {
+            for (Restaurante restaurante : restaurantes)
+                RestauranteDAO.normalizarCategorias(restaurante);
+            return Mono.from(restauranteCollection.insertMany(restaurantes));
+        }).then());
+    }
+
+    /**
+     * Ejecuta un lote de operaciones de escritura en una sola petición no ordenada
+     * (bulkWrite), de modo que la falla de una operación no detiene a las demás.
+     * Las operaciones fallidas se reportan en el resultado, con su posición en el lote.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return Publicador del resultado del lote, con los conteos y los errores por operación.
+     */
+    @Override
+    public Publisher<ResultadoLote> escribirLote(List<? extends WriteModel<Restaurante>> operaciones) {
+        return mapearErrores(Mono.defer(() -> {
+            // Sincroniza las categorías normalizadas de los restaurantes que se escriben completos.
+            for (WriteModel<Restaurante> operacion : operaciones) {
+                if (operacion instanceof InsertOneModel<Restaurante> insercion)
+                    RestauranteDAO.normalizarCategorias(insercion.getDocument());
+                else if (operacion instanceof ReplaceOneModel<Restaurante> reemplazo)
+                    RestauranteDAO.normalizarCategorias(reemplazo.getReplacement());
+            }
+            return Mono.from(restauranteCollection.bulkWrite(operaciones, new BulkWriteOptions().ordered(false)))
+                    .map(resultado -> RestauranteDAO.resultadoLote(resultado, new ArrayList<>()))
+                    // Algunas operaciones fallaron: se reportan junto con el resultado de las demás.
+                    .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(RestauranteDAO.resultadoLote(e)));
+        }));
+    }
+
+    /**
+     * Consulta todos los restaurantes almacenados en la base de datos.
+     * @return Publicador de las entidades {@link Restaurante} encontradas.
+     */
+    @Override
+    public Publisher<Restaurante> consultarTodos() {
+        return mapearErrores(Flux.from(restauranteCollection.find()));
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultar(Bson filtro) {
+        return ejecutar(restauranteCollection.find(filtro), filtro);
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, leyendo solo los campos
+     * de la proyección; los demás atributos de cada entidad quedan en null.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Publicador de las entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultar(Bson filtro, Bson proyeccion) {
+        return ejecutar(restauranteCollection.find(filtro).projection(proyeccion), filtro);
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, aplicando las opciones
+     * recibidas: proyección, orden, límite, colación y tiempo máximo de ejecución en el servidor.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) {
+        return ejecutar(restauranteCollection.find(filtro)
+                .projection(opciones.getProyeccion())
+                .sort(opciones.getOrden())
+                .limit(opciones.getLimite())
+                .collation(opciones.getCollation())
+                .maxTime(opciones.getTiempoMaximoMS(), TimeUnit.MILLISECONDS), filtro);
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden recibido.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultarOrden(Bson filtro, Bson orden) {
+        return ejecutar(restauranteCollection.find(filtro).sort(orden), filtro);
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultarLimite(Bson filtro, int limite) {
+        return ejecutar(restauranteCollection.find(filtro).limit(limite), filtro);
+    }
+
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado,
+     * ordenados con el orden recibido y limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Publicador de las entidades {@link Restaurante} que cumplen con el filtro.
+     */
+    @Override
+    public Publisher<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) {
+        return ejecutar(restauranteCollection.find(filtro).sort(orden).limit(limite), filtro);
+    }
+
+    /**
+     * Ejecuta una consulta al suscribirse a ella. En modo de prueba, primero verifica su plan
+     * con {@link VerificadorPlanes}. El driver pide al servidor lotes del tamaño de la demanda
+     * del suscriptor, por lo que el resultado nunca se acumula completo en memoria.
+     * @param consulta Consulta a ejecutar.
+     * @param filtro Filtro de la consulta.
+     * @return Publicador de los restaurantes encontrados.
+     */
+    private Flux<Restaurante> ejecutar(FindPublisher<Restaurante> consulta, Bson filtro) {
+        return mapearErrores(Flux.defer(() -> {
+            if (!VerificadorPlanes.requiereVerificacion(filtro))
+                return consulta;
+            return Mono.from(consulta.explain()).flatMapMany(explicacion -> {
+                try {
+                    VerificadorPlanes.verificarExplicacion(explicacion, filtro);
+                    return consulta;
+                } catch (PersistenciaException e) {return Flux.error(e);}
+            });
+        }));
+    }
+
+    /**
+     * Ejecuta un pipeline de agregación sobre la colección de restaurantes en el servidor.
+     * Se permite usar disco para las etapas que agrupan u ordenan muchos documentos.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Publicador de los documentos que produce el pipeline.
+     */
+    @Override
+    public Publisher<Document> agregar(List<? extends Bson> pipeline) {
+        return mapearErrores(Flux.from(restauranteCollection.aggregate(pipeline, Document.class).allowDiskUse(true)));
+    }
+
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador que indica si la operación fue confirmada por el servidor.
+     */
+    @Override
+    public Publisher<Boolean> actualizar(Bson filtro, Bson actualizaciones) {
+        return mapearErrores(Mono.from(restauranteCollection.updateMany(filtro, actualizaciones))
+                .map(UpdateResult::wasAcknowledged));
+    }
+
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador de la cantidad de registros actualizados.
+     */
+    @Override
+    public Publisher<Long> actualizarConteo(Bson filtro, Bson actualizaciones) {
+        return mapearErrores(Mono.from(restauranteCollection.updateMany(filtro, actualizaciones))
+                .map(UpdateResult::getModifiedCount));
+    }
+
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide, lo inserta.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return Publicador del ID del restaurante insertado; termina vacío si ya existía y fue reemplazado.
+     */
+    @Override
+    public Publisher<ObjectId> upsert(Bson filtro, Restaurante restaurante) {
+        return mapearErrores(Mono.defer(() -> {
+            // Sincroniza las categorías normalizadas con las categorías del restaurante.
+            RestauranteDAO.normalizarCategorias(restaurante);
+            return Mono.from(restauranteCollection.replaceOne(filtro, restaurante, new ReplaceOptions().upsert(true)));
+        }).mapNotNull(resultado -> RestauranteDAO.idUpsert(resultado.getUpsertedId())));
+    }
+
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return Publicador del ID del restaurante insertado; termina vacío si ya existía y fue actualizado.
+     */
+    @Override
+    public Publisher<ObjectId> upsertActualizar(Bson filtro, Bson actualizaciones) {
+        return mapearErrores(Mono.from(restauranteCollection.updateOne(filtro, actualizaciones, new UpdateOptions().upsert(true)))
+                .mapNotNull(resultado -> RestauranteDAO.idUpsert(resultado.getUpsertedId())));
+    }
+
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return Publicador que indica si la operación fue confirmada por el servidor.
+     */
+    @Override
+    public Publisher<Boolean> eliminar(Bson filtro) {
+        return mapearErrores(Mono.from(restauranteCollection.deleteMany(filtro))
+                .map(DeleteResult::wasAcknowledged));
+    }
+
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return Publicador de la cantidad de registros eliminados.
+     */
+    @Override
+    public Publisher<Long> eliminarConteo(Bson filtro) {
+        return mapearErrores(Mono.from(restauranteCollection.deleteMany(filtro))
+                .map(DeleteResult::getDeletedCount));
+    }
+
+    /**
+     * Rellena, en lotes, el campo de categorías normalizadas de los restaurantes
+     * existentes que tienen categorías pero aún no lo tienen. Cada lote se envía cuando
+     * se llena y el siguiente se lee solo después de que el servidor confirma el anterior.
+     * @param tamanoLote Cantidad de documentos leídos y actualizados por lote.
+     * @return Publicador de la cantidad de restaurantes actualizados.
+     */
+    @Override
+    public Publisher<Long> normalizarCategoriasExistentes(int tamanoLote) {
+        // Colección sin mapear, para leer solo el _id y las categorías.
+        MongoCollection<Document> documentos = restauranteCollection.withDocumentClass(Document.class);
+        // Filtro para obtener restaurantes con categorías pero sin categorías normalizadas.
+        Bson pendientes = Filters.and(Filters.exists("categorias", true), Filters.exists("categoriasNorm", false));
+        return mapearErrores(Flux.from(documentos.find(pendientes)
+                        .projection(Projections.include("categorias"))
+                        .batchSize(tamanoLote))
+                // Se ignoran los documentos cuyas categorías no son una lista.
+                .filter(documento -> documento.get("categorias") instanceof List<?>)
+                .map(documento -> new UpdateOneModel<Document>(
+                        Filters.eq("_id", documento.get("_id")),
+                        Updates.set("categoriasNorm", RestauranteDAO.normalizarCategoriasLeidas(documento.get("_id"), (List<?>) documento.get("categorias")))))
+                .buffer(tamanoLote)
+                .concatMap(lote -> Mono.from(documentos.bulkWrite(lote, new BulkWriteOptions().ordered(false))))
+                .reduce(0L, (actualizados, resultado) -> actualizados + resultado.getModifiedCount()));
+    }
+
+    /**
+     * Convierte los errores de un publicador en {@link PersistenciaException}.
+     * @param <T> Tipo de los elementos publicados.
+     * @param publicador Publicador cuyos errores se convierten.
+     * @return Publicador con los errores convertidos.
+     */
+    private static <T> Flux<T> mapearErrores(Flux<T> publicador) {
+        return publicador.onErrorMap(e -> !(e instanceof PersistenciaException), e -> new PersistenciaException(e.getMessage(), e));
+    }
+
+    /**
+     * Convierte los errores de un publicador de un solo elemento en {@link PersistenciaException}.
+     * @param <T> Tipo del elemento publicado.
+     * @param publicador Publicador cuyos errores se convierten.
+     * @return Publicador con los errores convertidos.
+     */
+    private static <T> Mono<T> mapearErrores(Mono<T> publicador) {
+        return publicador.onErrorMap(e -> !(e instanceof PersistenciaException), e -> new PersistenciaException(e.getMessage(), e));
+    }
+}
@@ -0,0 +1,310 @@
+package Persistencia;
+
+import Conexion.Conexion;
+import Dominio.Restaurante;
+import com.mongodb.client.model.WriteModel;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adaptador que expone un {@link IRestauranteDAOReactivo} como {@link IRestauranteDAO},
+ * esperando el resultado de cada operación. Permite que la capa de negocio, que es síncrona,
+ * funcione sobre el driver reactivo sin cambios; las consultas en flujo conservan la
+ * contrapresión, ya que solo se piden al servidor los documentos que se van consumiendo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOReactivoBloqueante implements IRestauranteDAO, IRestauranteDAOCambios {
+    // DAO reactivo al que se delegan las operaciones.
+    private final IRestauranteDAOReactivo dao;
+    /**
+     * Constructor que recibe el DAO reactivo al que se delegan las operaciones.
+     * @param dao DAO reactivo.
+     */
+    public RestauranteDAOReactivoBloqueante(IRestauranteDAOReactivo dao) {
+        this.dao = dao;
+    }
+    /**
+     * Inserta cinco restaurantes.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public void insertarRestaurantesPorDefecto() throws PersistenciaException {
+        esperar(dao.insertarRestaurantesPorDefecto());
+    }
+    /**
+     * Inserta un nuevo restaurante en la base de datos.
+     * @param restaurante La entidad {@link Restaurante} a insertar.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public void insertar(Restaurante restaurante) throws PersistenciaException {
+        esperar(dao.insertar(restaurante));
+    }
+    /**
+     * Inserta varios restaurantes en la base de datos de forma masiva.
+     * @param restaurantes Una lista de entidades {@link Restaurante} a insertar.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public void insertarVarios(List<Restaurante> restaurantes) throws PersistenciaException {
+        esperar(dao.insertarVarios(restaurantes));
+    }
+    /**
+     * Ejecuta un lote de operaciones de escritura en una sola petición no ordenada.
+     * @param operaciones Operaciones de escritura a ejecutar.
+     * @return El resultado del lote, con los conteos y los errores por operación.
+     * @throws PersistenciaException Si el lote no pudo ejecutarse.
+     */
+    @Override
+    public ResultadoLote escribirLote(List<? extends WriteModel<Restaurante>> operaciones) throws PersistenciaException {
+        return esperar(dao.escribirLote(operaciones));
+    }
+    /**
+     * Consulta todos los restaurantes almacenados en la base de datos.
+     * @return Una lista de todas las entidades {@link Restaurante} encontradas.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return lista(dao.consultarTodos());
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return lista(dao.consultar(filtro));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, leyendo solo los campos de la proyección.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param proyeccion El objeto {@link Bson} que define los campos a leer.
+     * @return Una lista de entidades {@link Restaurante}, parcialmente llenas, que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return lista(dao.consultar(filtro, proyeccion));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, aplicando las opciones recibidas.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia, incluido el exceso del tiempo máximo.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        return lista(dao.consultar(filtro, opciones));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden recibido.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return lista(dao.consultarOrden(filtro, orden));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return lista(dao.consultarLimite(filtro, limite));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado,
+     * ordenados con el orden recibido y limitados a la cantidad indicada.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes obtenidos de la consulta.
+     * @return Una lista de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return lista(dao.consultarOrdenLimite(filtro, orden, limite));
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado y los devuelve como un
+     * {@link Stream} que pide al servidor un lote a la vez. El flujo debe cerrarse para cancelar la consulta.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return flujo(dao.consultar(filtro), tamanoLote);
+    }
+    /**
+     * Consulta los restaurantes que coinciden con el filtro proporcionado, ordenados con el orden
+     * recibido, y los devuelve como un {@link Stream} que pide al servidor un lote a la vez.
+     * El flujo debe cerrarse para cancelar la consulta.
+     * @param filtro El objeto {@link Bson} que define los criterios de la consulta.
+     * @param orden El objeto {@link Bson} que define los criterios del orden de la consulta.
+     * @param tamanoLote Cantidad de documentos que se solicitan al servidor por cada lote.
+     * @return Un flujo de entidades {@link Restaurante} que cumplen con el filtro.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return flujo(dao.consultarOrden(filtro, orden), tamanoLote);
+    }
+    /**
+     * Ejecuta un pipeline de agregación sobre la colección de restaurantes en el servidor.
+     * @param pipeline Etapas del pipeline de agregación.
+     * @return Una lista con los documentos que produce el pipeline.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        return esperar(Flux.from(dao.agregar(pipeline)).collectList());
+    }
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return El resultado de la operación de actualización.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public boolean actualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return esperar(dao.actualizar(filtro, actualizaciones));
+    }
+    /**
+     * Actualiza los restaurantes que coinciden con el filtro, aplicando las actualizaciones especificadas.
+     * @param filtro El objeto {@link Bson} que define los restaurantes a actualizar.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return La cantidad de registros actualizados de la operación.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public long actualizarConteo(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return esperar(dao.actualizarConteo(filtro, actualizaciones));
+    }
+    /**
+     * Reemplaza el restaurante que coincide con el filtro por el recibido o, si ninguno coincide, lo inserta.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param restaurante La entidad {@link Restaurante} completa que se guarda; su ID debe ser null.
+     * @return El ID del restaurante insertado, o null si ya existía y fue reemplazado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public ObjectId upsert(Bson filtro, Restaurante restaurante) throws PersistenciaException {
+        return esperar(dao.upsert(filtro, restaurante));
+    }
+    /**
+     * Actualiza el restaurante que coincide con el filtro o, si ninguno coincide, inserta uno nuevo.
+     * @param filtro El objeto {@link Bson} que identifica al restaurante.
+     * @param actualizaciones El objeto {@link Bson} que define las modificaciones a realizar.
+     * @return El ID del restaurante insertado, o null si ya existía y fue actualizado.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public ObjectId upsertActualizar(Bson filtro, Bson actualizaciones) throws PersistenciaException {
+        return esperar(dao.upsertActualizar(filtro, actualizaciones));
+    }
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return El resultado de la operación de eliminación.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public boolean eliminar(Bson filtro) throws PersistenciaException {
+        return esperar(dao.eliminar(filtro));
+    }
+    /**
+     * Elimina los restaurantes que coinciden con el filtro proporcionado.
+     * @param filtro El objeto {@link Bson} que define los criterios para la eliminación.
+     * @return La cantidad de registros eliminados de la operación.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public long eliminarConteo(Bson filtro) throws PersistenciaException {
+        return esperar(dao.eliminarConteo(filtro));
+    }
+    /**
+     * Rellena, en lotes, el campo de categorías normalizadas de los restaurantes existentes.
+     * @param tamanoLote Cantidad de documentos leídos y actualizados por lote.
+     * @return La cantidad de restaurantes actualizados.
+     * @throws PersistenciaException Excepción de la capa de Persistencia.
+     */
+    @Override
+    public long normalizarCategoriasExistentes(int tamanoLote) throws PersistenciaException {
+        return esperar(dao.normalizarCategoriasExistentes(tamanoLote));
+    }
+    /**
+     * Crea una escucha de cambios sobre la colección de restaurantes. La escucha usa su propio
+     * hilo y el cliente síncrono, ya que no atiende consultas concurrentes.
+     * @param nombre Nombre de la escucha; cada nodo de la aplicación debe usar uno distinto.
+     * @return Escucha de cambios, detenida.
+     */
+    @Override
+    public EscuchaCambiosRestaurantes crearEscuchaCambios(String nombre) {
+        AlmacenTokenReanudacion almacen = new AlmacenTokenReanudacion(
+                Conexion.getDatabase().getCollection(AlmacenTokenReanudacion.COLECCION), nombre);
+        return new EscuchaCambiosRestaurantes(Conexion.getColeccionRestaurantes(), almacen);
+    }
+    /**
+     * Espera el único elemento de un publicador.
+     * @param <T> Tipo del elemento.
+     * @param publicador Publicador a esperar.
+     * @return El elemento publicado, o null si se completó sin elementos.
+     * @throws PersistenciaException Si el publicador terminó con error.
+     */
+    private static <T> T esperar(Publisher<T> publicador) throws PersistenciaException {
+        try {
+            return Mono.from(publicador).block();
+        } catch (RuntimeException e) {throw desenvolver(e);}
+    }
+    /**
+     * Espera todos los elementos de un publicador.
+     * @param publicador Publicador a esperar.
+     * @return Lista de los restaurantes publicados.
+     * @throws PersistenciaException Si el publicador terminó con error.
+     */
+    private static List<Restaurante> lista(Publisher<Restaurante> publicador) throws PersistenciaException {
+        return esperar(Flux.from(publicador).collectList());
+    }
+    /**
+     * Convierte un publicador en un {@link Stream} que pide los elementos por lotes.
+     * Los errores de la consulta se lanzan al consumir el flujo, como {@link RuntimeException}.
+     * @param publicador Publicador a convertir.
+     * @param tamanoLote Cantidad de elementos solicitados por lote.
+     * @return Flujo de los restaurantes publicados.
+     */
+    private static Stream<Restaurante> flujo(Publisher<Restaurante> publicador, int tamanoLote) {
+        return Flux.from(publicador).toStream(tamanoLote);
+    }
+    /**
+     * Obtiene la {@link PersistenciaException} original de una excepción lanzada al esperar un publicador.
+     * @param e Excepción lanzada al esperar.
+     * @return Excepción de la capa de Persistencia.
+     */
+    private static PersistenciaException desenvolver(RuntimeException e) {
+        Throwable causa = Exceptions.unwrap(e);
+        return causa instanceof PersistenciaException persistencia
+                ? persistencia
+                : new PersistenciaException(causa.getMessage(), causa);
+    }
+}
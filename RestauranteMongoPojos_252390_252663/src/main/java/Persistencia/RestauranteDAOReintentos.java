@@ -0,0 +1,237 @@
+package Persistencia;
+
+import Dominio.Restaurante;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Decorador que reintenta las lecturas que fallan por errores transitorios. Los errores
+ * transitorios son los de red, la falta de un servidor disponible (selección de servidor o
+ * espera del pool), un cambio de primario y los que el servidor marca como reintentables.
+ * Un tiempo máximo de consulta excedido (maxTimeMS) o un filtro inválido no se reintentan.
+ * <p>
+ * Entre intentos espera un tiempo aleatorio de hasta la espera base duplicada en cada intento,
+ * con un tope (espera exponencial con jitter), para no sincronizar los reintentos de varios
+ * clientes tras una caída. Las escrituras se delegan sin reintentos: repetir un $inc o una
+ * inserción no es idempotente, y las escrituras simples ya las reintenta el driver una vez
+ * (retryWrites) con garantía de ejecutarse una sola vez. En los flujos se reintenta la
+ * apertura del cursor, no los errores al recorrerlo.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class RestauranteDAOReintentos extends DecoradorDAO {
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(RestauranteDAOReintentos.class.getName());
+    // Etiquetas con las que el servidor marca un error como reintentable.
+    private static final String ETIQUETA_REINTENTABLE = "RetryableWriteError";
+    private static final String ETIQUETA_TRANSITORIO = MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL;
+    // Etapas de agregación que escriben; un pipeline con ellas no se reintenta.
+    private static final List<String> ETAPAS_ESCRITURA = List.of("$out", "$merge");
+    // Cantidad máxima de intentos, incluido el primero.
+    private final int intentosMaximos;
+    // Espera base y espera máxima entre intentos, en milisegundos.
+    private final long esperaBaseMS;
+    private final long esperaMaximaMS;
+    /**
+     * Lectura a reintentar.
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    private interface Operacion<T> {
+        /**
+         * Ejecuta la lectura.
+         * @return Resultado de la lectura.
+         * @throws PersistenciaException Excepción del DAO envuelto.
+         */
+        T ejecutar() throws PersistenciaException;
+    }
+    /**
+     * Constructor que recibe el DAO a envolver y la política de reintentos.
+     * @param delegado DAO envuelto.
+     * @param intentosMaximos Cantidad máxima de intentos, incluido el primero; al menos 1.
+     * @param esperaBase Espera antes del primer reintento; se duplica en cada reintento.
+     * @param esperaMaxima Tope de la espera entre intentos.
+     * @throws IllegalArgumentException Si los intentos son menos de 1 o alguna espera es negativa.
+     */
+    public RestauranteDAOReintentos(IRestauranteDAO delegado, int intentosMaximos, Duration esperaBase, Duration esperaMaxima) {
+        super(delegado);
+        if (intentosMaximos < 1)
+            throw new IllegalArgumentException("La cantidad de intentos debe ser al menos 1.");
+        if (esperaBase.isNegative() || esperaMaxima.isNegative())
+            throw new IllegalArgumentException("Las esperas entre intentos no pueden ser negativas.");
+        this.intentosMaximos = intentosMaximos;
+        this.esperaBaseMS = esperaBase.toMillis();
+        this.esperaMaximaMS = Math.max(esperaBase.toMillis(), esperaMaxima.toMillis());
+    }
+    /**
+     * Consulta todos los restaurantes, reintentando los errores transitorios.
+     * @return Restaurantes.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultarTodos() throws PersistenciaException {
+        return reintentar(delegado::consultarTodos);
+    }
+    /**
+     * Consulta con filtro, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro) throws PersistenciaException {
+        return reintentar(() -> delegado.consultar(filtro));
+    }
+    /**
+     * Consulta con filtro y proyección, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @param proyeccion Campos a leer.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, Bson proyeccion) throws PersistenciaException {
+        return reintentar(() -> delegado.consultar(filtro, proyeccion));
+    }
+    /**
+     * Consulta con filtro y opciones, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @param opciones Opciones de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultar(Bson filtro, OpcionesConsulta opciones) throws PersistenciaException {
+        return reintentar(() -> delegado.consultar(filtro, opciones));
+    }
+    /**
+     * Consulta ordenada, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultarOrden(Bson filtro, Bson orden) throws PersistenciaException {
+        return reintentar(() -> delegado.consultarOrden(filtro, orden));
+    }
+    /**
+     * Consulta limitada, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultarLimite(Bson filtro, int limite) throws PersistenciaException {
+        return reintentar(() -> delegado.consultarLimite(filtro, limite));
+    }
+    /**
+     * Consulta ordenada y limitada, reintentando los errores transitorios.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param limite Cantidad máxima de restaurantes.
+     * @return Restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Restaurante> consultarOrdenLimite(Bson filtro, Bson orden, int limite) throws PersistenciaException {
+        return reintentar(() -> delegado.consultarOrdenLimite(filtro, orden, limite));
+    }
+    /**
+     * Consulta como flujo, reintentando los errores transitorios al abrir el cursor.
+     * @param filtro Filtro de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public Stream<Restaurante> consultarStream(Bson filtro, int tamanoLote) throws PersistenciaException {
+        return reintentar(() -> delegado.consultarStream(filtro, tamanoLote));
+    }
+    /**
+     * Consulta ordenada como flujo, reintentando los errores transitorios al abrir el cursor.
+     * @param filtro Filtro de la consulta.
+     * @param orden Orden de la consulta.
+     * @param tamanoLote Tamaño de lote del cursor.
+     * @return Flujo de restaurantes que cumplen el filtro.
+     * @throws PersistenciaException Si la consulta falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public Stream<Restaurante> consultarOrdenStream(Bson filtro, Bson orden, int tamanoLote) throws PersistenciaException {
+        return reintentar(() -> delegado.consultarOrdenStream(filtro, orden, tamanoLote));
+    }
+    /**
+     * Ejecuta un pipeline de agregación, reintentando los errores transitorios si el pipeline
+     * solo lee (no tiene etapas $out ni $merge).
+     * @param pipeline Etapas del pipeline.
+     * @return Documentos que produce el pipeline.
+     * @throws PersistenciaException Si el pipeline falla con un error no transitorio o se agotan los intentos.
+     */
+    @Override
+    public List<Document> agregar(List<? extends Bson> pipeline) throws PersistenciaException {
+        for (Bson etapa : pipeline) {
+            BsonDocument documento = etapa.toBsonDocument();
+            if (!documento.isEmpty() && ETAPAS_ESCRITURA.contains(documento.getFirstKey()))
+                return delegado.agregar(pipeline);
+        }
+        return reintentar(() -> delegado.agregar(pipeline));
+    }
+    /**
+     * Ejecuta una lectura, reintentándola mientras falle por un error transitorio y queden intentos.
+     * @param <T> Tipo del resultado.
+     * @param operacion Lectura a ejecutar.
+     * @return Resultado de la lectura.
+     * @throws PersistenciaException El último error, si no es transitorio o se agotan los intentos.
+     */
+    private <T> T reintentar(Operacion<T> operacion) throws PersistenciaException {
+        long espera = esperaBaseMS;
+        for (int intento = 1; ; intento++) {
+            try {
+                return operacion.ejecutar();
+            } catch (PersistenciaException e) {
+                if (intento >= intentosMaximos || !esTransitorio(e))
+                    throw e;
+                LOG.log(Level.FINE, "Lectura fallida por un error transitorio (intento " + intento + " de " + intentosMaximos + ").", e);
+                // Espera un tiempo aleatorio de hasta la espera actual.
+                try {
+                    Thread.sleep(espera == 0 ? 0 : ThreadLocalRandom.current().nextLong(espera + 1));
+                } catch (InterruptedException interrupcion) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                espera = Math.min(espera * 2, esperaMaximaMS);
+            }
+        }
+    }
+    /**
+     * Indica si un error del DAO es transitorio, revisando su cadena de causas.
+     * @param e Error del DAO.
+     * @return VERDADERO si vale la pena reintentar la operación.
+     */
+    static boolean esTransitorio(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof MongoSocketException || causa instanceof MongoTimeoutException
+                    || causa instanceof MongoNotPrimaryException || causa instanceof MongoNodeIsRecoveringException)
+                return true;
+            if (causa instanceof MongoException mongo
+                    && (mongo.hasErrorLabel(ETIQUETA_REINTENTABLE) || mongo.hasErrorLabel(ETIQUETA_TRANSITORIO)))
+                return true;
+            if (causa.getCause() == causa)
+                break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+package Persistencia;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.types.ObjectId;
+
+/**
+ * Clase que resume el resultado de una escritura por lotes: los conteos
+ * confirmados por el servidor y los errores de cada operación fallida.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class ResultadoLote {
+    // Cantidad de documentos insertados.
+    private final int insertados;
+    // Cantidad de documentos que coincidieron con los filtros de actualización.
+    private final int coincidencias;
+    // Cantidad de documentos modificados.
+    private final int modificados;
+    // Cantidad de documentos eliminados.
+    private final int eliminados;
+    // IDs de los documentos insertados por upserts, indexados por la posición de la operación en el lote.
+    private final Map<Integer, ObjectId> idsUpsert;
+    // Errores de las operaciones fallidas.
+    private final List<ErrorEscritura> errores;
+    /**
+     * Constructor que recibe todos los atributos del resultado.
+     * @param insertados Cantidad de documentos insertados.
+     * @param coincidencias Cantidad de documentos que coincidieron con los filtros de actualización.
+     * @param modificados Cantidad de documentos modificados.
+     * @param eliminados Cantidad de documentos eliminados.
+     * @param errores Errores de las operaciones fallidas.
+     */
+    public ResultadoLote(int insertados, int coincidencias, int modificados, int eliminados, List<ErrorEscritura> errores) {
+        this(insertados, coincidencias, modificados, eliminados, Map.of(), errores);
+    }
+    /**
+     * Constructor que recibe todos los atributos del resultado, incluidos los IDs insertados por upserts.
+     * @param insertados Cantidad de documentos insertados.
+     * @param coincidencias Cantidad de documentos que coincidieron con los filtros de actualización.
+     * @param modificados Cantidad de documentos modificados.
+     * @param eliminados Cantidad de documentos eliminados.
+     * @param idsUpsert IDs de los documentos insertados por upserts, por posición de la operación.
+     * @param errores Errores de las operaciones fallidas.
+     */
+    public ResultadoLote(int insertados, int coincidencias, int modificados, int eliminados,
+            Map<Integer, ObjectId> idsUpsert, List<ErrorEscritura> errores) {
+        this.insertados = insertados;
+        this.coincidencias = coincidencias;
+        this.modificados = modificados;
+        this.eliminados = eliminados;
+        this.idsUpsert = idsUpsert;
+        this.errores = errores;
+    }
+    /**
+     * Retorna la cantidad de documentos insertados.
+     * @return Cantidad de documentos insertados.
+     */
+    public int getInsertados() {return insertados;}
+    /**
+     * Retorna la cantidad de documentos que coincidieron con los filtros de actualización.
+     * @return Cantidad de coincidencias.
+     */
+    public int getCoincidencias() {return coincidencias;}
+    /**
+     * Retorna la cantidad de documentos modificados.
+     * @return Cantidad de documentos modificados.
+     */
+    public int getModificados() {return modificados;}
+    /**
+     * Retorna la cantidad de documentos eliminados.
+     * @return Cantidad de documentos eliminados.
+     */
+    public int getEliminados() {return eliminados;}
+    /**
+     * Retorna la cantidad de documentos insertados por upserts (sin documento previo que coincidiera).
+     * @return Cantidad de documentos insertados por upserts.
+     */
+    public int getInsertadosUpsert() {return idsUpsert.size();}
+    /**
+     * Retorna los IDs de los documentos insertados por upserts. Una operación de upsert cuya
+     * posición no aparece aquí, ni en los errores, encontró un documento y lo reemplazó o actualizó.
+     * @return IDs insertados, indexados por la posición de la operación en el lote.
+     */
+    public Map<Integer, ObjectId> getIdsUpsert() {return idsUpsert;}
+    /**
+     * Retorna los errores de las operaciones fallidas, indexados por su posición en el lote.
+     * @return Lista de errores.
+     */
+    public List<ErrorEscritura> getErrores() {return errores;}
+    /**
+     * Retorna una cadena con la información del resultado.
+     * @return cadena con la información del resultado.
+     */
+    @Override
+    public String toString() {
+        return "ResultadoLote{" + "insertados=" + insertados + ", coincidencias=" + coincidencias + ", modificados=" + modificados
+                + ", eliminados=" + eliminados + ", insertadosUpsert=" + idsUpsert.size() + ", errores=" + errores + '}';
+    }
+}
@@ -0,0 +1,17 @@
+package Persistencia;
+
+/**
+ * Interfaz para los objetos que reciben los cambios de la colección de restaurantes
+ * publicados por {@link EscuchaCambiosRestaurantes}.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+@FunctionalInterface
+public interface SuscriptorCambios {
+    /**
+     * Recibe un cambio. Se invoca desde el hilo de la escucha, por lo que debe terminar
+     * rápido; una excepción se registra en la bitácora y no afecta a los demás suscriptores.
+     * @param evento Cambio ocurrido en la colección.
+     */
+    public void alCambiar(EventoCambioRestaurante evento);
+}
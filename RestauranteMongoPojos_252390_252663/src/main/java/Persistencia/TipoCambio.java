@@ -0,0 +1,23 @@
+package Persistencia;
+
+/**
+ * Tipos de cambio publicados por la escucha de cambios de la colección de restaurantes.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public enum TipoCambio {
+    /** Se insertó un restaurante. */
+    INSERCION,
+    /** Se modificaron campos de un restaurante. */
+    ACTUALIZACION,
+    /** Se reemplazó el documento completo de un restaurante. */
+    REEMPLAZO,
+    /** Se eliminó un restaurante. */
+    ELIMINACION,
+    /**
+     * No es posible saber qué cambió: la colección fue eliminada o renombrada, o la escucha
+     * no pudo reanudarse desde su último token y se perdieron eventos. Los suscriptores
+     * deben descartar todo su estado derivado de la colección.
+     */
+    REINICIO
+}
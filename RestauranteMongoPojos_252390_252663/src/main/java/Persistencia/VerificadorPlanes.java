@@ -0,0 +1,181 @@
+package Persistencia;
+
+import com.mongodb.client.FindIterable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Clase que, en modo de prueba, ejecuta explain() sobre cada consulta antes de
+ * realizarla y la rechaza si el plan ganador recorre la colección completa: con una etapa
+ * COLLSCAN, o con un IXSCAN cuyo primer campo no tiene límites ({@code [MinKey, MaxKey]}, o todo el
+ * rango de cadenas, como el de una expresión regular sin ancla), que lee el índice completo.
+ * También rechaza las etapas SORT, que ordenan en memoria todos los resultados porque ningún
+ * índice entrega el orden, salvo las que ordenan por puntaje de texto, que no tiene índice.
+ * El modo se activa con la propiedad del sistema {@value #PROPIEDAD}. Cada plan rechazado se
+ * anota en {@link #planesRechazados()}, para distinguir estos rechazos de otros errores de la
+ * consulta, que la capa de negocio reporta con la misma excepción.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class VerificadorPlanes {
+    // Propiedad del sistema que activa la verificación de planes.
+    public static final String PROPIEDAD = "restaurantes.verificarPlanes";
+    // Etapa de ejecución que indica un recorrido completo de la colección.
+    private static final String COLLSCAN = "COLLSCAN";
+    // Etapa de recorrido de un índice.
+    private static final String IXSCAN = "IXSCAN";
+    // Etapa de ordenamiento en memoria.
+    private static final String SORT = "SORT";
+    // Intervalos de un índice que abarcan todos los valores o todas las cadenas.
+    private static final Set<String> INTERVALOS_SIN_LIMITES = Set.of("[MinKey, MaxKey]", "[\"\", {})");
+    // Planes rechazados desde la última limpieza.
+    private static final Queue<String> RECHAZOS = new ConcurrentLinkedQueue<>();
+    // Bitácora de la clase.
+    private static final Logger LOG = Logger.getLogger(VerificadorPlanes.class.getName());
+    /**
+     * Contructor por defecto.
+     */
+    private VerificadorPlanes(){}
+    /**
+     * Indica si la verificación de planes está activa.
+     * @return VERDADERO si la verificación está activa, FALSO en caso contrario.
+     */
+    public static boolean estaActivo() {return Boolean.getBoolean(PROPIEDAD);}
+    /**
+     * Verifica el plan de la consulta recibida si el modo de prueba está activo.
+     * Las consultas sin filtro se omiten, ya que leen la colección completa por diseño.
+     * @param consulta Consulta a verificar.
+     * @param filtro Filtro de la consulta.
+     * @throws PersistenciaException Si el plan ganador recorre la colección o un índice completos, u ordena en memoria.
+     */
+    public static void verificar(FindIterable<?> consulta, Bson filtro) throws PersistenciaException {
+        if (requiereVerificacion(filtro))
+            verificarExplicacion(consulta.explain(), filtro);
+    }
+    /**
+     * Indica si una consulta con el filtro recibido debe verificarse: el modo de prueba
+     * está activo y la consulta tiene filtro.
+     * @param filtro Filtro de la consulta.
+     * @return VERDADERO si debe verificarse, FALSO en caso contrario.
+     */
+    public static boolean requiereVerificacion(Bson filtro) {
+        return estaActivo() && !filtro.toBsonDocument().isEmpty();
+    }
+    /**
+     * Verifica el resultado de explain() de una consulta, obtenido con cualquiera de los drivers.
+     * @param explicacion Resultado de explain().
+     * @param filtro Filtro de la consulta.
+     * @throws PersistenciaException Si el plan ganador recorre la colección o un índice completos,
+     * u ordena en memoria.
+     */
+    public static void verificarExplicacion(Document explicacion, Bson filtro) throws PersistenciaException {
+        BsonDocument filtroBson = filtro.toBsonDocument();
+        // Obtiene el plan ganador de la consulta.
+        Document planificador = explicacion.get("queryPlanner", Document.class);
+        Object planGanador = planificador == null ? null : planificador.get("winningPlan");
+        // Rechaza la consulta si el plan recorre la colección o un índice completos.
+        String motivo = null;
+        if (contieneEtapa(planGanador, COLLSCAN))
+            motivo = "recorre la colección completa (COLLSCAN)";
+        else if (contieneIndiceSinLimites(planGanador))
+            motivo = "recorre un índice completo (IXSCAN sin límites)";
+        else if (contieneOrdenEnMemoria(planGanador))
+            motivo = "ordena los resultados en memoria (SORT)";
+        if (motivo != null) {
+            String mensaje = "La consulta con filtro " + filtroBson.toJson() + " " + motivo + ".";
+            LOG.warning(mensaje + " Plan: " + ((Document) planGanador).toJson());
+            RECHAZOS.add(mensaje);
+            throw new PersistenciaException(mensaje);
+        }
+    }
+    /**
+     * Retorna los planes rechazados desde la última limpieza.
+     * @return Mensajes de los planes rechazados, en orden.
+     */
+    public static List<String> planesRechazados() {return new ArrayList<>(RECHAZOS);}
+    /**
+     * Olvida los planes rechazados.
+     */
+    public static void limpiarPlanesRechazados() {RECHAZOS.clear();}
+    /**
+     * Busca recursivamente una etapa IXSCAN cuyo primer campo del índice no tiene límites.
+     * @param nodo Nodo del plan (documento, lista o valor).
+     * @return VERDADERO si el plan recorre un índice completo, FALSO en caso contrario.
+     */
+    private static boolean contieneIndiceSinLimites(Object nodo) {
+        if (nodo instanceof Document documento) {
+            if (IXSCAN.equals(documento.get("stage")) && documento.get("indexBounds") instanceof Document limites) {
+                // Solo el primer campo acota el recorrido; los siguientes se filtran dentro del índice.
+                for (Map.Entry<String, Object> campo : limites.entrySet()) {
+                    if (campo.getValue() instanceof List<?> intervalos)
+                        for (Object intervalo : intervalos)
+                            if (INTERVALOS_SIN_LIMITES.contains(intervalo))
+                                return true;
+                    break;
+                }
+            }
+            for (Object valor : documento.values()) {
+                if (contieneIndiceSinLimites(valor))
+                    return true;
+            }
+        } else if (nodo instanceof List<?> lista) {
+            for (Object elemento : lista) {
+                if (contieneIndiceSinLimites(elemento))
+                    return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Busca recursivamente una etapa SORT que no ordena por puntaje de texto ($meta).
+     * @param nodo Nodo del plan (documento, lista o valor).
+     * @return VERDADERO si el plan ordena en memoria, FALSO en caso contrario.
+     */
+    private static boolean contieneOrdenEnMemoria(Object nodo) {
+        if (nodo instanceof Document documento) {
+            if (SORT.equals(documento.get("stage")) && !(documento.get("sortPattern") instanceof Document patron
+                    && patron.toJson().contains("$meta")))
+                return true;
+            for (Object valor : documento.values()) {
+                if (contieneOrdenEnMemoria(valor))
+                    return true;
+            }
+        } else if (nodo instanceof List<?> lista) {
+            for (Object elemento : lista) {
+                if (contieneOrdenEnMemoria(elemento))
+                    return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Busca recursivamente una etapa dentro de un plan de ejecución.
+     * @param nodo Nodo del plan (documento, lista o valor).
+     * @param etapa Etapa a buscar.
+     * @return VERDADERO si el plan contiene la etapa, FALSO en caso contrario.
+     */
+    private static boolean contieneEtapa(Object nodo, String etapa) {
+        if (nodo instanceof Document documento) {
+            if (etapa.equals(documento.get("stage")))
+                return true;
+            for (Object valor : documento.values()) {
+                if (contieneEtapa(valor, etapa))
+                    return true;
+            }
+        } else if (nodo instanceof List<?> lista) {
+            for (Object elemento : lista) {
+                if (contieneEtapa(elemento, etapa))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package Presentacion;
+
+import Conexion.Conexion;
+import Negocio.NegocioException;
+import Negocio.RestauranteBO;
+import Negocio.RestauranteBOCache;
+import Persistencia.EscuchaCambiosRestaurantes;
+import Persistencia.PersistenciaException;
+import Persistencia.RestauranteDAO;
+import java.time.Duration;
+
+/**
+ * Demostración de la escucha de cambios: imprime los eventos de la colección de restaurantes
+ * y mantiene al día una caché mientras se actualiza un restaurante. Requiere un replica set,
+ * que puede ser de un solo nodo (ver {@link EscuchaCambiosRestaurantes}). Al ejecutarla en
+ * varias terminales, con nombres distintos, cada una recibe los cambios de las demás.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+public class DemostracionEscuchaCambios {
+    /**
+     * Código main para la ejecución de la demostración.
+     * @param args Argumentos: nombre de la escucha (opcional).
+     */
+    public static void main(String[] args) {
+        String nombre = args.length > 0 ? args[0] : "demostracion";
+        RestauranteBOCache negocio = new RestauranteBOCache(RestauranteBO.getInstance(), 1_000, Duration.ofMinutes(5));
+        EscuchaCambiosRestaurantes escucha = new RestauranteDAO().crearEscuchaCambios(nombre);
+        escucha.suscribir(evento -> System.out.println("Cambio recibido: " + evento));
+        escucha.suscribir(negocio);
+        try {
+            escucha.iniciar();
+            // Llena la caché y provoca un cambio que la escucha debe recibir.
+            System.out.println(negocio.top3RestaurantesPorCategoria("Mariscos"));
+            negocio.aumentarRatingPorNombreRestaurante("Mariscos El Berna", 0.1);
+            Thread.sleep(3_000);
+            System.out.println(negocio.top3RestaurantesPorCategoria("Mariscos"));
+            System.out.println(negocio.estadisticas());
+            escucha.detener();
+        } catch (PersistenciaException | NegocioException e) {
+            System.out.println(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Conexion.cerrarConexion();
+        }
+    }
+}
@@ -21,6 +21,8 @@ public class RestauranteMongoPojos {
     public static void main(String[] args) {
         try {
             RestauranteBO negocio = RestauranteBO.getInstance();
+            // 0. Normaliza las categorías de los restaurantes guardados antes de existir categoriasNorm.
+            negocio.migrarCategoriasNormalizadas(500);
             // 1. Prueba de método insertarRestaurantesPorDefecto.
             negocio.insertarRestaurantesPorDefecto();
             // Nuevo restaurante de ejemplo.
@@ -29,8 +31,9 @@ public class RestauranteMongoPojos {
             restauranteOne.setRating(4.5);
             restauranteOne.setFechaInauguracion(LocalDate.of(1997, 3, 25));
             restauranteOne.setCategorias(Arrays.asList("Mariscos", "Familiar", "Tropical"));
-            // 2. Prueba de método insertar.
-            negocio.insertar(restauranteOne);
+            // 2. Prueba de método insertar; se omite si el restaurante quedó de una ejecución anterior (su nombre es único).
+            if(negocio.consultarRestaurantePorNombreCompleto(restauranteOne.getNombre()) == null)
+                negocio.insertar(restauranteOne);
             
             // Cuatro nuevos restaurantes de ejemplo (2 sin fecha de inauguración).
             RestauranteDTO restauranteTwo = new RestauranteDTO();
@@ -53,8 +56,10 @@ public class RestauranteMongoPojos {
             restauranteFive.setNombre("Sushi Cuerdo");
             restauranteFive.setRating(3.2);
             restauranteFive.setCategorias(Arrays.asList("Sushi", "Original", "Cortes"));
-            // 3. Prueba de método insertarVarios.
-            negocio.insertarVarios(Arrays.asList(restauranteTwo, restauranteThree, restauranteFour, restauranteFive));
+            // 3. Prueba de método insertarVarios, con los restaurantes que no quedaron de una ejecución anterior.
+            List<RestauranteDTO> restaurantesNuevos = noExistentes(negocio, Arrays.asList(restauranteTwo, restauranteThree, restauranteFour, restauranteFive));
+            if(!restaurantesNuevos.isEmpty())
+                negocio.insertarVarios(restaurantesNuevos);
             // lista de restaurantes encontrados (utilizado para los métodos que devuelven una lista de restaurantes).
             List<RestauranteDTO> restaurantesEncontrados = new ArrayList<>();
             // 4. Prueba de método consultarTodos.
@@ -81,8 +86,8 @@ public class RestauranteMongoPojos {
                     "Lista de restaurantes con la categoria Mariscos: ", 
                     restaurantesEncontrados
             );
-            // 8. Prueba de método buscarPorNombreRegex.
-            restaurantesEncontrados = negocio.buscarPorNombreRegex(".*[oO].*");
+            // 8. Prueba de método buscarPorNombreRegex, con tiempo máximo en el servidor.
+            restaurantesEncontrados = negocio.buscarPorNombreRegex(".*[oO].*", RestauranteBO.TIEMPO_MAXIMO_REGEX_MS);
             imprimirConsulta(
                     "Lista de restaurantes cuyo nombre tiene la letra O (mayuscula o minuscula): ", 
                     restaurantesEncontrados
@@ -143,8 +148,8 @@ public class RestauranteMongoPojos {
                 System.out.println("\nNumero de restaurantes actualizados con nuevas categorias: " + registrosModificados);
             else
                 System.out.println("\nNo se encontraron restaurantes sin categorias.");
-            // 19. Prueba de método actualizarNombre.
-            if(negocio.actualizarNombre("Tortas SQL", "Tortas MongoDB"))
+            // 19. Prueba de método actualizarNombre; el nuevo nombre no debe existir, ya que es único.
+            if(negocio.consultarRestaurantePorNombreCompleto("Tortas MongoDB") == null && negocio.actualizarNombre("Tortas SQL", "Tortas MongoDB"))
                 System.out.println("\nNombre actualizado del restaurante Tortas SQL a Tortas MongoDB");
             else
                 System.out.println("\nNo se pudo actualizar el nombre del restaurante Tortas SQL.");
@@ -186,6 +191,21 @@ public class RestauranteMongoPojos {
             System.out.println(e.getMessage());
         }
     }
+    /**
+     * Filtra los restaurantes cuyo nombre aún no existe en la base de datos.
+     * @param negocio Objeto de negocio.
+     * @param restaurantes Restaurantes a revisar.
+     * @return Restaurantes que no existen.
+     * @throws NegocioException Excepción de negocio.
+     */
+    private static List<RestauranteDTO> noExistentes(RestauranteBO negocio, List<RestauranteDTO> restaurantes) throws NegocioException {
+        List<RestauranteDTO> nuevos = new ArrayList<>();
+        for(RestauranteDTO restaurante : restaurantes){
+            if(negocio.consultarRestaurantePorNombreCompleto(restaurante.getNombre()) == null)
+                nuevos.add(restaurante);
+        }
+        return nuevos;
+    }
     /**
      * Recorre la lista de restaurantes e imprime el
      * nombre de cada uno.
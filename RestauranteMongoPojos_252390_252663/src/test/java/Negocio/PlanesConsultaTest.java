@@ -0,0 +1,142 @@
+package Negocio;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import Conexion.Conexion;
+import Conexion.ConfiguracionConexion;
+import Persistencia.FabricaDAO;
+import Persistencia.VerificadorPlanes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Ejecuta cada consulta de RestauranteBO con la verificación de planes activa y falla si alguna
+ * recorre la colección o un índice completos, u ordena en memoria. Las consultas paginadas se
+ * verifican en su primera y su segunda página, que agrega el predicado del token. Cada consulta es
+ * una prueba propia, y un rechazo del plan se reporta distinto de cualquier otro error de la consulta.
+ * <p>
+ * Requiere un servidor de MongoDB con los índices de la aplicación; si no hay uno disponible, las
+ * pruebas se omiten. El backend en memoria no tiene planes, por lo que también se omiten con él.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+class PlanesConsultaTest {
+    // Tiempo máximo para encontrar el servidor, si no se configuró otro.
+    private static final String SELECCION_SERVIDOR_MS = "2000";
+    // Tamaño de página de las consultas paginadas; pequeño para que haya segunda página.
+    private static final int TAMANO_PAGINA = 2;
+    // Objeto de negocio verificado.
+    private static RestauranteBO negocio;
+    /**
+     * Consulta de negocio a verificar.
+     */
+    @FunctionalInterface
+    private interface Consulta {
+        /**
+         * Ejecuta la consulta.
+         * @throws NegocioException Excepción de negocio.
+         */
+        void ejecutar() throws NegocioException;
+    }
+    /**
+     * Consulta paginada de negocio a verificar.
+     */
+    @FunctionalInterface
+    private interface ConsultaPagina {
+        /**
+         * Obtiene una página de la consulta.
+         * @param token Token de la página, o null para la primera.
+         * @return Página obtenida.
+         * @throws NegocioException Excepción de negocio.
+         */
+        Pagina<RestauranteDTO> pagina(String token) throws NegocioException;
+    }
+    /**
+     * Activa la verificación de planes y revisa que haya un servidor disponible.
+     */
+    @BeforeAll
+    static void preparar() {
+        assumeFalse(FabricaDAO.MEMORIA.equals(FabricaDAO.backend()), "El backend en memoria no tiene planes de consulta.");
+        if (System.getProperty(ConfiguracionConexion.SERVER_SELECTION_TIMEOUT_MS) == null)
+            System.setProperty(ConfiguracionConexion.SERVER_SELECTION_TIMEOUT_MS, SELECCION_SERVIDOR_MS);
+        try {
+            Conexion.getDatabase().runCommand(new Document("ping", 1));
+        } catch (RuntimeException e) {
+            assumeTrue(false, "No hay un servidor de MongoDB disponible: " + e.getMessage());
+        }
+        System.setProperty(VerificadorPlanes.PROPIEDAD, "true");
+        negocio = RestauranteBO.getInstance();
+    }
+    /**
+     * Desactiva la verificación de planes.
+     */
+    @AfterAll
+    static void terminar() {
+        System.clearProperty(VerificadorPlanes.PROPIEDAD);
+    }
+    /**
+     * Crea una prueba por cada consulta de negocio.
+     * @return Pruebas de las consultas.
+     */
+    @TestFactory
+    Stream<DynamicTest> consultasUsanIndices() {
+        Map<String, Consulta> consultas = new LinkedHashMap<>();
+        consultas.put("consultarPorRatingMayorA", () -> negocio.consultarPorRatingMayorA(4.0));
+        consultas.put("consultarPorRangoRating", () -> negocio.consultarPorRangoRating(3.0, 5.0));
+        consultas.put("consultarPorCategoria", () -> negocio.consultarPorCategoria("Mariscos"));
+        consultas.put("buscarTexto", () -> negocio.buscarTexto("mariscos familiar", 10));
+        consultas.put("buscarNombreIniciaCon", () -> negocio.buscarNombreIniciaCon("T"));
+        consultas.put("autocompletarNombre", () -> negocio.autocompletarNombre("Ma", 10));
+        consultas.put("consultarPorFechaDesdeOrdenado", () -> negocio.consultarPorFechaDesdeOrdenado(2020, false));
+        consultas.put("top3RestaurantesPorCategoria", () -> negocio.top3RestaurantesPorCategoria("Familiar"));
+        consultas.put("sinCategorias", () -> negocio.sinCategorias());
+        consultas.put("consultarPorRatingMayorAResumen", () -> negocio.consultarPorRatingMayorAResumen(4.0));
+        consultas.put("consultarPorCategoriaResumen", () -> negocio.consultarPorCategoriaResumen("Mariscos"));
+        consultas.put("consultarRestaurantePorNombreCompleto", () -> negocio.consultarRestaurantePorNombreCompleto("Mariscos El Berna"));
+        consultas.put("consultarTodosPagina", dosPaginas(token -> negocio.consultarTodosPagina(TAMANO_PAGINA, token)));
+        consultas.put("consultarPorRatingMayorAPagina", dosPaginas(token -> negocio.consultarPorRatingMayorAPagina(3.0, TAMANO_PAGINA, token)));
+        consultas.put("consultarPorRangoRatingPagina", dosPaginas(token -> negocio.consultarPorRangoRatingPagina(3.0, 5.0, TAMANO_PAGINA, token)));
+        consultas.put("consultarPorCategoriaPagina", dosPaginas(token -> negocio.consultarPorCategoriaPagina("Mariscos", TAMANO_PAGINA, token)));
+        consultas.put("buscarPorNombreRegexPagina", dosPaginas(token -> negocio.buscarPorNombreRegexPagina("^M", TAMANO_PAGINA, token)));
+        consultas.put("buscarNombreIniciaConPagina", dosPaginas(token -> negocio.buscarNombreIniciaConPagina("M", TAMANO_PAGINA, token)));
+        consultas.put("consultarPorFechaDesdeOrdenadoPagina", dosPaginas(token -> negocio.consultarPorFechaDesdeOrdenadoPagina(2000, false, TAMANO_PAGINA, token)));
+        consultas.put("sinCategoriasPagina", dosPaginas(token -> negocio.sinCategoriasPagina(TAMANO_PAGINA, token)));
+        return consultas.entrySet().stream().map(consulta -> DynamicTest.dynamicTest(consulta.getKey(), () -> verificar(consulta.getValue())));
+    }
+    /**
+     * Crea una consulta que obtiene la primera página y, si existe, la segunda.
+     * @param consulta Consulta paginada.
+     * @return Consulta de las dos primeras páginas.
+     */
+    private static Consulta dosPaginas(ConsultaPagina consulta) {
+        return () -> {
+            Pagina<RestauranteDTO> primera = consulta.pagina(null);
+            if (primera.hayMas())
+                consulta.pagina(primera.getTokenSiguiente());
+        };
+    }
+    /**
+     * Ejecuta una consulta y falla si su plan fue rechazado o si falló por otro motivo.
+     * @param consulta Consulta a ejecutar.
+     */
+    private static void verificar(Consulta consulta) {
+        VerificadorPlanes.limpiarPlanesRechazados();
+        try {
+            consulta.ejecutar();
+        } catch (NegocioException e) {
+            List<String> rechazos = VerificadorPlanes.planesRechazados();
+            if (!rechazos.isEmpty())
+                fail("Plan rechazado: " + String.join(" ", rechazos));
+            fail("Error ajeno al plan de la consulta: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Persistencia;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.client.model.Filters;
+import java.util.List;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de las reglas de {@link VerificadorPlanes} sobre resultados de explain() escritos a
+ * mano, con la forma que regresa el servidor. No requieren MongoDB.
+ * @author Leonardo Flores Leyva (252390)
+ * @author Jesús Ernesto López Ibarra (252663)
+ */
+class VerificadorPlanesTest {
+    // Filtro de las consultas verificadas; solo aparece en los mensajes.
+    private static final Bson FILTRO = Filters.eq("nombre", "Tacos");
+    /**
+     * Olvida los planes rechazados por otras pruebas.
+     */
+    @BeforeEach
+    void limpiar() {
+        VerificadorPlanes.limpiarPlanesRechazados();
+    }
+    /**
+     * Un plan que recorre la colección se rechaza y se anota.
+     */
+    @Test
+    void rechazaCollscan() {
+        Document explicacion = explicacion(new Document("stage", "COLLSCAN"));
+        PersistenciaException e = assertThrows(PersistenciaException.class, () -> VerificadorPlanes.verificarExplicacion(explicacion, FILTRO));
+        assertTrue(e.getMessage().contains("COLLSCAN"));
+        assertEquals(1, VerificadorPlanes.planesRechazados().size());
+    }
+    /**
+     * Un IXSCAN con límites en el primer campo se acepta, aunque los siguientes campos no tengan límites.
+     */
+    @Test
+    void aceptaIndiceConLimites() {
+        Document ixscan = ixscan(new Document("categoriasNorm", List.of("[\"mariscos\", \"mariscos\"]"))
+                .append("rating", List.of("[MaxKey, MinKey]")));
+        Document explicacion = explicacion(new Document("stage", "FETCH").append("inputStage", ixscan));
+        assertDoesNotThrow(() -> VerificadorPlanes.verificarExplicacion(explicacion, FILTRO));
+        assertTrue(VerificadorPlanes.planesRechazados().isEmpty());
+    }
+    /**
+     * Un IXSCAN de [MinKey, MaxKey] en el primer campo lee el índice completo y se rechaza.
+     */
+    @Test
+    void rechazaIndiceSinLimites() {
+        Document ixscan = ixscan(new Document("nombre", List.of("[MinKey, MaxKey]")));
+        Document explicacion = explicacion(new Document("stage", "FETCH").append("inputStage", ixscan));
+        PersistenciaException e = assertThrows(PersistenciaException.class, () -> VerificadorPlanes.verificarExplicacion(explicacion, FILTRO));
+        assertTrue(e.getMessage().contains("IXSCAN"));
+        assertEquals(1, VerificadorPlanes.planesRechazados().size());
+    }
+    /**
+     * Una expresión regular sin ancla abarca todas las cadenas del índice y se rechaza.
+     */
+    @Test
+    void rechazaRegexSinAncla() {
+        Document ixscan = ixscan(new Document("nombre", List.of("[\"\", {})", "[/.*[oO].*/, /.*[oO].*/]")));
+        Document explicacion = explicacion(new Document("stage", "FETCH").append("inputStage", ixscan));
+        assertThrows(PersistenciaException.class, () -> VerificadorPlanes.verificarExplicacion(explicacion, FILTRO));
+    }
+    /**
+     * Una expresión regular anclada al inicio se convierte en un rango de cadenas y se acepta.
+     */
+    @Test
+    void aceptaRegexConPrefijo() {
+        Document ixscan = ixscan(new Document("nombre", List.of("[\"T\", \"U\")", "[/^T/, /^T/]")));
+        Document explicacion = explicacion(new Document("stage", "FETCH").append("inputStage", ixscan));
+        assertDoesNotThrow(() -> VerificadorPlanes.verificarExplicacion(explicacion, FILTRO));
+    }
+    /**
+     * Un SORT sobre un IXSCAN con límites ordena en memoria y se rechaza.
+     */
+    @Test
+    void rechazaOrdenEnMemoria() {
+        Document ixscan = ixscan(new Document("nombre", List.of("[\"T\", \"U\")")));
+        Document orden = new Document("stage", "SORT").append("sortPattern", new Document("nombre", 1).append("_id", 1))
+                .append("inputStage", new Document("stage", "FETCH").append("inputStage", ixscan));
+        PersistenciaException e = assertThrows(PersistenciaException.class, () -> VerificadorPlanes.verificarExplicacion(explicacion(orden), FILTRO));
+        assertTrue(e.getMessage().contains("SORT"));
+    }
+    /**
+     * Un SORT por puntaje de texto no tiene índice que lo evite y se acepta.
+     */
+    @Test
+    void aceptaOrdenPorPuntajeDeTexto() {
+        Document texto = new Document("stage", "TEXT_MATCH").append("inputStage", ixscan(new Document("_fts", List.of("[\"marisc\", \"marisc\"]"))));
+        Document orden = new Document("stage", "SORT").append("sortPattern", new Document("puntaje", new Document("$meta", "textScore")))
+                .append("inputStage", texto);
+        assertDoesNotThrow(() -> VerificadorPlanes.verificarExplicacion(explicacion(orden), FILTRO));
+    }
+    /**
+     * Crea un resultado de explain() con el plan ganador recibido.
+     * @param planGanador Plan ganador.
+     * @return Resultado de explain().
+     */
+    private static Document explicacion(Document planGanador) {
+        return new Document("queryPlanner", new Document("winningPlan", planGanador));
+    }
+    /**
+     * Crea una etapa IXSCAN con los límites recibidos.
+     * @param limites Intervalos de cada campo del índice, en orden.
+     * @return Etapa IXSCAN.
+     */
+    private static Document ixscan(Document limites) {
+        return new Document("stage", "IXSCAN").append("indexBounds", limites);
+    }
+}